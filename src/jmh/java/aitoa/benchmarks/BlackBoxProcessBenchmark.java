@@ -0,0 +1,260 @@
+package aitoa.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import aitoa.examples.bitstrings.BitStringObjectiveFunction;
+import aitoa.examples.bitstrings.Ising2DObjectiveFunction;
+import aitoa.examples.bitstrings.OneMaxObjectiveFunction;
+import aitoa.examples.jssp.JSSPInstance;
+import aitoa.examples.jssp.JSSPMakespanObjectiveFunction;
+import aitoa.examples.jssp.JSSPNullaryOperator;
+import aitoa.examples.jssp.JSSPRepresentationMapping;
+import aitoa.examples.jssp.JSSPSearchSpace;
+import aitoa.examples.jssp.JSSPSolutionSpace;
+import aitoa.searchSpaces.bitstrings.BitStringNullaryOperator;
+import aitoa.searchSpaces.bitstrings.BitStringSpace;
+import aitoa.structure.BlackBoxProcessBuilder;
+import aitoa.structure.IBlackBoxProcess;
+import aitoa.structure.INullarySearchOperator;
+import aitoa.structure.IRepresentationMapping;
+import aitoa.structure.ISpace;
+import aitoa.utils.IOUtils;
+
+/**
+ * A benchmark for the black-box evaluation hot path, i.e., the
+ * {@link IBlackBoxProcess#evaluate(Object)} method of all the
+ * black-box process variants. We measure the time per objective
+ * function evaluation (FE) for processes without logging, with
+ * logging of improvements, and with logging of every single FE,
+ * each with and without a representation mapping. If run with
+ * the {@code -prof gc} option, JMH will also report the
+ * allocation rate per FE.
+ * <p>
+ * The evaluated points are sampled once per trial and then
+ * visited in a round-robin fashion, so the cost of the search
+ * operators is not part of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1,
+    timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class BlackBoxProcessBenchmark {
+
+  /** the number of pre-sampled points, must be a power of 2 */
+  private static final int POINTS = 1024;
+
+  /**
+   * the problem: either a bit string problem name or a JSSP
+   * instance name
+   */
+  @Param({ "OneMax_256", "Ising2d_256", "abz7", "la24", "yn4" })
+  public String problem;
+
+  /**
+   * the log mode: {@code none}, {@code improvements}, or
+   * {@code all}
+   */
+  @Param({ "none", "improvements", "all" })
+  public String log;
+
+  /** should we use a representation mapping? */
+  @Param({ "false", "true" })
+  public boolean mapping;
+
+  /** the builder */
+  private BlackBoxProcessBuilder<Object, Object> mBuilder;
+  /** the pre-sampled points */
+  private Object[] mPoints;
+  /** the temporary directory for log files */
+  private Path mDir;
+  /** the log file of the current iteration */
+  private Path mLogFile;
+  /** the current process */
+  private IBlackBoxProcess<Object, Object> mProcess;
+  /** the index of the next point to evaluate */
+  private int mIndex;
+
+  /**
+   * Create the builder and sample the points to be evaluated
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Setup(Level.Trial)
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  public void setupTrial() throws IOException {
+    final BlackBoxProcessBuilder builder =
+        new BlackBoxProcessBuilder<>();
+    final ISpace space;
+    final INullarySearchOperator nullary;
+    // without mapping, the JSSP points are sampled in the search
+    // space and then mapped to Gantt charts once, in advance
+    IRepresentationMapping premap = null;
+    ISpace sampleSpace;
+
+    if (this.problem.startsWith(//
+        OneMaxObjectiveFunction.NAME_PREFIX)
+        || this.problem.startsWith(
+            Ising2DObjectiveFunction.NAME_PREFIX)) {
+      final BitStringObjectiveFunction f =
+          this.problem.startsWith(
+              OneMaxObjectiveFunction.NAME_PREFIX)
+                  ? new OneMaxObjectiveFunction(this.problem)
+                  : new Ising2DObjectiveFunction(this.problem);
+      final BitStringSpace bss = f.createSpace();
+      space = sampleSpace = bss;
+      nullary = new BitStringNullaryOperator();
+      builder.setSearchSpace(bss).setObjectiveFunction(f);
+      if (this.mapping) {
+        builder.setSolutionSpace(bss)
+            .setRepresentationMapping(
+                new BlackBoxProcessBenchmark.Identity());
+      }
+    } else {
+      final JSSPInstance inst = new JSSPInstance(this.problem);
+      final JSSPSolutionSpace ss = new JSSPSolutionSpace(inst);
+      builder.setSolutionSpace(ss).setObjectiveFunction(
+          new JSSPMakespanObjectiveFunction(inst));
+      nullary = new JSSPNullaryOperator(inst);
+      sampleSpace = new JSSPSearchSpace(inst);
+      if (this.mapping) {
+        space = sampleSpace;
+        builder.setSearchSpace(space).setRepresentationMapping(
+            new JSSPRepresentationMapping(inst));
+      } else {
+        space = ss;
+        builder.setSearchSpace(ss);
+        premap = new JSSPRepresentationMapping(inst);
+      }
+    }
+
+    final Random random = new Random(0x9e3779b97f4a7c15L);
+    this.mPoints = new Object[BlackBoxProcessBenchmark.POINTS];
+    for (int i = this.mPoints.length; (--i) >= 0;) {
+      final Object x = sampleSpace.create();
+      nullary.apply(x, random);
+      if (premap == null) {
+        this.mPoints[i] = x;
+      } else {
+        final Object y = space.create();
+        premap.map(random, x, y);
+        this.mPoints[i] = y;
+      }
+    }
+
+    builder.setMaxFEs(Long.MAX_VALUE).setMaxTime(Long.MAX_VALUE)
+        .setRandSeed(0L)
+        .setLogAll("all".equals(this.log)); //$NON-NLS-1$
+    this.mBuilder = builder;
+    if (!("none".equals(this.log))) { //$NON-NLS-1$
+      this.mDir = Files.createTempDirectory("jmh"); //$NON-NLS-1$
+    }
+  }
+
+  /**
+   * Create a new process for each iteration
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Setup(Level.Iteration)
+  public void setupIteration() throws IOException {
+    if (this.mDir != null) {
+      this.mLogFile =
+          Files.createTempFile(this.mDir, "log", //$NON-NLS-1$
+              ".txt"); //$NON-NLS-1$
+      this.mBuilder.setLogPath(this.mLogFile);
+    }
+    this.mProcess = this.mBuilder.get();
+    this.mIndex = 0;
+  }
+
+  /**
+   * Close the process after each iteration
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @TearDown(Level.Iteration)
+  public void tearDownIteration() throws IOException {
+    this.mProcess.close();
+    this.mProcess = null;
+    if (this.mLogFile != null) {
+      Files.delete(this.mLogFile);
+      this.mLogFile = null;
+    }
+  }
+
+  /**
+   * Delete the temporary directory
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @TearDown(Level.Trial)
+  public void tearDownTrial() throws IOException {
+    if (this.mDir != null) {
+      IOUtils.delete(this.mDir);
+      this.mDir = null;
+    }
+  }
+
+  /**
+   * Perform one objective function evaluation
+   *
+   * @return the objective value
+   */
+  @Benchmark
+  public double evaluate() {
+    return this.mProcess.evaluate(this.mPoints[(this.mIndex++)
+        & (BlackBoxProcessBenchmark.POINTS - 1)]);
+  }
+
+  /**
+   * An identity mapping for bit strings, which allows us to
+   * measure the overhead of the processes with representation
+   * mapping on the bit string problems.
+   */
+  private static final class Identity
+      implements IRepresentationMapping<boolean[], boolean[]> {
+
+    /** create */
+    Identity() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void map(final Random random, final boolean[] x,
+        final boolean[] y) {
+      System.arraycopy(x, 0, y, 0, x.length);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+      return "identity"; //$NON-NLS-1$
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package aitoa.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import aitoa.structure.LogFormat;
+import aitoa.structure.LogPointWriter;
+
+/**
+ * A benchmark for writing the log points of a log file. We
+ * compare the {@link LogPointWriter}, which formats the numbers
+ * into a reusable buffer, with the straightforward way of
+ * converting each number to a {@link String} first, which was
+ * used before. The time is given per log point. If run with the
+ * {@code -prof gc} option, JMH will also report the allocation
+ * rate per log point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1,
+    timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class LogPointWriterBenchmark {
+
+  /** the number of log points per invocation */
+  private static final int POINTS = 1024;
+
+  /**
+   * the kind of objective values: {@code integer} for problems
+   * like the JSSP or OneMax, {@code fractional} for problems with
+   * real-valued objectives
+   */
+  @Param({ "integer", "fractional" })
+  public String values;
+
+  /** the objective values */
+  private double[] mF;
+  /** the consumed FEs */
+  private long[] mFEs;
+  /** the consumed times */
+  private long[] mTimes;
+  /** the destination writer */
+  private CountingWriter mOut;
+
+  /** Create the log points */
+  @Setup(Level.Trial)
+  public void setup() {
+    final Random random = new Random(0x9e3779b97f4a7c15L);
+    final boolean integer = "integer".equals(this.values); //$NON-NLS-1$
+    this.mF = new double[LogPointWriterBenchmark.POINTS];
+    this.mFEs = new long[LogPointWriterBenchmark.POINTS];
+    this.mTimes = new long[LogPointWriterBenchmark.POINTS];
+
+    long fes = random.nextInt(1_000_000);
+    long time = random.nextInt(100_000);
+    double f = 1000d + random.nextInt(1000);
+    for (int i = 0; i < LogPointWriterBenchmark.POINTS; i++) {
+      f += integer ? (random.nextInt(11) - 5)
+          : (random.nextGaussian() * 10d);
+      fes += 1 + random.nextInt(100);
+      time += random.nextInt(3);
+      this.mF[i] = f;
+      this.mFEs[i] = fes;
+      this.mTimes[i] = time;
+    }
+    this.mOut = new CountingWriter();
+  }
+
+  /**
+   * Write the log points via {@link LogPointWriter}
+   *
+   * @return the number of written characters
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Benchmark
+  @OperationsPerInvocation(LogPointWriterBenchmark.POINTS)
+  public long logPointWriter() throws IOException {
+    final LogPointWriter points = new LogPointWriter(this.mOut);
+    for (int i = 0; i < LogPointWriterBenchmark.POINTS; i++) {
+      points.write(this.mF[i], this.mFEs[i], this.mTimes[i]);
+    }
+    points.flush();
+    return this.mOut.mCount;
+  }
+
+  /**
+   * Write the log points by converting the numbers to strings
+   *
+   * @return the number of written characters
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Benchmark
+  @OperationsPerInvocation(LogPointWriterBenchmark.POINTS)
+  public long toStringPath() throws IOException {
+    final Writer out = this.mOut;
+    for (int i = 0; i < LogPointWriterBenchmark.POINTS; i++) {
+      out.write(LogFormat.doubleToStringForLog(this.mF[i]));
+      out.write(LogFormat.CSV_SEPARATOR_CHAR);
+      out.write(Long.toString(this.mFEs[i]));
+      out.write(LogFormat.CSV_SEPARATOR_CHAR);
+      out.write(Long.toString(this.mTimes[i]));
+      out.write(System.lineSeparator());
+    }
+    return this.mOut.mCount;
+  }
+
+  /** A writer which only counts the written characters */
+  private static final class CountingWriter extends Writer {
+    /** the number of written characters */
+    long mCount;
+
+    /** create */
+    CountingWriter() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final int c) {
+      this.mCount++;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final char[] cbuf, final int off,
+        final int len) {
+      this.mCount += len;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final String str, final int off,
+        final int len) {
+      this.mCount += len;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() {
+      // nothing
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+      // nothing
+    }
+  }
+}
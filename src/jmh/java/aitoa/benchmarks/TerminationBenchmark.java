@@ -0,0 +1,136 @@
+package aitoa.benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import aitoa.examples.bitstrings.OneMaxObjectiveFunction;
+import aitoa.searchSpaces.bitstrings.BitStringSpace;
+import aitoa.structure.BlackBoxProcessBuilder;
+import aitoa.structure.IBlackBoxProcess;
+
+/**
+ * A benchmark for the registration of black-box processes with
+ * a runtime limit at the internal termination thread. While a
+ * given number of processes with different runtime limits are
+ * registered concurrently, we measure the time needed to create
+ * and close a process with a runtime limit, which includes
+ * enqueuing it at and dequeuing it from the termination thread.
+ * This is the situation when many short runs are executed in
+ * parallel. The benchmark is executed both with one and with
+ * several threads, to also measure the contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1,
+    timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class TerminationBenchmark {
+
+  /** the number of concurrently registered processes */
+  @Param({ "0", "1000", "10000" })
+  public int registered;
+
+  /** the builder */
+  private BlackBoxProcessBuilder<boolean[], boolean[]> mBuilder;
+  /** the registered processes */
+  private IBlackBoxProcess<?, ?>[] mRegistered;
+
+  /**
+   * Create the builder and register the background processes.
+   * The background processes have runtime limits between one and
+   * two hours, so they will not terminate during the benchmark.
+   */
+  @Setup(Level.Trial)
+  public void setupTrial() {
+    final OneMaxObjectiveFunction f =
+        new OneMaxObjectiveFunction(16);
+    final BitStringSpace space = f.createSpace();
+    this.mBuilder = new BlackBoxProcessBuilder<>();
+    this.mBuilder.setSearchSpace(space).setObjectiveFunction(f)
+        .setMaxFEs(Long.MAX_VALUE).setRandSeed(0L);
+
+    final Random random = new Random(0x9e3779b97f4a7c15L);
+    final long hour = TimeUnit.HOURS.toMillis(1L);
+    this.mRegistered =
+        new IBlackBoxProcess<?, ?>[this.registered];
+    for (int i = this.registered; (--i) >= 0;) {
+      this.mBuilder.setMaxTime(hour
+          + ((long) (random.nextDouble() * hour)));
+      this.mRegistered[i] = this.mBuilder.get();
+    }
+    this.mBuilder.setMaxTime(hour + (hour / 2L));
+  }
+
+  /**
+   * Close the background processes
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @TearDown(Level.Trial)
+  public void tearDownTrial() throws IOException {
+    for (final IBlackBoxProcess<?, ?> p : this.mRegistered) {
+      p.close();
+    }
+    this.mRegistered = null;
+  }
+
+  /**
+   * Create, enqueue, dequeue, and close one process
+   *
+   * @return the process
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Benchmark
+  @Threads(1)
+  public Object enqueueDequeue() throws IOException {
+    return this.cycle();
+  }
+
+  /**
+   * Create, enqueue, dequeue, and close one process, with four
+   * threads doing this concurrently
+   *
+   * @return the process
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Benchmark
+  @Threads(4)
+  public Object enqueueDequeueContended() throws IOException {
+    return this.cycle();
+  }
+
+  /**
+   * Create, enqueue, dequeue, and close one process
+   *
+   * @return the process
+   * @throws IOException
+   *           if i/o fails
+   */
+  private Object cycle() throws IOException {
+    final IBlackBoxProcess<boolean[], boolean[]> p =
+        this.mBuilder.get();
+    p.close();
+    return p;
+  }
+}
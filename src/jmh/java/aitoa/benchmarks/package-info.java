@@ -0,0 +1,6 @@
+/**
+ * Micro-benchmarks for the performance-critical parts of the
+ * code base, implemented with JMH. They are only compiled if the
+ * {@code jmh} Maven profile is active.
+ */
+package aitoa.benchmarks;
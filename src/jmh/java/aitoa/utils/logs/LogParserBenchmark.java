@@ -0,0 +1,230 @@
+package aitoa.utils.logs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import aitoa.structure.LogFormat;
+import aitoa.structure.LogPointWriter;
+import aitoa.utils.RandomUtils;
+import aitoa.utils.TempDir;
+
+/**
+ * A benchmark for parsing log files. We compare
+ * {@link LogParser#parseLogFileRaw(Path,
+ * aitoa.utils.logs.ILogLineConsumer, java.util.function.Consumer)},
+ * which works directly on the bytes of the file, with
+ * {@link LogParser#parseLogFileByLines(Path,
+ * java.util.function.Consumer, java.util.function.Consumer)},
+ * which reads the file line by line and converts each number to
+ * a {@link String} first, as done before. Both apply the same
+ * checks. The time is given for parsing all log files, whose
+ * total size is set via the {@code megabytes} parameter. Use
+ * {@code -p megabytes=1024} to parse one gigabyte of logs.
+ * <p>
+ * Since the line-based parser is not part of the public API,
+ * this benchmark resides in the package of the log parser.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1,
+    timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class LogParserBenchmark {
+
+  /** the size of a single log file */
+  private static final long FILE_SIZE = 16L << 20L;
+
+  /** the total size of the log files in megabytes */
+  @Param({ "64" })
+  public int megabytes;
+
+  /**
+   * the kind of objective values: {@code integer} for problems
+   * like the JSSP or OneMax, {@code fractional} for problems with
+   * real-valued objectives
+   */
+  @Param({ "integer", "fractional" })
+  public String values;
+
+  /** the temporary directory */
+  private TempDir mDir;
+  /** the log files */
+  private Path[] mFiles;
+  /** the sum of the consumed FEs, to prevent dead code */
+  private long mSum;
+
+  /**
+   * Create the log files
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    final Random random = new Random(0x9e3779b97f4a7c15L);
+    final boolean integer = "integer".equals(this.values); //$NON-NLS-1$
+    this.mDir = new TempDir();
+    final long total = ((long) this.megabytes) << 20L;
+    this.mFiles = new Path[(int) Math.max(1L,
+        (total + LogParserBenchmark.FILE_SIZE - 1L)
+            / LogParserBenchmark.FILE_SIZE)];
+
+    for (int i = 0; i < this.mFiles.length; i++) {
+      final Path file = this.mDir.getPath()
+          .resolve("log_" + i + LogFormat.FILE_SUFFIX); //$NON-NLS-1$
+      this.mFiles[i] = file;
+      LogParserBenchmark.writeLog(file, random, integer,
+          Math.min(LogParserBenchmark.FILE_SIZE,
+              total - (i * LogParserBenchmark.FILE_SIZE)));
+    }
+  }
+
+  /**
+   * Write a synthetic log file of roughly the given size.
+   *
+   * @param file
+   *          the file
+   * @param random
+   *          the random number generator
+   * @param integer
+   *          should the objective values be integers?
+   * @param size
+   *          the approximate size of the log section in bytes
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void writeLog(final Path file,
+      final Random random, final boolean integer,
+      final long size) throws IOException {
+    double f = integer ? 1_000_000_000d : 1e9d;
+    long fes = 0L;
+    long time = 0L;
+    long lastImprovementFE = 0L;
+    long lastImprovementTime = 0L;
+    long written = 0L;
+
+    try (final BufferedWriter out = Files.newBufferedWriter(file)) {
+      out.write(LogFormat.asComment(LogFormat.BEGIN_LOG));
+      out.newLine();
+      final LogPointWriter points = new LogPointWriter(out);
+      while (written < size) {
+        fes += 1 + random.nextInt(100);
+        time += random.nextInt(3);
+        f -= integer ? (1 + random.nextInt(5))
+            : (random.nextDouble() * 10d);
+        points.write(f, fes, time);
+        lastImprovementFE = fes;
+        lastImprovementTime = time;
+        written += 2L
+            + LogFormat.doubleToStringForLog(f).length()
+            + Long.toString(fes).length()
+            + Long.toString(time).length()
+            + System.lineSeparator().length();
+      }
+      points.flush();
+      out.write(LogFormat.asComment(LogFormat.END_OF_LOG));
+      out.newLine();
+
+      out.write(LogFormat.asComment(LogFormat.BEGIN_SETUP));
+      out.newLine();
+      out.write(LogFormat.mapEntry(LogFormat.MAX_FES, fes));
+      out.newLine();
+      out.write(LogFormat.mapEntry(LogFormat.MAX_TIME,
+          Long.MAX_VALUE));
+      out.newLine();
+      out.write(LogFormat.mapEntry(LogFormat.GOAL_F,
+          LogFormat.doubleToStringForLog(Double.NEGATIVE_INFINITY)));
+      out.newLine();
+      out.write(LogFormat.mapEntry(LogFormat.RANDOM_SEED,
+          RandomUtils.randSeedToString(random.nextLong())));
+      out.newLine();
+      out.write(LogFormat.asComment(LogFormat.END_SETUP));
+      out.newLine();
+
+      out.write(LogFormat.asComment(LogFormat.BEGIN_STATE));
+      out.newLine();
+      out.write(LogFormat.mapEntry(LogFormat.CONSUMED_FES, fes));
+      out.newLine();
+      out.write(LogFormat.mapEntry(LogFormat.LAST_IMPROVEMENT_FE,
+          lastImprovementFE));
+      out.newLine();
+      out.write(
+          LogFormat.mapEntry(LogFormat.CONSUMED_TIME, time));
+      out.newLine();
+      out.write(LogFormat.mapEntry(
+          LogFormat.LAST_IMPROVEMENT_TIME, lastImprovementTime));
+      out.newLine();
+      out.write(LogFormat.mapEntry(LogFormat.BEST_F,
+          LogFormat.doubleToStringForLog(f)));
+      out.newLine();
+      out.write(LogFormat.asComment(LogFormat.END_STATE));
+      out.newLine();
+    }
+  }
+
+  /**
+   * Delete the log files
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    this.mDir.close();
+    this.mDir = null;
+    this.mFiles = null;
+  }
+
+  /**
+   * Parse all log files on the byte level
+   *
+   * @return the sum of the consumed FEs
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Benchmark
+  public long bytes() throws IOException {
+    for (final Path file : this.mFiles) {
+      LogParser.parseLogFileRaw(file, (feLastImprovement, feMax,
+          timeLastImprovement, timeMax, improvements, fMin,
+          isImprovement) -> this.mSum += feMax, null);
+    }
+    return this.mSum;
+  }
+
+  /**
+   * Parse all log files line by line
+   *
+   * @return the sum of the consumed FEs
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Benchmark
+  public long lines() throws IOException {
+    for (final Path file : this.mFiles) {
+      LogParser.parseLogFileByLines(file,
+          line -> this.mSum += line.feMax, null);
+    }
+    return this.mSum;
+  }
+}
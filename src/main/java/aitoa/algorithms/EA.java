@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import aitoa.structure.IBinarySearchOperator;
 import aitoa.structure.IBlackBoxProcess;
@@ -57,6 +58,11 @@ public final class EA<X, Y> extends Metaheuristic2<X, Y> {
   public final int mu;
   /** the number of offsprings per generation */
   public final int lambda;
+  /**
+   * the number of threads to use for creating and evaluating
+   * the offsprings: {@code 1} for the normal, sequential mode
+   */
+  public final int threads;
 
   /**
    * Create a new instance of the evolutionary algorithm
@@ -78,6 +84,41 @@ public final class EA<X, Y> extends Metaheuristic2<X, Y> {
       final IUnarySearchOperator<X> pUnary,
       final IBinarySearchOperator<X> pBinary, final double pCr,
       final int pMu, final int pLambda) {
+    this(pNullary, pUnary, pBinary, pCr, pMu, pLambda, 1);
+  }
+
+  /**
+   * Create a new instance of the evolutionary algorithm. If
+   * {@code pThreads > 1}, the algorithm runs in parallel mode:
+   * The offsprings of a generation are created and evaluated in
+   * parallel on a {@link ForkJoinPool} with {@code pThreads}
+   * threads. The search operators and the representation
+   * mapping are {@linkplain IUnarySearchOperator#copyForThread()
+   * copied for each worker} and each worker uses a random number
+   * generator seeded from the random number generator of the
+   * process. The results of a run therefore only depend on the
+   * random seed and not on the number of threads, but they are
+   * different from the results of the sequential mode.
+   *
+   * @param pNullary
+   *          the nullary search operator.
+   * @param pUnary
+   *          the unary search operator
+   * @param pBinary
+   *          the binary search operator
+   * @param pCr
+   *          the crossover rate
+   * @param pMu
+   *          the number of parents to be selected
+   * @param pLambda
+   *          the number of offspring to be created
+   * @param pThreads
+   *          the number of threads to use
+   */
+  public EA(final INullarySearchOperator<X> pNullary,
+      final IUnarySearchOperator<X> pUnary,
+      final IBinarySearchOperator<X> pBinary, final double pCr,
+      final int pMu, final int pLambda, final int pThreads) {
     super(pNullary, pUnary, pBinary);
     if ((pCr < 0d) || (pCr > 1d) || (!(Double.isFinite(pCr)))) {
       throw new IllegalArgumentException(
@@ -98,6 +139,11 @@ public final class EA<X, Y> extends Metaheuristic2<X, Y> {
           "Invalid lambda: " + pLambda); //$NON-NLS-1$
     }
     this.lambda = pLambda;
+    if ((pThreads < 1) || (pThreads > 32767)) {
+      throw new IllegalArgumentException(
+          "Invalid number of threads: " + pThreads); //$NON-NLS-1$
+    }
+    this.threads = pThreads;
   }
 
   /** {@inheritDoc} */
@@ -120,18 +166,23 @@ public final class EA<X, Y> extends Metaheuristic2<X, Y> {
     int p2; // to hold index of second selected record
 
     final Record<X>[] P = new Record[this.mu + this.lambda];
+    if (this.threads > 1) {
+      this.solveParallel(process, P, this.threads);
+      return;
+    }
 // start relevant
 // first generation: fill population with random solutions
     for (int i = P.length; (--i) >= 0;) {
       final X x = searchSpace.create(); // allocate point
       this.nullary.apply(x, random); // fill with random data
-      P[i] = new Record<>(x, process.evaluate(x)); // evaluate
+      P[i] = new Record<>(x, Double.POSITIVE_INFINITY);
+    }
+    process.evaluateBatchDescending(P, 0, P.length); // evaluate
 // end relevant
-      if (process.shouldTerminate()) { // we return
-        return; // best solution is stored in process
-      }
-// start relevant
+    if (process.shouldTerminate()) { // we return
+      return; // best solution is stored in process
     }
+// start relevant
 
     for (;;) { // main loop: one iteration = one generation
 // sort the population: mu best records at front are selected
@@ -142,10 +193,6 @@ public final class EA<X, Y> extends Metaheuristic2<X, Y> {
 
 // overwrite the worse lambda solutions with new offsprings
       for (int index = P.length; (--index) >= this.mu;) {
-        if (process.shouldTerminate()) { // we return
-          return; // best solution is stored in process
-        }
-
         final Record<X> dest = P[index];
         p1 = (p1 + 1) % this.mu; // step the parent 1 index
         final Record<X> sel = P[p1];
@@ -167,13 +214,58 @@ public final class EA<X, Y> extends Metaheuristic2<X, Y> {
         }
 // end withcrossover
 // start relevant
-// map to solution/schedule and evaluate quality
-        dest.quality = process.evaluate(dest.x);
       } // the end of the offspring generation
+// map to solution/schedule and evaluate quality of offsprings
+      process.evaluateBatchDescending(P, this.mu, P.length);
+      if (process.shouldTerminate()) { // we return
+        return; // best solution is stored in process
+      }
     } // the end of the main loop
   }
 // end relevant
 
+  /**
+   * The parallel version of {@link #solve(IBlackBoxProcess)}:
+   * The lambda offsprings of a generation are created and
+   * evaluated in parallel.
+   *
+   * @param process
+   *          the black-box process
+   * @param P
+   *          the population array of length {@code mu+lambda}
+   * @param poolSize
+   *          the number of threads of the pool, which has no
+   *          influence on the results
+   */
+  void solveParallel(final IBlackBoxProcess<X, Y> process,
+      final Record<X>[] P, final int poolSize) {
+    final Random random = process.getRandom();
+    final ISpace<X> searchSpace = process.getSearchSpace();
+    final ParallelReproduction<X> reproduction =
+        new ParallelReproduction<>(this.unary, this.binary,
+            this.cr);
+    final ForkJoinPool pool = new ForkJoinPool(poolSize);
+
+    try {
+      for (int i = 0; i < P.length; i++) {
+        final X x = searchSpace.create();
+        this.nullary.apply(x, random);
+        P[i] = new Record<>(x, Double.POSITIVE_INFINITY);
+      }
+      process.evaluateBatch(P, 0, P.length, pool);
+
+      while (!process.shouldTerminate()) { // main loop
+        Arrays.sort(P, Record.BY_QUALITY);
+        RandomUtils.shuffle(random, P, 0, this.mu);
+        reproduction.reproduce(P, this.mu, this.mu, P.length,
+            random, pool);
+        process.evaluateBatch(P, this.mu, P.length, pool);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
@@ -192,13 +284,20 @@ public final class EA<X, Y> extends Metaheuristic2<X, Y> {
     output.write(System.lineSeparator());
     output.write(LogFormat.mapEntry("restarts", false)); //$NON-NLS-1$
     output.write(System.lineSeparator());
+// only the parallel mode is marked, so that the setup of the
+// sequential mode remains the same
+    if (this.threads > 1) {
+      output.write(LogFormat.mapEntry("threads", this.threads)); //$NON-NLS-1$
+      output.write(System.lineSeparator());
+    }
   }
 
   /** {@inheritDoc} */
   @Override
   public String toString() {
     return Experiment.nameFromObjectsMerge(((((("ea_" + //$NON-NLS-1$
-        this.mu) + '+') + this.lambda) + '@') + this.cr), //
+        this.mu) + '+') + this.lambda) + '@') + this.cr),
+        (this.threads > 1) ? "par" : null, //$NON-NLS-1$
         this.unary, this.binary);
   }
 // start relevant
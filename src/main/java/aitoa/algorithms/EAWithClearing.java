@@ -3,6 +3,7 @@ package aitoa.algorithms;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import aitoa.structure.IBinarySearchOperator;
 import aitoa.structure.IBlackBoxProcess;
@@ -50,6 +51,11 @@ public final class EAWithClearing<X, Y>
   public final int mu;
   /** the number of offsprings per generation */
   public final int lambda;
+  /**
+   * the number of threads to use for creating and evaluating
+   * the offsprings: {@code 1} for the normal, sequential mode
+   */
+  public final int threads;
 
   /**
    * Create a new instance of the evolutionary algorithm with
@@ -72,6 +78,42 @@ public final class EAWithClearing<X, Y>
       final IUnarySearchOperator<X> pUnary,
       final IBinarySearchOperator<X> pBinary, final double pCr,
       final int pMu, final int pLambda) {
+    this(pNullary, pUnary, pBinary, pCr, pMu, pLambda, 1);
+  }
+
+  /**
+   * Create a new instance of the evolutionary algorithm with
+   * clearing. If {@code pThreads > 1}, the algorithm runs in
+   * parallel mode: The offsprings of a generation are created
+   * and evaluated in parallel on a {@link ForkJoinPool} with
+   * {@code pThreads} threads. The search operators and the
+   * representation mapping are
+   * {@linkplain IUnarySearchOperator#copyForThread() copied for
+   * each worker} and each worker uses a random number generator
+   * seeded from the random number generator of the process. The
+   * results of a run therefore only depend on the random seed
+   * and not on the number of threads, but they are different
+   * from the results of the sequential mode.
+   *
+   * @param pNullary
+   *          the nullary search operator.
+   * @param pUnary
+   *          the unary search operator
+   * @param pBinary
+   *          the binary search operator
+   * @param pCr
+   *          the crossover rate
+   * @param pMu
+   *          the number of parents to be selected
+   * @param pLambda
+   *          the number of offspring to be created
+   * @param pThreads
+   *          the number of threads to use
+   */
+  public EAWithClearing(final INullarySearchOperator<X> pNullary,
+      final IUnarySearchOperator<X> pUnary,
+      final IBinarySearchOperator<X> pBinary, final double pCr,
+      final int pMu, final int pLambda, final int pThreads) {
     super(pNullary, pUnary, pBinary);
     if ((pCr < 0d) || (pCr > 1d) || (!(Double.isFinite(pCr)))) {
       throw new IllegalArgumentException(
@@ -92,6 +134,11 @@ public final class EAWithClearing<X, Y>
           "Invalid lambda: " + pLambda); //$NON-NLS-1$
     }
     this.lambda = pLambda;
+    if ((pThreads < 1) || (pThreads > 32767)) {
+      throw new IllegalArgumentException(
+          "Invalid number of threads: " + pThreads); //$NON-NLS-1$
+    }
+    this.threads = pThreads;
   }
 
   /** {@inheritDoc} */
@@ -109,6 +156,10 @@ public final class EAWithClearing<X, Y>
     int p2;
 
     final Record<X>[] P = new Record[this.mu + this.lambda];
+    if (this.threads > 1) {
+      this.solveParallel(process, P);
+      return;
+    }
 
 // first generation: fill population with random solutions
 // start relevant
@@ -152,6 +203,45 @@ public final class EAWithClearing<X, Y>
   }
 // end relevant
 
+  /**
+   * The parallel version of {@link #solve(IBlackBoxProcess)}:
+   * The offsprings of a generation are created and evaluated in
+   * parallel.
+   *
+   * @param process
+   *          the black-box process
+   * @param P
+   *          the population array of length {@code mu+lambda}
+   */
+  private void solveParallel(
+      final IBlackBoxProcess<X, Y> process, final Record<X>[] P) {
+    final Random random = process.getRandom();
+    final ISpace<X> searchSpace = process.getSearchSpace();
+    final ParallelReproduction<X> reproduction =
+        new ParallelReproduction<>(this.unary, this.binary,
+            this.cr);
+    final ForkJoinPool pool = new ForkJoinPool(this.threads);
+
+    try {
+      for (int i = 0; i < P.length; i++) {
+        final X x = searchSpace.create();
+        this.nullary.apply(x, random);
+        P[i] = new Record<>(x, Double.POSITIVE_INFINITY);
+      }
+      process.evaluateBatch(P, 0, P.length, pool);
+
+      while (!process.shouldTerminate()) { // main loop
+        RandomUtils.shuffle(random, P, 0, P.length); // make fair
+        final int u = Utils.qualityBasedClearing(P, this.mu);
+        RandomUtils.shuffle(random, P, 0, u); // for fairness
+        reproduction.reproduce(P, u, u, P.length, random, pool);
+        process.evaluateBatch(P, u, P.length, pool);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
@@ -170,6 +260,12 @@ public final class EAWithClearing<X, Y>
     output.write(System.lineSeparator());
     output.write(LogFormat.mapEntry("restarts", false)); //$NON-NLS-1$
     output.write(System.lineSeparator());
+// only the parallel mode is marked, so that the setup of the
+// sequential mode remains the same
+    if (this.threads > 1) {
+      output.write(LogFormat.mapEntry("threads", this.threads)); //$NON-NLS-1$
+      output.write(System.lineSeparator());
+    }
   }
 
   /** {@inheritDoc} */
@@ -177,6 +273,7 @@ public final class EAWithClearing<X, Y>
   public String toString() {
     return Experiment.nameFromObjectsMerge(((((("eac_" + //$NON-NLS-1$
         this.mu) + '+') + this.lambda) + '@') + this.cr),
+        (this.threads > 1) ? "par" : null, //$NON-NLS-1$
         this.unary, this.binary);
   }
 // start relevant
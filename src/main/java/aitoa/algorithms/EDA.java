@@ -9,6 +9,7 @@ import java.util.Random;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IModel;
 import aitoa.structure.INullarySearchOperator;
+import aitoa.structure.IResettable;
 import aitoa.structure.ISpace;
 import aitoa.structure.LogFormat;
 import aitoa.structure.Metaheuristic0;
@@ -36,8 +37,9 @@ import aitoa.utils.Experiment;
  *          the solution space
  */
 // start relevant
-public final class EDA<X, Y> extends Metaheuristic0<X, Y> {
+public final class EDA<X, Y> extends Metaheuristic0<X, Y>
 // end relevant
+    implements IResettable {
 
   /** the number of solution to be selected */
   public final int mu;
@@ -97,13 +99,14 @@ public final class EDA<X, Y> extends Metaheuristic0<X, Y> {
       for (int i = P.length; (--i) >= 0;) {
         final X x = searchSpace.create();
         this.nullary.apply(x, random);
-        P[i] = new Record<>(x, process.evaluate(x));
+        P[i] = new Record<>(x, Double.POSITIVE_INFINITY);
+      }
+      process.evaluateBatchDescending(P, 0, P.length);
 // end relevant
-        if (process.shouldTerminate()) { // we return
-          return; // best solution is stored in process
-        }
-// start relevant
+      if (process.shouldTerminate()) { // we return
+        return; // best solution is stored in process
       }
+// start relevant
 
       for (;;) { // each iteration: update model, sample model
 // end relevant
@@ -118,11 +121,12 @@ public final class EDA<X, Y> extends Metaheuristic0<X, Y> {
 // sample new population
         for (final Record<X> dest : P) {
           M.apply(dest.x, random); // create new solution
-          dest.quality = process.evaluate(dest.x);
-          if (process.shouldTerminate()) { // we return
-            return; // best solution is stored in process
-          }
         } // the end of the solution generation
+// evaluate the new solutions in the order of their creation
+        process.evaluateBatch(P, 0, P.length);
+        if (process.shouldTerminate()) { // we return
+          return; // best solution is stored in process
+        }
       } // the end of the main loop
 // end relevant
     }
@@ -130,6 +134,13 @@ public final class EDA<X, Y> extends Metaheuristic0<X, Y> {
   }
 // end relevant
 
+  /** {@inheritDoc} */
+  @Override
+  public void reset() {
+    this.resetOperators();
+    this.model.reset();
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
@@ -8,6 +8,7 @@ import java.util.Random;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IModel;
 import aitoa.structure.INullarySearchOperator;
+import aitoa.structure.IResettable;
 import aitoa.structure.ISpace;
 import aitoa.structure.LogFormat;
 import aitoa.structure.Metaheuristic0;
@@ -36,8 +37,9 @@ import aitoa.utils.Experiment;
  */
 // start relevant
 public final class EDAWithClearing<X, Y>
-    extends Metaheuristic0<X, Y> {
+    extends Metaheuristic0<X, Y>
 // end relevant
+    implements IResettable {
 
   /** the number of solution to be selected */
   public final int mu;
@@ -128,6 +130,13 @@ public final class EDAWithClearing<X, Y>
   }
 // end relevant
 
+  /** {@inheritDoc} */
+  @Override
+  public void reset() {
+    this.resetOperators();
+    this.model.reset();
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
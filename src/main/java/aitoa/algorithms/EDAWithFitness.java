@@ -9,6 +9,7 @@ import java.util.Random;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IModel;
 import aitoa.structure.INullarySearchOperator;
+import aitoa.structure.IResettable;
 import aitoa.structure.ISpace;
 import aitoa.structure.LogFormat;
 import aitoa.structure.Metaheuristic0;
@@ -24,7 +25,7 @@ import aitoa.utils.Experiment;
  *          the solution space
  */
 public final class EDAWithFitness<X, Y>
-    extends Metaheuristic0<X, Y> {
+    extends Metaheuristic0<X, Y> implements IResettable {
 
   /** the number of solution to be selected */
   public final int mu;
@@ -70,6 +71,14 @@ public final class EDAWithFitness<X, Y>
     this.fitness = Objects.requireNonNull(pFitness);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void reset() {
+    this.resetOperators();
+    this.model.reset();
+    this.fitness.reset();
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
@@ -1,5 +1,6 @@
 package aitoa.algorithms;
 
+import aitoa.structure.IResettable;
 import aitoa.structure.ISetupPrintable;
 
 /**
@@ -9,7 +10,7 @@ import aitoa.structure.ISetupPrintable;
  *          the search space
  */
 public abstract class FitnessAssignmentProcess<X>
-    implements ISetupPrintable {
+    implements ISetupPrintable, IResettable {
 
   /**
    * Assign the fitness a set of solution records. This process
@@ -27,4 +28,15 @@ public abstract class FitnessAssignmentProcess<X>
   public void initialize() {
     // do nothing
   }
+
+  /**
+   * Reset the fitness assignment process to its pristine state.
+   * Since it is {@linkplain #initialize() initialized} at the
+   * beginning of each run, the default implementation just does
+   * that.
+   */
+  @Override
+  public void reset() {
+    this.initialize();
+  }
 }
@@ -9,6 +9,7 @@ import java.util.Random;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IModel;
 import aitoa.structure.INullarySearchOperator;
+import aitoa.structure.IResettable;
 import aitoa.structure.ISpace;
 import aitoa.structure.IUnarySearchOperator;
 import aitoa.structure.LogFormat;
@@ -28,7 +29,8 @@ import aitoa.utils.Experiment;
  * @param <Y>
  *          the solution space
  */
-public final class HybridEDA<X, Y> extends Metaheuristic1<X, Y> {
+public final class HybridEDA<X, Y>
+    extends Metaheuristic1<X, Y> implements IResettable {
 
   /** the number of solution to be selected */
   public final int mu;
@@ -107,10 +109,11 @@ public final class HybridEDA<X, Y> extends Metaheuristic1<X, Y> {
       for (int i = P.length; (--i) >= 0;) {
         final X x = searchSpace.create();
         this.nullary.apply(x, random);
-        P[i] = new Record<>(x, process.evaluate(x));
-        if (process.shouldTerminate()) { // we return
-          return; // best solution is stored in process
-        }
+        P[i] = new Record<>(x, Double.POSITIVE_INFINITY);
+      }
+      process.evaluateBatchDescending(P, 0, P.length);
+      if (process.shouldTerminate()) { // we return
+        return; // best solution is stored in process
       }
 
       for (;;) { // each iteration: LS, update model, then sample
@@ -142,16 +145,23 @@ public final class HybridEDA<X, Y> extends Metaheuristic1<X, Y> {
 
 // sample new population
         for (final Record<X> dest : P) {
-          if (process.shouldTerminate()) { // we return
-            return; // best solution is stored in process
-          }
           M.apply(dest.x, random);
-          dest.quality = process.evaluate(dest.x);
         } // the end of the new points generation
+        process.evaluateBatch(P, 0, P.length);
+        if (process.shouldTerminate()) { // we return
+          return; // best solution is stored in process
+        }
       } // the end of the main loop
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void reset() {
+    this.resetOperators();
+    this.model.reset();
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
@@ -9,6 +9,7 @@ import java.util.Random;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IModel;
 import aitoa.structure.INullarySearchOperator;
+import aitoa.structure.IResettable;
 import aitoa.structure.ISpace;
 import aitoa.structure.IUnarySearchOperator;
 import aitoa.structure.LogFormat;
@@ -29,7 +30,7 @@ import aitoa.utils.Experiment;
  *          the solution space
  */
 public final class HybridEDAWithClearing<X, Y>
-    extends Metaheuristic1<X, Y> {
+    extends Metaheuristic1<X, Y> implements IResettable {
 
   /** the number of solution to be selected */
   public final int mu;
@@ -154,6 +155,13 @@ public final class HybridEDAWithClearing<X, Y>
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void reset() {
+    this.resetOperators();
+    this.model.reset();
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
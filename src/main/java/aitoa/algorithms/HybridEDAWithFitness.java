@@ -9,6 +9,7 @@ import java.util.Random;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IModel;
 import aitoa.structure.INullarySearchOperator;
+import aitoa.structure.IResettable;
 import aitoa.structure.ISpace;
 import aitoa.structure.IUnarySearchOperator;
 import aitoa.structure.LogFormat;
@@ -25,7 +26,7 @@ import aitoa.utils.Experiment;
  *          the solution space
  */
 public final class HybridEDAWithFitness<X, Y>
-    extends Metaheuristic1<X, Y> {
+    extends Metaheuristic1<X, Y> implements IResettable {
 
   /** the number of solution to be selected */
   public final int mu;
@@ -161,6 +162,14 @@ public final class HybridEDAWithFitness<X, Y>
     }
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public void reset() {
+    this.resetOperators();
+    this.model.reset();
+    this.fitness.reset();
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
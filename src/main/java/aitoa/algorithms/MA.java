@@ -105,12 +105,10 @@ public final class MA<X, Y> extends Metaheuristic2<X, Y> {
 // end relevant
       final X x = searchSpace.create();
       this.nullary.apply(x, random);
-      P[i] = new LSRecord<>(x, process.evaluate(x));
-      if (process.shouldTerminate()) { // we return
-        return; // best solution is stored in process
-      }
+      P[i] = new LSRecord<>(x, Double.POSITIVE_INFINITY);
 // start relevant
     }
+    process.evaluateBatchDescending(P, 0, P.length); // evaluate
 
     while (!process.shouldTerminate()) { // main loop
       for (final LSRecord<X> ind : P) {
@@ -149,11 +147,6 @@ public final class MA<X, Y> extends Metaheuristic2<X, Y> {
 
 // override the worse lambda solutions with new offsprings
       for (int index = P.length; (--index) >= this.mu;) {
-// end relevant
-        if (process.shouldTerminate()) { // we return
-          return; // best solution is stored in process
-        }
-// start relevant
         final LSRecord<X> dest = P[index];
         final LSRecord<X> sel = P[(++p1) % this.mu];
 
@@ -162,11 +155,12 @@ public final class MA<X, Y> extends Metaheuristic2<X, Y> {
         } while (p2 == p1);
 // perform recombination of the two selected solutions
         this.binary.apply(sel.x, P[p2].x, dest.x, random);
-        dest.quality = process.evaluate(dest.x);
 // end relevant
         dest.isOptimum = false;
 // start relevant
       } // the end of the offspring generation
+// evaluate the offsprings in the order of their creation
+      process.evaluateBatchDescending(P, this.mu, P.length);
     } // the end of the main loop
   }
 // end relevant
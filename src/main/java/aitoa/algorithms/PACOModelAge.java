@@ -187,6 +187,36 @@ public class PACOModelAge<X> extends ACOModel<X> {
     this.mVs = new double[this.length];
   }
 
+  /**
+   * Create a copy of a PACO model which shares the pheromone
+   * matrix and population with {@code pCopy}, but has its own
+   * internal data structures for sampling. Subclasses must
+   * override {@link #copyForThread()} and invoke this
+   * constructor.
+   *
+   * @param pCopy
+   *          the model to copy
+   */
+  protected PACOModelAge(final PACOModelAge<X> pCopy) {
+    super(pCopy.length);
+    this.popSize = pCopy.popSize;
+    this.q0 = pCopy.q0;
+    this.beta = pCopy.beta;
+    this.tau0 = pCopy.tau0;
+    this.tauMax = pCopy.tauMax;
+    this.mPheroMultiplier = pCopy.mPheroMultiplier;
+    this.mMatrix = pCopy.mMatrix;
+    this.mPopulation = pCopy.mPopulation;
+    this.mNodes = new IntSet(this.length);
+    this.mVs = new double[this.length];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public PACOModelAge<X> copyForThread() {
+    return new PACOModelAge<>(this);
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
@@ -0,0 +1,218 @@
+package aitoa.algorithms;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import aitoa.structure.IBinarySearchOperator;
+import aitoa.structure.IUnarySearchOperator;
+import aitoa.structure.Record;
+
+/**
+ * A utility for creating the offspring of a population in
+ * parallel, as done by the evolutionary algorithms in their
+ * parallel mode. The offspring are divided into chunks whose
+ * number only depends on the number of offspring. Each chunk
+ * is processed by its own task with its own copies of the
+ * search operators and its own random number generator, which
+ * is seeded from the random number generator of the
+ * optimization process. This way, the created offspring do not
+ * depend on the number of threads and an optimization run can
+ * be reproduced from its random seed.
+ *
+ * @param <X>
+ *          the search space
+ */
+final class ParallelReproduction<X> {
+  /** the maximum number of chunks */
+  private static final int MAX_CHUNKS = 64;
+  /** the minimum number of offspring in a chunk */
+  private static final int MIN_CHUNK_SIZE = 16;
+
+  /** the unary operator */
+  private final IUnarySearchOperator<X> mUnary;
+  /** the binary operator */
+  private final IBinarySearchOperator<X> mBinary;
+  /** the crossover rate */
+  private final double mCr;
+  /** the tasks, created on demand and then re-used */
+  private final Task<X>[] mTasks;
+
+  /**
+   * create the parallel reproduction utility
+   *
+   * @param pUnary
+   *          the unary operator
+   * @param pBinary
+   *          the binary operator
+   * @param pCr
+   *          the crossover rate
+   */
+  @SuppressWarnings("unchecked")
+  ParallelReproduction(final IUnarySearchOperator<X> pUnary,
+      final IBinarySearchOperator<X> pBinary, final double pCr) {
+    super();
+    this.mUnary = pUnary;
+    this.mBinary = pBinary;
+    this.mCr = pCr;
+    this.mTasks =
+        (Task<X>[]) new Task<?>[ParallelReproduction.MAX_CHUNKS];
+  }
+
+  /**
+   * Overwrite the records {@code population[from...(to-1)]}
+   * with offspring of the {@code parents} records at the
+   * beginning of {@code population}. The offspring at index
+   * {@code i} has the record at index {@code (i-from) % parents}
+   * as first parent. With probability {@code cr}, it is created
+   * by applying the binary operator to the first and a second,
+   * different, randomly chosen parent. Otherwise, the unary
+   * operator is applied to the first parent. The binary operator
+   * is only used if there are at least two parents. The quality
+   * of the offspring is not changed.
+   *
+   * @param population
+   *          the population
+   * @param parents
+   *          the number of parents
+   * @param from
+   *          the index of the first offspring
+   * @param to
+   *          the exclusive end index of the offspring
+   * @param random
+   *          the random number generator to derive the seeds of
+   *          the tasks from
+   * @param pool
+   *          the pool to execute the tasks
+   */
+  void reproduce(final Record<X>[] population,
+      final int parents, final int from, final int to,
+      final Random random, final ForkJoinPool pool) {
+    final int chunks = Math.min(ParallelReproduction.MAX_CHUNKS,
+        (((to - from) + ParallelReproduction.MIN_CHUNK_SIZE) - 1)
+            / ParallelReproduction.MIN_CHUNK_SIZE);
+    final int chunkSize = (((to - from) + chunks) - 1) / chunks;
+
+    int start = from;
+    for (int i = 0; i < chunks; i++) {
+      Task<X> task = this.mTasks[i];
+      if (task == null) {
+        task = new Task<>(this.mUnary.copyForThread(),
+            this.mBinary.copyForThread(), this.mCr);
+        this.mTasks[i] = task;
+      }
+      final int end = Math.min(to, start + chunkSize);
+      task.prepare(population, parents, from, start, end,
+          random.nextLong());
+      start = end;
+      pool.execute(task);
+    }
+    for (int i = 0; i < chunks; i++) {
+      this.mTasks[i].join();
+    }
+  }
+
+  /**
+   * the task creating one chunk of offspring
+   *
+   * @param <X>
+   *          the search space
+   */
+  private static final class Task<X> extends RecursiveAction {
+    /** the serial version uid */
+    private static final long serialVersionUID = 1L;
+
+    /** the unary operator */
+    private final IUnarySearchOperator<X> mUnary;
+    /** the binary operator */
+    private final IBinarySearchOperator<X> mBinary;
+    /** the crossover rate */
+    private final double mCr;
+    /** the random number generator */
+    private final Random mRandom;
+    /** the population */
+    private Record<X>[] mPopulation;
+    /** the number of parents */
+    private int mParents;
+    /** the index of the first offspring of the generation */
+    private int mFrom;
+    /** the inclusive start index of the chunk */
+    private int mStart;
+    /** the exclusive end index of the chunk */
+    private int mEnd;
+
+    /**
+     * create the task
+     *
+     * @param pUnary
+     *          the unary operator
+     * @param pBinary
+     *          the binary operator
+     * @param pCr
+     *          the crossover rate
+     */
+    Task(final IUnarySearchOperator<X> pUnary,
+        final IBinarySearchOperator<X> pBinary,
+        final double pCr) {
+      super();
+      this.mUnary = pUnary;
+      this.mBinary = pBinary;
+      this.mCr = pCr;
+      this.mRandom = new Random();
+    }
+
+    /**
+     * prepare the task for a new chunk
+     *
+     * @param population
+     *          the population
+     * @param parents
+     *          the number of parents
+     * @param from
+     *          the index of the first offspring of the
+     *          generation
+     * @param start
+     *          the inclusive start index of the chunk
+     * @param end
+     *          the exclusive end index of the chunk
+     * @param seed
+     *          the random seed
+     */
+    void prepare(final Record<X>[] population,
+        final int parents, final int from, final int start,
+        final int end, final long seed) {
+      this.reinitialize();
+      this.mPopulation = population;
+      this.mParents = parents;
+      this.mFrom = from;
+      this.mStart = start;
+      this.mEnd = end;
+      this.mRandom.setSeed(seed);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void compute() {
+      final Record<X>[] P = this.mPopulation;
+      final Random random = this.mRandom;
+      final int parents = this.mParents;
+
+      for (int index = this.mStart; index < this.mEnd; index++) {
+        final Record<X> dest = P[index];
+        final int p1 = (index - this.mFrom) % parents;
+        final Record<X> sel = P[p1];
+        if ((parents >= 2)
+            && (random.nextDouble() <= this.mCr)) {
+          int p2;
+          do { // find a second, different record
+            p2 = random.nextInt(parents);
+          } while (p2 == p1);
+          this.mBinary.apply(sel.x, P[p2].x, dest.x, random);
+        } else {
+          this.mUnary.apply(sel.x, dest.x, random);
+        }
+      }
+      this.mPopulation = null;
+    }
+  }
+}
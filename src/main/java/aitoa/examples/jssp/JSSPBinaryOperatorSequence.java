@@ -43,12 +43,33 @@ public final class JSSPBinaryOperatorSequence
     this.mDoneX1 = new boolean[length];
   }
 
+  /**
+   * create a copy of the sequence crossover operator with its
+   * own internal arrays
+   *
+   * @param pCopy
+   *          the operator to copy
+   */
+  private JSSPBinaryOperatorSequence(
+      final JSSPBinaryOperatorSequence pCopy) {
+    super();
+    final int length = pCopy.mDoneX0.length;
+    this.mDoneX0 = new boolean[length];
+    this.mDoneX1 = new boolean[length];
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
     return "sequence"; //$NON-NLS-1$
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public JSSPBinaryOperatorSequence copyForThread() {
+    return new JSSPBinaryOperatorSequence(this);
+  }
+
   /** {@inheritDoc} */
   @Override
 // start relevant
@@ -34,12 +34,32 @@ public final class JSSPBinaryOperatorUniform
     this.mMachines = pInstance.m;
   }
 
+  /**
+   * create a copy of the uniform crossover operator with its own
+   * internal array
+   *
+   * @param pCopy
+   *          the operator to copy
+   */
+  private JSSPBinaryOperatorUniform(
+      final JSSPBinaryOperatorUniform pCopy) {
+    super();
+    this.mDone = new int[pCopy.mDone.length];
+    this.mMachines = pCopy.mMachines;
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
     return "uniform"; //$NON-NLS-1$
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public JSSPBinaryOperatorUniform copyForThread() {
+    return new JSSPBinaryOperatorUniform(this);
+  }
+
   /** {@inheritDoc} */
   @Override
   public void apply(final int[] x0, final int[] x1,
@@ -60,6 +60,12 @@ public final class JSSPMakespanObjectiveFunction2
     return this.instance.toString();
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public JSSPMakespanObjectiveFunction2 copyForThread() {
+    return new JSSPMakespanObjectiveFunction2(this.instance);
+  }
+
   /** {@inheritDoc} */
   @Override
   public double evaluate(final int[] y) {
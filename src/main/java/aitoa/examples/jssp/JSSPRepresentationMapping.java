@@ -45,12 +45,35 @@ public final class JSSPRepresentationMapping implements
     this.mMachineState = new int[pInstance.m];
   }
 
+  /**
+   * create a copy of the representation mapping which shares the
+   * instance data but has its own internal state
+   *
+   * @param pCopy
+   *          the mapping to copy
+   */
+  private JSSPRepresentationMapping(
+      final JSSPRepresentationMapping pCopy) {
+    super();
+    this.mJobs = pCopy.mJobs;
+    this.mJobState = new int[pCopy.mJobState.length];
+    this.mJobTime = new int[pCopy.mJobTime.length];
+    this.mMachineTime = new int[pCopy.mMachineTime.length];
+    this.mMachineState = new int[pCopy.mMachineState.length];
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
     return ("jssp:int[]-to-Gantt"); //$NON-NLS-1$
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public JSSPRepresentationMapping copyForThread() {
+    return new JSSPRepresentationMapping(this);
+  }
+
 // start relevant
   /**
    * Map a point {@code x} from the search space, i.e., an
@@ -89,6 +89,36 @@ public class JSSPUMDAModel implements IModel<int[]> {
     }
   }
 
+  /**
+   * create a copy of a model which shares the counters, i.e.,
+   * the model data, with {@code pCopy}, but has its own internal
+   * data structures for sampling
+   *
+   * @param pCopy
+   *          the model to copy
+   */
+  protected JSSPUMDAModel(final JSSPUMDAModel pCopy) {
+    super();
+    this.base = pCopy.base;
+    this.mMachines = pCopy.mMachines;
+    this.mModel = pCopy.mModel;
+
+    int l = pCopy.mPerm.length;
+    this.mPerm = new int[l];
+    for (; (--l) >= 0;) {
+      this.mPerm[l] = l;
+    }
+
+    int n = pCopy.mJobChoseFrom.length;
+    this.mJobRemainingTimes = new int[n];
+    this.mJobChoseFrom = new int[n];
+    this.mProb = new long[n];
+
+    for (; (--n) >= 0;) {
+      this.mJobChoseFrom[n] = n;
+    }
+  }
+
   /**
    * create a JSSP umda model from a string
    *
@@ -125,6 +155,25 @@ public class JSSPUMDAModel implements IModel<int[]> {
     }
   }
 
+  /**
+   * Reset the model. Besides initializing the counters, we must
+   * restore the original order of the index permutation and the
+   * job list, since both are permuted in place during sampling
+   * and would otherwise influence the samples of the next run.
+   */
+  @Override
+  public void reset() {
+    this.initialize();
+    final int[] perm = this.mPerm;
+    for (int l = perm.length; (--l) >= 0;) {
+      perm[l] = l;
+    }
+    final int[] jobs = this.mJobChoseFrom;
+    for (int n = jobs.length; (--n) >= 0;) {
+      jobs[n] = n;
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
 // start update
@@ -191,6 +240,12 @@ public class JSSPUMDAModel implements IModel<int[]> {
   }
 // end sampling
 
+  /** {@inheritDoc} */
+  @Override
+  public JSSPUMDAModel copyForThread() {
+    return new JSSPUMDAModel(this);
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
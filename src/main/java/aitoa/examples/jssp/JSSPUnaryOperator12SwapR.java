@@ -3,6 +3,7 @@ package aitoa.examples.jssp;
 import java.util.Random;
 import java.util.function.Predicate;
 
+import aitoa.structure.IResettable;
 import aitoa.structure.IUnarySearchOperator;
 import aitoa.utils.RandomUtils;
 
@@ -27,7 +28,7 @@ import aitoa.utils.RandomUtils;
  */
 // start relevant
 public final class JSSPUnaryOperator12SwapR
-    implements IUnarySearchOperator<int[]> {
+    implements IUnarySearchOperator<int[]>, IResettable {
   // end relevant
   /** the indexes */
   private final int[] mIndexes;
@@ -42,6 +43,16 @@ public final class JSSPUnaryOperator12SwapR
     super();
 
     this.mIndexes = new int[pInstance.m * pInstance.n];
+    this.reset();
+  }
+
+  /**
+   * Restore the original order of the indices, which are
+   * shuffled in place by
+   * {@link #enumerate(Random, int[], int[], Predicate)}.
+   */
+  @Override
+  public void reset() {
     for (int i = this.mIndexes.length; (--i) >= 0;) {
       this.mIndexes[i] = i;
     }
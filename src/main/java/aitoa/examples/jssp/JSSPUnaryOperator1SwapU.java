@@ -3,6 +3,7 @@ package aitoa.examples.jssp;
 import java.util.Random;
 import java.util.function.Predicate;
 
+import aitoa.structure.IResettable;
 import aitoa.structure.IUnarySearchOperator;
 
 /**
@@ -24,10 +25,12 @@ import aitoa.structure.IUnarySearchOperator;
  * enumerated.
  */
 public final class JSSPUnaryOperator1SwapU
-    implements IUnarySearchOperator<int[]> {
+    implements IUnarySearchOperator<int[]>, IResettable {
 
   /** the indexes */
   final int[] mIndexes;
+  /** the length of the representation */
+  private final int mLength;
 
   /**
    * create the representation
@@ -40,9 +43,20 @@ public final class JSSPUnaryOperator1SwapU
 
     final int length = pInstance.m * pInstance.n;
 
+    this.mLength = length;
     this.mIndexes = new int[length * (length - 1)];
+    this.reset();
+  }
+
+  /**
+   * Restore the original order of the index pairs, which are
+   * shuffled in place by
+   * {@link #enumerate(Random, int[], int[], Predicate)}.
+   */
+  @Override
+  public void reset() {
     int index = (-1);
-    for (int i = length; (--i) > 0;) {
+    for (int i = this.mLength; (--i) > 0;) {
       for (int j = i; (--j) >= 0;) {
         this.mIndexes[++index] = i;
         this.mIndexes[++index] = j;
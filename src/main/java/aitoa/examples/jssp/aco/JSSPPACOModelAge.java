@@ -93,6 +93,30 @@ public final class JSSPPACOModelAge
     this.mM = pInstance.m;
   }
 
+  /**
+   * create a copy of the model which shares the pheromone
+   * information and instance data with {@code pCopy}, but has
+   * its own internal state
+   *
+   * @param pCopy
+   *          the model to copy
+   */
+  private JSSPPACOModelAge(final JSSPPACOModelAge pCopy) {
+    super(pCopy);
+    this.mJobs = pCopy.mJobs;
+    this.mJobState = new int[pCopy.mJobState.length];
+    this.mJobTime = new int[pCopy.mJobTime.length];
+    this.mMachineTime = new int[pCopy.mMachineTime.length];
+    this.mMachineState = new int[pCopy.mMachineState.length];
+    this.mM = pCopy.mM;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public JSSPPACOModelAge copyForThread() {
+    return new JSSPPACOModelAge(this);
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
@@ -150,12 +150,49 @@ public final class JSSPTreeRepresentationMapping implements
     this.mMachineCompletedSubjobs = new int[pInstance.m];
   }
 
+  /**
+   * create a copy of the representation mapping which shares the
+   * instance data but has its own internal state
+   *
+   * @param pCopy
+   *          the mapping to copy
+   */
+  private JSSPTreeRepresentationMapping(
+      final JSSPTreeRepresentationMapping pCopy) {
+    super();
+    this.mJobs = pCopy.mJobs;
+    this.mState =
+        new double[JSSPTreeRepresentationMapping.DIM_VALUES];
+    this.mJobTotalTime = pCopy.mJobTotalTime;
+    this.mMachineTotalTime = pCopy.mMachineTotalTime;
+
+    final int n = pCopy.mJobIDs.length;
+    this.mJobIDs = new int[n];
+    this.mBestJobIDs = new int[n];
+    this.mBestJobIndexes = new int[n];
+    this.mJobCompletedSubjobs = new int[n];
+    this.mJobNextMachine = new int[n];
+    this.mJobLastSubjobFinishedTime = new int[n];
+    this.mJobFinishedWorkTime = new int[n];
+
+    final int m = pCopy.mMachineTotalTime.length;
+    this.mMachineFinishedWorkTime = new int[m];
+    this.mMachineLastSubjobFinishedTime = new int[m];
+    this.mMachineCompletedSubjobs = new int[m];
+  }
+
   /** {@inheritDoc} */
   @Override
   public String toString() {
     return this.getClass().getCanonicalName();
   }
 
+  /** {@inheritDoc} */
+  @Override
+  public JSSPTreeRepresentationMapping copyForThread() {
+    return new JSSPTreeRepresentationMapping(this);
+  }
+
 // start relevant
   /**
    * Map a point {@code x} from the search space (here a formula
@@ -3,6 +3,7 @@ package aitoa.searchSpaces.bitstrings;
 import java.util.Random;
 import java.util.function.Predicate;
 
+import aitoa.structure.IResettable;
 import aitoa.structure.IUnarySearchOperator;
 import aitoa.utils.RandomUtils;
 
@@ -10,7 +11,7 @@ import aitoa.utils.RandomUtils;
  * A unary operator for flipping one or two or three bits.
  */
 public final class BitStringUnaryOperator3Flip
-    implements IUnarySearchOperator<boolean[]> {
+    implements IUnarySearchOperator<boolean[]>, IResettable {
   /** the indexes */
   private final int[] mIndexes;
 
@@ -24,6 +25,16 @@ public final class BitStringUnaryOperator3Flip
     super();
 
     this.mIndexes = new int[BitStringSpace.checkLength(pLength)];
+    this.reset();
+  }
+
+  /**
+   * Restore the original order of the indexes, which are
+   * shuffled in place by
+   * {@link #enumerate(Random, boolean[], boolean[], Predicate)}.
+   */
+  @Override
+  public void reset() {
     for (int i = this.mIndexes.length; (--i) >= 0;) {
       this.mIndexes[i] = i;
     }
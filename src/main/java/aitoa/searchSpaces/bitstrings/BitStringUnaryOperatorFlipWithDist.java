@@ -3,6 +3,7 @@ package aitoa.searchSpaces.bitstrings;
 import java.util.Objects;
 import java.util.Random;
 
+import aitoa.structure.IResettable;
 import aitoa.structure.IUnarySearchOperator;
 import aitoa.utils.math.DiscreteRandomDistribution;
 
@@ -14,7 +15,7 @@ import aitoa.utils.math.DiscreteRandomDistribution;
  * Available: http://arxiv.org/pdf/1812.00493.pdf.
  */
 public abstract class BitStringUnaryOperatorFlipWithDist
-    implements IUnarySearchOperator<boolean[]> {
+    implements IUnarySearchOperator<boolean[]>, IResettable {
 
   /** the index list */
   private final int[] mIndexes;
@@ -44,7 +45,17 @@ public abstract class BitStringUnaryOperatorFlipWithDist
     this.mDistribution = Objects.requireNonNull(pDistribution);
     this.mN = pN;
     this.mIndexes = new int[pN];
-    for (int i = pN; (--i) >= 0;) {
+    this.reset();
+  }
+
+  /**
+   * Restore the original order of the index list, which is
+   * shuffled in place by
+   * {@link #apply(boolean[], boolean[], Random)}.
+   */
+  @Override
+  public final void reset() {
+    for (int i = this.mN; (--i) >= 0;) {
       this.mIndexes[i] = i;
     }
   }
@@ -88,6 +99,17 @@ public abstract class BitStringUnaryOperatorFlipWithDist
     }
   }
 
+  /**
+   * Create a new operator with its own index list, since
+   * {@link #apply(boolean[], boolean[], Random)} shuffles the
+   * index list of the operator.
+   *
+   * @return the new operator
+   */
+  @Override
+  public abstract BitStringUnaryOperatorFlipWithDist
+      copyForThread();
+
   /** {@inheritDoc} */
   @Override
   public boolean canEnumerate() {
@@ -48,4 +48,10 @@ public final class BitStringUnaryOperatorMOverNFlip0To1Dist
   public String toString() {
     return this.mM + "/n-flip01D"; //$NON-NLS-1$
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public BitStringUnaryOperatorMOverNFlip0To1Dist copyForThread() {
+    return new BitStringUnaryOperatorMOverNFlip0To1Dist(this.mN, this.mM);
+  }
 }
@@ -48,4 +48,10 @@ public final class BitStringUnaryOperatorMOverNFlipDist
   public String toString() {
     return this.mM + "/n-flipD"; //$NON-NLS-1$
   }
+
+  /** {@inheritDoc} */
+  @Override
+  public BitStringUnaryOperatorMOverNFlipDist copyForThread() {
+    return new BitStringUnaryOperatorMOverNFlipDist(this.mN, this.mM);
+  }
 }
@@ -114,4 +114,17 @@ public final class TreeBinaryOperator extends TreePathOperator
   public String toString() {
     return "rec" + this.mMaxDepth;//$NON-NLS-1$
   }
+
+  /**
+   * Create a new operator with its own buffers, since
+   * {@link #apply(Node[], Node[], Node[], Random)} stores the
+   * path through the tree and the collected cuts in internal
+   * arrays.
+   *
+   * @return the new operator
+   */
+  @Override
+  public TreeBinaryOperator copyForThread() {
+    return new TreeBinaryOperator(this.mMaxDepth);
+  }
 }
@@ -56,4 +56,16 @@ public final class TreeUnaryOperatorMR extends TreePathOperator
   public String toString() {
     return "mr" + this.mMaxDepth;//$NON-NLS-1$
   }
+
+  /**
+   * Create a new operator with its own path buffers, since
+   * {@link #apply(Node[], Node[], Random)} stores the path
+   * through the tree in internal arrays.
+   *
+   * @return the new operator
+   */
+  @Override
+  public TreeUnaryOperatorMR copyForThread() {
+    return new TreeUnaryOperatorMR(this.mMaxDepth);
+  }
 }
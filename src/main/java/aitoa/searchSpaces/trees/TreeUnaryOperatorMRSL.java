@@ -237,4 +237,16 @@ public final class TreeUnaryOperatorMRSL extends TreePathOperator
   public String toString() {
     return "mrsl" + this.mMaxDepth;//$NON-NLS-1$
   }
+
+  /**
+   * Create a new operator with its own buffers, since
+   * {@link #apply(Node[], Node[], Random)} stores the path
+   * through the tree and the selections in internal arrays.
+   *
+   * @return the new operator
+   */
+  @Override
+  public TreeUnaryOperatorMRSL copyForThread() {
+    return new TreeUnaryOperatorMRSL(this.mMaxDepth);
+  }
 }
@@ -0,0 +1,307 @@
+package aitoa.structure;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * A writer for the binary sidecar of a log file. The sidecar
+ * contains the same data which the log parser extracts from the
+ * text log, but in a form which can be loaded without parsing:
+ * <ol>
+ * <li>the {@linkplain LogFormat#BINARY_MAGIC magic number}, the
+ * {@linkplain LogFormat#BINARY_VERSION version} and the flags as
+ * bytes, and the size of the text log file in bytes as
+ * {@code long},</li>
+ * <li>the number of header lines followed by the lines, i.e.,
+ * the comment lines of the {@link LogFormat#BEGIN_SETUP setup}
+ * and {@link LogFormat#BEGIN_STATE state} sections without the
+ * comment character, including the section markers,</li>
+ * <li>the number {@code n} of log points, followed by three
+ * columns of {@code n} values each: the objective values as
+ * {@code double}s, the consumed FEs and the consumed times as
+ * {@code long}s.</li>
+ * </ol>
+ * Everything after the flags is
+ * {@linkplain LogFormat#BINARY_FLAG_COMPRESSED optionally}
+ * compressed with a {@link DeflaterOutputStream}. All numbers are
+ * big-endian, the lines are written via
+ * {@link DataOutputStream#writeUTF(String)}.
+ * <p>
+ * The header lines are obtained by
+ * {@linkplain #capture(Writer) capturing} the text written into
+ * the setup and state sections of the log file, so that they are
+ * exactly the same in both files. The data is
+ * {@linkplain #prepare(long[], int, long) prepared} while the
+ * text log file is written, but the sidecar is only
+ * {@linkplain #publish() published} after the text log file has
+ * been written completely, since it records the size of the text
+ * log file. A sidecar whose recorded size differs from the
+ * actual size of its text log file is stale and ignored by the
+ * log parser. The sidecar is written into a temporary file
+ * first, which is then moved to its destination, so that a
+ * sidecar is either complete or does not exist.
+ */
+public final class BinaryLogWriter {
+
+  /** the temporary file suffix */
+  private static final String TEMP_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+  /** the path to the text log file */
+  private final Path mLogPath;
+  /** the path to the sidecar */
+  private final Path mPath;
+  /** should the data be compressed? */
+  private final boolean mCompress;
+  /** the captured header lines */
+  private final ArrayList<String> mHeader;
+  /** the current line */
+  private final StringBuilder mLine;
+  /** are we inside the setup or state section? */
+  private boolean mInSection;
+  /** the prepared columns, or {@code null} if not prepared */
+  private byte[] mColumns;
+  /** the number of prepared log points */
+  private int mPoints;
+
+  /**
+   * create the binary log writer
+   *
+   * @param pLogPath
+   *          the path to the text log file
+   * @param pCompress
+   *          should the data be compressed?
+   */
+  public BinaryLogWriter(final Path pLogPath,
+      final boolean pCompress) {
+    super();
+    this.mLogPath = pLogPath;
+    this.mPath = BinaryLogWriter.sidecar(pLogPath);
+    this.mCompress = pCompress;
+    this.mHeader = new ArrayList<>();
+    this.mLine = new StringBuilder();
+  }
+
+  /**
+   * Get the path of the binary sidecar of a log file
+   *
+   * @param logPath
+   *          the path to the text log file
+   * @return the path to the sidecar
+   */
+  public static Path sidecar(final Path logPath) {
+    return logPath.resolveSibling(logPath.getFileName().toString()
+        + LogFormat.BINARY_SUFFIX);
+  }
+
+  /**
+   * Get a writer which passes all text on to another writer and
+   * captures the setup and state sections as header of the
+   * binary log.
+   *
+   * @param out
+   *          the destination of the text
+   * @return the capturing writer
+   */
+  public Writer capture(final Writer out) {
+    return new Capture(out);
+  }
+
+  /**
+   * Process a complete line of the captured text
+   *
+   * @param text
+   *          the line
+   */
+  private void line(final String text) {
+    final String line = text.trim();
+    if (line.isEmpty()
+        || (line.charAt(0) != LogFormat.COMMENT_CHAR)) {
+      return;
+    }
+    final String comment = line.substring(1).trim();
+    if (comment.isEmpty()) {
+      return;
+    }
+    if (LogFormat.BEGIN_SETUP.equals(comment)
+        || LogFormat.BEGIN_STATE.equals(comment)) {
+      this.mInSection = true;
+    }
+    if (this.mInSection) {
+      this.mHeader.add(comment);
+    }
+    if (LogFormat.END_SETUP.equals(comment)
+        || LogFormat.END_STATE.equals(comment)) {
+      this.mInSection = false;
+    }
+  }
+
+  /**
+   * Prepare the data of the binary log file. The format of each
+   * log point must be: bestF as long bits, FEs, absolute time.
+   * The log array is not needed anymore afterwards.
+   *
+   * @param log
+   *          the log
+   * @param size
+   *          the size, i.e., three times the number of points
+   * @param startTime
+   *          the start time
+   */
+  public void prepare(final long[] log, final int size,
+      final long startTime) {
+    if (this.mLine.length() > 0) {
+      this.line(this.mLine.toString());
+      this.mLine.setLength(0);
+    }
+
+    final int points = size / 3;
+    final ByteBuffer columns =
+        ByteBuffer.allocate(Math.multiplyExact(points, 24));
+    for (int i = 0; i < size; i += 3) {
+      columns.putLong(log[i]);
+    }
+    for (int i = 1; i < size; i += 3) {
+      columns.putLong(log[i]);
+    }
+    for (int i = 2; i < size; i += 3) {
+      columns.putLong(log[i] - startTime);
+    }
+    this.mColumns = columns.array();
+    this.mPoints = points;
+  }
+
+  /**
+   * Write the prepared binary log file. This method must only be
+   * called after the text log file has been written completely.
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  public void publish() throws IOException {
+    final byte[] columns = this.mColumns;
+    if (columns == null) {
+      throw new IllegalStateException(
+          "Binary log has not been prepared."); //$NON-NLS-1$
+    }
+    this.mColumns = null;
+    final long logSize = Files.size(this.mLogPath);
+
+    final Path temp = this.mPath.resolveSibling(
+        this.mPath.getFileName() + BinaryLogWriter.TEMP_SUFFIX);
+    try {
+      try (final OutputStream os = new BufferedOutputStream(
+          Files.newOutputStream(temp))) {
+        final DataOutputStream head = new DataOutputStream(os);
+        head.writeInt(LogFormat.BINARY_MAGIC);
+        head.writeByte(LogFormat.BINARY_VERSION);
+        head.writeByte(this.mCompress
+            ? LogFormat.BINARY_FLAG_COMPRESSED : 0);
+        head.writeLong(logSize);
+        head.flush();
+
+        final DeflaterOutputStream deflater =
+            this.mCompress ? new DeflaterOutputStream(os) : null;
+        final DataOutputStream data = new DataOutputStream(
+            (deflater != null) ? deflater : os);
+        data.writeInt(this.mHeader.size());
+        for (final String line : this.mHeader) {
+          data.writeUTF(line);
+        }
+        data.writeInt(this.mPoints);
+        data.write(columns);
+        data.flush();
+        if (deflater != null) {
+          deflater.finish();
+        }
+      }
+      Files.move(temp, this.mPath,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /** the writer capturing the header */
+  private final class Capture extends Writer {
+    /** the destination */
+    private final Writer mOut;
+
+    /**
+     * create
+     *
+     * @param pOut
+     *          the destination
+     */
+    Capture(final Writer pOut) {
+      super();
+      this.mOut = pOut;
+    }
+
+    /**
+     * capture a character
+     *
+     * @param c
+     *          the character
+     */
+    private void capture(final char c) {
+      final StringBuilder line = BinaryLogWriter.this.mLine;
+      if ((c == '\n') || (c == '\r')) {
+        if (line.length() > 0) {
+          BinaryLogWriter.this.line(line.toString());
+          line.setLength(0);
+        }
+      } else {
+        line.append(c);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final int c) throws IOException {
+      this.mOut.write(c);
+      this.capture((char) c);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final char[] cbuf, final int off,
+        final int len) throws IOException {
+      this.mOut.write(cbuf, off, len);
+      for (int i = off; i < (off + len); i++) {
+        this.capture(cbuf[i]);
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final String str, final int off,
+        final int len) throws IOException {
+      this.mOut.write(str, off, len);
+      for (int i = off; i < (off + len); i++) {
+        this.capture(str.charAt(i));
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() throws IOException {
+      this.mOut.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+      this.mOut.close();
+    }
+  }
+}
@@ -3,7 +3,6 @@ package aitoa.structure;
 import java.io.IOException;
 import java.io.Writer;
 
-import aitoa.utils.IOUtils;
 import aitoa.utils.IOUtils.IOConsumer;
 
 /**
@@ -18,6 +17,8 @@ final class BlackBoxProcess1Log<X>
 
   /** the log file */
   private final Writer mLogWriter;
+  /** the writer for the binary log, or {@code null} */
+  private final BinaryLogWriter mBinaryLog;
   /** the log */
   private long[] mLog;
   /** the log size */
@@ -35,6 +36,7 @@ final class BlackBoxProcess1Log<X>
 
     this.mLogWriter = pBuilder.createLogWriter();
     this.mLog = pBuilder.createLog();
+    this.mBinaryLog = pBuilder.createBinaryLogWriter();
 
     // enqueue into terminator thread if needed only after
     // initialization is complete
@@ -47,53 +49,58 @@ final class BlackBoxProcess1Log<X>
   @Override
   public void close() throws IOException {
     if (this.mTerminationTime <= 0L) {
-      this.mTerminationTime = System.currentTimeMillis();
+      this.mTerminationTime = this.mClock.getTime();
+      this.mClock.release();
     }
 
     // make sure we are dequeued from terminator
     this.terminate();
 
     // write the log information and then close log
-    IOUtils.synchronizedIO(() -> {
-      try (final Writer out = this.mLogWriter) {
-        BlackBoxProcessBase.writeLog(this.mLog, this.mLogSize,
-            this.mStartTime, out);
-        this.mLog = null;
-        this.printInfos(out);
-        if (this.mConsumedFEs > 0L) {
-          out.write("# BEST_X"); //$NON-NLS-1$
-          out.write(System.lineSeparator());
-          this.mSearchSpace.print(this.mBestX, out);
-          out.write(System.lineSeparator());
-          out.write("# END_BEST_X"); //$NON-NLS-1$
-          out.write(System.lineSeparator());
-        }
+    BlackBoxProcessBase.writeLogFile(this.mLogWriter,
+        this.mBinaryLog, (out) -> {
+      BlackBoxProcessBase.writeLog(this.mLog, this.mLogSize,
+          this.mStartTime, out);
+      this.printInfos(out, this.mBinaryLog, this.mLog,
+          this.mLogSize);
+      this.mLog = null;
+      if (this.mConsumedFEs > 0L) {
+        out.write("# BEST_X"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
+        this.mSearchSpace.print(this.mBestX, out);
+        out.write(System.lineSeparator());
+        out.write("# END_BEST_X"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
       }
     });
 
+    this.recordMetrics();
+
     // validate result: throw error if invalid
     this.mSearchSpace.check(this.mBestX);
   }
 
   /** {@inheritDoc} */
   @Override
-  public double evaluate(final X y) {
-    if (this.mTerminated) {
-      // if we have already terminated, straight quit
-      return Double.POSITIVE_INFINITY;
-    }
-    final long fes = ++this.mConsumedFEs; // increase fes
-    // evaluate
-    final double result = this.mF.evaluate(y);
+  double doEvaluate(final X y) {
+    final double result = this.mF.evaluate(y); // evaluate
+    this.doRegister(y, result);
+    return result;
+  }
 
+  /** {@inheritDoc} */
+  @Override
+  boolean doRegister(final X y, final double result) {
+    final long fes = ++this.mConsumedFEs; // increase fes
     // did we improve
-    if (result < this.mBestF) { // yes, we did
+    final boolean improved = (result < this.mBestF);
+    if (improved) { // yes, we did
       // so remember a copy of this best solution
       this.mBestF = result;
       this.mSearchSpace.copy(y, this.mBestX);
       this.mLastImprovementFE = fes; // and the current FE
       // and the time when the improvement was made
-      this.mLastImprovementTime = System.currentTimeMillis();
+      this.mLastImprovementTime = this.mClock.getTime();
 
       // check if we have exhausted the granted runtime or
       // reached the quality goal
@@ -119,8 +126,7 @@ final class BlackBoxProcess1Log<X>
     if (fes >= this.mMaxFEs) {
       this.terminate();// terminate: no more FEs
     }
-    // return result
-    return result;
+    return improved;
   }
 
   /** {@inheritDoc} */
@@ -138,7 +144,7 @@ final class BlackBoxProcess1Log<X>
   @Override
   public void printLogSection(final String sectionName,
       final IOConsumer<Writer> printer) throws IOException {
-    IOUtils.synchronizedIO(() -> {
+    BlackBoxProcessBase.logIO(this.mLogWriter, () -> {
       this.mLogWriter.write(LogFormat.COMMENT_CHAR);
       this.mLogWriter.write(' ');
       this.mLogWriter.write(sectionName);
@@ -3,7 +3,6 @@ package aitoa.structure;
 import java.io.IOException;
 import java.io.Writer;
 
-import aitoa.utils.IOUtils;
 import aitoa.utils.IOUtils.IOConsumer;
 
 /**
@@ -20,9 +19,7 @@ final class BlackBoxProcess1LogAll<X>
   /** the log file */
   private final Writer mLogWriter;
   /** the log */
-  private long[] mLog;
-  /** the log size */
-  private int mLogSize;
+  private LogBuffer mLog;
 
   /**
    * Instantiate the black box problem
@@ -34,8 +31,8 @@ final class BlackBoxProcess1LogAll<X>
       final BlackBoxProcessBuilder<X, X> pBuilder) {
     super(pBuilder);
 
-    this.mLogWriter = pBuilder.createLogWriter();
-    this.mLog = pBuilder.createLog();
+    this.mLog = pBuilder.createLogBuffer(this.mStartTime);
+    this.mLogWriter = pBuilder.createLogWriter(this.mLog);
 
     // enqueue into terminator thread if needed only after
     // initialization is complete
@@ -48,59 +45,52 @@ final class BlackBoxProcess1LogAll<X>
   @Override
   public void close() throws IOException {
     if (this.mTerminationTime <= 0L) {
-      this.mTerminationTime = System.currentTimeMillis();
+      this.mTerminationTime = this.mClock.getTime();
+      this.mClock.release();
     }
     // make sure we are dequeued from terminator
     this.terminate();
 
     // write the log information and then close log
-    IOUtils.synchronizedIO(() -> {
-      try (final Writer out = this.mLogWriter) {
-        BlackBoxProcessBase.writeLog(this.mLog, this.mLogSize,
-            this.mStartTime, out);
-        this.mLog = null;
-        this.printInfos(out);
-        if (this.mConsumedFEs > 0L) {
-          out.write("# BEST_X"); //$NON-NLS-1$
-          out.write(System.lineSeparator());
-          this.mSearchSpace.print(this.mBestX, out);
-          out.write(System.lineSeparator());
-          out.write("# END_BEST_X"); //$NON-NLS-1$
-          out.write(System.lineSeparator());
-        }
+    BlackBoxProcessBase.writeLogFile(this.mLogWriter, (out) -> {
+      BlackBoxProcessBase.writeLog(this.mLog, out);
+      this.mLog = null;
+      this.printInfos(out);
+      if (this.mConsumedFEs > 0L) {
+        out.write("# BEST_X"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
+        this.mSearchSpace.print(this.mBestX, out);
+        out.write(System.lineSeparator());
+        out.write("# END_BEST_X"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
       }
     });
 
+    this.recordMetrics();
+
     // validate result: throw error if invalid
     this.mSearchSpace.check(this.mBestX);
   }
 
   /** {@inheritDoc} */
   @Override
-  public double evaluate(final X y) {
-    if (this.mTerminated) {
-      // if we have already terminated, straight quit
-      return Double.POSITIVE_INFINITY;
-    }
-    final long fes = ++this.mConsumedFEs; // increase fes
-    // evaluate
-    final double result = this.mF.evaluate(y);
+  double doEvaluate(final X y) {
+    final double result = this.mF.evaluate(y); // evaluate
+    this.doRegister(y, result);
+    return result;
+  }
 
-    final long time = System.currentTimeMillis();
+  /** {@inheritDoc} */
+  @Override
+  boolean doRegister(final X y, final double result) {
+    final long fes = ++this.mConsumedFEs; // increase fes
+    final long time = this.mClock.getTime();
     // store the log information
-    final int size = this.mLogSize;
-    final int newSize = Math.addExact(size, 3);
-    if (newSize > this.mLog.length) { // grow log
-      this.mLog = BlackBoxProcessBase.growLog(this.mLog);
-    }
-    // store log point
-    this.mLog[size] = Double.doubleToLongBits(result);
-    this.mLog[size + 1] = fes;
-    this.mLog[size + 2] = time;
-    this.mLogSize = newSize;
+    this.mLog.add(result, fes, time);
 
     // did we improve
-    if (result < this.mBestF) { // yes, we did
+    final boolean improved = (result < this.mBestF);
+    if (improved) { // yes, we did
       // so remember a copy of this best solution
       this.mBestF = result;
       this.mSearchSpace.copy(y, this.mBestX);
@@ -120,8 +110,7 @@ final class BlackBoxProcess1LogAll<X>
     if (fes >= this.mMaxFEs) {
       this.terminate();// terminate: no more FEs
     }
-    // return result
-    return result;
+    return improved;
   }
 
   /** {@inheritDoc} */
@@ -139,7 +128,7 @@ final class BlackBoxProcess1LogAll<X>
   @Override
   public void printLogSection(final String sectionName,
       final IOConsumer<Writer> printer) throws IOException {
-    IOUtils.synchronizedIO(() -> {
+    BlackBoxProcessBase.logIO(this.mLogWriter, () -> {
       this.mLogWriter.write(LogFormat.COMMENT_CHAR);
       this.mLogWriter.write(' ');
       this.mLogWriter.write(sectionName);
@@ -31,34 +31,39 @@ final class BlackBoxProcess1NoLog<X>
   @Override
   public void close() {
     if (this.mTerminationTime <= 0L) {
-      this.mTerminationTime = System.currentTimeMillis();
+      this.mTerminationTime = this.mClock.getTime();
+      this.mClock.release();
     }
     // make sure we are dequeued from terminator
     this.terminate();
 
+    this.recordMetrics();
+
     // validate result: throw error if invalid
     this.mSearchSpace.check(this.mBestX);
   }
 
   /** {@inheritDoc} */
   @Override
-  public double evaluate(final X y) {
-    if (this.mTerminated) {
-      // if we have already terminated, straight quit
-      return Double.POSITIVE_INFINITY;
-    }
-    final long fes = ++this.mConsumedFEs; // increase fes
-    // evaluate
-    final double result = this.mF.evaluate(y);
+  double doEvaluate(final X y) {
+    final double result = this.mF.evaluate(y); // evaluate
+    this.doRegister(y, result);
+    return result;
+  }
 
+  /** {@inheritDoc} */
+  @Override
+  boolean doRegister(final X y, final double result) {
+    final long fes = ++this.mConsumedFEs; // increase fes
     // did we improve
-    if (result < this.mBestF) { // yes, we did
+    final boolean improved = (result < this.mBestF);
+    if (improved) { // yes, we did
       // so remember a copy of this best solution
       this.mBestF = result;
       this.mSearchSpace.copy(y, this.mBestX);
       this.mLastImprovementFE = fes; // and the current FE
       // and the time when the improvement was made
-      this.mLastImprovementTime = System.currentTimeMillis();
+      this.mLastImprovementTime = this.mClock.getTime();
 
       // check if we have exhausted the granted runtime or
       // reached the quality goal
@@ -72,8 +77,7 @@ final class BlackBoxProcess1NoLog<X>
     if (fes >= this.mMaxFEs) {
       this.terminate();// terminate: no more FEs
     }
-    // return result
-    return result;
+    return improved;
   }
 
   /** {@inheritDoc} */
@@ -3,7 +3,6 @@ package aitoa.structure;
 import java.io.IOException;
 import java.io.Writer;
 
-import aitoa.utils.IOUtils;
 import aitoa.utils.IOUtils.IOConsumer;
 
 /**
@@ -24,6 +23,8 @@ final class BlackBoxProcess2Log<X, Y>
   final Y mBestY;
   /** the log file */
   private final Writer mLogWriter;
+  /** the writer for the binary log, or {@code null} */
+  private final BinaryLogWriter mBinaryLog;
   /** the log */
   private long[] mLog;
   /** the log size */
@@ -43,6 +44,7 @@ final class BlackBoxProcess2Log<X, Y>
 
     this.mLogWriter = pBuilder.createLogWriter();
     this.mLog = pBuilder.createLog();
+    this.mBinaryLog = pBuilder.createBinaryLogWriter();
 
     // enqueue into terminator thread if needed only after
     // initialization is complete
@@ -55,35 +57,38 @@ final class BlackBoxProcess2Log<X, Y>
   @Override
   public void close() throws IOException {
     if (this.mTerminationTime <= 0L) {
-      this.mTerminationTime = System.currentTimeMillis();
+      this.mTerminationTime = this.mClock.getTime();
+      this.mClock.release();
     }
     // make sure we are dequeued from terminator
     this.terminate();
 
     // write the log information and then close log
-    IOUtils.synchronizedIO(() -> {
-      try (final Writer out = this.mLogWriter) {
-        BlackBoxProcessBase.writeLog(this.mLog, this.mLogSize,
-            this.mStartTime, out);
-        this.mLog = null;
-        this.printInfos(out);
-        if (this.mConsumedFEs > 0L) {
-          out.write("# BEST_X"); //$NON-NLS-1$
-          out.write(System.lineSeparator());
-          this.mSearchSpace.print(this.mBestX, out);
-          out.write(System.lineSeparator());
-          out.write("# END_BEST_X");//$NON-NLS-1$
-          out.write(System.lineSeparator());
-          out.write("# BEST_Y"); //$NON-NLS-1$
-          out.write(System.lineSeparator());
-          this.mSolutionSpace.print(this.mBestY, out);
-          out.write(System.lineSeparator());
-          out.write("# END_BEST_Y"); //$NON-NLS-1$
-          out.write(System.lineSeparator());
-        }
+    BlackBoxProcessBase.writeLogFile(this.mLogWriter,
+        this.mBinaryLog, (out) -> {
+      BlackBoxProcessBase.writeLog(this.mLog, this.mLogSize,
+          this.mStartTime, out);
+      this.printInfos(out, this.mBinaryLog, this.mLog,
+          this.mLogSize);
+      this.mLog = null;
+      if (this.mConsumedFEs > 0L) {
+        out.write("# BEST_X"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
+        this.mSearchSpace.print(this.mBestX, out);
+        out.write(System.lineSeparator());
+        out.write("# END_BEST_X");//$NON-NLS-1$
+        out.write(System.lineSeparator());
+        out.write("# BEST_Y"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
+        this.mSolutionSpace.print(this.mBestY, out);
+        out.write(System.lineSeparator());
+        out.write("# END_BEST_Y"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
       }
     });
 
+    this.recordMetrics();
+
     // validate result: throw error if invalid
     this.mSearchSpace.check(this.mBestX);
     this.mSolutionSpace.check(this.mBestY);
@@ -91,25 +96,35 @@ final class BlackBoxProcess2Log<X, Y>
 
   /** {@inheritDoc} */
   @Override
-  public double evaluate(final X y) {
-    if (this.mTerminated) {
-      // if we have already terminated, straight quit
-      return Double.POSITIVE_INFINITY;
-    }
-    final long fes = ++this.mConsumedFEs; // increase fes
+  double doEvaluate(final X y) {
     // map and evaluate
     this.mMapping.map(this.mRandom, y, this.mCurrent);
     final double result = this.mF.evaluate(this.mCurrent);
+    if (this.doRegister(y, result)) { // remember best solution
+      this.mSolutionSpace.copy(this.mCurrent, this.mBestY);
+    }
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  void doSetBestY(final Y y) {
+    this.mSolutionSpace.copy(y, this.mBestY);
+  }
 
+  /** {@inheritDoc} */
+  @Override
+  boolean doRegister(final X y, final double result) {
+    final long fes = ++this.mConsumedFEs; // increase fes
     // did we improve
-    if (result < this.mBestF) { // yes, we did
+    final boolean improved = (result < this.mBestF);
+    if (improved) { // yes, we did
       // so remember a copy of this best solution
       this.mBestF = result;
       this.mSearchSpace.copy(y, this.mBestX);
-      this.mSolutionSpace.copy(this.mCurrent, this.mBestY);
       this.mLastImprovementFE = fes; // and the current FE
       // and the time when the improvement was made
-      this.mLastImprovementTime = System.currentTimeMillis();
+      this.mLastImprovementTime = this.mClock.getTime();
 
       // check if we have exhausted the granted runtime or
       // reached the quality goal
@@ -135,8 +150,7 @@ final class BlackBoxProcess2Log<X, Y>
     if (fes >= this.mMaxFEs) {
       this.terminate();// terminate: no more FEs
     }
-    // return result
-    return result;
+    return improved;
   }
 
   /** {@inheritDoc} */
@@ -154,7 +168,7 @@ final class BlackBoxProcess2Log<X, Y>
   @Override
   public void printLogSection(final String sectionName,
       final IOConsumer<Writer> printer) throws IOException {
-    IOUtils.synchronizedIO(() -> {
+    BlackBoxProcessBase.logIO(this.mLogWriter, () -> {
       this.mLogWriter.write(LogFormat.COMMENT_CHAR);
       this.mLogWriter.write(' ');
       this.mLogWriter.write(sectionName);
@@ -0,0 +1,273 @@
+package aitoa.structure;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import aitoa.utils.IOUtils.IOConsumer;
+
+/**
+ * the black-box problem class for black box problems where the
+ * search and solution space are different, logging takes place,
+ * and the runtime is profiled: every {@value #SAMPLE_INTERVAL}th
+ * call to {@link #doEvaluate(Object)} is timed, separately for
+ * the representation mapping and the objective function. From
+ * the sampled times, the fractions of the consumed time spent in
+ * the mapping, the objective function, and the algorithm itself
+ * are estimated and written into the
+ * {@link LogFormat#PROFILE_LOG_SECTION} of the log. The other
+ * FEs are not timed, so the profiling adds almost no overhead to
+ * the run.
+ *
+ * @param <X>
+ *          the search space
+ * @param <Y>
+ *          the solution space
+ */
+final class BlackBoxProcess2LogProfile<X, Y>
+    extends BlackBoxProcessBase<X, Y> {
+  /** the number of evaluations between two samples */
+  static final int SAMPLE_INTERVAL = 1024;
+
+  /** the current candidate solution */
+  final Y mCurrent;
+  /** the best-so-far candidate solution */
+  final Y mBestY;
+  /** the log file */
+  private final Writer mLogWriter;
+  /** the writer for the binary log, or {@code null} */
+  private final BinaryLogWriter mBinaryLog;
+  /** the log */
+  private long[] mLog;
+  /** the log size */
+  private int mLogSize;
+  /** the evaluations until the next sample */
+  private int mCountdown;
+  /** the number of samples */
+  private long mSamples;
+  /** the sampled nanoseconds spent in the mapping */
+  private long mMapNanos;
+  /** the sampled nanoseconds spent in the objective function */
+  private long mEvaluateNanos;
+
+  /**
+   * Instantiate the black box problem of the black box problem
+   *
+   * @param pBuilder
+   *          the builder to copy the data from
+   */
+  BlackBoxProcess2LogProfile(
+      final BlackBoxProcessBuilder<X, Y> pBuilder) {
+    super(pBuilder);
+    this.mBestY = this.mSolutionSpace.create();
+    this.mCurrent = this.mSolutionSpace.create();
+
+    this.mLogWriter = pBuilder.createLogWriter();
+    this.mLog = pBuilder.createLog();
+    this.mBinaryLog = pBuilder.createBinaryLogWriter();
+    this.mCountdown = BlackBoxProcess2LogProfile.SAMPLE_INTERVAL;
+
+    // enqueue into terminator thread if needed only after
+    // initialization is complete
+    if (this.mMaxTime < Long.MAX_VALUE) {
+      TerminationThread.enqueue(this);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    if (this.mTerminationTime <= 0L) {
+      this.mTerminationTime = this.mClock.getTime();
+      this.mClock.release();
+    }
+    // make sure we are dequeued from terminator
+    this.terminate();
+
+    this.printLogSection(LogFormat.PROFILE_LOG_SECTION,
+        this::printProfile);
+
+    // write the log information and then close log
+    BlackBoxProcessBase.writeLogFile(this.mLogWriter,
+        this.mBinaryLog, (out) -> {
+      BlackBoxProcessBase.writeLog(this.mLog, this.mLogSize,
+          this.mStartTime, out);
+      this.printInfos(out, this.mBinaryLog, this.mLog,
+          this.mLogSize);
+      this.mLog = null;
+      if (this.mConsumedFEs > 0L) {
+        out.write("# BEST_X"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
+        this.mSearchSpace.print(this.mBestX, out);
+        out.write(System.lineSeparator());
+        out.write("# END_BEST_X");//$NON-NLS-1$
+        out.write(System.lineSeparator());
+        out.write("# BEST_Y"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
+        this.mSolutionSpace.print(this.mBestY, out);
+        out.write(System.lineSeparator());
+        out.write("# END_BEST_Y"); //$NON-NLS-1$
+        out.write(System.lineSeparator());
+      }
+    });
+
+    this.recordMetrics();
+
+    // validate result: throw error if invalid
+    this.mSearchSpace.check(this.mBestX);
+    this.mSolutionSpace.check(this.mBestY);
+  }
+
+  /**
+   * Print the profile
+   *
+   * @param out
+   *          the destination
+   * @throws IOException
+   *           if i/o fails
+   */
+  private void printProfile(final Writer out) throws IOException {
+    final long evaluations = Math.addExact(
+        Math.multiplyExact(this.mSamples,
+            BlackBoxProcess2LogProfile.SAMPLE_INTERVAL),
+        BlackBoxProcess2LogProfile.SAMPLE_INTERVAL
+            - this.mCountdown);
+    out.write(LogFormat.mapEntry(
+        LogFormat.PROFILE_SAMPLE_INTERVAL,
+        BlackBoxProcess2LogProfile.SAMPLE_INTERVAL));
+    out.write(System.lineSeparator());
+    out.write(LogFormat.mapEntry(LogFormat.PROFILE_EVALUATIONS,
+        evaluations));
+    out.write(System.lineSeparator());
+    out.write(LogFormat.mapEntry(LogFormat.PROFILE_SAMPLES,
+        this.mSamples));
+    out.write(System.lineSeparator());
+    out.write(LogFormat.mapEntry(LogFormat.PROFILE_MAP_NANOS,
+        this.mMapNanos));
+    out.write(System.lineSeparator());
+    out.write(LogFormat.mapEntry(
+        LogFormat.PROFILE_EVALUATE_NANOS, this.mEvaluateNanos));
+    out.write(System.lineSeparator());
+
+    final double time = 1_000_000d
+        * (this.mTerminationTime - this.mStartTime);
+    if ((this.mSamples <= 0L) || (time <= 0d)) {
+      return; // too short to estimate anything
+    }
+// Extrapolate the sampled times to all evaluations.
+    final double perSample = evaluations / (time * this.mSamples);
+    final double map = Math.min(1d, this.mMapNanos * perSample);
+    final double evaluate = Math.min(1d - map,
+        this.mEvaluateNanos * perSample);
+    out.write(LogFormat.mapEntry(LogFormat.PROFILE_MAP_SHARE,
+        map));
+    out.write(System.lineSeparator());
+    out.write(LogFormat.mapEntry(
+        LogFormat.PROFILE_EVALUATE_SHARE, evaluate));
+    out.write(System.lineSeparator());
+    out.write(LogFormat.mapEntry(
+        LogFormat.PROFILE_ALGORITHM_SHARE,
+        Math.max(0d, 1d - map - evaluate)));
+    out.write(System.lineSeparator());
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  double doEvaluate(final X y) {
+    final double result;
+    if ((--this.mCountdown) > 0) {
+      // map and evaluate
+      this.mMapping.map(this.mRandom, y, this.mCurrent);
+      result = this.mF.evaluate(this.mCurrent);
+    } else {
+      // map and evaluate, but measure the time
+      this.mCountdown = BlackBoxProcess2LogProfile.SAMPLE_INTERVAL;
+      final long start = System.nanoTime();
+      this.mMapping.map(this.mRandom, y, this.mCurrent);
+      final long mapped = System.nanoTime();
+      result = this.mF.evaluate(this.mCurrent);
+      final long end = System.nanoTime();
+      this.mMapNanos += mapped - start;
+      this.mEvaluateNanos += end - mapped;
+      this.mSamples++;
+    }
+    if (this.doRegister(y, result)) { // remember best solution
+      this.mSolutionSpace.copy(this.mCurrent, this.mBestY);
+    }
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  void doSetBestY(final Y y) {
+    this.mSolutionSpace.copy(y, this.mBestY);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  boolean doRegister(final X y, final double result) {
+    final long fes = ++this.mConsumedFEs; // increase fes
+    // did we improve
+    final boolean improved = (result < this.mBestF);
+    if (improved) { // yes, we did
+      // so remember a copy of this best solution
+      this.mBestF = result;
+      this.mSearchSpace.copy(y, this.mBestX);
+      this.mLastImprovementFE = fes; // and the current FE
+      // and the time when the improvement was made
+      this.mLastImprovementTime = this.mClock.getTime();
+
+      // check if we have exhausted the granted runtime or
+      // reached the quality goal
+      if ((this.mLastImprovementTime >= this.mEndTime)
+          || (result <= this.mGoalF)) {
+        this.terminate();// terminate: we are finished
+      }
+
+      // store the log information
+      final int size = this.mLogSize;
+      final int newSize = Math.addExact(size, 3);
+      if (newSize > this.mLog.length) { // grow log
+        this.mLog = BlackBoxProcessBase.growLog(this.mLog);
+      }
+      // store log point
+      this.mLog[size] = Double.doubleToLongBits(result);
+      this.mLog[size + 1] = fes;
+      this.mLog[size + 2] = this.mLastImprovementTime;
+      this.mLogSize = newSize;
+    }
+
+    // check if we have exhausted the granted FEs
+    if (fes >= this.mMaxFEs) {
+      this.terminate();// terminate: no more FEs
+    }
+    return improved;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void getBestY(final Y dest) {
+    if (this.mConsumedFEs > 0L) {
+      this.mSolutionSpace.copy(this.mBestY, dest);
+    } else {
+      throw new IllegalStateException(//
+          "No FE consumed yet."); //$NON-NLS-1$
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void printLogSection(final String sectionName,
+      final IOConsumer<Writer> printer) throws IOException {
+    BlackBoxProcessBase.logIO(this.mLogWriter, () -> {
+      this.mLogWriter.write(LogFormat.COMMENT_CHAR);
+      this.mLogWriter.write(' ');
+      this.mLogWriter.write(sectionName);
+      this.mLogWriter.write(System.lineSeparator());
+      printer.accept(this.mLogWriter);
+      this.mLogWriter.write(LogFormat.COMMENT_CHAR);
+      this.mLogWriter.write(" END_"); //$NON-NLS-1$
+      this.mLogWriter.write(sectionName);
+      this.mLogWriter.write(System.lineSeparator());
+    });
+  }
+}
@@ -39,10 +39,13 @@ final class BlackBoxProcess2NoLog<X, Y>
   @Override
   public void close() {
     if (this.mTerminationTime <= 0L) {
-      this.mTerminationTime = System.currentTimeMillis();
+      this.mTerminationTime = this.mClock.getTime();
+      this.mClock.release();
     }
     // make sure we are dequeued from terminator
     this.terminate();
+    this.recordMetrics();
+
     // validate result: throw error if invalid
     this.mSearchSpace.check(this.mBestX);
     this.mSolutionSpace.check(this.mBestY);
@@ -50,25 +53,35 @@ final class BlackBoxProcess2NoLog<X, Y>
 
   /** {@inheritDoc} */
   @Override
-  public double evaluate(final X y) {
-    if (this.mTerminated) {
-      // if we have already terminated, straight quit
-      return Double.POSITIVE_INFINITY;
-    }
-    final long fes = ++this.mConsumedFEs; // increase fes
+  double doEvaluate(final X y) {
     // map and evaluate
     this.mMapping.map(this.mRandom, y, this.mCurrent);
     final double result = this.mF.evaluate(this.mCurrent);
+    if (this.doRegister(y, result)) { // remember best solution
+      this.mSolutionSpace.copy(this.mCurrent, this.mBestY);
+    }
+    return result;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  void doSetBestY(final Y y) {
+    this.mSolutionSpace.copy(y, this.mBestY);
+  }
 
+  /** {@inheritDoc} */
+  @Override
+  boolean doRegister(final X y, final double result) {
+    final long fes = ++this.mConsumedFEs; // increase fes
     // did we improve
-    if (result < this.mBestF) { // yes, we did
+    final boolean improved = (result < this.mBestF);
+    if (improved) { // yes, we did
       // so remember a copy of this best solution
       this.mBestF = result;
       this.mSearchSpace.copy(y, this.mBestX);
-      this.mSolutionSpace.copy(this.mCurrent, this.mBestY);
       this.mLastImprovementFE = fes; // and the current FE
       // and the time when the improvement was made
-      this.mLastImprovementTime = System.currentTimeMillis();
+      this.mLastImprovementTime = this.mClock.getTime();
 
       // check if we have exhausted the granted runtime or
       // reached the quality goal
@@ -82,8 +95,7 @@ final class BlackBoxProcess2NoLog<X, Y>
     if (fes >= this.mMaxFEs) {
       this.terminate();// terminate: no more FEs
     }
-    // return result
-    return result;
+    return improved;
   }
 
   /** {@inheritDoc} */
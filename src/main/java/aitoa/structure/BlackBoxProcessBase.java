@@ -4,6 +4,11 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import aitoa.utils.IOUtils;
+import aitoa.utils.IOUtils.IOConsumer;
+import aitoa.utils.IOUtils.IORunnable;
 
 /**
  * the abstract base class for black box problems
@@ -40,12 +45,28 @@ abstract class BlackBoxProcessBase<X, Y> extends
    * the time when the process was actually terminated:
    * <em>must</em> be set by subclasses in their overwritten
    * {@link #close()} method (and before doing any
-   * synchronization stuff)!
+   * synchronization stuff), which then must also
+   * {@link IClock#release() release} the clock!
    */
   long mTerminationTime;
 
-  /** a linked list link */
-  transient volatile BlackBoxProcessBase<?, ?> mNext;
+  /**
+   * the next process in the same slot of the timer wheel of the
+   * {@link TerminationThread}
+   */
+  transient BlackBoxProcessBase<?, ?> mNext;
+  /**
+   * the previous process in the same slot of the timer wheel of
+   * the {@link TerminationThread}
+   */
+  transient BlackBoxProcessBase<?, ?> mPrev;
+
+  /**
+   * the cell of the {@link ProcessMetrics} of the thread which
+   * created this process, or {@code null} once the end of the
+   * process has been recorded
+   */
+  private ProcessMetrics.Cell mMetrics;
 
   /**
    * Create the base class of the black box problem
@@ -61,23 +82,46 @@ abstract class BlackBoxProcessBase<X, Y> extends
     this.mBestF = Double.POSITIVE_INFINITY;
 
     // compute time limits
-    this.mLastImprovementTime =
-        this.mStartTime = System.currentTimeMillis();
-    if (this.mMaxTime >= Long.MAX_VALUE) {
-      this.mEndTime = Long.MAX_VALUE;
-    } else {
-      this.mEndTime =
-          Math.addExact(this.mStartTime, this.mMaxTime);
-      if (this.mEndTime >= Long.MAX_VALUE) {
-        throw new IllegalArgumentException(//
-            "Invalid end time " //$NON-NLS-1$
-                + this.mEndTime + //
-                " due to long overflow.");//$NON-NLS-1$
+    this.mClock.acquire();
+    try {
+      this.mLastImprovementTime =
+          this.mStartTime = this.mClock.getTime();
+      if (this.mMaxTime >= Long.MAX_VALUE) {
+        this.mEndTime = Long.MAX_VALUE;
+      } else {
+        this.mEndTime =
+            Math.addExact(this.mStartTime, this.mMaxTime);
+        if (this.mEndTime >= Long.MAX_VALUE) {
+          throw new IllegalArgumentException(//
+              "Invalid end time " //$NON-NLS-1$
+                  + this.mEndTime + //
+                  " due to long overflow.");//$NON-NLS-1$
+        }
       }
+    } catch (final RuntimeException error) {
+// the process will never be closed, so we must give back the
+// clock here
+      this.mClock.release();
+      throw error;
     }
 
     this.mRandom = new Random();
     this.mRandom.setSeed(this.mRandSeed);
+    this.mMetrics = ProcessMetrics.begin(this);
+  }
+
+  /**
+   * Record the end of this process in the
+   * {@link ProcessMetrics}. This method must be called by the
+   * {@link #close()} method of each subclass after the log file
+   * has been written. Calling it more than once has no effect.
+   */
+  final void recordMetrics() {
+    final ProcessMetrics.Cell metrics = this.mMetrics;
+    if (metrics != null) {
+      this.mMetrics = null;
+      ProcessMetrics.end(metrics, this);
+    }
   }
 
   /** terminate this problem */
@@ -91,6 +135,216 @@ abstract class BlackBoxProcessBase<X, Y> extends
     }
   }
 
+  /**
+   * Perform one objective function evaluation, i.e., count the
+   * FE, evaluate {@code x}, update the best-so-far solution, and
+   * log if necessary. This method does not check whether the
+   * process has already terminated, this must be done by the
+   * caller.
+   *
+   * @param x
+   *          the point in the search space
+   * @return the objective value
+   */
+  abstract double doEvaluate(final X x);
+
+  /**
+   * Register the result of one objective function evaluation,
+   * i.e., count the FE, update the best-so-far point in the
+   * search space if {@code f} is better than the best-so-far
+   * objective value, log if necessary, and check whether the
+   * process should terminate. The best-so-far candidate solution
+   * in the solution space is <em>not</em> updated, this is the
+   * duty of the caller.
+   *
+   * @param x
+   *          the point in the search space
+   * @param f
+   *          the objective value of {@code x}
+   * @return {@code true} if {@code f} is an improvement,
+   *         {@code false} otherwise
+   */
+  abstract boolean doRegister(final X x, final double f);
+
+  /**
+   * Set the best-so-far candidate solution in the solution
+   * space. This method does nothing if the search space and the
+   * solution space are the same.
+   *
+   * @param y
+   *          the new best-so-far candidate solution
+   */
+  void doSetBestY(final Y y) {
+    // nothing to do if search and solution space are identical
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final double evaluate(final X x) {
+    if (this.mTerminated) {
+      // if we have already terminated, straight quit
+      return Double.POSITIVE_INFINITY;
+    }
+    return this.doEvaluate(x);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int evaluateBatch(final Record<X>[] records,
+      final int from, final int to) {
+    IteratorBase.checkRange(records, from, to);
+
+    int index = from;
+    if (!this.mTerminated) {
+      // we can evaluate at most as many records as FEs remain
+      final long remaining = this.mMaxFEs - this.mConsumedFEs;
+      final int end = (remaining < (to - from))
+          ? (from + ((int) remaining)) : to;
+
+      // the termination thread may set the flag at any time, so
+      // we check it before each record, just like evaluate(x)
+      while ((index < end) && (!this.mTerminated)) {
+        final Record<X> record = records[index++];
+        record.quality = this.doEvaluate(record.x);
+      }
+    }
+
+    final int evaluated = index - from;
+    while (index < to) { // all others are not evaluated anymore
+      records[index++].quality = Double.POSITIVE_INFINITY;
+    }
+    return evaluated;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int evaluateBatchDescending(
+      final Record<X>[] records, final int from, final int to) {
+    IteratorBase.checkRange(records, from, to);
+
+    int index = to;
+    if (!this.mTerminated) {
+      // we can evaluate at most as many records as FEs remain
+      final long remaining = this.mMaxFEs - this.mConsumedFEs;
+      final int end = (remaining < (to - from))
+          ? (to - ((int) remaining)) : from;
+
+      // the termination thread may set the flag at any time, so
+      // we check it before each record, just like evaluate(x)
+      while ((index > end) && (!this.mTerminated)) {
+        final Record<X> record = records[--index];
+        record.quality = this.doEvaluate(record.x);
+      }
+    }
+
+    final int evaluated = to - index;
+    while (index > from) { // all others are not evaluated anymore
+      records[--index].quality = Double.POSITIVE_INFINITY;
+    }
+    return evaluated;
+  }
+
+  /** the maximum number of parallel evaluation chunks */
+  private static final int MAX_CHUNKS = 64;
+  /** the minimum number of records in a parallel chunk */
+  private static final int MIN_CHUNK_SIZE = 16;
+
+  /**
+   * the parallel evaluation tasks, created on demand and then
+   * re-used
+   */
+  private ParallelEvaluationTask<X, Y>[] mTasks;
+
+  /**
+   * Create an array for parallel evaluation tasks
+   *
+   * @param length
+   *          the length of the array
+   * @return the array
+   * @param <X>
+   *          the search space
+   * @param <Y>
+   *          the solution space
+   */
+  @SuppressWarnings("unchecked")
+  private static <X, Y> ParallelEvaluationTask<X, Y>[]
+      newTasks(final int length) {
+    return (ParallelEvaluationTask<X, Y>[]) //
+    new ParallelEvaluationTask<?, ?>[length];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public final int evaluateBatch(final Record<X>[] records,
+      final int from, final int to, final ForkJoinPool pool) {
+    IteratorBase.checkRange(records, from, to);
+    if ((pool == null) || this.mTerminated) {
+      return this.evaluateBatch(records, from, to);
+    }
+
+    // we can evaluate at most as many records as FEs remain
+    final long remaining = this.mMaxFEs - this.mConsumedFEs;
+    final int end = (remaining < (to - from))
+        ? (from + ((int) remaining)) : to;
+
+    // The chunks only depend on the number of records, not on
+    // the number of threads, making the results reproducible.
+    final int chunks = Math.min(BlackBoxProcessBase.MAX_CHUNKS,
+        (((end - from) + BlackBoxProcessBase.MIN_CHUNK_SIZE) - 1)
+            / BlackBoxProcessBase.MIN_CHUNK_SIZE);
+    if (chunks <= 1) {
+      return this.evaluateBatch(records, from, to);
+    }
+    final int chunkSize = (((end - from) + chunks) - 1) / chunks;
+
+    ParallelEvaluationTask<X, Y>[] tasks = this.mTasks;
+    if ((tasks == null) || (tasks.length < chunks)) {
+      tasks = this.mTasks =
+          BlackBoxProcessBase.newTasks(chunks);
+    }
+
+    // compute the objective values in parallel
+    final boolean needsSeeds = (this.mMapping != null);
+    int start = from;
+    for (int i = 0; i < chunks; i++) {
+      ParallelEvaluationTask<X, Y> task = tasks[i];
+      if (task == null) {
+        tasks[i] = task = new ParallelEvaluationTask<>(
+            this.mMapping, this.mF, this.mSolutionSpace);
+      }
+      final int chunkEnd = Math.min(end, start + chunkSize);
+      task.prepare(records, start, chunkEnd,
+          needsSeeds ? this.mRandom.nextLong() : 0L);
+      start = chunkEnd;
+      pool.execute(task);
+    }
+    for (int i = 0; i < chunks; i++) {
+      tasks[i].join();
+    }
+
+    // merge the results in the original order
+    int index = from;
+    int lastImprovement = -1;
+    while ((index < end) && (!this.mTerminated)) {
+      final Record<X> record = records[index];
+      if (this.doRegister(record.x, record.quality)) {
+        lastImprovement = index;
+      }
+      index++;
+    }
+
+    if (needsSeeds && (lastImprovement >= 0)) {
+      this.doSetBestY(tasks[(lastImprovement - from) / chunkSize]
+          .getSolution(records, lastImprovement));
+    }
+
+    final int evaluated = index - from;
+    while (index < to) { // all others are not evaluated anymore
+      records[index++].quality = Double.POSITIVE_INFINITY;
+    }
+    return evaluated;
+  }
+
   /** {@inheritDoc} */
   @Override
   public final double getBestF() {
@@ -123,7 +377,7 @@ abstract class BlackBoxProcessBase<X, Y> extends
   /** {@inheritDoc} */
   @Override
   public final long getConsumedTime() {
-    final long time = System.currentTimeMillis();
+    final long time = this.mClock.getTime();
     if (time >= this.mEndTime) {
       this.terminate();
     }
@@ -146,9 +400,11 @@ abstract class BlackBoxProcessBase<X, Y> extends
   @Override
   public void close() throws IOException {
     if (this.mTerminationTime <= 0L) {
-      this.mTerminationTime = System.currentTimeMillis();
+      this.mTerminationTime = this.mClock.getTime();
+      this.mClock.release();
     }
     this.terminate();
+    this.recordMetrics();
   }
 
   /** {@inheritDoc} */
@@ -169,6 +425,215 @@ abstract class BlackBoxProcessBase<X, Y> extends
         Math.addExact(log.length, log.length));
   }
 
+  /**
+   * Perform I/O on the log writer. If the log is written
+   * asynchronously, the writer is just a memory buffer and the
+   * job is directly executed. Otherwise, it is executed via
+   * {@link IOUtils#synchronizedIO(IORunnable)}.
+   *
+   * @param writer
+   *          the log writer
+   * @param runnable
+   *          the I/O job
+   * @throws IOException
+   *           if I/O fails
+   */
+  static final void logIO(final Writer writer,
+      final IORunnable runnable) throws IOException {
+    if (writer instanceof LogSink.Output) {
+      runnable.run();
+    } else {
+      IOUtils.synchronizedIO(runnable);
+    }
+  }
+
+  /**
+   * Print the information about this process to the log file
+   * and, if requested, prepare the binary sidecar of the log
+   * file, which is published by
+   * {@link #writeLogFile(Writer, BinaryLogWriter, IOConsumer)}
+   * once the log file has been written.
+   *
+   * @param out
+   *          the destination writer
+   * @param binaryLog
+   *          the writer for the binary sidecar, or {@code null} if
+   *          none should be written
+   * @param log
+   *          the log
+   * @param size
+   *          the log size
+   * @throws IOException
+   *           if i/o fails
+   */
+  final void printInfos(final Writer out,
+      final BinaryLogWriter binaryLog, final long[] log,
+      final int size) throws IOException {
+    if (binaryLog == null) {
+      this.printInfos(out);
+      return;
+    }
+    this.printInfos(binaryLog.capture(out));
+    binaryLog.prepare(log, size, this.mStartTime);
+  }
+
+  /**
+   * Write the final contents of the log file and close the log
+   * writer. If the log is written asynchronously, its contents
+   * are only handed to the {@link LogSink} if {@code body}
+   * completes without error, so that an incomplete log file is
+   * never written. The same holds if the log is spilled: the
+   * temporary file of the {@link LogSpiller} then only replaces
+   * the log file if {@code body} completes without error.
+   *
+   * @param writer
+   *          the log writer
+   * @param body
+   *          the consumer writing the contents
+   * @throws IOException
+   *           if I/O fails
+   */
+  static final void writeLogFile(final Writer writer,
+      final IOConsumer<Writer> body) throws IOException {
+    BlackBoxProcessBase.writeLogFile(writer, null, body);
+  }
+
+  /**
+   * Write the final contents of the log file, close the log
+   * writer and then publish the binary sidecar of the log file,
+   * as described in {@link #writeLogFile(Writer, IOConsumer)}. The
+   * sidecar is published only after the log file has been
+   * written completely: If the log is written asynchronously,
+   * this is done by the {@link LogSink}.
+   *
+   * @param writer
+   *          the log writer
+   * @param binaryLog
+   *          the writer for the binary sidecar, which is prepared
+   *          by {@code body}, or {@code null} if none should be
+   *          written
+   * @param body
+   *          the consumer writing the contents
+   * @throws IOException
+   *           if I/O fails
+   */
+  static final void writeLogFile(final Writer writer,
+      final BinaryLogWriter binaryLog,
+      final IOConsumer<Writer> body) throws IOException {
+    final long start = System.nanoTime();
+    final long bytes;
+    if (writer instanceof LogSink.Output) {
+      final LogSink.Output output = ((LogSink.Output) writer);
+      boolean ok = false;
+      try {
+        body.accept(output);
+        ok = true;
+      } finally {
+        if (ok) {
+          output.close(
+              (binaryLog != null) ? binaryLog::publish : null);
+        } else {
+          output.discard();
+        }
+      }
+      bytes = output.getBytes();
+    } else if (writer instanceof LogSpiller) {
+// The temporary file of the spiller belongs to this process only
+// and is moved into place when closed, so no global lock is
+// needed.
+      final LogSpiller spiller = ((LogSpiller) writer);
+      final long[] count = new long[1];
+      boolean ok = false;
+      try {
+        body.accept(new CountingWriter(spiller, count));
+        ok = true;
+      } finally {
+        if (ok) {
+          spiller.close();
+        } else {
+          spiller.discard();
+        }
+      }
+      if (binaryLog != null) {
+        binaryLog.publish();
+      }
+      bytes = count[0];
+    } else {
+      final long[] count = new long[1];
+      IOUtils.synchronizedIO(() -> {
+        try (final Writer out = writer) {
+          body.accept(new CountingWriter(out, count));
+        }
+        if (binaryLog != null) {
+          binaryLog.publish();
+        }
+      });
+      bytes = count[0];
+    }
+    ProcessMetrics.logWritten(System.nanoTime() - start, bytes);
+  }
+
+  /**
+   * A writer which counts the characters written to another
+   * writer. Since the logs are ASCII text, this is the number of
+   * bytes written.
+   */
+  private static final class CountingWriter extends Writer {
+    /** the writer */
+    private final Writer mOut;
+    /** the counter */
+    private final long[] mCount;
+
+    /**
+     * create
+     *
+     * @param pOut
+     *          the writer
+     * @param pCount
+     *          the counter
+     */
+    CountingWriter(final Writer pOut, final long[] pCount) {
+      super();
+      this.mOut = pOut;
+      this.mCount = pCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final int c) throws IOException {
+      this.mOut.write(c);
+      this.mCount[0]++;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final char[] cbuf, final int off,
+        final int len) throws IOException {
+      this.mOut.write(cbuf, off, len);
+      this.mCount[0] += len;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final String str, final int off,
+        final int len) throws IOException {
+      this.mOut.write(str, off, len);
+      this.mCount[0] += len;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() throws IOException {
+      this.mOut.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+      this.mOut.close();
+    }
+  }
+
   /** the log header */
   private static final char[] LOG_HEADER =
       LogFormat.asComment(LogFormat.joinLogLine("fbest", //$NON-NLS-1$
@@ -201,34 +666,64 @@ abstract class BlackBoxProcessBase<X, Y> extends
   static final void writeLog(final long[] log, final int size,
       final long startTime, final Writer out)
       throws IOException {
-    out.write(BlackBoxProcessBase.BEGIN_LOG);
-    out.write(System.lineSeparator());
-    out.write(BlackBoxProcessBase.LOG_HEADER);
-    out.write(System.lineSeparator());
+    BlackBoxProcessBase.writeLogBegin(out);
+    final LogPointWriter points = new LogPointWriter(out);
     for (int i = 0; i < size;) {
       final double f = Double.longBitsToDouble(log[i++]);
       final long fes = log[i++];
       final long time = log[i++] - startTime;
+      points.write(f, fes, time);
+    }
+    points.flush();
+    BlackBoxProcessBase.writeLogEnd(out);
+  }
 
-      writeF: {
-        if (Double.isFinite(f)//
-            && (f >= Long.MIN_VALUE)//
-            && (f <= Long.MAX_VALUE)) {
-          final long lf = ((long) f);
-          if (lf == f) {
-            out.write(Long.toString(lf));
-            break writeF;
-          }
-        }
-        out.write(Double.toString(f));
-      }
-
-      out.write(LogFormat.CSV_SEPARATOR_CHAR);
-      out.write(Long.toString(fes));
-      out.write(LogFormat.CSV_SEPARATOR_CHAR);
-      out.write(Long.toString(time));
-      out.write(System.lineSeparator());
+  /**
+   * flush the log information stored in a log buffer to a file
+   *
+   * @param log
+   *          the log buffer
+   * @param out
+   *          the buffered writer
+   * @throws IOException
+   *           if an i/o error occurs
+   */
+  static final void writeLog(final LogBuffer log,
+      final Writer out) throws IOException {
+    if (log.getSpiller() == null) {
+// the spiller writes the header ahead of the spilled log points
+      BlackBoxProcessBase.writeLogBegin(out);
     }
+    log.write(out);
+    BlackBoxProcessBase.writeLogEnd(out);
+  }
+
+  /**
+   * write the beginning of the log section, including the header
+   *
+   * @param out
+   *          the buffered writer
+   * @throws IOException
+   *           if an i/o error occurs
+   */
+  static final void writeLogBegin(final Writer out)
+      throws IOException {
+    out.write(BlackBoxProcessBase.BEGIN_LOG);
+    out.write(System.lineSeparator());
+    out.write(BlackBoxProcessBase.LOG_HEADER);
+    out.write(System.lineSeparator());
+  }
+
+  /**
+   * write the end of the log section
+   *
+   * @param out
+   *          the buffered writer
+   * @throws IOException
+   *           if an i/o error occurs
+   */
+  private static void writeLogEnd(final Writer out)
+      throws IOException {
     out.write(BlackBoxProcessBase.END_OF_LOG);
     out.write(System.lineSeparator());
   }
@@ -247,7 +742,7 @@ abstract class BlackBoxProcessBase<X, Y> extends
   @Override
   void printInfos(final Writer out) throws IOException {
     if ((this.mTerminationTime <= 0L) || //
-        (this.mTerminationTime > System.currentTimeMillis())) {
+        (this.mTerminationTime > this.mClock.getTime())) {
       throw new IllegalStateException(//
           "Invalid termination time: " + //$NON-NLS-1$
               this.mTerminationTime);
@@ -6,6 +6,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -29,6 +30,24 @@ public class BlackBoxProcessBuilder<X, Y>
   /** should we log all data? */
   private boolean mLogAll;
 
+  /** should we spill the log to disk during the run? */
+  private boolean mSpillLog;
+
+  /** should we write the log file asynchronously? */
+  private boolean mWriteLogAsync;
+
+  /** the listener to notify when a log was written */
+  private Consumer<Path> mLogWrittenListener;
+
+  /** should we profile the mapping and objective function? */
+  private boolean mProfiling;
+
+  /** should we write a binary sidecar of the log file? */
+  private boolean mBinaryLog;
+
+  /** should the binary sidecar be compressed? */
+  private boolean mCompressBinaryLog;
+
   /** Create the base class of the black box problem */
   public BlackBoxProcessBuilder() {
     super();
@@ -167,6 +186,20 @@ public class BlackBoxProcessBuilder<X, Y>
     return this;
   }
 
+  /**
+   * Set the clock used for measuring the consumed runtime and
+   * time-stamping the log, by default {@link IClock#SYSTEM}
+   *
+   * @param clock
+   *          the clock
+   * @return this
+   */
+  public final BlackBoxProcessBuilder<X, Y>
+      setClock(final IClock clock) {
+    this.mClock = Objects.requireNonNull(clock);
+    return this;
+  }
+
   /**
    * The internal version of the log-path setter. This method is
    * overridden by the test version of the black-box process
@@ -243,6 +276,11 @@ public class BlackBoxProcessBuilder<X, Y>
     // make sure the file exists, so other threads may skip over
     // the problem
     try {
+      if (this.mWriteLogAsync) {
+        Files.newOutputStream(this.mLogPath).close();
+        return new LogSink.Output(this.mLogPath,
+            this.mLogWrittenListener);
+      }
       return Files.newBufferedWriter(this.mLogPath);
     } catch (final IOException ioe) {
       throw new IllegalArgumentException("File '" //$NON-NLS-1$
@@ -287,6 +325,246 @@ public class BlackBoxProcessBuilder<X, Y>
     return this;
   }
 
+  /**
+   * Will the generated black box process spill its log to a
+   * temporary file during the run?
+   *
+   * @return {@code true} if the log is spilled, {@code false}
+   *         otherwise.
+   */
+  public final boolean isSpillingLog() {
+    return this.mSpillLog;
+  }
+
+  /**
+   * Set whether the log should be spilled to a temporary file
+   * next to the log file during the run. This only affects
+   * processes which log every single FE, since only they can
+   * accumulate large amounts of log data. Full chunks of the log
+   * are then written by a background thread, instead of being
+   * kept in memory until the process is closed. The final log
+   * file is the same in both cases.
+   *
+   * @param spillLog
+   *          {@code true} if the log should be spilled,
+   *          {@code false} if it should be kept in memory
+   * @return this builder
+   */
+  public final BlackBoxProcessBuilder<X, Y>
+      setSpillLog(final boolean spillLog) {
+    this.mSpillLog = spillLog;
+    return this;
+  }
+
+  /**
+   * Will the generated black box process write its log file
+   * asynchronously?
+   *
+   * @return {@code true} if the log file is written
+   *         asynchronously, {@code false} otherwise.
+   */
+  public final boolean isWritingLogAsync() {
+    return this.mWriteLogAsync;
+  }
+
+  /**
+   * Set whether the log file should be written asynchronously by
+   * the {@link LogSink}. In this case, the process writes its log
+   * into a memory buffer without acquiring the global I/O lock
+   * and, when closed, hands the buffer to the sink, which writes
+   * it in the background. Code which needs the log files must
+   * then call {@link LogSink#await(java.util.function.Consumer)}.
+   *
+   * @param writeLogAsync
+   *          {@code true} if the log file should be written
+   *          asynchronously, {@code false} if it should be
+   *          written when the process is closed
+   * @return this builder
+   */
+  public final BlackBoxProcessBuilder<X, Y>
+      setWriteLogAsync(final boolean writeLogAsync) {
+    this.mWriteLogAsync = writeLogAsync;
+    return this;
+  }
+
+  /**
+   * Get the listener which is notified when a log file written
+   * asynchronously has been completed.
+   *
+   * @return the listener, or {@code null} if none is set
+   * @see #setLogWrittenListener(Consumer)
+   */
+  public final Consumer<Path> getLogWrittenListener() {
+    return this.mLogWrittenListener;
+  }
+
+  /**
+   * Set a listener to be notified with the path of a log file
+   * once the {@link LogSink} has written it completely and
+   * successfully. The listener is only used if the log file is
+   * {@linkplain #setWriteLogAsync(boolean) written
+   * asynchronously}: it is then invoked by the thread of the
+   * sink. If the log is {@linkplain #setSpillLog(boolean)
+   * spilled}, it is invoked by the thread closing the process
+   * once the log file has been moved into place. A log file
+   * written synchronously is complete when the process has been
+   * closed without error.
+   *
+   * @param listener
+   *          the listener, or {@code null} for none
+   * @return this builder
+   */
+  public final BlackBoxProcessBuilder<X, Y> setLogWrittenListener(
+      final Consumer<Path> listener) {
+    this.mLogWrittenListener = listener;
+    return this;
+  }
+
+  /**
+   * Will the generated black box process profile the
+   * representation mapping and objective function?
+   *
+   * @return {@code true} if the process profiles,
+   *         {@code false} otherwise.
+   */
+  public final boolean isProfiling() {
+    return this.mProfiling;
+  }
+
+  /**
+   * Set whether the generated black box process should profile
+   * how its runtime is split between the
+   * {@linkplain IRepresentationMapping#map representation
+   * mapping}, the {@linkplain IObjectiveFunction#evaluate
+   * objective function}, and the algorithm itself. Every 1024th
+   * FE is timed and the results are written into the
+   * {@link LogFormat#PROFILE_LOG_SECTION} of the log file. This
+   * requires a log path and a representation mapping and cannot
+   * be combined with {@linkplain #setLogAll(boolean) logging all
+   * FEs}.
+   *
+   * @param profiling
+   *          {@code true} if the process should profile,
+   *          {@code false} otherwise
+   * @return this builder
+   */
+  public final BlackBoxProcessBuilder<X, Y>
+      setProfiling(final boolean profiling) {
+    this.mProfiling = profiling;
+    return this;
+  }
+
+  /**
+   * Will the generated black box process write a binary sidecar
+   * of its log file?
+   *
+   * @return {@code true} if a binary sidecar is written,
+   *         {@code false} otherwise.
+   */
+  public final boolean isWritingBinaryLog() {
+    return this.mBinaryLog;
+  }
+
+  /**
+   * Set whether the generated black box process should write a
+   * binary sidecar of its log file, from which the log points,
+   * setup, and state can be loaded without parsing any text. The
+   * sidecar is written by the {@link BinaryLogWriter} next to the
+   * log file, with the {@link LogFormat#BINARY_SUFFIX} appended
+   * to its name. The text log file is written as usual. This
+   * requires a log path and cannot be combined with
+   * {@linkplain #setLogAll(boolean) logging all FEs}.
+   *
+   * @param binaryLog
+   *          {@code true} if a binary sidecar should be written,
+   *          {@code false} otherwise
+   * @return this builder
+   */
+  public final BlackBoxProcessBuilder<X, Y>
+      setBinaryLog(final boolean binaryLog) {
+    this.mBinaryLog = binaryLog;
+    return this;
+  }
+
+  /**
+   * Will the binary sidecar of the log file be compressed?
+   *
+   * @return {@code true} if the binary sidecar is compressed,
+   *         {@code false} otherwise.
+   */
+  public final boolean isCompressingBinaryLog() {
+    return this.mCompressBinaryLog;
+  }
+
+  /**
+   * Set whether the {@linkplain #setBinaryLog(boolean) binary
+   * sidecar} of the log file should be compressed.
+   *
+   * @param compressBinaryLog
+   *          {@code true} if the binary sidecar should be
+   *          compressed, {@code false} otherwise
+   * @return this builder
+   */
+  public final BlackBoxProcessBuilder<X, Y>
+      setCompressBinaryLog(final boolean compressBinaryLog) {
+    this.mCompressBinaryLog = compressBinaryLog;
+    return this;
+  }
+
+  /**
+   * Create the writer for the binary sidecar of the log file
+   *
+   * @return the writer, or {@code null} if no binary sidecar
+   *         should be written
+   */
+  final BinaryLogWriter createBinaryLogWriter() {
+    return this.mBinaryLog
+        ? new BinaryLogWriter(this.mLogPath, this.mCompressBinaryLog)
+        : null;
+  }
+
+  /**
+   * Create the log buffer for processes which log every single
+   * FE
+   *
+   * @param startTime
+   *          the start time of the process
+   * @return the log buffer
+   */
+  final LogBuffer createLogBuffer(final long startTime) {
+    LogSpiller spiller = null;
+    if (this.mSpillLog) {
+      try {
+        // make sure the log file exists, as in createLogWriter
+        Files.newOutputStream(this.mLogPath).close();
+        spiller = new LogSpiller(this.mLogPath, startTime,
+            this.mWriteLogAsync ? this.mLogWrittenListener : null);
+      } catch (final IOException ioe) {
+        throw new IllegalArgumentException("File '" //$NON-NLS-1$
+            + this.mLogPath + //
+            "' cannot be created.", //$NON-NLS-1$
+            ioe);
+      }
+    }
+    return new LogBuffer(this.mExpectedLogLength, startTime,
+        spiller);
+  }
+
+  /**
+   * Create the log writer for processes which log every single
+   * FE. If the log is spilled, the spiller is the log writer,
+   * since the rest of the log is appended to its temporary file,
+   * which then replaces the log file.
+   *
+   * @param log
+   *          the log buffer of the process
+   * @return the log writer
+   */
+  final Writer createLogWriter(final LogBuffer log) {
+    final LogSpiller spiller = log.getSpiller();
+    return (spiller != null) ? spiller : this.createLogWriter();
+  }
+
   /**
    * The internal version used to create the instance of the
    * black box problem. This method is overridden by the test
@@ -300,6 +578,19 @@ public class BlackBoxProcessBuilder<X, Y>
       throw new IllegalArgumentException(
           "No log path is provided, while logging is set to ALL."); //$NON-NLS-1$
     }
+    if (this.mProfiling) {
+      if ((this.mLogPath == null) || (this.mMapping == null)
+          || this.mLogAll) {
+        throw new IllegalArgumentException(
+            "Profiling requires a log path and a representation mapping and cannot be combined with logging ALL."); //$NON-NLS-1$
+      }
+    }
+    if (this.mBinaryLog) {
+      if ((this.mLogPath == null) || this.mLogAll) {
+        throw new IllegalArgumentException(
+            "A binary log requires a log path and cannot be combined with logging ALL."); //$NON-NLS-1$
+      }
+    }
 
     if (this.mLogPath != null) {
 // Try to pre-load the system data to avoid any timing issues
@@ -329,6 +620,9 @@ public class BlackBoxProcessBuilder<X, Y>
     if (this.mLogPath == null) {
       return new BlackBoxProcess2NoLog(this);
     }
+    if (this.mProfiling) {
+      return new BlackBoxProcess2LogProfile(this);
+    }
     return this.mLogAll //
         ? new BlackBoxProcess2LogAll(this)//
         : new BlackBoxProcess2Log(this);
@@ -40,6 +40,8 @@ abstract class BlackBoxProcessData<X, Y> {
   long mMaxTime;
   /** the goal objective value */
   double mGoalF;
+  /** the clock */
+  IClock mClock;
 
   /** Create the base class of the black box problem */
   BlackBoxProcessData() {
@@ -47,6 +49,7 @@ abstract class BlackBoxProcessData<X, Y> {
     this.mGoalF = Double.NEGATIVE_INFINITY;
     this.mMaxFEs = Long.MAX_VALUE;
     this.mMaxTime = Long.MAX_VALUE;
+    this.mClock = IClock.SYSTEM;
   }
 
   /**
@@ -77,6 +80,7 @@ abstract class BlackBoxProcessData<X, Y> {
         BlackBoxProcessData.checkMaxTime(pCopy.mMaxTime);
     this.mGoalF = BlackBoxProcessData.checkGoalF(pCopy.mGoalF);
     this.mRandSeed = pCopy.mRandSeed;
+    this.mClock = Objects.requireNonNull(pCopy.mClock);
   }
 
   /**
@@ -242,6 +246,15 @@ abstract class BlackBoxProcessData<X, Y> {
     return this.mSolutionSpace;
   }
 
+  /**
+   * Get the clock used for measuring the consumed runtime
+   *
+   * @return the clock
+   */
+  public final IClock getClock() {
+    return this.mClock;
+  }
+
   /**
    * get the session start in milliseconds
    *
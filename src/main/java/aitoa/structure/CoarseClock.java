@@ -0,0 +1,38 @@
+package aitoa.structure;
+
+/**
+ * The coarse clock, whose time is refreshed by the internal
+ * {@link TerminationThread termination thread}. Use
+ * {@link IClock#COARSE} to access it.
+ */
+final class CoarseClock implements IClock {
+
+  /** create */
+  CoarseClock() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getTime() {
+    return TerminationThread.getClockTime();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void acquire() {
+    TerminationThread.acquireClock();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void release() {
+    TerminationThread.releaseClock();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return "coarse"; //$NON-NLS-1$
+  }
+}
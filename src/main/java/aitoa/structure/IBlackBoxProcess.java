@@ -4,6 +4,7 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import aitoa.utils.IOUtils.IOConsumer;
 
@@ -41,6 +42,132 @@ public interface IBlackBoxProcess<X, Y> extends
    */
   ISpace<X> getSearchSpace();
 
+  /**
+   * Evaluate a batch of records. The points {@link Record#x} of
+   * the records at the indices {@code from} (inclusive) to
+   * {@code to} (exclusive) are evaluated in this order, exactly
+   * as if {@link #evaluate(Object)} was invoked for each of them,
+   * and the results are stored in their {@link Record#quality}
+   * fields. If the process should terminate during the batch,
+   * e.g., because the FE budget is exhausted, the remaining
+   * records are not evaluated anymore and receive quality
+   * {@link Double#POSITIVE_INFINITY}, just as if
+   * {@link #evaluate(Object)} was invoked after termination. No
+   * FE is consumed for them.
+   * <p>
+   * Evaluating a whole population slice with one call allows
+   * the process to perform the termination checks and the
+   * book-keeping of the best-so-far solution more efficiently.
+   * Algorithms should therefore create the records of a batch in
+   * the order of their indices, so that they are evaluated in
+   * the order of their creation. Algorithms which create them in
+   * descending order of their indices should use
+   * {@link #evaluateBatchDescending(Record[], int, int)}
+   * instead.
+   * <p>
+   * If the representation mapping is randomized, i.e., draws
+   * random numbers from {@link #getRandom()}, then creating all
+   * records first and evaluating them afterwards consumes the
+   * random numbers in a different order than evaluating each
+   * record directly after its creation. The results of such
+   * setups therefore differ from those obtained by invoking
+   * {@link #evaluate(Object)} for each record.
+   *
+   * @param records
+   *          the records
+   * @param from
+   *          the inclusive start index
+   * @param to
+   *          the exclusive end index
+   * @return the number of records that were actually evaluated,
+   *         i.e., the records in {@code from...(from+result-1)}
+   *         have been evaluated
+   */
+  default int evaluateBatch(final Record<X>[] records,
+      final int from, final int to) {
+    IteratorBase.checkRange(records, from, to);
+    int index = from;
+    while ((index < to) && (!this.shouldTerminate())) {
+      final Record<X> record = records[index++];
+      record.quality = this.evaluate(record.x);
+    }
+    final int evaluated = index - from;
+    while (index < to) {
+      records[index++].quality = Double.POSITIVE_INFINITY;
+    }
+    return evaluated;
+  }
+
+  /**
+   * Evaluate a batch of records in descending order of their
+   * indices, i.e., the records at the indices {@code to-1} down
+   * to {@code from} (inclusive) are evaluated in this order.
+   * Apart from the order, the semantics are the same as for
+   * {@link #evaluateBatch(Record[], int, int)}: If the process
+   * should terminate during the batch, the remaining records, now
+   * those with the lower indices, receive quality
+   * {@link Double#POSITIVE_INFINITY}.
+   *
+   * @param records
+   *          the records
+   * @param from
+   *          the inclusive start index
+   * @param to
+   *          the exclusive end index
+   * @return the number of records that were actually evaluated,
+   *         i.e., the records in {@code (to-result)...(to-1)}
+   *         have been evaluated
+   */
+  default int evaluateBatchDescending(final Record<X>[] records,
+      final int from, final int to) {
+    IteratorBase.checkRange(records, from, to);
+    int index = to;
+    while ((index > from) && (!this.shouldTerminate())) {
+      final Record<X> record = records[--index];
+      record.quality = this.evaluate(record.x);
+    }
+    final int evaluated = to - index;
+    while (index > from) {
+      records[--index].quality = Double.POSITIVE_INFINITY;
+    }
+    return evaluated;
+  }
+
+  /**
+   * Evaluate a batch of records, possibly in parallel using the
+   * given {@link ForkJoinPool}. The semantics are the same as
+   * for {@link #evaluateBatch(Record[], int, int)}: The records
+   * are registered in the order of their indices, the FEs are
+   * counted precisely, and records after the termination get
+   * quality {@link Double#POSITIVE_INFINITY}. If the
+   * representation mapping is randomized, it receives random
+   * number generators which are seeded from
+   * {@link #getRandom()}, so the results are reproducible
+   * regardless of the number of threads in {@code pool}. The
+   * {@linkplain IRepresentationMapping#copyForThread() mapping}
+   * and {@linkplain IObjectiveFunction#copyForThread() objective
+   * function} are copied for parallel use.
+   * <p>
+   * The default implementation ignores {@code pool} and invokes
+   * {@link #evaluateBatch(Record[], int, int)}.
+   *
+   * @param records
+   *          the records
+   * @param from
+   *          the inclusive start index
+   * @param to
+   *          the exclusive end index
+   * @param pool
+   *          the pool to use for parallel evaluation, or
+   *          {@code null} for sequential evaluation
+   * @return the number of records that were actually evaluated
+   * @see #evaluateBatch(Record[], int, int)
+   */
+  default int evaluateBatch(final Record<X>[] records,
+      final int from, final int to, final ForkJoinPool pool) {
+    return this.evaluateBatch(records, from, to);
+  }
+
   /**
    * Get the best objective value encountered so far
    *
@@ -0,0 +1,65 @@
+package aitoa.structure;
+
+/**
+ * A clock used by the black-box processes to measure the
+ * consumed runtime and to time-stamp improvements in the log.
+ * The time is given in milliseconds and must be comparable to
+ * {@link System#currentTimeMillis()}, since the end time of a
+ * process with a runtime limit is checked against the system
+ * time by the internal termination thread.
+ */
+@FunctionalInterface
+public interface IClock {
+
+  /**
+   * The system clock, which calls
+   * {@link System#currentTimeMillis()} whenever the time is
+   * needed. This is the default clock.
+   */
+  IClock SYSTEM = System::currentTimeMillis;
+
+  /**
+   * A coarse clock which returns a cached time value. The value
+   * is refreshed about once per millisecond by the internal
+   * termination thread as long as at least one black-box process
+   * uses this clock. Reading the time is thus just a read of a
+   * volatile variable, which is cheap even if it is done at
+   * (almost) every FE. The price is that the time may lag behind
+   * the system time by about one millisecond.
+   */
+  IClock COARSE = new CoarseClock();
+
+  /**
+   * A monotonic clock based on {@link System#nanoTime()}, which
+   * is anchored at the system time when this class is loaded.
+   * The returned time never decreases, even if the system time is
+   * adjusted, but it may drift away from the system time in very
+   * long sessions.
+   */
+  IClock MONOTONIC = new MonotonicClock();
+
+  /**
+   * Get the current time in milliseconds
+   *
+   * @return the current time in milliseconds
+   */
+  long getTime();
+
+  /**
+   * Notify the clock that a black-box process begins to use it.
+   * This method is called before the start time of the process
+   * is read. The default implementation does nothing.
+   */
+  default void acquire() {
+    // do nothing
+  }
+
+  /**
+   * Notify the clock that a black-box process does not use it
+   * anymore. This method is called once, when the process is
+   * closed. The default implementation does nothing.
+   */
+  default void release() {
+    // do nothing
+  }
+}
@@ -10,7 +10,8 @@ import java.util.Random;
  *          the search space
  */
 // start relevant
-public interface IModel<X> extends INullarySearchOperator<X> {
+public interface IModel<X>
+    extends INullarySearchOperator<X>, IResettable {
 
   /** initialize the model */
   void initialize();
@@ -65,6 +66,41 @@ public interface IModel<X> extends INullarySearchOperator<X> {
 
 // end relevant
 
+  /**
+   * Reset the model to its pristine state. Since an algorithm
+   * {@linkplain #initialize() initializes} its model at the
+   * beginning of each run, the default implementation just does
+   * that. Models which keep other state across calls to
+   * {@link #update(Iterable)} must override this method.
+   */
+  @Override
+  default void reset() {
+    this.initialize();
+  }
+
+  /**
+   * Obtain an instance of this model which can be used for
+   * {@linkplain #apply(Object, Random) sampling} by one thread in
+   * parallel to this instance and to all other instances
+   * obtained via this method. The returned instance shares the
+   * model data with this instance, i.e., it always samples from
+   * the model as {@linkplain #update(Iterable) updated} via this
+   * instance, but has its own internal scratch data. Sampling
+   * must not happen in parallel to {@link #initialize()} or
+   * {@link #update(Iterable)}, and the copies should not be
+   * updated themselves. The default implementation returns
+   * {@code this}, which is only correct for models whose
+   * {@link #apply(Object, Random)} does not modify any internal
+   * state.
+   *
+   * @return an instance of this model that can be used for
+   *         sampling in parallel to this one
+   */
+  @Override
+  default IModel<X> copyForThread() {
+    return this;
+  }
+
   /**
    * Create an iterable over a given range of the specified
    * array. The range must be non-empty.
@@ -26,5 +26,23 @@ public interface INullarySearchOperator<X>
    *          a random number generator
    */
   void apply(X dest, Random random);
+// end relevant
+
+  /**
+   * Obtain an instance of this operator which can be used by one
+   * thread in parallel to this instance and to all other
+   * instances obtained via this method. Implementations which
+   * modify internal state during {@link #apply(Object, Random)}
+   * must return a new, independent instance. The default
+   * implementation returns {@code this}, which is correct for
+   * stateless operators.
+   *
+   * @return an instance of this operator that can be used in
+   *         parallel to this one
+   */
+  default INullarySearchOperator<X> copyForThread() {
+    return this;
+  }
+// start relevant
 }
 // end relevant
@@ -48,6 +48,23 @@ public interface IObjectiveFunction<Y> {
     return Double.POSITIVE_INFINITY;
   }
 
+  /**
+   * Obtain an instance of this objective function which can be
+   * used by one thread in parallel to this instance and to all
+   * other instances obtained via this method. Implementations
+   * which keep internal state, such as scratch arrays used
+   * during {@link #evaluate(Object)}, must return a new,
+   * independent instance which may share immutable data with
+   * this one. The default implementation returns {@code this},
+   * which is correct for stateless objective functions.
+   *
+   * @return an instance of this objective function that can be
+   *         used in parallel to this one
+   */
+  default IObjectiveFunction<Y> copyForThread() {
+    return this;
+  }
+
 // start relevant
 }
 // end relevant
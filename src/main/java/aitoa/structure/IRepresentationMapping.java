@@ -27,5 +27,24 @@ public interface IRepresentationMapping<X, Y> {
    *          solution space (will be overwritten)
    */
   void map(Random random, X x, final Y y);
+// end relevant
+
+  /**
+   * Obtain an instance of this representation mapping which can
+   * be used by one thread in parallel to this instance and to
+   * all other instances obtained via this method. Implementations
+   * which keep internal state, such as scratch arrays used
+   * during {@link #map(Random, Object, Object)}, must return a
+   * new, independent instance which may share immutable data
+   * with this one. The default implementation returns
+   * {@code this}, which is correct for stateless mappings.
+   *
+   * @return an instance of this representation mapping that can
+   *         be used in parallel to this one
+   */
+  default IRepresentationMapping<X, Y> copyForThread() {
+    return this;
+  }
+// start relevant
 }
 // end relevant
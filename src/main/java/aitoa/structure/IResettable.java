@@ -0,0 +1,29 @@
+package aitoa.structure;
+
+/**
+ * An object which can be reset to its pristine state. After
+ * {@link #reset()} has been called, the object must behave in
+ * exactly the same way as a freshly created instance with the
+ * same parameters. An algorithm implementing this interface can
+ * thus be used for many independent runs without being
+ * re-created, which saves the allocation of large internal data
+ * structures such as the model of an Estimation of Distribution
+ * Algorithm.
+ * <p>
+ * The experiment execution in {@link aitoa.utils.Experiment}
+ * only re-uses instances of algorithms that implement this
+ * interface, and only if the experiment stage
+ * {@linkplain aitoa.utils.Experiment.IExperimentStage#isReusingAlgorithms()
+ * asks for it}. Since the logs of runs with re-used instances
+ * must be identical to those with new instances, an
+ * implementation must reset <em>all</em> state that can survive
+ * from one run to the next.
+ */
+public interface IResettable {
+
+  /**
+   * Reset this object to the state it had right after its
+   * creation.
+   */
+  void reset();
+}
@@ -136,6 +136,22 @@ public interface IUnarySearchOperator<X>
     return false;
   }
 
+  /**
+   * Obtain an instance of this operator which can be used by one
+   * thread in parallel to this instance and to all other
+   * instances obtained via this method. This concerns only
+   * {@link #apply(Object, Object, Random)}: implementations which
+   * modify internal state during this method must return a new,
+   * independent instance. The default implementation returns
+   * {@code this}, which is correct for stateless operators.
+   *
+   * @return an instance of this operator that can be used in
+   *         parallel to this one
+   */
+  default IUnarySearchOperator<X> copyForThread() {
+    return this;
+  }
+
 // start relevant
 }
 // end relevant
@@ -0,0 +1,366 @@
+package aitoa.structure;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A compact in-memory log for the black-box processes which log
+ * every single FE. Each log point is a triple of objective value,
+ * consumed FEs, and time. Instead of storing three {@code long}s
+ * per log point, we store the differences to the previous log
+ * point as variable-length integers. For integer objective
+ * values, the difference to the previous integer objective value
+ * is stored. Other objective values are stored verbatim. Since
+ * the FEs increase by one per log point and the time rarely
+ * changes between two FEs, a log point usually needs three or
+ * four bytes instead of 24.
+ * <p>
+ * The data is stored in a list of fixed-size {@code byte[]}
+ * chunks. If a chunk is full, a new one is allocated, so the
+ * log data is never copied when the log grows. Log points never
+ * span two chunks.
+ * <p>
+ * If a {@link LogSpiller} is provided, full chunks are not kept
+ * in memory but handed to the spiller, which writes them to a
+ * temporary file in the background. Then, only the current chunk
+ * is kept in memory.
+ */
+final class LogBuffer {
+
+  /** the size of a chunk */
+  private static final int CHUNK_SIZE = 1 << 16;
+  /** the minimum size of the first chunk */
+  private static final int MIN_FIRST_CHUNK_SIZE = 256;
+  /**
+   * the maximum number of bytes of a log point: one tag byte plus
+   * eight bytes for the objective value, and ten bytes each for
+   * the FE and time differences
+   */
+  private static final int MAX_POINT_SIZE = 29;
+  /**
+   * the largest absolute value of integer objective values which
+   * are stored as difference: larger values are stored verbatim
+   */
+  private static final double MAX_INT_F = 1L << 53;
+
+  /** the chunks */
+  private byte[][] mChunks;
+  /** the number of used bytes in each chunk */
+  private int[] mUsed;
+  /** the number of chunks */
+  private int mChunkCount;
+  /** the current chunk */
+  private byte[] mChunk;
+  /** the position in the current chunk */
+  private int mPos;
+
+  /** the spiller, or {@code null} if everything stays in memory */
+  private final LogSpiller mSpiller;
+  /** the start time */
+  private final long mStartTime;
+  /** the last integer objective value */
+  private long mLastF;
+  /** the last FE */
+  private long mLastFE;
+  /** the last time */
+  private long mLastTime;
+  /** the number of log points */
+  private long mSize;
+
+  /**
+   * create the log buffer
+   *
+   * @param pExpectedLength
+   *          the expected number of log points
+   * @param pStartTime
+   *          the start time of the process
+   * @param pSpiller
+   *          the spiller to hand full chunks to, or {@code null}
+   *          if all chunks should be kept in memory
+   */
+  LogBuffer(final int pExpectedLength, final long pStartTime,
+      final LogSpiller pSpiller) {
+    super();
+    this.mSpiller = pSpiller;
+    this.mStartTime = pStartTime;
+    this.mLastTime = pStartTime;
+    this.mChunks = new byte[16][];
+    this.mUsed = new int[16];
+    this.mChunk = new byte[Math.max(
+        LogBuffer.MIN_FIRST_CHUNK_SIZE, (int) (Math.min(
+            LogBuffer.CHUNK_SIZE, (pExpectedLength * 4L))))];
+    this.mChunks[0] = this.mChunk;
+    this.mChunkCount = 1;
+  }
+
+  /**
+   * Add a log point
+   *
+   * @param f
+   *          the objective value
+   * @param fes
+   *          the consumed FEs
+   * @param time
+   *          the time
+   */
+  void add(final double f, final long fes, final long time) {
+    byte[] chunk = this.mChunk;
+    int pos = this.mPos;
+    if ((pos + LogBuffer.MAX_POINT_SIZE) > chunk.length) {
+      chunk = this.newChunk(pos);
+      pos = 0;
+    }
+
+    final long lf = ((long) f);
+    if ((lf == f) && (Math.abs(f) <= LogBuffer.MAX_INT_F)) {
+      // integer: store difference, lowest bit is 0
+      pos = LogBuffer.putVarLong(chunk, pos,
+          LogBuffer.zigZag(lf - this.mLastF) << 1);
+      this.mLastF = lf;
+    } else {
+      // other: tag 1, then the eight bytes of the bits
+      chunk[pos++] = 1;
+      long bits = Double.doubleToRawLongBits(f);
+      for (int i = 8; (--i) >= 0;) {
+        chunk[pos++] = (byte) bits;
+        bits >>>= 8;
+      }
+    }
+
+    pos = LogBuffer.putVarLong(chunk, pos, fes - this.mLastFE);
+    this.mLastFE = fes;
+    pos = LogBuffer.putVarLong(chunk, pos,
+        LogBuffer.zigZag(time - this.mLastTime));
+    this.mLastTime = time;
+
+    this.mPos = pos;
+    this.mSize++;
+  }
+
+  /**
+   * Get the number of log points
+   *
+   * @return the number of log points
+   */
+  long size() {
+    return this.mSize;
+  }
+
+  /**
+   * allocate a new chunk
+   *
+   * @param used
+   *          the number of used bytes in the current chunk
+   * @return the new chunk
+   */
+  private byte[] newChunk(final int used) {
+    final byte[] chunk = new byte[LogBuffer.CHUNK_SIZE];
+    if (this.mSpiller != null) {
+      // hand the full chunk to the spiller and only keep the new
+      // one
+      this.mSpiller.spill(this.mChunk, used);
+      this.mChunks[0] = chunk;
+      this.mChunk = chunk;
+      return chunk;
+    }
+
+    final int count = this.mChunkCount;
+    this.mUsed[count - 1] = used;
+    if (count >= this.mChunks.length) {
+      final int newLength = Math.addExact(count, count);
+      this.mChunks = Arrays.copyOf(this.mChunks, newLength);
+      this.mUsed = Arrays.copyOf(this.mUsed, newLength);
+    }
+    this.mChunks[count] = chunk;
+    this.mChunkCount = count + 1;
+    this.mChunk = chunk;
+    return chunk;
+  }
+
+  /**
+   * Get the spiller of this log buffer
+   *
+   * @return the spiller, or {@code null} if all chunks are kept
+   *         in memory
+   */
+  LogSpiller getSpiller() {
+    return this.mSpiller;
+  }
+
+  /**
+   * Write all log points to the given writer in the log format.
+   * If a spiller is used, the writer must be the spiller, which
+   * already contains the spilled log points, and only the log
+   * points which have not been spilled are written.
+   *
+   * @param out
+   *          the writer
+   * @throws IOException
+   *           if i/o fails
+   */
+  void write(final Writer out) throws IOException {
+    this.mUsed[this.mChunkCount - 1] = this.mPos;
+
+    final LogBuffer.Decoder decoder = (this.mSpiller == null)
+        ? new LogBuffer.Decoder(this.mStartTime)
+        : this.mSpiller.finish();
+    for (int c = 0; c < this.mChunkCount; c++) {
+      decoder.decode(this.mChunks[c], this.mUsed[c], out);
+    }
+  }
+
+  /**
+   * Zig-zag encode a value, so that small negative values become
+   * small positive values
+   *
+   * @param value
+   *          the value
+   * @return the encoded value
+   */
+  private static long zigZag(final long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  /**
+   * Decode a zig-zag encoded value
+   *
+   * @param value
+   *          the encoded value
+   * @return the value
+   */
+  private static long unZigZag(final long value) {
+    return (value >>> 1) ^ (-(value & 1L));
+  }
+
+  /**
+   * Store a value as variable-length integer with seven bits per
+   * byte
+   *
+   * @param dest
+   *          the destination array
+   * @param start
+   *          the start position
+   * @param value
+   *          the value, interpreted as unsigned
+   * @return the position after the value
+   */
+  private static int putVarLong(final byte[] dest,
+      final int start, final long value) {
+    int pos = start;
+    long v = value;
+    while ((v & ~0x7fL) != 0L) {
+      dest[pos++] = (byte) ((v & 0x7fL) | 0x80L);
+      v >>>= 7;
+    }
+    dest[pos++] = (byte) v;
+    return pos;
+  }
+
+  /**
+   * Read a variable-length integer
+   *
+   * @param src
+   *          the source array
+   * @param start
+   *          the start position
+   * @param dest
+   *          the array to store the value in
+   * @return the position after the value
+   */
+  private static int getVarLong(final byte[] src, final int start,
+      final long[] dest) {
+    int pos = start;
+    long value = 0L;
+    int shift = 0;
+    byte b;
+    do {
+      b = src[pos++];
+      value |= (b & 0x7fL) << shift;
+      shift += 7;
+    } while (b < 0);
+    dest[0] = value;
+    return pos;
+  }
+
+  /**
+   * The decoder for the chunks of a log buffer. Since each log
+   * point is stored relative to the previous one, the chunks must
+   * be decoded in the order in which they were filled.
+   */
+  static final class Decoder {
+    /** the start time */
+    private final long mStartTime;
+    /** the temporary variable for reading variable-length ints */
+    private final long[] mNext;
+    /** the last integer objective value */
+    private long mLastF;
+    /** the last FE */
+    private long mFEs;
+    /** the last time */
+    private long mTime;
+
+    /**
+     * create the decoder
+     *
+     * @param pStartTime
+     *          the start time of the process
+     */
+    Decoder(final long pStartTime) {
+      super();
+      this.mStartTime = pStartTime;
+      this.mTime = pStartTime;
+      this.mNext = new long[1];
+    }
+
+    /**
+     * Decode a chunk and write its log points in the log format
+     *
+     * @param chunk
+     *          the chunk
+     * @param used
+     *          the number of used bytes in the chunk
+     * @param out
+     *          the writer
+     * @throws IOException
+     *           if i/o fails
+     */
+    void decode(final byte[] chunk, final int used,
+        final Writer out) throws IOException {
+      final long[] next = this.mNext;
+      final long startTime = this.mStartTime;
+      final LogPointWriter points = new LogPointWriter(out);
+      long lastF = this.mLastF;
+      long fes = this.mFEs;
+      long time = this.mTime;
+
+      int pos = 0;
+      while (pos < used) {
+        final double f;
+        pos = LogBuffer.getVarLong(chunk, pos, next);
+        final long tag = next[0];
+        if ((tag & 1L) == 0L) {
+          lastF += LogBuffer.unZigZag(tag >>> 1);
+          f = lastF;
+        } else {
+          long bits = 0L;
+          for (int i = 0; i < 64; i += 8) {
+            bits |= (chunk[pos++] & 0xffL) << i;
+          }
+          f = Double.longBitsToDouble(bits);
+        }
+        pos = LogBuffer.getVarLong(chunk, pos, next);
+        fes += next[0];
+        pos = LogBuffer.getVarLong(chunk, pos, next);
+        time += LogBuffer.unZigZag(next[0]);
+
+        points.write(f, fes, time - startTime);
+      }
+      points.flush();
+
+      this.mLastF = lastF;
+      this.mFEs = fes;
+      this.mTime = time;
+    }
+  }
+}
@@ -20,6 +20,27 @@ public final class LogFormat {
   /** the suffix to be used for all log and data files */
   public static final String FILE_SUFFIX = ".txt";//$NON-NLS-1$
 
+  /**
+   * the suffix appended to the name of a log file to get the
+   * temporary file into which its log is spilled during a run
+   */
+  public static final String SPILL_SUFFIX = ".spill";//$NON-NLS-1$
+
+  /**
+   * the suffix appended to the name of a log file to get its
+   * binary sidecar, see {@link BinaryLogWriter}
+   */
+  public static final String BINARY_SUFFIX = ".bin";//$NON-NLS-1$
+  /** the magic number at the start of a binary log file */
+  public static final int BINARY_MAGIC = 0x41544c47;
+  /** the version of the binary log format */
+  public static final int BINARY_VERSION = 2;
+  /**
+   * the flag set if the data after the header of a binary log
+   * file is compressed
+   */
+  public static final int BINARY_FLAG_COMPRESSED = 1;
+
   /** the log begin */
   public static final String BEGIN_LOG = "BEGIN_LOG"; //$NON-NLS-1$
 
@@ -32,6 +53,18 @@ public final class LogFormat {
   /** the state end */
   public static final String END_STATE = "END_STATE"; //$NON-NLS-1$
 
+  /** the begin of the best point in the search space */
+  public static final String BEGIN_BEST_X = "BEST_X"; //$NON-NLS-1$
+
+  /** the end of the best point in the search space */
+  public static final String END_BEST_X = "END_BEST_X"; //$NON-NLS-1$
+
+  /** the begin of the best candidate solution */
+  public static final String BEGIN_BEST_Y = "BEST_Y"; //$NON-NLS-1$
+
+  /** the end of the best candidate solution */
+  public static final String END_BEST_Y = "END_BEST_Y"; //$NON-NLS-1$
+
   /** the budget of fes */
   public static final String MAX_FES = "MAX_FES"; //$NON-NLS-1$
 
@@ -232,6 +265,38 @@ public final class LogFormat {
   public static final String SETUP_TERNARY_OP =
       "ternaryOperator"; //$NON-NLS-1$
 
+  /**
+   * the log section written by profiling processes, see
+   * {@link BlackBoxProcessBuilder#setProfiling(boolean)}
+   */
+  public static final String PROFILE_LOG_SECTION = "PROFILE";//$NON-NLS-1$
+  /** the key for the number of FEs between two samples */
+  public static final String PROFILE_SAMPLE_INTERVAL =
+      "SAMPLE_INTERVAL"; //$NON-NLS-1$
+  /**
+   * the key for the number of FEs evaluated by the process
+   * itself, i.e., not in parallel batches
+   */
+  public static final String PROFILE_EVALUATIONS = "EVALUATIONS"; //$NON-NLS-1$
+  /** the key for the number of sampled FEs */
+  public static final String PROFILE_SAMPLES = "SAMPLES"; //$NON-NLS-1$
+  /** the key for the nanoseconds spent in the sampled mappings */
+  public static final String PROFILE_MAP_NANOS = "MAP_NANOS"; //$NON-NLS-1$
+  /** the key for the nanoseconds spent in the sampled evaluations */
+  public static final String PROFILE_EVALUATE_NANOS =
+      "EVALUATE_NANOS"; //$NON-NLS-1$
+  /** the key for the estimated fraction of time spent mapping */
+  public static final String PROFILE_MAP_SHARE = "MAP_SHARE"; //$NON-NLS-1$
+  /** the key for the estimated fraction of time spent evaluating */
+  public static final String PROFILE_EVALUATE_SHARE =
+      "EVALUATE_SHARE"; //$NON-NLS-1$
+  /**
+   * the key for the estimated fraction of time spent in the
+   * algorithm itself
+   */
+  public static final String PROFILE_ALGORITHM_SHARE =
+      "ALGORITHM_SHARE"; //$NON-NLS-1$
+
   /** the null value */
   public static final String NULL = "null"; //$NON-NLS-1$
 
@@ -0,0 +1,173 @@
+package aitoa.structure;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A writer for the log points of a black-box process, i.e., the
+ * lines of the form {@code f;fes;time} in the log section of a
+ * log file. The numbers are formatted directly into a reusable
+ * {@code char[]} buffer, which is passed on to the underlying
+ * {@link Writer} only when it is (almost) full. Integer values,
+ * i.e., the consumed FEs, the consumed time, and all integer
+ * objective values, are formatted by hand without creating any
+ * objects. The textual output is the same as with
+ * {@link Long#toString(long)} and
+ * {@link LogFormat#doubleToStringForLog(double)}. Objective
+ * values which are not integers are still formatted via
+ * {@link Double#toString(double)}, as there is no other way to
+ * obtain exactly the same text.
+ */
+public final class LogPointWriter {
+
+  /** the size of the buffer */
+  private static final int BUFFER_SIZE = 8192;
+  /**
+   * the maximum length of a log point, i.e., two longs, one
+   * double, two separators, and the line separator
+   */
+  private static final int MAX_POINT_LENGTH = 96;
+  /** the line separator */
+  private static final char[] LINE_SEPARATOR =
+      System.lineSeparator().toCharArray();
+  /** the text of {@link Long#MIN_VALUE} */
+  private static final char[] MIN_LONG =
+      Long.toString(Long.MIN_VALUE).toCharArray();
+
+  /** the destination writer */
+  private final Writer mOut;
+  /** the buffer */
+  private final char[] mBuffer;
+  /** the position in the buffer */
+  private int mPos;
+
+  /**
+   * create the log point writer
+   *
+   * @param pOut
+   *          the destination writer
+   */
+  public LogPointWriter(final Writer pOut) {
+    super();
+    if (pOut == null) {
+      throw new NullPointerException(//
+          "Destination writer cannot be null."); //$NON-NLS-1$
+    }
+    this.mOut = pOut;
+    this.mBuffer = new char[LogPointWriter.BUFFER_SIZE];
+  }
+
+  /**
+   * Write a log point
+   *
+   * @param f
+   *          the objective value
+   * @param fes
+   *          the consumed FEs
+   * @param time
+   *          the consumed time
+   * @throws IOException
+   *           if i/o fails
+   */
+  public void write(final double f, final long fes,
+      final long time) throws IOException {
+    if ((this.mPos
+        + LogPointWriter.MAX_POINT_LENGTH) > this.mBuffer.length) {
+      this.flushBuffer();
+    }
+
+    this.appendDouble(f);
+    this.mBuffer[this.mPos++] = LogFormat.CSV_SEPARATOR_CHAR;
+    this.appendLong(fes);
+    this.mBuffer[this.mPos++] = LogFormat.CSV_SEPARATOR_CHAR;
+    this.appendLong(time);
+    for (final char ch : LogPointWriter.LINE_SEPARATOR) {
+      this.mBuffer[this.mPos++] = ch;
+    }
+  }
+
+  /**
+   * Pass all buffered text on to the destination writer. The
+   * destination writer itself is not flushed.
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  public void flush() throws IOException {
+    this.flushBuffer();
+  }
+
+  /**
+   * write the buffer to the destination writer
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  private void flushBuffer() throws IOException {
+    if (this.mPos > 0) {
+      this.mOut.write(this.mBuffer, 0, this.mPos);
+      this.mPos = 0;
+    }
+  }
+
+  /**
+   * append a double in the same way as
+   * {@link LogFormat#doubleToStringForLog(double)}
+   *
+   * @param d
+   *          the double
+   */
+  private void appendDouble(final double d) {
+    if (Double.isFinite(d)//
+        && (d >= Long.MIN_VALUE)//
+        && (d <= Long.MAX_VALUE)) {
+      final long l = ((long) d);
+      if (l == d) {
+        this.appendLong(l);
+        return;
+      }
+    }
+    final String s = Double.toString(d);
+    final int length = s.length();
+    s.getChars(0, length, this.mBuffer, this.mPos);
+    this.mPos += length;
+  }
+
+  /**
+   * append a long in the same way as {@link Long#toString(long)}
+   *
+   * @param l
+   *          the long
+   */
+  private void appendLong(final long l) {
+    final char[] buffer = this.mBuffer;
+    long value = l;
+    if (value < 0L) {
+      if (value == Long.MIN_VALUE) {
+        final char[] min = LogPointWriter.MIN_LONG;
+        System.arraycopy(min, 0, buffer, this.mPos, min.length);
+        this.mPos += min.length;
+        return;
+      }
+      buffer[this.mPos++] = '-';
+      value = -value;
+    }
+
+    // count the digits
+    int digits = 1;
+    for (long bound = 10L; (digits < 19) && (value >= bound);
+        bound *= 10L) {
+      digits++;
+    }
+
+    // write the digits from the back
+    final int end = this.mPos + digits;
+    int pos = end;
+    do {
+      final long next = value / 10L;
+      buffer[--pos] = (char) ('0' + (value - (next * 10L)));
+      value = next;
+    } while (value != 0L);
+    this.mPos = end;
+  }
+}
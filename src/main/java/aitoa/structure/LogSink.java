@@ -0,0 +1,584 @@
+package aitoa.structure;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import aitoa.utils.IOUtils.IORunnable;
+
+/**
+ * The log sink writes the log files of black-box processes
+ * asynchronously. If
+ * {@link BlackBoxProcessBuilder#setWriteLogAsync(boolean)} is
+ * set, a process formats its whole log file into a memory
+ * buffer, without holding any global lock, and hands the
+ * encoded bytes to the sink when it is closed. The thread which
+ * closed the process can then immediately continue with the next
+ * run, while one shared background thread writes all pending log
+ * files in batches.
+ * <p>
+ * The files of a batch are committed as a group: First, all of
+ * them are written. Then, each of them is
+ * {@linkplain FileChannel#force(boolean) forced} to the storage
+ * device and closed. Only then are the binary sidecars published
+ * and the listeners notified that the log files have been
+ * written. A log file which is reported as written thus survives
+ * a crash of the machine with its complete contents, while
+ * forcing the files together instead of one by one lets the
+ * operating system and storage device combine the flushes.
+ * <p>
+ * Since the log files are written later, code which needs the
+ * log files, such as an experiment which has finished a stage,
+ * must call {@link #await(Consumer)}. If a log file cannot be
+ * written, the sink tries to delete it, so that the run will be
+ * repeated when the experiment is executed the next time.
+ */
+public final class LogSink {
+
+  /** the time in milliseconds to wait before quitting */
+  private static final long LINGER_TIME = 1000L;
+  /**
+   * the maximum number of bytes pending to be written before
+   * enqueuing blocks
+   */
+  private static final long MAX_PENDING_BYTES = 64L << 20L;
+  /** the size of the first chunk of an output buffer */
+  private static final int FIRST_CHUNK_SIZE = 1 << 14;
+  /** the size of the other chunks of an output buffer */
+  private static final int CHUNK_SIZE = 1 << 16;
+  /**
+   * the maximum number of files of a batch which are kept open
+   * before they are committed
+   */
+  private static final int MAX_OPEN_FILES = 256;
+
+  /** the synchronizer */
+  private static final Object SYNC = new Object();
+
+  /** the first job in the queue */
+  private static Job sHead = null;
+  /** the last job in the queue */
+  private static Job sTail = null;
+  /** the number of jobs enqueued but not yet written */
+  private static int sPendingJobs = 0;
+  /** the number of bytes enqueued but not yet written */
+  private static long sPendingBytes = 0L;
+  /** the paths of the log files which could not be written */
+  private static final ArrayList<Path> FAILED_PATHS =
+      new ArrayList<>();
+  /** the errors which occurred */
+  private static final ArrayList<IOException> ERRORS =
+      new ArrayList<>();
+  /** the writer thread */
+  private static Thread sThread = null;
+
+  /** forbidden */
+  private LogSink() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Wait until all log files handed to the sink so far have been
+   * written. If some log files could not be written, they are
+   * deleted, {@code onFailure} is invoked for each of their
+   * paths, and an {@link IOException} is thrown.
+   *
+   * @param onFailure
+   *          the consumer to be notified about the paths of all
+   *          log files which could not be written, or
+   *          {@code null}
+   * @throws IOException
+   *           if at least one log file could not be written
+   */
+  public static void await(final Consumer<Path> onFailure)
+      throws IOException {
+    final Path[] failed;
+    final IOException[] errors;
+    boolean interrupted = false;
+
+    synchronized (LogSink.SYNC) {
+      while (LogSink.sPendingJobs > 0) {
+        try {
+          LogSink.SYNC.wait();
+        } catch (@SuppressWarnings("unused") //
+        final InterruptedException ie) {
+          interrupted = true;
+        }
+      }
+      if (LogSink.ERRORS.isEmpty()) {
+        failed = null;
+        errors = null;
+      } else {
+        failed = LogSink.FAILED_PATHS.toArray(new Path[0]);
+        errors = LogSink.ERRORS.toArray(new IOException[0]);
+        LogSink.FAILED_PATHS.clear();
+        LogSink.ERRORS.clear();
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (errors == null) {
+      return;
+    }
+
+    if (onFailure != null) {
+      for (final Path path : failed) {
+        onFailure.accept(path);
+      }
+    }
+    final IOException error = new IOException(//
+        "Could not write " + errors.length + //$NON-NLS-1$
+            " log file(s), e.g., '" //$NON-NLS-1$
+            + failed[0] + '\'', errors[0]);
+    for (int i = 1; i < errors.length; i++) {
+      error.addSuppressed(errors[i]);
+    }
+    throw error;
+  }
+
+  /**
+   * enqueue a log file to be written
+   *
+   * @param job
+   *          the job
+   */
+  private static void enqueue(final Job job) {
+    boolean interrupted = false;
+
+    synchronized (LogSink.SYNC) {
+      while ((LogSink.sPendingJobs > 0) && ((LogSink.sPendingBytes
+          + job.mBytes) > LogSink.MAX_PENDING_BYTES)) {
+        try {
+          LogSink.SYNC.wait();
+        } catch (@SuppressWarnings("unused") //
+        final InterruptedException ie) {
+          interrupted = true;
+        }
+      }
+
+      LogSink.sPendingJobs++;
+      LogSink.sPendingBytes += job.mBytes;
+      if (LogSink.sTail == null) {
+        LogSink.sHead = job;
+      } else {
+        LogSink.sTail.mNext = job;
+      }
+      LogSink.sTail = job;
+
+      if (LogSink.sThread == null) {
+        // create thread if necessary
+        LogSink.sThread = new Thread(LogSink::run);
+        LogSink.sThread.setDaemon(true);
+        LogSink.sThread.start();
+      } else {
+        LogSink.SYNC.notifyAll();
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** the main loop of the writer thread */
+  private static void run() {
+    for (;;) {
+      Job batch;
+
+      synchronized (LogSink.SYNC) {
+        if (LogSink.sHead == null) {
+          try {
+            LogSink.SYNC.wait(LogSink.LINGER_TIME);
+          } catch (@SuppressWarnings("unused") //
+          final InterruptedException ie) {
+            continue;
+          }
+          if (LogSink.sHead == null) {
+            // nothing pending anymore: quit thread
+            LogSink.sThread = null;
+            return;
+          }
+        }
+        // take all pending jobs as one batch
+        batch = LogSink.sHead;
+        LogSink.sHead = LogSink.sTail = null;
+      }
+
+      int jobs = 0;
+      long bytes = 0L;
+      Job uncommitted = batch;
+      int open = 0;
+      for (Job job = batch; job != null; job = job.mNext) {
+        job.write();
+        jobs++;
+        bytes += job.mBytes;
+        if ((++open) >= LogSink.MAX_OPEN_FILES) {
+          LogSink.commit(uncommitted, job.mNext);
+          uncommitted = job.mNext;
+          open = 0;
+        }
+      }
+      LogSink.commit(uncommitted, null);
+
+      synchronized (LogSink.SYNC) {
+        for (Job job = batch; job != null; job = job.mNext) {
+          if (job.mError != null) {
+            LogSink.FAILED_PATHS.add(job.mPath);
+            LogSink.ERRORS.add(job.mError);
+          }
+        }
+        LogSink.sPendingJobs -= jobs;
+        LogSink.sPendingBytes -= bytes;
+        LogSink.SYNC.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Commit the written files of a part of a batch and then notify
+   * the listeners of all files which were committed successfully.
+   *
+   * @param from
+   *          the first job to commit
+   * @param to
+   *          the first job not to commit, or {@code null}
+   */
+  private static void commit(final Job from, final Job to) {
+    for (Job job = from; job != to; job = job.mNext) {
+      job.commit();
+    }
+    for (Job job = from; job != to; job = job.mNext) {
+      if ((job.mError == null) && (job.mOnWritten != null)) {
+        try {
+          job.mOnWritten.accept(job.mPath);
+        } catch (@SuppressWarnings("unused") //
+        final Throwable error) {
+          // the log file has been written, so an error in the
+          // listener must not affect it
+        }
+      }
+    }
+  }
+
+  /** a log file to be written */
+  private static final class Job {
+    /** the path to the log file */
+    final Path mPath;
+    /** the segments */
+    final byte[][] mSegments;
+    /** the number of bytes in the segments */
+    final long mBytes;
+    /** the listener to notify if the file was written, or null */
+    final Consumer<Path> mOnWritten;
+    /**
+     * the action to perform after the file was written, e.g.,
+     * publishing its binary sidecar, or {@code null}
+     */
+    final IORunnable mAfterWritten;
+    /** the channel to the written, but uncommitted, file */
+    private FileChannel mChannel;
+    /** the error, if any */
+    IOException mError;
+    /** the next job */
+    Job mNext;
+
+    /**
+     * create the job
+     *
+     * @param pPath
+     *          the path to the log file
+     * @param pSegments
+     *          the segments
+     * @param pBytes
+     *          the number of bytes in the segments
+     * @param pOnWritten
+     *          the listener to notify if the file was written, or
+     *          {@code null}
+     * @param pAfterWritten
+     *          the action to perform after the file was written,
+     *          or {@code null}
+     */
+    Job(final Path pPath, final byte[][] pSegments,
+        final long pBytes, final Consumer<Path> pOnWritten,
+        final IORunnable pAfterWritten) {
+      super();
+      this.mPath = pPath;
+      this.mSegments = pSegments;
+      this.mBytes = pBytes;
+      this.mOnWritten = pOnWritten;
+      this.mAfterWritten = pAfterWritten;
+    }
+
+    /**
+     * write the log file, but keep it open until it is
+     * {@linkplain #commit() committed}
+     */
+    void write() {
+      try {
+        this.mChannel = FileChannel.open(this.mPath,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        for (final byte[] segment : this.mSegments) {
+          final ByteBuffer buffer = ByteBuffer.wrap(segment);
+          while (buffer.hasRemaining()) {
+            this.mChannel.write(buffer);
+          }
+        }
+      } catch (final IOException ioe) {
+        this.failed(ioe);
+      }
+    }
+
+    /**
+     * force the written log file to the storage device, close it,
+     * and then perform the action, if any: if anything fails, the
+     * log file is deleted
+     */
+    void commit() {
+      if (this.mError != null) {
+        return;
+      }
+      try {
+        try {
+          this.mChannel.force(true);
+        } finally {
+          final FileChannel channel = this.mChannel;
+          this.mChannel = null;
+          channel.close();
+        }
+        if (this.mAfterWritten != null) {
+          this.mAfterWritten.run();
+        }
+      } catch (final IOException ioe) {
+        this.failed(ioe);
+      }
+    }
+
+    /**
+     * record an error, close the log file if it is open, and
+     * delete it
+     *
+     * @param ioe
+     *          the error
+     */
+    private void failed(final IOException ioe) {
+      this.mError = ioe;
+      if (this.mChannel != null) {
+        try {
+          this.mChannel.close();
+        } catch (final IOException ioe2) {
+          ioe.addSuppressed(ioe2);
+        }
+        this.mChannel = null;
+      }
+      try {
+        Files.deleteIfExists(this.mPath);
+      } catch (final IOException ioe2) {
+        ioe.addSuppressed(ioe2);
+      }
+    }
+  }
+
+  /**
+   * The writer used by the black-box processes if their log is
+   * written asynchronously. It encodes all text into a list of
+   * {@code byte[]} chunks. When it is closed, it hands these
+   * chunks to the sink.
+   */
+  static final class Output extends Writer {
+    /** the path to the log file */
+    private final Path mPath;
+    /** the listener to notify if the file was written, or null */
+    private final Consumer<Path> mOnWritten;
+    /** the encoder */
+    private final Writer mEncoder;
+    /** the finished segments */
+    private final ArrayList<byte[]> mSegments;
+    /** the current chunk */
+    private byte[] mChunk;
+    /** the position in the current chunk */
+    private int mPos;
+    /** the number of bytes in the finished segments */
+    private long mBytes;
+    /** has this output been closed? */
+    private boolean mClosed;
+
+    /**
+     * create the output
+     *
+     * @param pPath
+     *          the path to the log file
+     * @param pOnWritten
+     *          the listener to notify once the log file has been
+     *          written successfully, or {@code null}
+     */
+    Output(final Path pPath, final Consumer<Path> pOnWritten) {
+      super();
+      this.mPath = pPath;
+      this.mOnWritten = pOnWritten;
+      this.mSegments = new ArrayList<>();
+      this.mChunk = new byte[LogSink.FIRST_CHUNK_SIZE];
+      this.mEncoder = new OutputStreamWriter(new OutputStream() {
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(final int b) {
+          Output.this.put(b);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(final byte[] b, final int off,
+            final int len) {
+          Output.this.put(b, off, len);
+        }
+      }, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * store a byte
+     *
+     * @param b
+     *          the byte
+     */
+    void put(final int b) {
+      if (this.mPos >= this.mChunk.length) {
+        this.finishChunk();
+      }
+      this.mChunk[this.mPos++] = (byte) b;
+    }
+
+    /**
+     * store some bytes
+     *
+     * @param b
+     *          the bytes
+     * @param off
+     *          the start offset
+     * @param len
+     *          the number of bytes
+     */
+    void put(final byte[] b, final int off, final int len) {
+      int start = off;
+      int remaining = len;
+      while (remaining > 0) {
+        if (this.mPos >= this.mChunk.length) {
+          this.finishChunk();
+        }
+        final int count =
+            Math.min(remaining, this.mChunk.length - this.mPos);
+        System.arraycopy(b, start, this.mChunk, this.mPos, count);
+        this.mPos += count;
+        start += count;
+        remaining -= count;
+      }
+    }
+
+    /** add the current chunk to the segments */
+    private void finishChunk() {
+      if (this.mPos > 0) {
+        this.mSegments.add((this.mPos < this.mChunk.length)
+            ? Arrays.copyOf(this.mChunk, this.mPos)
+            : this.mChunk);
+        this.mBytes += this.mPos;
+      }
+      this.mChunk = new byte[LogSink.CHUNK_SIZE];
+      this.mPos = 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final int c) throws IOException {
+      this.mEncoder.write(c);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final char[] cbuf, final int off,
+        final int len) throws IOException {
+      this.mEncoder.write(cbuf, off, len);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final String str, final int off,
+        final int len) throws IOException {
+      this.mEncoder.write(str, off, len);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() {
+      // nothing to do: data is only written when closing
+    }
+
+    /**
+     * Get the number of bytes handed to the sink when this
+     * output was closed.
+     *
+     * @return the number of bytes, or {@code 0} if the output
+     *         has not been closed or was discarded
+     */
+    long getBytes() {
+      return (this.mChunk == null) ? this.mBytes : 0L;
+    }
+
+    /**
+     * Discard the contents of this output instead of writing them
+     * to the log file, e.g., because an error occurred while
+     * creating them.
+     */
+    void discard() {
+      if (this.mClosed) {
+        return;
+      }
+      this.mClosed = true;
+      this.mChunk = null;
+      this.mSegments.clear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+      this.close(null);
+    }
+
+    /**
+     * Close this output and hand its contents to the sink.
+     *
+     * @param afterWritten
+     *          the action to be performed by the sink after the
+     *          log file has been written, e.g., publishing its
+     *          binary sidecar, or {@code null}
+     * @throws IOException
+     *           if i/o fails
+     */
+    void close(final IORunnable afterWritten) throws IOException {
+      if (this.mClosed) {
+        return;
+      }
+      this.mClosed = true;
+      this.mEncoder.close();
+      if (this.mPos > 0) {
+        this.mSegments.add(Arrays.copyOf(this.mChunk, this.mPos));
+        this.mBytes += this.mPos;
+      }
+      this.mChunk = null;
+      LogSink.enqueue(new Job(this.mPath, this.mSegments
+          .toArray(new byte[this.mSegments.size()][]), this.mBytes,
+          this.mOnWritten, afterWritten));
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package aitoa.structure;
+
+/**
+ * <p>
+ * This class is an internal class. Please do not instantiate it,
+ * use it by yourself, or otherwise meddle with it.
+ * <p>
+ * This internal {@link java.lang.Thread thread} writes the log
+ * chunks handed to it by {@link LogSpiller}s to their temporary
+ * files. One thread is shared by all black-box processes. The
+ * chunks are processed in the order in which they were
+ * enqueued. The thread is created when the first chunk is
+ * enqueued and quits if it has been idle for
+ * {@link #LINGER_TIME} milliseconds.
+ * <p>
+ * To keep the memory consumption bounded even if a process
+ * produces log data faster than it can be written, a process
+ * which has {@link #MAX_PENDING} chunks pending waits until one
+ * of them has been written.
+ */
+final class LogSpillThread extends Thread {
+
+  /** the time in milliseconds to wait before quitting */
+  private static final long LINGER_TIME = 1000L;
+  /** the maximum number of pending chunks per spiller */
+  private static final int MAX_PENDING = 256;
+
+  /** the synchronizer */
+  private static final Object SYNC = new Object();
+
+  /** the first job in the queue */
+  private static Job sHead = null;
+  /** the last job in the queue */
+  private static Job sTail = null;
+  /** the instance */
+  private static LogSpillThread sInstance = null;
+
+  /** create */
+  private LogSpillThread() {
+    super();
+    this.setDaemon(true);
+  }
+
+  /**
+   * enqueue a chunk to be written
+   *
+   * @param spiller
+   *          the spiller
+   * @param chunk
+   *          the chunk
+   * @param used
+   *          the number of used bytes in the chunk
+   */
+  static void enqueue(final LogSpiller spiller,
+      final byte[] chunk, final int used) {
+    final Job job = new Job(spiller, chunk, used);
+    boolean interrupted = false;
+
+    synchronized (LogSpillThread.SYNC) {
+      while (spiller.mPending >= LogSpillThread.MAX_PENDING) {
+        try {
+          LogSpillThread.SYNC.wait();
+        } catch (@SuppressWarnings("unused") //
+        final InterruptedException ie) {
+          interrupted = true;
+        }
+      }
+
+      spiller.mPending++;
+      if (LogSpillThread.sTail == null) {
+        LogSpillThread.sHead = job;
+      } else {
+        LogSpillThread.sTail.mNext = job;
+      }
+      LogSpillThread.sTail = job;
+
+      if (LogSpillThread.sInstance == null) {
+        // create thread if necessary
+        LogSpillThread.sInstance = new LogSpillThread();
+        LogSpillThread.sInstance.start();
+      } else {
+        LogSpillThread.SYNC.notifyAll();
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * wait until all chunks of a spiller have been written
+   *
+   * @param spiller
+   *          the spiller
+   */
+  static void await(final LogSpiller spiller) {
+    boolean interrupted = false;
+    synchronized (LogSpillThread.SYNC) {
+      while (spiller.mPending > 0) {
+        try {
+          LogSpillThread.SYNC.wait();
+        } catch (@SuppressWarnings("unused") //
+        final InterruptedException ie) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void run() {
+    try {
+      for (;;) {
+        final Job job;
+
+        synchronized (LogSpillThread.SYNC) {
+          if (LogSpillThread.sHead == null) {
+            try {
+              LogSpillThread.SYNC.wait(LogSpillThread.LINGER_TIME);
+            } catch (@SuppressWarnings("unused") //
+            final InterruptedException ie) {
+              continue;
+            }
+            if (LogSpillThread.sHead == null) {
+              // nothing pending anymore: quit thread
+              return;
+            }
+          }
+
+          job = LogSpillThread.sHead;
+          LogSpillThread.sHead = job.mNext;
+          if (LogSpillThread.sHead == null) {
+            LogSpillThread.sTail = null;
+          }
+        }
+
+        try {
+          job.mSpiller.writeChunk(job.mChunk, job.mUsed);
+        } finally {
+          synchronized (LogSpillThread.SYNC) {
+            job.mSpiller.mPending--;
+            LogSpillThread.SYNC.notifyAll();
+          }
+        }
+      }
+    } finally {
+      synchronized (LogSpillThread.SYNC) {
+        LogSpillThread.sInstance = null;
+// If we die due to an unexpected error, the remaining chunks
+// must still be written, as their processes wait for them.
+        if (LogSpillThread.sHead != null) {
+          LogSpillThread.sInstance = new LogSpillThread();
+          LogSpillThread.sInstance.start();
+        }
+      }
+    }
+  }
+
+  /** a chunk to be written */
+  private static final class Job {
+    /** the spiller */
+    final LogSpiller mSpiller;
+    /** the chunk */
+    final byte[] mChunk;
+    /** the number of used bytes in the chunk */
+    final int mUsed;
+    /** the next job */
+    Job mNext;
+
+    /**
+     * create the job
+     *
+     * @param pSpiller
+     *          the spiller
+     * @param pChunk
+     *          the chunk
+     * @param pUsed
+     *          the number of used bytes in the chunk
+     */
+    Job(final LogSpiller pSpiller, final byte[] pChunk,
+        final int pUsed) {
+      super();
+      this.mSpiller = pSpiller;
+      this.mChunk = pChunk;
+      this.mUsed = pUsed;
+    }
+  }
+}
@@ -0,0 +1,325 @@
+package aitoa.structure;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * The spiller writes the full chunks of a {@link LogBuffer} to a
+ * temporary data file next to the log file of a black-box
+ * process. The chunks are decoded to the text format of the log
+ * and written in the background by the {@link LogSpillThread}.
+ * The spiller also serves as the log writer of the process:
+ * Sections printed during the run, such as the algorithm setup,
+ * precede the log section in the log file and are therefore
+ * collected in memory. When the process is closed,
+ * {@link #finish()} writes these sections and the header of the
+ * log section to a second temporary file and appends the
+ * contents of the data file. The rest of the log file is then
+ * appended as well and the temporary file is moved to the path
+ * of the log file. The log file itself therefore remains empty
+ * until the run has completed, just as without spilling, and its
+ * contents are exactly the same as without spilling.
+ */
+final class LogSpiller extends Writer {
+
+  /** the suffix of the temporary files */
+  static final String SUFFIX = LogFormat.SPILL_SUFFIX;
+
+  /** the path to the log file */
+  private final Path mLogPath;
+  /** the suffix of the temporary data files */
+  private static final String DATA_SUFFIX =
+      ".data" + LogSpiller.SUFFIX; //$NON-NLS-1$
+
+  /**
+   * the path to the temporary file which is moved to the log file
+   */
+  private final Path mPath;
+  /** the path to the temporary file of the spilled log points */
+  private final Path mDataPath;
+  /** the listener to notify if the file was written, or null */
+  private final Consumer<Path> mOnWritten;
+  /** the decoder */
+  private final LogBuffer.Decoder mDecoder;
+  /**
+   * the writer to the data file, only accessed by the spill thread
+   * until {@link #finish()} is called
+   */
+  private final Writer mData;
+  /** the text written before {@link #finish()} was called */
+  private final StringBuilder mHead;
+  /**
+   * the writer to the temporary file, created by
+   * {@link #finish()}
+   */
+  private Writer mWriter;
+  /** the channel to the temporary file, created by {@link #finish()} */
+  private FileChannel mChannel;
+  /** the first error which occurred during spilling */
+  private IOException mError;
+  /** has this spiller been closed or discarded? */
+  private boolean mClosed;
+  /**
+   * the number of chunks handed to the spill thread but not yet
+   * written, guarded by the lock of the {@link LogSpillThread}
+   */
+  int mPending;
+
+  /**
+   * create the spiller and its temporary data file
+   *
+   * @param pLogPath
+   *          the path to the log file
+   * @param pStartTime
+   *          the start time of the process
+   * @param pOnWritten
+   *          the listener to notify once the log file has been
+   *          moved into place, or {@code null}
+   * @throws IOException
+   *           if the temporary file cannot be created
+   */
+  LogSpiller(final Path pLogPath, final long pStartTime,
+      final Consumer<Path> pOnWritten) throws IOException {
+    super();
+    this.mLogPath = pLogPath;
+    final String name = pLogPath.getFileName().toString();
+    this.mPath = pLogPath.resolveSibling(name + LogSpiller.SUFFIX);
+    this.mDataPath =
+        pLogPath.resolveSibling(name + LogSpiller.DATA_SUFFIX);
+    this.mOnWritten = pOnWritten;
+    this.mDecoder = new LogBuffer.Decoder(pStartTime);
+    this.mHead = new StringBuilder();
+    this.mData = Files.newBufferedWriter(this.mDataPath);
+  }
+
+  /**
+   * Hand a full chunk to the spill thread. The chunk must not be
+   * modified afterwards.
+   *
+   * @param chunk
+   *          the chunk
+   * @param used
+   *          the number of used bytes in the chunk
+   */
+  void spill(final byte[] chunk, final int used) {
+    LogSpillThread.enqueue(this, chunk, used);
+  }
+
+  /**
+   * Write a chunk to the data file: called by the spill thread
+   * only.
+   *
+   * @param chunk
+   *          the chunk
+   * @param used
+   *          the number of used bytes in the chunk
+   */
+  void writeChunk(final byte[] chunk, final int used) {
+    if (this.mError != null) {
+      return;
+    }
+    try {
+      this.mDecoder.decode(chunk, used, this.mData);
+    } catch (final IOException ioe) {
+      this.mError = ioe;
+    }
+  }
+
+  /**
+   * Wait until all chunks have been written and create the
+   * temporary file: It begins with the text written to this
+   * spiller so far, followed by the header of the log section
+   * and the spilled log points. Afterwards, the rest of the log
+   * file can be written to this spiller.
+   *
+   * @return the decoder, which is ready to decode the chunks
+   *         which have not been spilled
+   * @throws IOException
+   *           if spilling has failed
+   */
+  LogBuffer.Decoder finish() throws IOException {
+    LogSpillThread.await(this);
+    if (this.mError != null) {
+      throw new IOException(//
+          "Error when spilling log to '" //$NON-NLS-1$
+              + this.mDataPath + '\'', this.mError);
+    }
+    if (this.mWriter == null) {
+      this.mData.close();
+      this.mChannel = FileChannel.open(this.mPath,
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+      final OutputStream out = Channels.newOutputStream(this.mChannel);
+      try {
+        final Writer writer = new BufferedWriter(
+            new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.append(this.mHead);
+        this.mHead.setLength(0);
+        BlackBoxProcessBase.writeLogBegin(writer);
+        writer.flush();
+        Files.copy(this.mDataPath, out);
+        Files.delete(this.mDataPath);
+        this.mWriter = writer;
+      } finally {
+        if (this.mWriter == null) {
+          out.close();
+        }
+      }
+    }
+    return this.mDecoder;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void write(final int c) throws IOException {
+    if (this.mWriter == null) {
+      this.mHead.append((char) c);
+    } else {
+      this.mWriter.write(c);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void write(final char[] cbuf, final int off,
+      final int len) throws IOException {
+    if (this.mWriter == null) {
+      this.mHead.append(cbuf, off, len);
+    } else {
+      this.mWriter.write(cbuf, off, len);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void write(final String str, final int off,
+      final int len) throws IOException {
+    if (this.mWriter == null) {
+      this.mHead.append(str, off, off + len);
+    } else {
+      this.mWriter.write(str, off, len);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void flush() throws IOException {
+    if (this.mWriter != null) {
+      this.mWriter.flush();
+    }
+  }
+
+  /**
+   * Close the temporary files, ignoring any error, since they
+   * are deleted anyway.
+   */
+  private void closeFiles() {
+    try {
+      this.mData.close();
+    } catch (@SuppressWarnings("unused") //
+    final IOException ioe) {
+      // the file is deleted anyway
+    }
+    if (this.mWriter != null) {
+      try {
+        this.mWriter.close();
+      } catch (@SuppressWarnings("unused") //
+      final IOException ioe) {
+        // the file is deleted anyway
+      }
+    }
+  }
+
+  /**
+   * Discard the temporary files instead of moving them to the log
+   * file, e.g., because an error occurred while writing the rest
+   * of the log.
+   *
+   * @throws IOException
+   *           if the temporary files cannot be deleted
+   */
+  void discard() throws IOException {
+    if (this.mClosed) {
+      return;
+    }
+    this.mClosed = true;
+    LogSpillThread.await(this);
+    this.closeFiles();
+    try {
+      Files.deleteIfExists(this.mPath);
+    } finally {
+      Files.deleteIfExists(this.mDataPath);
+    }
+  }
+
+  /**
+   * Close the temporary file and move it to the path of the log
+   * file, replacing the empty log file.
+   *
+   * @throws IOException
+   *           if i/o fails, in which case the temporary files are
+   *           deleted
+   */
+  @Override
+  public void close() throws IOException {
+    if (this.mClosed) {
+      return;
+    }
+    this.mClosed = true;
+
+    boolean moved = false;
+    try {
+      this.finish();
+// If the listener is notified, the log file is reported as
+// written, so it must survive a crash of the machine, just like
+// the log files written by the LogSink.
+      if (this.mOnWritten != null) {
+        this.mWriter.flush();
+        this.mChannel.force(true);
+      }
+      this.mWriter.close();
+      try {
+        Files.move(this.mPath, this.mLogPath,
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (@SuppressWarnings("unused") //
+      final AtomicMoveNotSupportedException amnse) {
+        Files.move(this.mPath, this.mLogPath,
+            StandardCopyOption.REPLACE_EXISTING);
+      }
+      moved = true;
+    } finally {
+      if (!moved) {
+        LogSpillThread.await(this);
+        this.closeFiles();
+        try {
+          Files.deleteIfExists(this.mPath);
+        } finally {
+          Files.deleteIfExists(this.mDataPath);
+        }
+      }
+    }
+
+    if (this.mOnWritten != null) {
+      try {
+        this.mOnWritten.accept(this.mLogPath);
+      } catch (@SuppressWarnings("unused") //
+      final Throwable error) {
+        // the log file has been written, so an error in the
+        // listener must not affect it
+      }
+    }
+  }
+}
@@ -32,6 +32,19 @@ public abstract class Metaheuristic0<X, Y>
     this.nullary = Objects.requireNonNull(pNullary);
   }
 
+  /**
+   * Reset those search operators of this metaheuristic which are
+   * {@linkplain IResettable resettable}. This method should be
+   * called by metaheuristics implementing {@link IResettable}
+   * when they are reset, since some operators keep internal
+   * state from one application to the next.
+   */
+  protected void resetOperators() {
+    if (this.nullary instanceof IResettable) {
+      ((IResettable) this.nullary).reset();
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
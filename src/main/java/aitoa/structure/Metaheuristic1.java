@@ -36,6 +36,15 @@ public abstract class Metaheuristic1<X, Y>
     this.unary = Objects.requireNonNull(pUnary);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  protected void resetOperators() {
+    super.resetOperators();
+    if (this.unary instanceof IResettable) {
+      ((IResettable) this.unary).reset();
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
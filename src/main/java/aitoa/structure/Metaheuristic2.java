@@ -40,6 +40,15 @@ public abstract class Metaheuristic2<X, Y>
     this.binary = Objects.requireNonNull(pBinary);
   }
 
+  /** {@inheritDoc} */
+  @Override
+  protected void resetOperators() {
+    super.resetOperators();
+    if (this.binary instanceof IResettable) {
+      ((IResettable) this.binary).reset();
+    }
+  }
+
   /** {@inheritDoc} */
   @Override
   public void printSetup(final Writer output)
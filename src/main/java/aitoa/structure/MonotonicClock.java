@@ -0,0 +1,36 @@
+package aitoa.structure;
+
+/**
+ * The monotonic clock based on {@link System#nanoTime()}. Use
+ * {@link IClock#MONOTONIC} to access it.
+ */
+final class MonotonicClock implements IClock {
+
+  /** the system time in milliseconds at the anchor point */
+  private static final long BASE_MILLIS;
+  /** the nano time at the anchor point */
+  private static final long BASE_NANOS;
+
+  static {
+    BASE_MILLIS = System.currentTimeMillis();
+    BASE_NANOS = System.nanoTime();
+  }
+
+  /** create */
+  MonotonicClock() {
+    super();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getTime() {
+    return MonotonicClock.BASE_MILLIS + ((System.nanoTime()
+        - MonotonicClock.BASE_NANOS) / 1_000_000L);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return "monotonic"; //$NON-NLS-1$
+  }
+}
@@ -0,0 +1,169 @@
+package aitoa.structure;
+
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A task which computes the objective values of a consecutive
+ * chunk of records on behalf of a black-box process during
+ * {@link IBlackBoxProcess#evaluateBatch(Record[], int, int, java.util.concurrent.ForkJoinPool)}.
+ * Each task owns its own copies of the representation mapping
+ * and objective function as well as its own random number
+ * generator, so that several tasks can run in parallel. The
+ * task does not count FEs and does not touch the best-so-far
+ * solution of the process: this is done by the process when
+ * merging the results of all chunks in the original order of
+ * the records.
+ *
+ * @param <X>
+ *          the search space
+ * @param <Y>
+ *          the solution space
+ */
+final class ParallelEvaluationTask<X, Y>
+    extends RecursiveAction {
+  /** the serial version uid */
+  private static final long serialVersionUID = 1L;
+
+  /** the representation mapping, or {@code null} if X=Y */
+  private final IRepresentationMapping<X, Y> mMapping;
+  /** the objective function */
+  private final IObjectiveFunction<Y> mF;
+  /** the random number generator used for the mapping */
+  private final Random mRandom;
+  /** the current candidate solution */
+  private Y mCurrent;
+  /** the best candidate solution of this chunk */
+  private Y mBest;
+
+  /** the records */
+  private Record<X>[] mRecords;
+  /** the inclusive start index of the chunk */
+  private int mStart;
+  /** the exclusive end index of the chunk */
+  private int mEnd;
+  /** the seed for the random number generator */
+  private long mSeed;
+  /** the index of the best record in this chunk */
+  private int mBestIndex;
+
+  /**
+   * create the task
+   *
+   * @param pMapping
+   *          the representation mapping, or {@code null} if the
+   *          search and solution space are the same
+   * @param pF
+   *          the objective function
+   * @param pSolutionSpace
+   *          the solution space, or {@code null} if the search
+   *          and solution space are the same
+   */
+  ParallelEvaluationTask(
+      final IRepresentationMapping<X, Y> pMapping,
+      final IObjectiveFunction<Y> pF,
+      final ISpace<Y> pSolutionSpace) {
+    super();
+    this.mF = pF.copyForThread();
+    if (pMapping == null) {
+      this.mMapping = null;
+      this.mRandom = null;
+    } else {
+      this.mMapping = pMapping.copyForThread();
+      this.mRandom = new Random();
+      this.mCurrent = pSolutionSpace.create();
+      this.mBest = pSolutionSpace.create();
+    }
+  }
+
+  /**
+   * prepare the task for a new chunk
+   *
+   * @param records
+   *          the records
+   * @param start
+   *          the inclusive start index of the chunk
+   * @param end
+   *          the exclusive end index of the chunk
+   * @param seed
+   *          the seed for the random number generator used by
+   *          the representation mapping
+   */
+  void prepare(final Record<X>[] records, final int start,
+      final int end, final long seed) {
+    this.reinitialize();
+    this.mRecords = records;
+    this.mStart = start;
+    this.mEnd = end;
+    this.mSeed = seed;
+    this.mBestIndex = -1;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @SuppressWarnings("unchecked")
+  protected void compute() {
+    final Record<X>[] records = this.mRecords;
+    final IObjectiveFunction<Y> f = this.mF;
+    final IRepresentationMapping<X, Y> mapping = this.mMapping;
+    double bestF = Double.POSITIVE_INFINITY;
+    int bestIndex = -1;
+
+    if (mapping == null) { // search space = solution space
+      for (int i = this.mStart; i < this.mEnd; i++) {
+        final Record<X> record = records[i];
+        final double result = f.evaluate((Y) (record.x));
+        record.quality = result;
+        if (result < bestF) {
+          bestF = result;
+          bestIndex = i;
+        }
+      }
+    } else { // we need to map and keep the best solution
+      final Random random = this.mRandom;
+      random.setSeed(this.mSeed);
+      for (int i = this.mStart; i < this.mEnd; i++) {
+        final Record<X> record = records[i];
+        mapping.map(random, record.x, this.mCurrent);
+        final double result = f.evaluate(this.mCurrent);
+        record.quality = result;
+        if (result < bestF) {
+          bestF = result;
+          bestIndex = i;
+          final Y t = this.mBest;
+          this.mBest = this.mCurrent;
+          this.mCurrent = t;
+        }
+      }
+    }
+
+    this.mBestIndex = bestIndex;
+    this.mRecords = null;
+  }
+
+  /**
+   * Get the candidate solution corresponding to the record at
+   * index {@code index} of this chunk. If this record is the
+   * best one of the chunk, we can directly return it. Otherwise,
+   * the mapping is replayed from the start of the chunk with the
+   * same random seed, which yields exactly the same candidate
+   * solution as during {@link #compute()}.
+   *
+   * @param records
+   *          the records
+   * @param index
+   *          the index of the record
+   * @return the candidate solution
+   */
+  Y getSolution(final Record<X>[] records, final int index) {
+    if (index == this.mBestIndex) {
+      return this.mBest;
+    }
+    final Random random = this.mRandom;
+    random.setSeed(this.mSeed);
+    for (int i = this.mStart; i <= index; i++) {
+      this.mMapping.map(random, records[i].x, this.mCurrent);
+    }
+    return this.mCurrent;
+  }
+}
@@ -0,0 +1,293 @@
+package aitoa.structure;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Counters about the black-box processes executed in this JVM,
+ * used to observe long-running experiments.
+ * <p>
+ * The counters are striped: each thread which creates black-box
+ * processes has its own cell, so that no two threads ever write
+ * to the same counter. A cell is only updated twice per run,
+ * when the process is created and when it is closed. The
+ * objective function evaluations are not counted at all on the
+ * hot path: a cell remembers its currently running process and
+ * a reader of the counters adds the
+ * {@linkplain IBlackBoxProcess#getConsumedFEs() consumed FEs}
+ * of that process, which it reads without any synchronization.
+ * This number may thus be slightly outdated, but it costs nothing
+ * while the process is running.
+ * <p>
+ * The cells of threads which have died are merged into one
+ * retired cell, so that the totals still contain their runs.
+ */
+public final class ProcessMetrics {
+
+  /** the cells of the live threads, also used as lock */
+  private static final ArrayList<Cell> CELLS = new ArrayList<>();
+  /** the cell of the current thread */
+  private static final ThreadLocal<Cell> CELL =
+      ThreadLocal.withInitial(ProcessMetrics::register);
+  /** the merged counters of the threads which have died */
+  private static final Cell RETIRED = new Cell(null);
+
+  /** forbidden */
+  private ProcessMetrics() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Create the cell of the current thread.
+   *
+   * @return the cell
+   */
+  private static Cell register() {
+    final Cell cell = new Cell(Thread.currentThread());
+    synchronized (ProcessMetrics.CELLS) {
+      ProcessMetrics.retire();
+      ProcessMetrics.CELLS.add(cell);
+    }
+    return cell;
+  }
+
+  /**
+   * Merge the cells of the threads which have died into the
+   * retired cell. Must be called while holding the lock.
+   */
+  private static void retire() {
+    final Cell retired = ProcessMetrics.RETIRED;
+    for (final Iterator<Cell> it =
+        ProcessMetrics.CELLS.iterator(); it.hasNext();) {
+      final Cell cell = it.next();
+      if (!cell.mThread.isAlive()) {
+        it.remove();
+        final Counters counters = cell.read();
+        retired.mRuns += counters.runs;
+        retired.mFEs += counters.consumedFEs;
+        retired.mRunTime += counters.runTime;
+        retired.mLogTime += counters.logTime;
+        retired.mLogBytes += counters.logBytes;
+      }
+    }
+  }
+
+  /**
+   * Record the begin of a process in the cell of the current
+   * thread.
+   *
+   * @param process
+   *          the process
+   * @return the cell
+   */
+  static Cell begin(final BlackBoxProcessBase<?, ?> process) {
+    final Cell cell = ProcessMetrics.CELL.get();
+    cell.mStart = System.nanoTime();
+    cell.mCurrent = process;
+    return cell;
+  }
+
+  /**
+   * Record the end of a process.
+   *
+   * @param cell
+   *          the cell returned by {@link #begin(BlackBoxProcessBase)}
+   * @param process
+   *          the process
+   */
+  static void end(final Cell cell,
+      final BlackBoxProcessBase<?, ?> process) {
+    final long time = System.nanoTime() - cell.mStart;
+    ++cell.mSequence;
+    cell.mRuns++;
+    cell.mFEs += process.mConsumedFEs;
+    cell.mRunTime += time;
+    if (cell.mCurrent == process) {
+      cell.mCurrent = null;
+    }
+    ++cell.mSequence;
+  }
+
+  /**
+   * Record that the current thread has written a log file.
+   *
+   * @param time
+   *          the time needed, in nanoseconds
+   * @param bytes
+   *          the number of bytes written
+   */
+  static void logWritten(final long time, final long bytes) {
+    final Cell cell = ProcessMetrics.CELL.get();
+    ++cell.mSequence;
+    cell.mLogTime += time;
+    cell.mLogBytes += bytes;
+    ++cell.mSequence;
+  }
+
+  /**
+   * Get the counters of all threads which are alive and have
+   * executed black-box processes.
+   *
+   * @return the counters of the threads
+   */
+  public static List<Counters> getThreads() {
+    final ArrayList<Counters> result = new ArrayList<>();
+    synchronized (ProcessMetrics.CELLS) {
+      ProcessMetrics.retire();
+      for (final Cell cell : ProcessMetrics.CELLS) {
+        result.add(cell.read());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the total counters over all threads, including those
+   * which have died.
+   *
+   * @return the total counters
+   */
+  public static Counters getTotal() {
+    long runs, fes, runTime, logTime, logBytes;
+    synchronized (ProcessMetrics.CELLS) {
+      ProcessMetrics.retire();
+      final Cell retired = ProcessMetrics.RETIRED;
+      runs = retired.mRuns;
+      fes = retired.mFEs;
+      runTime = retired.mRunTime;
+      logTime = retired.mLogTime;
+      logBytes = retired.mLogBytes;
+      for (final Cell cell : ProcessMetrics.CELLS) {
+        final Counters counters = cell.read();
+        runs += counters.runs;
+        fes += counters.consumedFEs;
+        runTime += counters.runTime;
+        logTime += counters.logTime;
+        logBytes += counters.logBytes;
+      }
+    }
+    return new Counters(null, runs, fes, runTime, logTime,
+        logBytes);
+  }
+
+  /** The counters of one thread or all threads. */
+  public static final class Counters {
+    /**
+     * the name of the thread, or {@code null} for the total
+     * counters
+     */
+    public final String thread;
+    /** the number of completed runs */
+    public final long runs;
+    /**
+     * the objective function evaluations consumed by completed
+     * runs and the currently running process
+     */
+    public final long consumedFEs;
+    /**
+     * the total runtime of the completed runs, from the creation
+     * of their processes until they were closed, in nanoseconds
+     */
+    public final long runTime;
+    /**
+     * the part of the runtime spent on writing log files, in
+     * nanoseconds
+     */
+    public final long logTime;
+    /** the number of bytes of the written log files */
+    public final long logBytes;
+
+    /**
+     * create the counters
+     *
+     * @param pThread
+     *          the thread name
+     * @param pRuns
+     *          the number of runs
+     * @param pConsumedFEs
+     *          the consumed FEs
+     * @param pRunTime
+     *          the runtime
+     * @param pLogTime
+     *          the time spent on writing logs
+     * @param pLogBytes
+     *          the bytes written
+     */
+    Counters(final String pThread, final long pRuns,
+        final long pConsumedFEs, final long pRunTime,
+        final long pLogTime, final long pLogBytes) {
+      super();
+      this.thread = pThread;
+      this.runs = pRuns;
+      this.consumedFEs = pConsumedFEs;
+      this.runTime = pRunTime;
+      this.logTime = pLogTime;
+      this.logBytes = pLogBytes;
+    }
+  }
+
+  /**
+   * The cell of one thread. All fields are only written by that
+   * thread. Readers use the sequence number to get a consistent
+   * view, which is incremented before and after each update.
+   */
+  static final class Cell {
+    /** the thread */
+    final Thread mThread;
+    /** the update sequence number, odd during an update */
+    volatile long mSequence;
+    /** the process which is currently running, or null */
+    volatile BlackBoxProcessBase<?, ?> mCurrent;
+    /** the start time of the current process */
+    long mStart;
+    /** the number of completed runs */
+    volatile long mRuns;
+    /** the FEs of the completed runs */
+    volatile long mFEs;
+    /** the runtime of the completed runs */
+    volatile long mRunTime;
+    /** the time spent on writing logs */
+    volatile long mLogTime;
+    /** the bytes written into logs */
+    volatile long mLogBytes;
+
+    /**
+     * create the cell
+     *
+     * @param pThread
+     *          the thread
+     */
+    Cell(final Thread pThread) {
+      super();
+      this.mThread = pThread;
+    }
+
+    /**
+     * Read the counters of this cell.
+     *
+     * @return the counters
+     */
+    Counters read() {
+      for (;;) {
+        final long sequence = this.mSequence;
+        if ((sequence & 1L) == 0L) {
+          final BlackBoxProcessBase<?, ?> current = this.mCurrent;
+          final long runs = this.mRuns;
+          long fes = this.mFEs;
+          final long runTime = this.mRunTime;
+          final long logTime = this.mLogTime;
+          final long logBytes = this.mLogBytes;
+          if (current != null) {
+            fes += current.mConsumedFEs;
+          }
+          if (sequence == this.mSequence) {
+            return new Counters(this.mThread.getName(), runs, fes,
+                runTime, logTime, logBytes);
+          }
+        }
+        Thread.yield();
+      }
+    }
+  }
+}
@@ -18,20 +18,56 @@ package aitoa.structure;
  * {@link BlackBoxProcessBase}, this method is very
  * resource-friendly and saves runtime.
  * <p>
- * The thread works as a very simple, sorted queue. It is assumed
- * that there will never be too many problems running in
- * parallel, so we can simply use methods with linear complexity
- * to update and work on the queue. The elements in the queue are
- * sorted according to their termination time.
+ * Since many short runs may be executed in parallel, the thread
+ * does not keep a sorted queue. Instead, the processes are
+ * stored in a hashed timer wheel: an array of
+ * {@link #WHEEL_SIZE} slots, each of which represents one
+ * millisecond and holds a doubly-linked list of the processes
+ * whose end time modulo {@link #WHEEL_SIZE} is that millisecond.
+ * Thus, {@link #enqueue(BlackBoxProcessBase)} and
+ * {@link #dequeue(BlackBoxProcessBase)} have constant
+ * complexity. Processes whose end time is more than
+ * {@link #WHEEL_SIZE} milliseconds in the future simply stay in
+ * their slot when it is visited until the wheel has turned often
+ * enough. The thread visits all slots between the last and the
+ * current time and then sleeps until the time of the next
+ * non-empty slot.
+ * <p>
+ * The thread also drives the {@link IClock#COARSE coarse clock}:
+ * As long as at least one process uses this clock, the thread
+ * wakes up every millisecond and stores the current time in
+ * {@link #sClockTime}.
  */
 final class TerminationThread extends Thread {
 
+  /**
+   * the number of slots in the timer wheel, i.e., the number of
+   * milliseconds per turn of the wheel: must be a power of 2
+   */
+  private static final int WHEEL_SIZE = 1024;
+  /** the mask for computing the slot of a time */
+  private static final int WHEEL_MASK =
+      TerminationThread.WHEEL_SIZE - 1;
+
   /** the synchronizer */
   private static final Object SYNC = new Object();
 
-  /** the queue */
-  private static volatile BlackBoxProcessBase<?, ?> sQueue =
-      null;
+  /** the timer wheel */
+  private static final BlackBoxProcessBase<?, ?>[] WHEEL =
+      new BlackBoxProcessBase<?,
+          ?>[TerminationThread.WHEEL_SIZE];
+  /** the number of processes in the wheel */
+  private static int sSize = 0;
+  /** the last time up to which the wheel has been processed */
+  private static long sTime = 0L;
+  /** the time when the thread will wake up next */
+  private static long sWakeUp = Long.MAX_VALUE;
+  /** the number of processes using the coarse clock */
+  private static int sClockUsers = 0;
+  /** the time of the coarse clock, which never decreases */
+  private static volatile long sClockTime =
+      System.currentTimeMillis();
+
   /** the instance */
   private static volatile TerminationThread sInstance = null;
 
@@ -48,9 +84,6 @@ final class TerminationThread extends Thread {
    *          the function
    */
   static void enqueue(final BlackBoxProcessBase<?, ?> f) {
-    BlackBoxProcessBase<?, ?> prev = null;
-    BlackBoxProcessBase<?, ?> next = null;
-
     final long t = f.mEndTime; // throw NullPointerException if
                                // null
     if ((t >= Long.MAX_VALUE) || (t <= 0L)) {
@@ -59,31 +92,28 @@ final class TerminationThread extends Thread {
               + t);
     }
 
-    // find right place for insertion
+    final int slot = (int) (t & TerminationThread.WHEEL_MASK);
     synchronized (TerminationThread.SYNC) {
-      next = TerminationThread.sQueue;
-
-      while (next != null) {
-        if (next == f) {
-          throw new IllegalArgumentException(
-              "Attempt to enqueue problem twice!"); //$NON-NLS-1$
-        }
-        if (next.mEndTime > f.mEndTime) {
-          break; // found it
-        }
-        prev = next;
-        next = next.mNext;
+      final BlackBoxProcessBase<?, ?> head =
+          TerminationThread.WHEEL[slot];
+      if ((head == f) || (f.mPrev != null)) {
+        throw new IllegalArgumentException(
+            "Attempt to enqueue problem twice!"); //$NON-NLS-1$
       }
 
-      f.mNext = next;
-      if (prev != null) {
-        // no need to wake up thread, as there is already a
-        // pending sleep
-        prev.mNext = f;
+      if (t <= TerminationThread.sTime) {
+        // the slot has already been visited: the end time has
+        // passed, so we can terminate directly
+        f.mTerminated = true;
         return;
       }
 
-      TerminationThread.sQueue = f;
+      f.mNext = head;
+      if (head != null) {
+        head.mPrev = f;
+      }
+      TerminationThread.WHEEL[slot] = f;
+      TerminationThread.sSize++;
 
       if (TerminationThread.sInstance == null) {
         // create thread if necessary
@@ -92,8 +122,10 @@ final class TerminationThread extends Thread {
         return;
       }
 
-      // we have new first element, wake up thread to check
-      TerminationThread.SYNC.notifyAll();
+      if (t < TerminationThread.sWakeUp) {
+        // we have a new earliest end time, wake up thread
+        TerminationThread.SYNC.notifyAll();
+      }
     }
   }
 
@@ -104,65 +136,173 @@ final class TerminationThread extends Thread {
    *          the function
    */
   static void dequeue(final BlackBoxProcessBase<?, ?> f) {
-    BlackBoxProcessBase<?, ?> cur = null;
-    BlackBoxProcessBase<?, ?> next = null;
-
     if (f == null) {
       throw new NullPointerException(//
           "null function?"); //$NON-NLS-1$
     }
 
+    final int slot =
+        (int) (f.mEndTime & TerminationThread.WHEEL_MASK);
     synchronized (TerminationThread.SYNC) {
-      next = TerminationThread.sQueue;
-
-      // find element in queue
-      while (next != null) {
-        if (next == f) {
-          if (cur == null) {
-            // delete first element
-            TerminationThread.sQueue = next.mNext;
-            TerminationThread.SYNC.notifyAll();
-            return;
-          }
-          // delete element which is not the first one
-          cur.mNext = next.mNext;
-          return;
-        }
-        cur = next;
-        next = next.mNext;
+      if ((f.mPrev == null)
+          && (TerminationThread.WHEEL[slot] != f)) {
+        return; // not in the wheel
+      }
+      TerminationThread.unlink(f, slot);
+      if ((TerminationThread.sSize <= 0)
+          && (TerminationThread.sClockUsers <= 0)) {
+        // wake up thread so that it can quit
+        TerminationThread.SYNC.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Get the time of the coarse clock
+   *
+   * @return the time of the coarse clock
+   */
+  static long getClockTime() {
+    return TerminationThread.sClockTime;
+  }
+
+  /** register a user of the coarse clock */
+  static void acquireClock() {
+    synchronized (TerminationThread.SYNC) {
+      final long time = System.currentTimeMillis();
+      if (time > TerminationThread.sClockTime) {
+        TerminationThread.sClockTime = time;
+      }
+      TerminationThread.sClockUsers++;
+
+      if (TerminationThread.sInstance == null) {
+        // create thread if necessary
+        TerminationThread.sInstance = new TerminationThread();
+        TerminationThread.sInstance.start();
+        return;
+      }
+
+      if (TerminationThread.sWakeUp > (time + 1L)) {
+        // wake up thread so that it updates the clock
+        TerminationThread.SYNC.notifyAll();
+      }
+    }
+  }
+
+  /** unregister a user of the coarse clock */
+  static void releaseClock() {
+    synchronized (TerminationThread.SYNC) {
+      if (((--TerminationThread.sClockUsers) <= 0)
+          && (TerminationThread.sSize <= 0)) {
+        // wake up thread so that it can quit
+        TerminationThread.SYNC.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Remove a process from the wheel: must only be called when
+   * holding the lock on {@link #SYNC}.
+   *
+   * @param f
+   *          the process
+   * @param slot
+   *          the slot in which the process is stored
+   */
+  private static void unlink(final BlackBoxProcessBase<?, ?> f,
+      final int slot) {
+    final BlackBoxProcessBase<?, ?> prev = f.mPrev;
+    final BlackBoxProcessBase<?, ?> next = f.mNext;
+    if (prev == null) {
+      TerminationThread.WHEEL[slot] = next;
+    } else {
+      prev.mNext = next;
+    }
+    if (next != null) {
+      next.mPrev = prev;
+    }
+    f.mPrev = null;
+    f.mNext = null;
+    TerminationThread.sSize--;
+  }
+
+  /**
+   * Terminate all processes in a slot whose end time is not
+   * after {@code time}: must only be called when holding the
+   * lock on {@link #SYNC}.
+   *
+   * @param slot
+   *          the slot
+   * @param time
+   *          the current time
+   */
+  private static void expire(final int slot, final long time) {
+    BlackBoxProcessBase<?, ?> cur = TerminationThread.WHEEL[slot];
+    while (cur != null) {
+      final BlackBoxProcessBase<?, ?> next = cur.mNext;
+      if (cur.mEndTime <= time) {
+        cur.mTerminated = true;
+        TerminationThread.unlink(cur, slot);
       }
+      cur = next;
     }
   }
 
   /** {@inheritDoc} */
   @Override
   public void run() {
+    final BlackBoxProcessBase<?, ?>[] wheel =
+        TerminationThread.WHEEL;
+
     // main loop
     for (;;) {
       final long time = System.currentTimeMillis();
 
       synchronized (TerminationThread.SYNC) {
+        if (time > TerminationThread.sClockTime) {
+          TerminationThread.sClockTime = time;
+        }
 
-        inner: for (;;) {
-          if (TerminationThread.sQueue == null) {
-            // nothing pending anymore: quit thread
-            TerminationThread.sInstance = null;
-            return;
+        // visit all slots which have passed since the last visit
+        final long last = TerminationThread.sTime;
+        if ((time - last) >= TerminationThread.WHEEL_SIZE) {
+          for (int slot = TerminationThread.WHEEL_SIZE;
+              (--slot) >= 0;) {
+            TerminationThread.expire(slot, time);
           }
+        } else {
+          for (long t = last + 1L; t <= time; t++) {
+            TerminationThread.expire(
+                (int) (t & TerminationThread.WHEEL_MASK), time);
+          }
+        }
+        if (time > last) {
+          TerminationThread.sTime = time;
+        }
+
+        if ((TerminationThread.sSize <= 0)
+            && (TerminationThread.sClockUsers <= 0)) {
+          // nothing pending anymore: quit thread
+          TerminationThread.sWakeUp = Long.MAX_VALUE;
+          TerminationThread.sInstance = null;
+          return;
+        }
 
-          if (TerminationThread.sQueue.mEndTime <= time) {
-            // terminate one element from queue
-            TerminationThread.sQueue.mTerminated = true;
-            TerminationThread.sQueue =
-                TerminationThread.sQueue.mNext;
-          } else {
-            break inner;
+        // find the next non-empty slot: no process can end
+        // before its time, unless we need to update the clock
+        int delay = 1;
+        if (TerminationThread.sClockUsers <= 0) {
+          for (; delay < TerminationThread.WHEEL_SIZE; delay++) {
+            if (wheel[(int) ((time + delay)
+                & TerminationThread.WHEEL_MASK)] != null) {
+              break;
+            }
           }
         }
+        TerminationThread.sWakeUp = time + delay;
 
         try {
-          TerminationThread.SYNC.wait(Math.max(0L,
-              (TerminationThread.sQueue.mEndTime - time)));
+          TerminationThread.SYNC.wait(delay);
         } catch (@SuppressWarnings("unused") //
         final InterruptedException ie) {
           continue;
@@ -3,6 +3,7 @@ package aitoa.utils;
 import java.io.IOException;
 import java.io.Writer;
 import java.math.BigDecimal;
+import java.net.InetAddress;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -19,7 +20,9 @@ import aitoa.structure.BlackBoxProcessBuilder;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IMetaheuristic;
 import aitoa.structure.IObjectiveFunction;
+import aitoa.structure.IResettable;
 import aitoa.structure.LogFormat;
+import aitoa.structure.LogSink;
 
 /** A class for processing and executing experiments */
 public final class Experiment {
@@ -353,7 +356,10 @@ public final class Experiment {
    * zero-sized files and then start the experiments. Since the
    * log data will be written to the log files only
    * <em>after</em> the runs, only log files of completed runs
-   * will have a size larger than zero.
+   * will have a size larger than zero. The method
+   * {@link #resumeExperiment(Path, int, boolean)} does this
+   * automatically and also deletes log files which were
+   * truncated by the crash.
    * <p>
    * Overall, this mechanism allows us to do experiments in
    * parallel while not caring about threads or parallelism in
@@ -378,7 +384,7 @@ public final class Experiment {
    * @throws IOException
    *           if I/O fails
    */
-  private static Path logFile(final Path root,
+  static Path logFile(final Path root,
       final String algorithm, final String instance,
       final long randSeed, final FileSet done,
       final boolean onlyComputePath) throws IOException {
@@ -594,6 +600,26 @@ public final class Experiment {
         final P problem) {
       //
     }
+
+    /**
+     * Should algorithm instances be re-used across runs? By
+     * default, a new instance of the algorithm is obtained from
+     * its supplier for each run, so that all runs are surely
+     * independent. If this method returns {@code true}, then
+     * instances implementing {@link IResettable} are
+     * {@linkplain IResettable#reset() reset} and re-used for the
+     * runs of the same algorithm setup on the same problem in the
+     * same thread instead. This saves the repeated allocation of
+     * large data structures, such as the models of EDAs, and
+     * must lead to exactly the same log files.
+     *
+     * @return {@code true} if resettable algorithm instances
+     *         should be re-used, {@code false} if a new instance
+     *         should be created for each run
+     */
+    default boolean isReusingAlgorithms() {
+      return false;
+    }
   }
 
   /**
@@ -604,7 +630,7 @@ public final class Experiment {
    * @param random
    *          the randomizer
    */
-  private static void sleep(final long min,
+  static void sleep(final long min,
       final ThreadLocalRandom random) {
     Thread.yield();
     if (min > 0L) {
@@ -784,7 +810,7 @@ public final class Experiment {
   }
 
   /** perform garbage collection */
-  private static void doGc() {
+  static void doGc() {
     final Runtime runtime = Runtime.getRuntime();
 
     for (int i = 10; (--i) >= 0;) {
@@ -899,9 +925,14 @@ public final class Experiment {
                 Objects.requireNonNull(stageSupplier.get());
 
 // We create a new black-box process builder and configure it.
+// The log files are written asynchronously, so that we can
+// directly proceed to the next run after a run has finished.
             final BlackBoxProcessBuilder builder =
                 new BlackBoxProcessBuilder<>();
+            builder.setWriteLogAsync(true);
             stage.configureBuilder(builder);
+            final boolean writeLogAsync =
+                builder.isWritingLogAsync();
 
 // Now we take the problem stream and flatten it.
             final Supplier<IObjectiveFunction>[] problems =
@@ -962,8 +993,17 @@ public final class Experiment {
 
 // If we get here, we definitely will do some runs with the
 // problem, so we adjust the builder to it.
+              builder.setWriteLogAsync(writeLogAsync);
               stage.configureBuilderForProblem(builder, f);
               builder.setObjectiveFunction(f);
+// An asynchronously written log file is kept in memory until the
+// process is closed. If every single FE is logged and the log is
+// not spilled, this may need too much memory, so we write it
+// synchronously.
+              if (builder.isLoggingAll()
+                  && (!builder.isSpillingLog())) {
+                builder.setWriteLogAsync(false);
+              }
 
 // Now we iterate over the algorithms, in their random order.
               for (final Supplier<
@@ -985,9 +1025,20 @@ public final class Experiment {
 // that all runs are independent. Of course, we may waste some
 // resources. Yes, we could probably re-use pre-allocated
 // objects. But we want to be on the safe side an ensure that our
-// experiments can be replicated.
-                  final IMetaheuristic algorithm = Objects
-                      .requireNonNull(algorithmSupplier.get());
+// experiments can be replicated. Only if the stage explicitly
+// asks for it, we re-use the previous instance if it can be reset
+// to its pristine state.
+                  final IMetaheuristic algorithm;
+                  final boolean reused =
+                      stage.isReusingAlgorithms()
+                          && (algoOld instanceof IResettable);
+                  if (reused) {
+                    ((IResettable) algoOld).reset();
+                    algorithm = algoOld;
+                  } else {
+                    algorithm = Objects
+                        .requireNonNull(algorithmSupplier.get());
+                  }
 
 // Get the algorithm name and perform sanity checks.
                   final String algoName = algorithm.toString();
@@ -1018,7 +1069,7 @@ public final class Experiment {
                               + algoClass + "'.");//$NON-NLS-1$
                     }
                   }
-                  if (algorithm == algoOld) {
+                  if ((algorithm == algoOld) && (!reused)) {
                     throw new IllegalArgumentException(
                         "You are not allowed to re-use algorithm instances (we want to ensure that all runs are independent), but you tried to re-use an instance of '"//$NON-NLS-1$
                             + algoName + "'.");//$NON-NLS-1$
@@ -1153,6 +1204,15 @@ public final class Experiment {
               }
             } // end of the problem
 
+// Wait until all log files have been written. Log files which
+// could not be written have been deleted, so the corresponding
+// runs must be done again, which happens when we retry.
+            LogSink.await(path -> {
+              synchronized (done) {
+                done.remove(path);
+              }
+            });
+
             Thread.yield();
             if (writeLogInfos) {
               ConsoleIO.stdout(
@@ -1241,15 +1301,17 @@ public final class Experiment {
    * {@linkplain IExperimentStage stages} and on all available
    * cores.
    * <p>
-   * The advantage of this routine over others is that it can
-   * synchronize the file existence checks between the different
-   * runs at least somewhat. For example, if one thread detects
-   * that a run with a given setup has already been performed
-   * (i.e., that the corresponding file already exists), the
-   * other threads will not test that again. This may
-   * significantly reduce the file system operations. Again, with
+   * The advantage of this routine over others is that the
+   * threads do not discover the runs to do via the file system.
+   * Instead, all runs of a stage are enumerated once, the output
+   * directory is scanned once for existing log files, and the
+   * remaining runs are distributed to the threads by a
+   * work-stealing scheduler, the most expensive runs first. This
+   * significantly reduces the file system operations. Again, with
    * the goal to relief the central, shared file server. This may
-   * increase both the performance and the reliability.
+   * increase both the performance and the reliability. The log
+   * files are still created atomically before each run, so
+   * several processes can work on the same experiment.
    *
    * @param stages
    *          the stages
@@ -1266,6 +1328,42 @@ public final class Experiment {
         Experiment.defaultThreadCount());
   }
 
+  /**
+   * Prepare an aborted experiment for being continued. After a
+   * crash of the machine or a power outage, the output directory
+   * may contain empty log files of the runs that were in progress
+   * and log files that were truncated while being written. Since
+   * these log files exist, their runs would be considered as
+   * done. This method scans the output directory with several
+   * threads, deletes all log files which are empty or lack the
+   * {@link aitoa.structure.LogFormat#END_BEST_X} or
+   * {@link aitoa.structure.LogFormat#END_STATE} section, as well
+   * as left-over temporary files, and reports its progress. The
+   * deleted runs, and only those, will be performed when the
+   * experiment is started again.
+   * <p>
+   * This method must only be called while no process is
+   * working on the experiment, since the empty log files of runs
+   * in progress look exactly like those left behind by a crash.
+   *
+   * @param outputDir
+   *          the output directory
+   * @param threads
+   *          the number of threads to use for scanning
+   * @param writeLogInfos
+   *          should we print log information?
+   * @return the number of deleted log files
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static long resumeExperiment(final Path outputDir,
+      final int threads, final boolean writeLogInfos)
+      throws IOException {
+    return ExperimentResume.resume(
+        Objects.requireNonNull(outputDir), threads,
+        writeLogInfos);
+  }
+
   /**
    * Get the default thread count
    *
@@ -1331,62 +1429,197 @@ public final class Experiment {
               + cores);
     }
     Objects.requireNonNull(outputDir);
-    Objects.requireNonNull(stages);
-
     final List<Supplier<IExperimentStage<? extends X,
         ? extends Y, ?, ?>>> stageList =
-            stages.collect(Collectors.toList());
-    if (stageList.size() <= 0) {
-      throw new IllegalArgumentException(
-          "There must be at least one stage.");//$NON-NLS-1$
-    }
-
-    final Thread[] threads = new Thread[cores];
+            Experiment.collectStages(stages);
 
     if (writeLogInfos) {
-      ConsoleIO.stdout("Now launching "//$NON-NLS-1$
+      ConsoleIO.stdout("Now launching the experiment with "//$NON-NLS-1$
           + cores + " worker threads.");//$NON-NLS-1$
     }
 
-    final FileSet done = new FileSet();
-
-    for (int i = threads.length; (--i) >= 0;) {
-      final Thread t = threads[i] = new Thread(
-          () -> Experiment.executeExperiment(stageList.stream(),
-              outputDir, writeLogInfos, waitAfterSkippedRuns,
-              waitAfterWorkWasDone, waitAfterIOError, done),
-          "ExperimentWorker_" + (i + 1)); //$NON-NLS-1$
-      t.setDaemon(true);
-      t.setPriority(Thread.MIN_PRIORITY);
-      t.start();
-    }
+    new ExperimentScheduler(outputDir, cores, writeLogInfos,
+        waitAfterSkippedRuns, waitAfterWorkWasDone,
+        waitAfterIOError).execute(stageList);
 
     if (writeLogInfos) {
-      ConsoleIO.stdout("Finished launching "//$NON-NLS-1$
-          + cores + //
-          " worker threads, now waiting for experiment to complete.");//$NON-NLS-1$
+      ConsoleIO.stdout("Finished the experiment with " + //$NON-NLS-1$
+          cores + " worker threads.");//$NON-NLS-1$
     }
+  }
 
-    outer: for (;;) {
-      for (final Thread t : threads) {
-        try {
-          t.join();
-        } catch (final InterruptedException ie) {
-          if (writeLogInfos) {
-            ConsoleIO.stderr("Error while waiting for thread "//$NON-NLS-1$
-                + t.getName(), ie);
-          }
-          continue outer;
-        }
-      }
-      break outer;
+  /**
+   * Collect the stages of an experiment into a list.
+   *
+   * @param stages
+   *          the stages
+   * @return the list of stages
+   * @param <X>
+   *          the search space
+   * @param <Y>
+   *          the solution space
+   */
+  private static <X, Y> List<Supplier<IExperimentStage<
+      ? extends X, ? extends Y, ?, ?>>> collectStages(
+          final Stream<Supplier<IExperimentStage<? extends X,
+              ? extends Y, ?, ?>>> stages) {
+    final List<Supplier<IExperimentStage<? extends X,
+        ? extends Y, ?, ?>>> stageList =
+            Objects.requireNonNull(stages)
+                .collect(Collectors.toList());
+    if (stageList.size() <= 0) {
+      throw new IllegalArgumentException(
+          "There must be at least one stage.");//$NON-NLS-1$
     }
+    return stageList;
+  }
 
-    if (writeLogInfos) {
-      ConsoleIO.stdout("Finished waiting for " + //$NON-NLS-1$
-          cores
-          + " worker threads, the experiment is complete.");//$NON-NLS-1$
+  /**
+   * Coordinate an experiment over, potentially, several
+   * {@linkplain IExperimentStage stages}, which is executed by
+   * worker processes connecting via TCP.
+   * <p>
+   * Distributing an experiment via a shared folder means that
+   * every process creates, checks, and writes the log files on
+   * the shared file server, which may become the bottleneck if
+   * there are many processes. Instead, you can start one
+   * coordinator process with this method on the computer which
+   * holds the output directory and any number of worker
+   * processes via
+   * {@link #executeExperimentAsWorker(Stream, String, int, int, boolean)}
+   * with exactly the same stages on the other computers. The
+   * coordinator enumerates the runs of each stage, hands them out
+   * to the workers, the most expensive runs first, and writes the
+   * log files that the workers send back. Workers send heartbeats
+   * while performing their runs. If a worker does not send any
+   * message for 30 seconds or its connection breaks, its run is
+   * handed out again. Workers can join and leave at any time.
+   * <p>
+   * This method returns once all runs of all stages have been
+   * completed. The log files are still created atomically before
+   * their runs are handed out, so processes running the same
+   * experiment via
+   * {@link #executeExperimentInParallel(Stream, Path, int, boolean, boolean, boolean, boolean)}
+   * can work in the same output directory.
+   * <p>
+   * The coordinator only listens on the loopback address, i.e.,
+   * it only accepts workers running on the same computer. Use
+   * {@link #executeExperimentAsCoordinator(Stream, Path, String, int, boolean)}
+   * to accept workers from other computers.
+   *
+   * @param stages
+   *          the stages
+   * @param outputDir
+   *          the output directory
+   * @param port
+   *          the TCP port on which the workers connect
+   * @param writeLogInfos
+   *          should we print log information?
+   * @throws IOException
+   *           if the port cannot be opened
+   * @param <X>
+   *          the search space
+   * @param <Y>
+   *          the solution space
+   */
+  public static <X, Y> void executeExperimentAsCoordinator(
+      final Stream<Supplier<IExperimentStage<? extends X,
+          ? extends Y, ?, ?>>> stages,
+      final Path outputDir, final int port,
+      final boolean writeLogInfos) throws IOException {
+    Experiment.executeExperimentAsCoordinator(stages, outputDir,
+        null, port, writeLogInfos);
+  }
+
+  /**
+   * Execute an experiment as coordinator which listens on the
+   * given local address, as described in
+   * {@link #executeExperimentAsCoordinator(Stream, Path, int, boolean)}.
+   * The coordinator does not authenticate the workers, so it
+   * should only listen on addresses which are reachable from
+   * trusted computers.
+   *
+   * @param stages
+   *          the stages
+   * @param outputDir
+   *          the output directory
+   * @param bindAddress
+   *          the host name or address of the local interface to
+   *          listen on, e.g., {@code "0.0.0.0"} for all
+   *          interfaces, or {@code null} for the loopback
+   *          address
+   * @param port
+   *          the TCP port on which the workers connect
+   * @param writeLogInfos
+   *          should we print log information?
+   * @throws IOException
+   *           if the port cannot be opened
+   * @param <X>
+   *          the search space
+   * @param <Y>
+   *          the solution space
+   */
+  public static <X, Y> void executeExperimentAsCoordinator(
+      final Stream<Supplier<IExperimentStage<? extends X,
+          ? extends Y, ?, ?>>> stages,
+      final Path outputDir, final String bindAddress,
+      final int port, final boolean writeLogInfos)
+      throws IOException {
+    Objects.requireNonNull(outputDir);
+    final InetAddress address = (bindAddress != null)
+        ? InetAddress.getByName(bindAddress) : null;
+    final List<Supplier<IExperimentStage<? extends X,
+        ? extends Y, ?, ?>>> stageList =
+            Experiment.collectStages(stages);
+
+    try (final ExperimentCoordinator coordinator =
+        new ExperimentCoordinator(outputDir, address, port,
+            ExperimentCoordinator.DEFAULT_TIMEOUT,
+            writeLogInfos)) {
+      coordinator.execute(stageList);
+    }
+  }
+
+  /**
+   * Perform the runs of an experiment handed out by a
+   * coordinator process started via
+   * {@link #executeExperimentAsCoordinator(Stream, Path, int, boolean)}
+   * with exactly the same stages. Each of the {@code cores}
+   * threads connects to the coordinator and performs one run
+   * after the other. The log files are written into a temporary
+   * directory and sent to the coordinator. This method returns
+   * once the coordinator has no more runs or the connections to
+   * it are lost.
+   *
+   * @param stages
+   *          the stages
+   * @param host
+   *          the host name or address of the coordinator
+   * @param port
+   *          the TCP port of the coordinator
+   * @param cores
+   *          the number of cores to use
+   * @param writeLogInfos
+   *          should we print log information?
+   * @throws IOException
+   *           if the temporary directory cannot be created
+   * @param <X>
+   *          the search space
+   * @param <Y>
+   *          the solution space
+   */
+  public static <X, Y> void executeExperimentAsWorker(
+      final Stream<Supplier<IExperimentStage<? extends X,
+          ? extends Y, ?, ?>>> stages,
+      final String host, final int port, final int cores,
+      final boolean writeLogInfos) throws IOException {
+    if (cores <= 0) {
+      throw new IllegalArgumentException(
+          "Number of cores must be >= 1, but is "//$NON-NLS-1$
+              + cores);
     }
+    new ExperimentWorker(Experiment.collectStages(stages), host,
+        port, cores, writeLogInfos).execute();
   }
 
   /** forbidden */
@@ -1395,7 +1628,7 @@ public final class Experiment {
   }
 
   /** the set of paths */
-  private static final class FileSet
+  static final class FileSet
       extends LinkedHashMap<Path, Object> {
     /** the serial version uid */
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,693 @@
+package aitoa.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import aitoa.utils.Experiment.IExperimentStage;
+import aitoa.utils.ExperimentScheduler.Run;
+
+/**
+ * A coordinator which distributes the runs of an experiment to
+ * {@linkplain ExperimentWorker worker processes} via TCP.
+ * <p>
+ * The coordinator owns the output directory. For each
+ * {@linkplain IExperimentStage stage}, it enumerates the runs
+ * which still need to be done via an {@link ExperimentScheduler}
+ * and hands them out to the workers, the most expensive runs
+ * first. Each worker thread keeps one connection to the
+ * coordinator, over which it requests a run, performs it, and
+ * then streams the contents of its log file back in chunks. The
+ * coordinator writes the chunks into the log file and records
+ * the run in the {@link RunIndex}. The workers thus never touch
+ * the output directory, which relieves the shared file server,
+ * and no log is ever held in memory as a whole.
+ * <p>
+ * Before a run is handed out, its log file is created atomically,
+ * just like in the other experiment execution methods. Processes
+ * executing the same experiment via the file system can thus
+ * work in the same directory. While a worker performs a run, it
+ * sends a heartbeat every {@link #HEARTBEAT_INTERVAL}
+ * milliseconds. If the connection to a worker breaks or no
+ * message arrives from it for longer than the timeout, the
+ * connection is closed, the empty log file of its run is
+ * deleted, and the run is handed out again. The same happens if
+ * a worker reports that a run has failed. If a run fails
+ * {@link #MAX_FAILURES} times, the stage is aborted with an
+ * error instead, since the run will likely never succeed.
+ * <p>
+ * The protocol uses {@link DataOutputStream}s. Each message
+ * begins with a byte identifying its type:
+ * <ul>
+ * <li>Worker to coordinator: {@link #HELLO} with the worker name
+ * as UTF string, {@link #REQUEST}, {@link #HEARTBEAT},
+ * {@link #RESULT} with the number of bytes of the log as long,
+ * {@link #CHUNK} with the number of bytes of the chunk as int,
+ * at most {@link #CHUNK_SIZE}, followed by the bytes, and
+ * {@link #FAILED} with an error message as UTF string. A
+ * {@link #RESULT} is followed by {@link #CHUNK}s until all bytes
+ * of the log have been sent, and {@link #HEARTBEAT}s may appear
+ * in between.</li>
+ * <li>Coordinator to worker: {@link #RUN} with the stage number
+ * as int, the algorithm and instance names as UTF strings and
+ * the random seed as long, {@link #WAIT} with the time to wait
+ * in milliseconds as long, {@link #DONE}, and {@link #ACK}.
+ * Each {@link #REQUEST} is answered with {@link #RUN},
+ * {@link #WAIT}, or {@link #DONE} and each {@link #RESULT} with
+ * {@link #ACK}.</li>
+ * </ul>
+ */
+final class ExperimentCoordinator implements Closeable {
+
+  /** a worker introduces itself */
+  static final byte HELLO = 1;
+  /** a worker requests a run */
+  static final byte REQUEST = 2;
+  /** a worker is still alive */
+  static final byte HEARTBEAT = 3;
+  /** a worker sends the log of a completed run */
+  static final byte RESULT = 4;
+  /** a worker reports that its run has failed */
+  static final byte FAILED = 5;
+  /** a worker sends a chunk of the log of a completed run */
+  static final byte CHUNK = 6;
+  /** the coordinator hands out a run */
+  static final byte RUN = 11;
+  /** the worker should wait and then request again */
+  static final byte WAIT = 12;
+  /** all stages are completed, the worker should stop */
+  static final byte DONE = 13;
+  /** the result has been stored */
+  static final byte ACK = 14;
+
+  /** the interval between two heartbeats, in milliseconds */
+  static final long HEARTBEAT_INTERVAL = 2_000L;
+  /** the default heartbeat timeout, in milliseconds */
+  static final long DEFAULT_TIMEOUT = 30_000L;
+  /** the maximum number of bytes of a log chunk */
+  static final int CHUNK_SIZE = 1 << 16;
+  /**
+   * the number of times a run may fail before the stage is
+   * aborted
+   */
+  static final int MAX_FAILURES = 5;
+
+  /** the scheduler managing the output directory */
+  private final ExperimentScheduler mScheduler;
+  /** the server socket */
+  private final ServerSocket mServer;
+  /** the heartbeat timeout in milliseconds */
+  private final long mTimeout;
+  /** should we print log information? */
+  private final boolean mWriteLogInfos;
+  /** the runs of the current stage not yet handed out */
+  private final ArrayDeque<Run> mPending;
+  /** the open connections */
+  private final HashSet<Connection> mConnections;
+  /** the number of failures of the runs of the current stage */
+  private final HashMap<Run, Integer> mFailures;
+  /** the number of the current stage */
+  private int mStage;
+  /** the number of runs handed out but not yet completed */
+  private int mAssigned;
+  /** the number of runs completed in the current stage */
+  private int mCompleted;
+  /** have all stages been completed? */
+  private boolean mFinished;
+  /** the reason why the current stage was aborted, if any */
+  private String mAborted;
+  /** has the coordinator been closed? */
+  private volatile boolean mClosed;
+
+  /**
+   * create the coordinator and start listening for workers
+   *
+   * @param pDir
+   *          the output directory
+   * @param pBindAddress
+   *          the local address to listen on, or {@code null} to
+   *          only accept workers from the same computer via the
+   *          loopback address
+   * @param pPort
+   *          the TCP port to listen on, or {@code 0} to use any
+   *          free port
+   * @param pTimeout
+   *          the heartbeat timeout in milliseconds
+   * @param pWriteLogInfos
+   *          should we print log information?
+   * @throws IOException
+   *           if the port cannot be opened
+   */
+  ExperimentCoordinator(final Path pDir,
+      final InetAddress pBindAddress, final int pPort,
+      final long pTimeout, final boolean pWriteLogInfos)
+      throws IOException {
+    super();
+    if (pTimeout <= ExperimentCoordinator.HEARTBEAT_INTERVAL) {
+      throw new IllegalArgumentException(
+          "Timeout must be larger than the heartbeat interval "//$NON-NLS-1$
+              + ExperimentCoordinator.HEARTBEAT_INTERVAL
+              + ", but is " + pTimeout); //$NON-NLS-1$
+    }
+    this.mScheduler = new ExperimentScheduler(pDir, 1,
+        pWriteLogInfos, false, false, false);
+    this.mTimeout = pTimeout;
+    this.mWriteLogInfos = pWriteLogInfos;
+    this.mPending = new ArrayDeque<>();
+    this.mConnections = new HashSet<>();
+    this.mFailures = new HashMap<>();
+    this.mServer = new ServerSocket(pPort, 0,
+        (pBindAddress != null) ? pBindAddress
+            : InetAddress.getLoopbackAddress());
+  }
+
+  /**
+   * Get the TCP port on which the coordinator is listening
+   *
+   * @return the port
+   */
+  int getPort() {
+    return this.mServer.getLocalPort();
+  }
+
+  /**
+   * Distribute all the stages of the experiment, one after the
+   * other. This method returns when all runs have been
+   * completed.
+   *
+   * @param stages
+   *          the stages
+   * @throws IllegalStateException
+   *           if a run has failed {@link #MAX_FAILURES} times
+   */
+  @SuppressWarnings("rawtypes")
+  void execute(final List<? extends Supplier<
+      ? extends IExperimentStage<?, ?, ?, ?>>> stages) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final Thread acceptor =
+        new Thread(this::accept, "ExperimentCoordinator"); //$NON-NLS-1$
+    acceptor.setDaemon(true);
+    acceptor.start();
+
+    try {
+      this.mScheduler.openIndex();
+      if (this.mWriteLogInfos) {
+        ConsoleIO.stdout(
+            "Waiting for workers on port " + this.getPort()); //$NON-NLS-1$
+      }
+
+      int stageIndex = 0;
+      for (final Supplier<
+          ? extends IExperimentStage> stage : stages) {
+        final String stageString = Integer.toString(++stageIndex);
+        final IExperimentStage instance =
+            Objects.requireNonNull(stage.get());
+
+        List<Run> runs;
+        for (long tryIndex = 1L;; tryIndex++) {
+          try {
+            runs = this.mScheduler.plan(instance, stageString);
+            break;
+          } catch (final IOException ioe) {
+            if (this.mWriteLogInfos) {
+              ConsoleIO.stderr(
+                  "Error when scheduling stage " + stageString, //$NON-NLS-1$
+                  ioe);
+            }
+            Experiment.sleep(10_000L * tryIndex, random);
+          }
+        }
+
+        if (this.mWriteLogInfos) {
+          ConsoleIO.stdout("Distributing " + runs.size() + //$NON-NLS-1$
+              " runs of stage " + stageString); //$NON-NLS-1$
+        }
+
+        synchronized (this) {
+          this.mStage = stageIndex;
+          this.mCompleted = 0;
+          this.mFailures.clear();
+          this.mPending.addAll(runs);
+          while ((!this.mPending.isEmpty())
+              || (this.mAssigned > 0)) {
+            try {
+              this.wait(ExperimentCoordinator.HEARTBEAT_INTERVAL);
+            } catch (@SuppressWarnings("unused") final InterruptedException ie) {
+              // ignore
+            }
+            if (this.mAborted != null) {
+              throw new IllegalStateException("Stage " //$NON-NLS-1$
+                  + stageString + " was aborted: " //$NON-NLS-1$
+                  + this.mAborted);
+            }
+            this.checkHeartbeats();
+          }
+          if (this.mWriteLogInfos) {
+            ConsoleIO.stdout("Successfully Finished Stage " //$NON-NLS-1$
+                + stageString + ", the workers completed " //$NON-NLS-1$
+                + this.mCompleted + " runs."); //$NON-NLS-1$
+          }
+        }
+      }
+
+      synchronized (this) {
+        this.mFinished = true;
+        this.notifyAll();
+      }
+      if (this.mWriteLogInfos) {
+        ConsoleIO.stdout(//
+            "Successfully Finished Experiment."); //$NON-NLS-1$
+      }
+    } finally {
+      this.mScheduler.closeIndex();
+    }
+  }
+
+  /**
+   * Close all connections whose workers have not sent any
+   * message for longer than the timeout. Their connection
+   * threads will then give back their runs.
+   */
+  private void checkHeartbeats() {
+    final long now = System.currentTimeMillis();
+    for (final Connection connection : this.mConnections) {
+      if ((now - connection.mLastSeen) > this.mTimeout) {
+        if (this.mWriteLogInfos) {
+          ConsoleIO.stderr("Worker " + connection.mName + //$NON-NLS-1$
+              " has not sent a heartbeat for " + //$NON-NLS-1$
+              (now - connection.mLastSeen)
+              + "ms, closing its connection.", //$NON-NLS-1$
+              null);
+        }
+        connection.close();
+      }
+    }
+  }
+
+  /** accept the connections of workers */
+  private void accept() {
+    int count = 0;
+    while (!this.mClosed) {
+      final Socket socket;
+      try {
+        socket = this.mServer.accept();
+      } catch (final IOException ioe) {
+        if ((!this.mClosed) && this.mWriteLogInfos) {
+          ConsoleIO.stderr("Error when accepting a worker.", //$NON-NLS-1$
+              ioe);
+        }
+        continue;
+      }
+
+      final Connection connection = new Connection(socket);
+      synchronized (this) {
+        this.mConnections.add(connection);
+      }
+      final Thread t = new Thread(() -> this.serve(connection),
+          "ExperimentCoordinator_" + (++count)); //$NON-NLS-1$
+      t.setDaemon(true);
+      t.start();
+    }
+  }
+
+  /**
+   * Serve the messages of a worker.
+   *
+   * @param connection
+   *          the connection to the worker
+   */
+  private void serve(final Connection connection) {
+    final byte[] buffer = new byte[ExperimentCoordinator.CHUNK_SIZE];
+    try (final DataInputStream in = new DataInputStream(
+        new BufferedInputStream(connection.mSocket.getInputStream()));
+        final DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(
+                connection.mSocket.getOutputStream()))) {
+      for (;;) {
+        final byte message = in.readByte();
+        connection.mLastSeen = System.currentTimeMillis();
+        switch (message) {
+          case HELLO: {
+            connection.mName = in.readUTF();
+            if (this.mWriteLogInfos) {
+              ConsoleIO.stdout("Worker " + connection.mName//$NON-NLS-1$
+                  + " has connected."); //$NON-NLS-1$
+            }
+            break;
+          }
+          case HEARTBEAT: {
+            break;
+          }
+          case REQUEST: {
+            this.handOut(connection, out);
+            break;
+          }
+          case RESULT: {
+            this.complete(connection, in, buffer);
+            out.writeByte(ExperimentCoordinator.ACK);
+            out.flush();
+            break;
+          }
+          case FAILED: {
+            this.giveBack(connection, in.readUTF());
+            break;
+          }
+          default: {
+            throw new IOException(
+                "Unknown message type " + message); //$NON-NLS-1$
+          }
+        }
+      }
+    } catch (final IOException ioe) {
+      synchronized (this) {
+        if ((!this.mFinished) && (!this.mClosed)
+            && this.mWriteLogInfos) {
+          ConsoleIO.stderr("Lost the connection to worker " //$NON-NLS-1$
+              + connection.mName, ioe);
+        }
+      }
+    } finally {
+      if (connection.mRun != null) {
+        this.giveBack(connection, "connection lost"); //$NON-NLS-1$
+      }
+      connection.close();
+      synchronized (this) {
+        this.mConnections.remove(connection);
+      }
+    }
+  }
+
+  /**
+   * Hand out a run to a worker.
+   *
+   * @param connection
+   *          the connection to the worker
+   * @param out
+   *          the output stream to the worker
+   * @throws IOException
+   *           if i/o fails
+   */
+  private void handOut(final Connection connection,
+      final DataOutputStream out) throws IOException {
+    if (connection.mRun != null) {
+      throw new IOException("Worker " + connection.mName //$NON-NLS-1$
+          + " requests a new run before completing its run."); //$NON-NLS-1$
+    }
+
+    for (;;) {
+      final Run run;
+      final int stage;
+      synchronized (this) {
+        if (this.mFinished) {
+          out.writeByte(ExperimentCoordinator.DONE);
+          out.flush();
+          return;
+        }
+        run = this.mPending.pollFirst();
+        if (run != null) {
+          ++this.mAssigned;
+        }
+        stage = this.mStage;
+      }
+
+      if (run == null) {
+// Some runs are still in progress, but they may fail. So the
+// worker must ask again later.
+        out.writeByte(ExperimentCoordinator.WAIT);
+        out.writeLong(ExperimentCoordinator.HEARTBEAT_INTERVAL);
+        out.flush();
+        return;
+      }
+
+      final Path logFile;
+      try {
+        logFile = this.mScheduler.take(run);
+      } catch (final IOException ioe) {
+        synchronized (this) {
+          this.mPending.addLast(run);
+          --this.mAssigned;
+        }
+        if (this.mWriteLogInfos) {
+          ConsoleIO.stderr("Could not create the log file of a run.", //$NON-NLS-1$
+              ioe);
+        }
+        out.writeByte(ExperimentCoordinator.WAIT);
+        out.writeLong(ExperimentCoordinator.HEARTBEAT_INTERVAL);
+        out.flush();
+        return;
+      }
+
+      if (logFile == null) {
+// The run has been taken by another process.
+        synchronized (this) {
+          --this.mAssigned;
+          this.notifyAll();
+        }
+        continue;
+      }
+
+      connection.mRun = run;
+      connection.mLogFile = logFile;
+      out.writeByte(ExperimentCoordinator.RUN);
+      out.writeInt(stage);
+      out.writeUTF(run.mAlgorithm.mName);
+      out.writeUTF(run.mProblem.mName);
+      out.writeLong(run.mSeed);
+      out.flush();
+      if (this.mWriteLogInfos) {
+        ConsoleIO.stdout("Worker " + connection.mName + //$NON-NLS-1$
+            " performs run '" + logFile + "'."); //$NON-NLS-1$//$NON-NLS-2$
+      }
+      return;
+    }
+  }
+
+  /**
+   * Receive the log of a completed run and store it into its log
+   * file chunk by chunk. If the log file cannot be written, the
+   * remaining chunks are still read, so that the connection
+   * remains usable, and the run is given back.
+   *
+   * @param connection
+   *          the connection to the worker
+   * @param in
+   *          the input stream from the worker
+   * @param buffer
+   *          the buffer for the chunks
+   * @throws IOException
+   *           if the worker has not been assigned a run or
+   *           reading from the connection fails
+   */
+  private void complete(final Connection connection,
+      final DataInputStream in, final byte[] buffer)
+      throws IOException {
+    if (connection.mRun == null) {
+      throw new IOException("Worker " + connection.mName //$NON-NLS-1$
+          + " sends a result without having a run."); //$NON-NLS-1$
+    }
+    final long length = in.readLong();
+    if (length <= 0L) {
+      throw new IOException("Worker " + connection.mName //$NON-NLS-1$
+          + " sent a log of invalid length " + length); //$NON-NLS-1$
+    }
+
+    IOException error = null;
+    OutputStream log = null;
+    try {
+      try {
+        log = Files.newOutputStream(connection.mLogFile);
+      } catch (final IOException ioe) {
+        error = ioe;
+      }
+
+      for (long remaining = length; remaining > 0L;) {
+        final byte message = in.readByte();
+        connection.mLastSeen = System.currentTimeMillis();
+        if (message == ExperimentCoordinator.HEARTBEAT) {
+          continue;
+        }
+        if (message != ExperimentCoordinator.CHUNK) {
+          throw new IOException("Worker " + connection.mName //$NON-NLS-1$
+              + " sent message type " + message //$NON-NLS-1$
+              + " while sending a log."); //$NON-NLS-1$
+        }
+        final int size = in.readInt();
+        if ((size <= 0) || (size > buffer.length)
+            || (size > remaining)) {
+          throw new IOException("Worker " + connection.mName //$NON-NLS-1$
+              + " sent a log chunk of invalid size " + size); //$NON-NLS-1$
+        }
+        in.readFully(buffer, 0, size);
+        remaining -= size;
+        if (log != null) {
+          try {
+            log.write(buffer, 0, size);
+          } catch (final IOException ioe) {
+            error = ioe;
+            ExperimentCoordinator.closeQuietly(log);
+            log = null;
+          }
+        }
+      }
+
+      if (log != null) {
+        try {
+          log.close();
+        } catch (final IOException ioe) {
+          error = ioe;
+        }
+        log = null;
+      }
+    } finally {
+      if (log != null) {
+        ExperimentCoordinator.closeQuietly(log);
+      }
+    }
+
+    if (error != null) {
+      if (this.mWriteLogInfos) {
+        ConsoleIO.stderr("Could not store the log file '" //$NON-NLS-1$
+            + connection.mLogFile + "'.", error); //$NON-NLS-1$
+      }
+      this.giveBack(connection, "could not store log"); //$NON-NLS-1$
+      return;
+    }
+    this.mScheduler.received(connection.mLogFile);
+
+    connection.mRun = null;
+    connection.mLogFile = null;
+    synchronized (this) {
+      --this.mAssigned;
+      ++this.mCompleted;
+      this.notifyAll();
+    }
+  }
+
+  /**
+   * Close a stream, ignoring any error
+   *
+   * @param stream
+   *          the stream
+   */
+  private static void closeQuietly(final OutputStream stream) {
+    try {
+      stream.close();
+    } catch (@SuppressWarnings("unused") final IOException ioe) {
+      // ignore
+    }
+  }
+
+  /**
+   * Give back the run of a worker, so that it can be handed out
+   * again. If the run has failed {@link #MAX_FAILURES} times, the
+   * stage is aborted instead.
+   *
+   * @param connection
+   *          the connection to the worker
+   * @param reason
+   *          the reason
+   */
+  private void giveBack(final Connection connection,
+      final String reason) {
+    final Run run = connection.mRun;
+    if (run == null) {
+      return;
+    }
+    final Path logFile = connection.mLogFile;
+    this.mScheduler.release(logFile);
+    connection.mRun = null;
+    connection.mLogFile = null;
+
+    final int failures;
+    synchronized (this) {
+      failures = this.mFailures.merge(run, 1, Integer::sum);
+      if (failures < ExperimentCoordinator.MAX_FAILURES) {
+        this.mPending.addLast(run);
+      } else if (this.mAborted == null) {
+        this.mAborted = "The run '" + logFile + //$NON-NLS-1$
+            "' has failed " + failures + //$NON-NLS-1$
+            " times, the last time because of: " + reason; //$NON-NLS-1$
+        this.mPending.clear();
+      }
+      --this.mAssigned;
+      this.notifyAll();
+    }
+
+    if (this.mWriteLogInfos) {
+      ConsoleIO.stderr("The run '" + logFile + //$NON-NLS-1$
+          "' of worker " + connection.mName + //$NON-NLS-1$
+          " has failed (" + reason + ((//
+          failures < ExperimentCoordinator.MAX_FAILURES)//
+              ? "), it will be handed out again." //$NON-NLS-1$
+              : "), the stage will be aborted."), //$NON-NLS-1$
+          null);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    this.mClosed = true;
+    final ArrayList<Connection> connections;
+    synchronized (this) {
+      connections = new ArrayList<>(this.mConnections);
+    }
+    for (final Connection connection : connections) {
+      connection.close();
+    }
+    this.mServer.close();
+  }
+
+  /** the connection to a worker */
+  private static final class Connection {
+    /** the socket */
+    final Socket mSocket;
+    /** the name of the worker */
+    volatile String mName;
+    /** the time when the last message arrived */
+    volatile long mLastSeen;
+    /** the run the worker is performing, or {@code null} */
+    Run mRun;
+    /** the log file of the run */
+    Path mLogFile;
+
+    /**
+     * create
+     *
+     * @param pSocket
+     *          the socket
+     */
+    Connection(final Socket pSocket) {
+      super();
+      this.mSocket = pSocket;
+      this.mName = String.valueOf(pSocket.getRemoteSocketAddress());
+      this.mLastSeen = System.currentTimeMillis();
+    }
+
+    /** close the connection, ignoring any error */
+    void close() {
+      try {
+        this.mSocket.close();
+      } catch (@SuppressWarnings("unused") final IOException ioe) {
+        // ignore
+      }
+    }
+  }
+}
@@ -0,0 +1,479 @@
+package aitoa.utils;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import aitoa.structure.ProcessMetrics;
+
+/**
+ * The metrics of a running experiment.
+ * <p>
+ * While the {@link ExperimentScheduler} executes an experiment,
+ * the progress of the current stage and the
+ * {@link ProcessMetrics} of the black-box processes are sampled
+ * every {@value #INTERVAL} milliseconds by a background thread.
+ * The sampled values are exposed as the MBean
+ * {@code aitoa:type=Experiment} via JMX and written into a
+ * machine-readable statistics file in the output directory of
+ * the experiment, one {@code key=value} pair per line. Since
+ * several processes may work on the same experiment, the name of
+ * the file contains the identifier of the process. The file is
+ * replaced atomically, so it can be read at any time, and its
+ * last version remains after the experiment has finished.
+ * <p>
+ * Collecting the metrics does not add any work to the
+ * evaluation of the objective function.
+ */
+final class ExperimentMetrics
+    implements ExperimentMetricsMBean, Closeable {
+
+  /** the interval between two samples, in milliseconds */
+  static final long INTERVAL = 10_000L;
+  /** the prefix of the name of the statistics file */
+  static final String FILE_PREFIX = "experiment_"; //$NON-NLS-1$
+  /** the suffix of the name of the statistics file */
+  static final String FILE_SUFFIX = ".stats"; //$NON-NLS-1$
+
+  /** the statistics file */
+  private final Path mFile;
+  /** the name of the MBean, or {@code null} if not registered */
+  private ObjectName mName;
+  /** the sampler thread */
+  private final Thread mThread;
+  /** has this object been closed? */
+  private boolean mClosed;
+
+  /** the current stage */
+  private int mStage;
+  /** the runs planned in the current stage */
+  private long mRunsPlanned;
+  /** the runs done in the current stage */
+  private long mRunsDone;
+
+  /** the time of the last sample, in nanoseconds */
+  private long mSampleNanos;
+  /** the consumed FEs per worker at the last sample */
+  private HashMap<String, Long> mWorkerFEs;
+  /** the sampled values */
+  private volatile Sample mSample;
+
+  /**
+   * create the metrics and start sampling
+   *
+   * @param pDir
+   *          the output directory of the experiment
+   * @param pWriteLogInfos
+   *          should we print log information?
+   */
+  ExperimentMetrics(final Path pDir,
+      final boolean pWriteLogInfos) {
+    super();
+    this.mFile = pDir.resolve(ExperimentMetrics.FILE_PREFIX
+        + ManagementFactory.getRuntimeMXBean().getName()
+            .replaceAll("[^a-zA-Z0-9]", "_") //$NON-NLS-1$//$NON-NLS-2$
+        + ExperimentMetrics.FILE_SUFFIX);
+    this.mWorkerFEs = new HashMap<>();
+    this.mSampleNanos = System.nanoTime();
+    this.sample();
+
+    try {
+      final MBeanServer server =
+          ManagementFactory.getPlatformMBeanServer();
+      final ObjectName name =
+          new ObjectName("aitoa:type=Experiment"); //$NON-NLS-1$
+      if (!server.isRegistered(name)) {
+        server.registerMBean(this, name);
+        this.mName = name;
+      }
+    } catch (final JMException error) {
+      if (pWriteLogInfos) {
+        ConsoleIO.stderr(
+            "Could not register the metrics of the experiment.", //$NON-NLS-1$
+            error);
+      }
+    }
+
+    this.mThread = new Thread(this::run, "ExperimentMetrics"); //$NON-NLS-1$
+    this.mThread.setDaemon(true);
+    this.mThread.start();
+  }
+
+  /**
+   * Notify the metrics that a stage begins.
+   *
+   * @param stage
+   *          the number of the stage, starting at 1
+   * @param runs
+   *          the number of runs planned for the stage
+   */
+  synchronized void beginStage(final int stage,
+      final long runs) {
+    this.mStage = stage;
+    this.mRunsPlanned = runs;
+    this.mRunsDone = 0L;
+  }
+
+  /** Notify the metrics that a run has been completed. */
+  synchronized void runDone() {
+    ++this.mRunsDone;
+  }
+
+  /** the main loop of the sampler thread */
+  private void run() {
+    for (;;) {
+      synchronized (this) {
+        if (this.mClosed) {
+          return;
+        }
+        try {
+          this.wait(ExperimentMetrics.INTERVAL);
+        } catch (@SuppressWarnings("unused") final InterruptedException ie) {
+          // ignore
+        }
+        if (this.mClosed) {
+          return;
+        }
+      }
+      this.sample();
+      this.write();
+    }
+  }
+
+  /** Take a sample of the current values. */
+  private synchronized void sample() {
+    final long now = System.nanoTime();
+    final double seconds =
+        Math.max(1L, now - this.mSampleNanos) * 1e-9d;
+    this.mSampleNanos = now;
+
+// The first sample only provides the baseline for the rates.
+    final Sample old = this.mSample;
+    final List<ProcessMetrics.Counters> threads =
+        ProcessMetrics.getThreads();
+    final HashMap<String, Long> workerFEs = new HashMap<>();
+    final String[] workers = new String[threads.size()];
+    final double[] workerFEsPerSecond = new double[workers.length];
+    int i = 0;
+    for (final ProcessMetrics.Counters counters : threads) {
+      workers[i] = counters.thread;
+      final Long before = this.mWorkerFEs.get(counters.thread);
+      workerFEsPerSecond[i] = (old == null) ? 0d
+          : ((counters.consumedFEs
+              - ((before != null) ? before.longValue() : 0L))
+              / seconds);
+      workerFEs.put(counters.thread,
+          Long.valueOf(counters.consumedFEs));
+      i++;
+    }
+    this.mWorkerFEs = workerFEs;
+
+    long gcCount = 0L;
+    long gcTime = 0L;
+    for (final GarbageCollectorMXBean gc : ManagementFactory
+        .getGarbageCollectorMXBeans()) {
+      gcCount += Math.max(0L, gc.getCollectionCount());
+      gcTime += Math.max(0L, gc.getCollectionTime());
+    }
+
+    final ProcessMetrics.Counters total =
+        ProcessMetrics.getTotal();
+    this.mSample = new Sample(System.currentTimeMillis(),
+        this.mStage, this.mRunsPlanned, this.mRunsDone, total,
+        (old == null) ? 0d
+            : ((total.consumedFEs - old.mTotal.consumedFEs)
+                / seconds),
+        workers, workerFEsPerSecond, gcCount, gcTime);
+  }
+
+  /** Write the current sample to the statistics file. */
+  private void write() {
+    final Sample sample = this.mSample;
+    final Path temp = this.mFile.resolveSibling(
+        this.mFile.getFileName() + ".tmp"); //$NON-NLS-1$
+    try {
+      try (final BufferedWriter out =
+          Files.newBufferedWriter(temp)) {
+        ExperimentMetrics.entry(out, "time", sample.mTime); //$NON-NLS-1$
+        ExperimentMetrics.entry(out, "stage", sample.mStage); //$NON-NLS-1$
+        ExperimentMetrics.entry(out, "runsPlanned", //$NON-NLS-1$
+            sample.mRunsPlanned);
+        ExperimentMetrics.entry(out, "runsDone", //$NON-NLS-1$
+            sample.mRunsDone);
+        ExperimentMetrics.entry(out, "runsRemaining", //$NON-NLS-1$
+            sample.runsRemaining());
+        ExperimentMetrics.entry(out, "totalRuns", //$NON-NLS-1$
+            sample.mTotal.runs);
+        ExperimentMetrics.entry(out, "consumedFEs", //$NON-NLS-1$
+            sample.mTotal.consumedFEs);
+        ExperimentMetrics.entry(out, "fesPerSecond", //$NON-NLS-1$
+            sample.mFEsPerSecond);
+        ExperimentMetrics.entry(out, "runTimeMS", //$NON-NLS-1$
+            sample.mTotal.runTime / 1_000_000L);
+        ExperimentMetrics.entry(out, "logWriteTimeMS", //$NON-NLS-1$
+            sample.mTotal.logTime / 1_000_000L);
+        ExperimentMetrics.entry(out, "logBytes", //$NON-NLS-1$
+            sample.mTotal.logBytes);
+        ExperimentMetrics.entry(out, "gcCount", sample.mGcCount); //$NON-NLS-1$
+        ExperimentMetrics.entry(out, "gcTimeMS", sample.mGcTime); //$NON-NLS-1$
+        ExperimentMetrics.entry(out, "workers", //$NON-NLS-1$
+            sample.mWorkers.length);
+        for (int i = 0; i < sample.mWorkers.length; i++) {
+          final String prefix = "worker." + (i + 1) + '.'; //$NON-NLS-1$
+          ExperimentMetrics.entry(out, prefix + "name", //$NON-NLS-1$
+              sample.mWorkers[i]);
+          ExperimentMetrics.entry(out, prefix + "fesPerSecond", //$NON-NLS-1$
+              sample.mWorkerFEsPerSecond[i]);
+        }
+      }
+      Files.move(temp, this.mFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (@SuppressWarnings("unused") final IOException ioe) {
+// The statistics are not essential, we will try again later.
+      try {
+        Files.deleteIfExists(temp);
+      } catch (@SuppressWarnings("unused") final IOException ioe2) {
+        // ignore
+      }
+    }
+  }
+
+  /**
+   * Write a key-value pair.
+   *
+   * @param out
+   *          the destination
+   * @param key
+   *          the key
+   * @param value
+   *          the value
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void entry(final BufferedWriter out,
+      final String key, final Object value) throws IOException {
+    out.write(key);
+    out.write('=');
+    out.write(String.valueOf(value));
+    out.newLine();
+  }
+
+  /**
+   * Stop sampling, write the final statistics, and unregister
+   * the MBean.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (this.mClosed) {
+        return;
+      }
+      this.mClosed = true;
+      this.notifyAll();
+    }
+    try {
+      this.mThread.join();
+    } catch (@SuppressWarnings("unused") final InterruptedException ie) {
+      // ignore
+    }
+    this.sample();
+    this.write();
+
+    if (this.mName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer()
+            .unregisterMBean(this.mName);
+      } catch (@SuppressWarnings("unused") final JMException error) {
+        // ignore
+      }
+      this.mName = null;
+    }
+  }
+
+  /**
+   * Get the path to the statistics file.
+   *
+   * @return the path to the statistics file
+   */
+  Path getFile() {
+    return this.mFile;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getUpdateTime() {
+    return this.mSample.mTime;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public int getStage() {
+    return this.mSample.mStage;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getRunsPlanned() {
+    return this.mSample.mRunsPlanned;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getRunsDone() {
+    return this.mSample.mRunsDone;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getRunsRemaining() {
+    return this.mSample.runsRemaining();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getTotalRuns() {
+    return this.mSample.mTotal.runs;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getConsumedFEs() {
+    return this.mSample.mTotal.consumedFEs;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double getFEsPerSecond() {
+    return this.mSample.mFEsPerSecond;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String[] getWorkers() {
+    return this.mSample.mWorkers.clone();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public double[] getWorkerFEsPerSecond() {
+    return this.mSample.mWorkerFEsPerSecond.clone();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getRunTimeMS() {
+    return this.mSample.mTotal.runTime / 1_000_000L;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getLogWriteTimeMS() {
+    return this.mSample.mTotal.logTime / 1_000_000L;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getLogBytes() {
+    return this.mSample.mTotal.logBytes;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getGcCount() {
+    return this.mSample.mGcCount;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getGcTimeMS() {
+    return this.mSample.mGcTime;
+  }
+
+  /** the values sampled at one point in time */
+  private static final class Sample {
+    /** the time of the sample */
+    final long mTime;
+    /** the current stage */
+    final int mStage;
+    /** the runs planned in the current stage */
+    final long mRunsPlanned;
+    /** the runs done in the current stage */
+    final long mRunsDone;
+    /** the total counters of the processes */
+    final ProcessMetrics.Counters mTotal;
+    /** the FEs per second */
+    final double mFEsPerSecond;
+    /** the worker names */
+    final String[] mWorkers;
+    /** the FEs per second of the workers */
+    final double[] mWorkerFEsPerSecond;
+    /** the number of garbage collections */
+    final long mGcCount;
+    /** the time of the garbage collections */
+    final long mGcTime;
+
+    /**
+     * create the sample
+     *
+     * @param pTime
+     *          the time of the sample
+     * @param pStage
+     *          the current stage
+     * @param pRunsPlanned
+     *          the runs planned in the current stage
+     * @param pRunsDone
+     *          the runs done in the current stage
+     * @param pTotal
+     *          the total counters of the processes
+     * @param pFEsPerSecond
+     *          the FEs per second
+     * @param pWorkers
+     *          the worker names
+     * @param pWorkerFEsPerSecond
+     *          the FEs per second of the workers
+     * @param pGcCount
+     *          the number of garbage collections
+     * @param pGcTime
+     *          the time of the garbage collections
+     */
+    Sample(final long pTime, final int pStage,
+        final long pRunsPlanned, final long pRunsDone,
+        final ProcessMetrics.Counters pTotal,
+        final double pFEsPerSecond, final String[] pWorkers,
+        final double[] pWorkerFEsPerSecond, final long pGcCount,
+        final long pGcTime) {
+      super();
+      this.mTime = pTime;
+      this.mStage = pStage;
+      this.mRunsPlanned = pRunsPlanned;
+      this.mRunsDone = pRunsDone;
+      this.mTotal = pTotal;
+      this.mFEsPerSecond = pFEsPerSecond;
+      this.mWorkers = pWorkers;
+      this.mWorkerFEsPerSecond = pWorkerFEsPerSecond;
+      this.mGcCount = pGcCount;
+      this.mGcTime = pGcTime;
+    }
+
+    /**
+     * Get the number of remaining runs of the current stage
+     *
+     * @return the number of remaining runs
+     */
+    long runsRemaining() {
+      return Math.max(0L, this.mRunsPlanned - this.mRunsDone);
+    }
+  }
+}
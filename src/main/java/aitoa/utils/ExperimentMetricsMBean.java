@@ -0,0 +1,125 @@
+package aitoa.utils;
+
+/**
+ * The management interface through which the progress and
+ * throughput of a running experiment can be observed via JMX,
+ * e.g., with {@code jconsole}. All values are updated
+ * periodically by the {@link ExperimentMetrics}.
+ */
+public interface ExperimentMetricsMBean {
+
+  /**
+   * Get the time when the values were last updated.
+   *
+   * @return the time in milliseconds since the epoch
+   */
+  long getUpdateTime();
+
+  /**
+   * Get the current stage.
+   *
+   * @return the number of the current stage, starting at 1, or
+   *         0 if no stage has begun yet
+   */
+  int getStage();
+
+  /**
+   * Get the number of runs of the current stage that were
+   * scheduled by this process.
+   *
+   * @return the number of runs
+   */
+  long getRunsPlanned();
+
+  /**
+   * Get the number of runs of the current stage that this
+   * process has completed.
+   *
+   * @return the number of runs
+   */
+  long getRunsDone();
+
+  /**
+   * Get the number of runs of the current stage that are still
+   * to be done by this process.
+   *
+   * @return the number of runs
+   */
+  long getRunsRemaining();
+
+  /**
+   * Get the number of runs completed by this JVM over all
+   * stages.
+   *
+   * @return the number of runs
+   */
+  long getTotalRuns();
+
+  /**
+   * Get the number of objective function evaluations consumed
+   * in this JVM.
+   *
+   * @return the number of FEs
+   */
+  long getConsumedFEs();
+
+  /**
+   * Get the number of objective function evaluations per second
+   * since the last update.
+   *
+   * @return the throughput
+   */
+  double getFEsPerSecond();
+
+  /**
+   * Get the names of the worker threads.
+   *
+   * @return the names of the worker threads
+   */
+  String[] getWorkers();
+
+  /**
+   * Get the number of objective function evaluations per second
+   * of each worker thread since the last update.
+   *
+   * @return the throughput of the worker threads, in the same
+   *         order as {@link #getWorkers()}
+   */
+  double[] getWorkerFEsPerSecond();
+
+  /**
+   * Get the total runtime of all completed runs, including the
+   * time for writing their logs.
+   *
+   * @return the runtime in milliseconds
+   */
+  long getRunTimeMS();
+
+  /**
+   * Get the time spent on writing log files.
+   *
+   * @return the time in milliseconds
+   */
+  long getLogWriteTimeMS();
+
+  /**
+   * Get the number of bytes written into log files.
+   *
+   * @return the number of bytes
+   */
+  long getLogBytes();
+
+  /**
+   * Get the number of garbage collections.
+   *
+   * @return the number of garbage collections
+   */
+  long getGcCount();
+
+  /**
+   * Get the accumulated time of all garbage collections.
+   *
+   * @return the time in milliseconds
+   */
+  long getGcTimeMS();
+}
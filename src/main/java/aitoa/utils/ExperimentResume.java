@@ -0,0 +1,418 @@
+package aitoa.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import aitoa.structure.LogFormat;
+
+/**
+ * The resume pass which makes an experiment ready to be
+ * continued after a crash.
+ * <p>
+ * The log file of a run is created empty when the run begins and
+ * is written only after the run has ended. A crash of the
+ * machine thus leaves empty log files behind and, if it happens
+ * while a log is written, truncated ones. Since the log file of
+ * a run exists, the run would be considered as done. The resume
+ * pass therefore scans the output directory, deletes all log
+ * files which are empty or do not end with the
+ * {@link LogFormat#END_BEST_Y} section or, if no
+ * {@linkplain LogFormat#REPRESENTATION_MAPPING representation
+ * mapping} is used, the {@link LogFormat#END_BEST_X} section,
+ * or, if no objective function evaluation was performed, the
+ * {@link LogFormat#END_STATE} section, together with their
+ * {@linkplain LogFormat#BINARY_SUFFIX binary sidecars}, and also
+ * deletes left-over {@linkplain LogFormat#SPILL_SUFFIX spill
+ * files}. If a log file has been deleted, the index of completed
+ * runs is deleted as well, since it may contain the deleted
+ * runs. It will be re-created from the remaining log files when
+ * the experiment is continued, which will then repeat exactly
+ * the deleted runs.
+ * <p>
+ * Only the last few bytes of each log file are read. The
+ * directory tree is traversed by several threads: each thread
+ * takes a directory from a shared queue, visits its entries via
+ * {@link Files#walkFileTree(Path, java.util.Set, int,
+ * java.nio.file.FileVisitor)} and puts the sub-directories back
+ * into the queue. This is faster than a single-threaded scan,
+ * especially if the output directory is on a network drive.
+ * <p>
+ * The resume pass must only be performed while no other process
+ * is working on the experiment, because the empty log files of
+ * runs in progress cannot be distinguished from those left
+ * behind by a crash.
+ */
+final class ExperimentResume {
+
+  /** the interval for progress reports, in ms */
+  private static final long PROGRESS_INTERVAL = 5_000L;
+  /** the number of bytes read from the end of a log file */
+  private static final int TAIL = 512;
+
+  /** the end of the best solution section */
+  private static final String END_BEST_X =
+      LogFormat.asComment(LogFormat.END_BEST_X);
+  /** the end of the best candidate solution section */
+  private static final String END_BEST_Y =
+      LogFormat.asComment(LogFormat.END_BEST_Y);
+  /** the end of the state section */
+  private static final String END_STATE =
+      LogFormat.asComment(LogFormat.END_STATE);
+  /** the state of a log in which no FE was consumed */
+  private static final String NO_FES =
+      LogFormat.mapEntry(LogFormat.CONSUMED_FES, 0);
+  /** the start of the representation mapping setup entry */
+  private static final String MAPPING =
+      LogFormat.mapEntry(LogFormat.REPRESENTATION_MAPPING, ""); //$NON-NLS-1$
+  /**
+   * the number of bytes read at once when searching the
+   * representation mapping
+   */
+  private static final int BLOCK = 8192;
+
+  /** the output directory */
+  private final Path mDir;
+  /** should we print log information? */
+  private final boolean mWriteLogInfos;
+  /** the directories which still need to be visited */
+  private final ArrayDeque<Path> mDirectories;
+  /** the number of log files checked */
+  private final AtomicLong mChecked;
+  /** the number of incomplete log files deleted */
+  private final AtomicLong mDeleted;
+  /** the number of threads currently visiting a directory */
+  private int mBusy;
+  /** the first error, if any */
+  private IOException mError;
+
+  /**
+   * create the resume pass
+   *
+   * @param pDir
+   *          the output directory
+   * @param pWriteLogInfos
+   *          should we print log information?
+   */
+  private ExperimentResume(final Path pDir,
+      final boolean pWriteLogInfos) {
+    super();
+    this.mDir = pDir;
+    this.mWriteLogInfos = pWriteLogInfos;
+    this.mDirectories = new ArrayDeque<>();
+    this.mChecked = new AtomicLong();
+    this.mDeleted = new AtomicLong();
+  }
+
+  /**
+   * Delete all incomplete log files in the output directory of
+   * an experiment, so that their runs will be performed again.
+   *
+   * @param dir
+   *          the output directory
+   * @param threads
+   *          the number of threads to use for the scan
+   * @param writeLogInfos
+   *          should we print log information?
+   * @return the number of deleted log files
+   * @throws IOException
+   *           if i/o fails
+   */
+  static long resume(final Path dir, final int threads,
+      final boolean writeLogInfos) throws IOException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException(
+          "Number of threads must be >= 1, but is "//$NON-NLS-1$
+              + threads);
+    }
+    final Path root = IOUtils.canonicalizePath(dir);
+    if (!Files.isDirectory(root)) {
+      return 0L;
+    }
+    final ExperimentResume resume =
+        new ExperimentResume(root, writeLogInfos);
+    resume.mDirectories.add(root);
+    return resume.execute(threads);
+  }
+
+  /**
+   * Perform the scan.
+   *
+   * @param threads
+   *          the number of threads
+   * @return the number of deleted log files
+   * @throws IOException
+   *           if i/o fails
+   */
+  private long execute(final int threads) throws IOException {
+    if (this.mWriteLogInfos) {
+      ConsoleIO.stdout("Checking the log files in '" + //$NON-NLS-1$
+          this.mDir + "' with " + threads + //$NON-NLS-1$
+          " threads."); //$NON-NLS-1$
+    }
+
+    final Thread[] workers = new Thread[threads];
+    for (int i = workers.length; (--i) >= 0;) {
+      final Thread t = workers[i] = new Thread(this::work,
+          "ExperimentResume_" + (i + 1)); //$NON-NLS-1$
+      t.setDaemon(true);
+      t.start();
+    }
+
+    long report = System.currentTimeMillis()
+        + ExperimentResume.PROGRESS_INTERVAL;
+    synchronized (this) {
+      while (((this.mBusy > 0) || (!this.mDirectories.isEmpty()))
+          && (this.mError == null)) {
+        try {
+          this.wait(ExperimentResume.PROGRESS_INTERVAL);
+        } catch (@SuppressWarnings("unused") final InterruptedException ie) {
+          // ignore
+        }
+        final long now = System.currentTimeMillis();
+        if (this.mWriteLogInfos && (now >= report)) {
+          report = now + ExperimentResume.PROGRESS_INTERVAL;
+          ConsoleIO.stdout("Checked " + this.mChecked.get() + //$NON-NLS-1$
+              " log files so far, " + this.mDeleted.get() + //$NON-NLS-1$
+              " of which were incomplete."); //$NON-NLS-1$
+        }
+      }
+    }
+
+    for (final Thread t : workers) {
+      try {
+        t.join();
+      } catch (@SuppressWarnings("unused") final InterruptedException ie) {
+        // the thread will terminate anyway
+      }
+    }
+    if (this.mError != null) {
+      throw this.mError;
+    }
+
+    final long deleted = this.mDeleted.get();
+    if (deleted > 0L) {
+// The index may contain the deleted runs and, being append-only,
+// cannot forget them. It is re-created from the log files.
+      Files.deleteIfExists(this.mDir.resolve(RunIndex.FILE_NAME));
+    }
+    if (this.mWriteLogInfos) {
+      ConsoleIO.stdout("Finished checking " + this.mChecked.get() + //$NON-NLS-1$
+          " log files, deleted " + deleted + //$NON-NLS-1$
+          " incomplete ones, whose runs will be repeated."); //$NON-NLS-1$
+    }
+    return deleted;
+  }
+
+  /** the main loop of a scan thread */
+  private void work() {
+    final Visitor visitor = new Visitor();
+    final EnumSet<FileVisitOption> options =
+        EnumSet.noneOf(FileVisitOption.class);
+
+    for (;;) {
+      final Path dir;
+      synchronized (this) {
+        while (this.mDirectories.isEmpty() && (this.mBusy > 0)
+            && (this.mError == null)) {
+          try {
+            this.wait();
+          } catch (@SuppressWarnings("unused") final InterruptedException ie) {
+            // ignore
+          }
+        }
+        if (this.mDirectories.isEmpty() || (this.mError != null)) {
+          this.notifyAll();
+          return;
+        }
+        dir = this.mDirectories.pollFirst();
+        ++this.mBusy;
+      }
+
+      try {
+        Files.walkFileTree(dir, options, 1, visitor);
+      } catch (final IOException ioe) {
+        synchronized (this) {
+          if (this.mError == null) {
+            this.mError = ioe;
+          }
+        }
+      } finally {
+        synchronized (this) {
+          --this.mBusy;
+          this.notifyAll();
+        }
+      }
+    }
+  }
+
+  /**
+   * Check whether a log file is complete.
+   *
+   * @param file
+   *          the log file
+   * @param size
+   *          the size of the log file
+   * @return {@code true} if the log file is complete,
+   *         {@code false} otherwise
+   * @throws IOException
+   *           if i/o fails
+   */
+  static boolean isComplete(final Path file, final long size)
+      throws IOException {
+    if (size <= 0L) {
+      return false;
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocate(
+        (int) (Math.min(size, ExperimentResume.TAIL)));
+    final long start = size - buffer.capacity();
+    try (final FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.READ)) {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer,
+            start + buffer.position()) < 0) {
+          return false; // the file has shrunk
+        }
+      }
+
+      final String tail = new String(buffer.array(),
+          StandardCharsets.UTF_8).trim();
+      if (tail.endsWith(ExperimentResume.END_BEST_Y)) {
+        return true;
+      }
+// If a representation mapping is used, the best candidate
+// solution follows the best point in the search space, so a log
+// ending with the latter may have been cut off.
+      if (tail.endsWith(ExperimentResume.END_BEST_X)) {
+        return ExperimentResume.hasNoMapping(channel, size);
+      }
+// The best solution is only missing if no FE was consumed, in
+// which case the log ends with the state section.
+      if (tail.endsWith(ExperimentResume.END_STATE)) {
+        for (final String line : tail.split("\\R")) { //$NON-NLS-1$
+          if (line.trim().equals(ExperimentResume.NO_FES)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check whether the setup section of a log file states that no
+   * representation mapping was used. The setup entry is searched
+   * backwards from the given position, so only the sections
+   * after the log section are read.
+   *
+   * @param channel
+   *          the channel to the log file
+   * @param end
+   *          the position from which to search backwards
+   * @return {@code true} if the log file has a representation
+   *         mapping entry with value {@link LogFormat#NULL},
+   *         {@code false} if the entry has another value, could
+   *         not be found, or the file has shrunk
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static boolean hasNoMapping(final FileChannel channel,
+      final long end) throws IOException {
+// Consecutive blocks overlap, so that an entry which begins in
+// a block is found together with enough of its value.
+    final int overlap = ExperimentResume.MAPPING.length()
+        + LogFormat.NULL.length() + 2;
+    final ByteBuffer buffer =
+        ByteBuffer.allocate(ExperimentResume.BLOCK + overlap);
+
+    long pos = end;
+    while (pos > 0L) {
+      final long from = Math.max(0L, pos - ExperimentResume.BLOCK);
+      buffer.clear();
+      buffer.limit((int) (Math.min(channel.size(), pos + overlap)
+          - from));
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer,
+            from + buffer.position()) < 0) {
+          return false; // the file has shrunk
+        }
+      }
+
+      final String text = new String(buffer.array(), 0,
+          buffer.limit(), StandardCharsets.ISO_8859_1);
+      final int index =
+          text.lastIndexOf(ExperimentResume.MAPPING);
+      if (index >= 0) {
+        final String value = text
+            .substring(index + ExperimentResume.MAPPING.length());
+        return value.startsWith(LogFormat.NULL)
+            && ((value.length() <= LogFormat.NULL.length())
+                || Character.isWhitespace(
+                    value.charAt(LogFormat.NULL.length())));
+      }
+      pos = from;
+    }
+    return false;
+  }
+
+  /** the visitor for the entries of a single directory */
+  private final class Visitor extends SimpleFileVisitor<Path> {
+
+    /** create */
+    Visitor() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FileVisitResult visitFile(final Path file,
+        final BasicFileAttributes attrs) throws IOException {
+// Since the maximum depth is 1, sub-directories are visited like
+// files: we put them into the queue for any thread to visit.
+      if (attrs.isDirectory()) {
+        synchronized (ExperimentResume.this) {
+          ExperimentResume.this.mDirectories.addLast(file);
+          ExperimentResume.this.notifyAll();
+        }
+        return FileVisitResult.CONTINUE;
+      }
+      if (!attrs.isRegularFile()) {
+        return FileVisitResult.CONTINUE;
+      }
+
+      final String name = file.getFileName().toString();
+      if (name.endsWith(LogFormat.SPILL_SUFFIX)) {
+        Files.deleteIfExists(file);
+        return FileVisitResult.CONTINUE;
+      }
+      if (!name.endsWith(LogFormat.FILE_SUFFIX)) {
+        return FileVisitResult.CONTINUE;
+      }
+
+      ExperimentResume.this.mChecked.incrementAndGet();
+      if (!ExperimentResume.isComplete(file, attrs.size())) {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(
+            name + LogFormat.BINARY_SUFFIX));
+        ExperimentResume.this.mDeleted.incrementAndGet();
+        if (ExperimentResume.this.mWriteLogInfos) {
+          ConsoleIO.stdout("Deleted incomplete log file '" //$NON-NLS-1$
+              + file + "'."); //$NON-NLS-1$
+        }
+      }
+      return FileVisitResult.CONTINUE;
+    }
+  }
+}
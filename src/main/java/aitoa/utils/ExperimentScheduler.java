@@ -0,0 +1,1052 @@
+package aitoa.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import aitoa.structure.BlackBoxProcessBuilder;
+import aitoa.structure.IBlackBoxProcess;
+import aitoa.structure.IMetaheuristic;
+import aitoa.structure.IObjectiveFunction;
+import aitoa.structure.IResettable;
+import aitoa.structure.LogFormat;
+import aitoa.structure.LogSink;
+import aitoa.utils.Experiment.IExperimentStage;
+
+/**
+ * The in-process scheduler for the runs of an experiment which
+ * is executed by several threads via
+ * {@link Experiment#executeExperimentInParallel(Stream, Path, int, boolean, boolean, boolean, boolean)}.
+ * <p>
+ * For each {@linkplain IExperimentStage stage}, all runs, i.e.,
+ * all combinations of problem instance, algorithm setup, and
+ * random seed, are enumerated exactly once. The output directory
+ * is scanned once and all runs whose log files already exist are
+ * dropped. The remaining runs are sorted by their expected cost
+ * as estimated by {@link RunCosts}, most expensive first, and
+ * dealt to one deque per worker thread. Each worker takes the
+ * runs from the front of its own deque. Once its deque is empty,
+ * it steals runs from the back of the deques of the other
+ * workers. This way, no two threads of the same process ever
+ * try the same run and the threads do not need to discover the
+ * runs taken by the others via the file system. Starting the
+ * longest runs first (LPT) keeps the workers from idling at the
+ * end of a stage while a few long runs are still going on. At
+ * the end of each stage, the achieved makespan is reported
+ * together with its lower bound, i.e., the larger one of the
+ * longest run and the total runtime of all runs divided by the
+ * number of workers.
+ * <p>
+ * The completed runs are recorded in the {@link RunIndex} in the
+ * output directory, which is shared with other processes working
+ * on the same experiment. Once the index is not empty, the
+ * output directory is no longer scanned and runs are only
+ * checked against the index. Before a run is executed, its log
+ * file is still created atomically via {@link Experiment#logFile}.
+ * This remains the safety net if several processes execute the
+ * same experiment in the same directory: a run taken by another
+ * process, but not yet completed, is skipped.
+ * <p>
+ * If an {@link java.io.IOException} or
+ * {@link java.lang.OutOfMemoryError} occurs during a run, the
+ * workers finish the other runs of the stage and the stage is
+ * then scheduled again, which will only pick up the runs that
+ * were lost. All other errors abort the experiment.
+ */
+final class ExperimentScheduler {
+
+  /** the output directory */
+  private final Path mDir;
+  /** the number of worker threads */
+  private final int mCores;
+  /** should we print log information? */
+  private final boolean mWriteLogInfos;
+  /** should we wait after a run was taken by another process? */
+  private final boolean mWaitAfterSkippedRuns;
+  /** should we wait after a run was done? */
+  private final boolean mWaitAfterWorkWasDone;
+  /** should we wait after an I/O error? */
+  private final boolean mWaitAfterIOError;
+  /** the runs and directories that this process knows about */
+  private final Experiment.FileSet mDone;
+  /** the expected costs of the runs */
+  private final RunCosts mCosts;
+  /** the index of completed runs, or {@code null} if none */
+  private RunIndex mIndex;
+  /** the metrics of the experiment, or {@code null} if none */
+  private ExperimentMetrics mMetrics;
+
+  /** the deques of the workers for the current stage */
+  private ConcurrentLinkedDeque<Run>[] mQueues;
+  /** the index of the current trial */
+  private long mTryIndex;
+  /**
+   * did a run of the current stage fail due to an I/O error or
+   * a lack of memory?
+   */
+  private volatile boolean mFailed;
+  /** the unrecoverable error, if any */
+  private volatile Throwable mError;
+  /** the number of runs executed in the current stage */
+  private long mExecuted;
+  /** the total runtime of the runs in the current stage */
+  private long mBusyTime;
+  /** the runtime of the longest run in the current stage */
+  private long mLongestRun;
+
+  /**
+   * create the scheduler
+   *
+   * @param pDir
+   *          the output directory
+   * @param pCores
+   *          the number of worker threads
+   * @param pWriteLogInfos
+   *          should we print log information?
+   * @param pWaitAfterSkippedRuns
+   *          should we wait after a run was taken by another
+   *          process?
+   * @param pWaitAfterWorkWasDone
+   *          should we wait after a run was done?
+   * @param pWaitAfterIOError
+   *          should we wait after an I/O error?
+   */
+  ExperimentScheduler(final Path pDir, final int pCores,
+      final boolean pWriteLogInfos,
+      final boolean pWaitAfterSkippedRuns,
+      final boolean pWaitAfterWorkWasDone,
+      final boolean pWaitAfterIOError) {
+    super();
+    this.mDir = IOUtils.canonicalizePath(//
+        Objects.requireNonNull(pDir));
+    this.mCores = pCores;
+    this.mWriteLogInfos = pWriteLogInfos;
+    this.mWaitAfterSkippedRuns = pWaitAfterSkippedRuns;
+    this.mWaitAfterWorkWasDone = pWaitAfterWorkWasDone;
+    this.mWaitAfterIOError = pWaitAfterIOError;
+    this.mDone = new Experiment.FileSet();
+    this.mCosts = new RunCosts();
+  }
+
+  /**
+   * Execute all the stages of the experiment, one after the
+   * other.
+   *
+   * @param stages
+   *          the stages
+   */
+  @SuppressWarnings("rawtypes")
+  void execute(final List<? extends Supplier<
+      ? extends IExperimentStage<?, ?, ?, ?>>> stages) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    this.mTryIndex = 1L;
+
+    try {
+      this.openIndex();
+      this.mMetrics =
+          new ExperimentMetrics(this.mDir, this.mWriteLogInfos);
+
+      int stageIndex = 0;
+      for (final Supplier<
+          ? extends IExperimentStage> stage : stages) {
+        final String stageString = Integer.toString(++stageIndex);
+
+        for (;;) {
+          if (this.mWriteLogInfos) {
+            ConsoleIO.setIDSuffix(Long.toString(this.mTryIndex)
+                + ':' + stageString);
+            ConsoleIO.stdout("Beginning Stage " + stageString); //$NON-NLS-1$
+          }
+
+          boolean success;
+          try {
+            success = this.executeStage(
+                Objects.requireNonNull(stage.get()), stageIndex,
+                stageString);
+          } catch (final IOException | OutOfMemoryError error) {
+            Experiment.doGc();
+            if (this.mWriteLogInfos) {
+              ConsoleIO.stderr(
+                  "Error when scheduling stage " + stageString, //$NON-NLS-1$
+                  error);
+            }
+            success = false;
+          }
+
+          if (success) {
+            if (this.mWriteLogInfos) {
+              ConsoleIO.stdout(
+                  "Successfully Finished Stage " + stageString); //$NON-NLS-1$
+            }
+            break;
+          }
+
+          if (this.mWriteLogInfos) {
+            ConsoleIO.stderr(this.mWaitAfterIOError
+                ? "Some runs of the stage failed, will now wait before retrying them." //$NON-NLS-1$
+                : "Some runs of the stage failed, will now retry them without waiting.", //$NON-NLS-1$
+                null);
+          }
+          if (this.mWaitAfterIOError) {
+            Experiment.sleep(10_000L * this.mTryIndex, random);
+          }
+          Experiment.doGc();
+          ++this.mTryIndex;
+        } // end of the trials of the stage
+
+        Thread.yield();
+        System.gc();
+        Thread.yield();
+      } // end of the stage
+
+      if (this.mWriteLogInfos) {
+        ConsoleIO.stdout(//
+            "Successfully Finished Experiment."); //$NON-NLS-1$
+      }
+    } catch (final Throwable error) {
+      Experiment.doGc();
+
+      final String message =
+          "An unrecoverable error has appeared during the experiment."; //$NON-NLS-1$
+      if (this.mWriteLogInfos) {
+        ConsoleIO.stderr(message, error);
+      }
+      if (error instanceof Error) {
+        throw ((Error) error);
+      }
+      if (error instanceof RuntimeException) {
+        throw ((RuntimeException) error);
+      }
+      throw new RuntimeException(message, error);
+    } finally {
+      if (this.mMetrics != null) {
+        this.mMetrics.close();
+        this.mMetrics = null;
+      }
+      this.closeIndex();
+      if (this.mWriteLogInfos) {
+        ConsoleIO.clearIDSuffix();
+      }
+    }
+  }
+
+  /**
+   * Create the output directory and open the index of completed
+   * runs in it. If the index cannot be opened, we continue
+   * without it.
+   */
+  void openIndex() {
+    try {
+      Files.createDirectories(this.mDir);
+      this.mIndex = new RunIndex(this.mDir);
+    } catch (final IOException ioe) {
+      if (this.mWriteLogInfos) {
+        ConsoleIO.stderr(
+            "Could not open the index of completed runs, will continue without it.", //$NON-NLS-1$
+            ioe);
+      }
+    }
+  }
+
+  /** Close the index of completed runs, if it is open. */
+  void closeIndex() {
+    if (this.mIndex != null) {
+      try {
+        this.mIndex.close();
+      } catch (final IOException ioe) {
+        if (this.mWriteLogInfos) {
+          ConsoleIO.stderr(
+              "Error when closing the index of completed runs.", //$NON-NLS-1$
+              ioe);
+        }
+      }
+      this.mIndex = null;
+    }
+  }
+
+  /**
+   * Record that the log file of a run has been written
+   * completely.
+   *
+   * @param logFile
+   *          the log file
+   */
+  private void completed(final Path logFile) {
+    final RunIndex index = this.mIndex;
+    if (index != null) {
+      try {
+        index.add(index.hash(logFile));
+      } catch (final IOException ioe) {
+// The run just remains unknown to the index, which is no problem
+// since its log file exists.
+        if (this.mWriteLogInfos) {
+          ConsoleIO.stderr("Could not add run '" //$NON-NLS-1$
+              + logFile + "' to the index.", //$NON-NLS-1$
+              ioe);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the path to the log file of a run.
+   *
+   * @param run
+   *          the run
+   * @return the path to the log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  Path logFile(final Run run) throws IOException {
+    return Experiment.logFile(this.mDir, run.mAlgorithm.mName,
+        run.mProblem.mName, run.mSeed, null, true);
+  }
+
+  /**
+   * Take a run by atomically creating its (empty) log file.
+   *
+   * @param run
+   *          the run
+   * @return the log file, or {@code null} if the run has
+   *         already been taken, by this or another process
+   * @throws IOException
+   *           if i/o fails
+   */
+  Path take(final Run run) throws IOException {
+    synchronized (this.mDone) {
+      return Experiment.logFile(this.mDir, run.mAlgorithm.mName,
+          run.mProblem.mName, run.mSeed, this.mDone, false);
+    }
+  }
+
+  /**
+   * Give back a run that has been taken but not completed by
+   * deleting its log file, so that it can be taken again.
+   *
+   * @param logFile
+   *          the log file of the run
+   */
+  void release(final Path logFile) {
+    synchronized (this.mDone) {
+      try {
+        Files.deleteIfExists(logFile);
+      } catch (final IOException ioe) {
+        if (this.mWriteLogInfos) {
+          ConsoleIO.stderr(
+              "We got an error when trying to delete file '" //$NON-NLS-1$
+                  + logFile + "'.", //$NON-NLS-1$
+              ioe);
+        }
+      } finally {
+        this.mDone.remove(logFile);
+      }
+    }
+  }
+
+  /**
+   * Record that the log of a run which has been performed
+   * elsewhere has been written completely into its log file,
+   * which must have been {@linkplain #take(Run) taken} before.
+   *
+   * @param logFile
+   *          the log file of the run
+   */
+  void received(final Path logFile) {
+    this.completed(logFile);
+    this.mCosts.sample(logFile);
+  }
+
+  /**
+   * Execute one trial of a stage.
+   *
+   * @param stage
+   *          the stage
+   * @param stageIndex
+   *          the number of the stage, starting at 1
+   * @param stageString
+   *          the string identifying the stage
+   * @return {@code true} if all runs of the stage have been
+   *         completed, {@code false} if some of them failed and
+   *         need to be done again
+   * @throws IOException
+   *           if the output directory cannot be scanned
+   * @throws Throwable
+   *           if an unrecoverable error occurs
+   */
+  @SuppressWarnings("rawtypes")
+  private boolean executeStage(final IExperimentStage stage,
+      final int stageIndex, final String stageString)
+      throws Throwable {
+    final List<Run> runs = this.plan(stage, stageString);
+    this.mMetrics.beginStage(stageIndex, runs.size());
+
+    if (this.mWriteLogInfos) {
+      ConsoleIO.stdout("Scheduling " + runs.size() + //$NON-NLS-1$
+          " runs on " + this.mCores + //$NON-NLS-1$
+          " worker threads."); //$NON-NLS-1$
+    }
+
+    this.mFailed = false;
+    this.mError = null;
+    this.mExecuted = 0L;
+    this.mBusyTime = 0L;
+    this.mLongestRun = 0L;
+
+    if (!runs.isEmpty()) {
+// The runs are dealt to the workers one by one, so that each
+// worker starts with one of the most expensive runs (longest
+// processing time first).
+      @SuppressWarnings("unchecked")
+      final ConcurrentLinkedDeque<Run>[] queues =
+          new ConcurrentLinkedDeque[this.mCores];
+      for (int i = queues.length; (--i) >= 0;) {
+        queues[i] = new ConcurrentLinkedDeque<>();
+      }
+      int index = 0;
+      for (final Run run : runs) {
+        queues[index].addLast(run);
+        if ((++index) >= queues.length) {
+          index = 0;
+        }
+      }
+      runs.clear();
+      this.mQueues = queues;
+
+      final long start = System.nanoTime();
+      final Thread[] threads = new Thread[this.mCores];
+      for (int i = threads.length; (--i) >= 0;) {
+        final int worker = i;
+        final Thread t = threads[i] = new Thread(
+            () -> this.work(worker, stage, stageString),
+            "ExperimentWorker_" + (i + 1)); //$NON-NLS-1$
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+      }
+
+      outer: for (;;) {
+        for (final Thread t : threads) {
+          try {
+            t.join();
+          } catch (final InterruptedException ie) {
+            if (this.mWriteLogInfos) {
+              ConsoleIO.stderr("Error while waiting for thread "//$NON-NLS-1$
+                  + t.getName(), ie);
+            }
+            continue outer;
+          }
+        }
+        break outer;
+      }
+      this.mQueues = null;
+
+      if (this.mWriteLogInfos && (this.mExecuted > 0L)) {
+        final long makespan =
+            (System.nanoTime() - start) / 1_000_000L;
+        final long bound = Math.max(this.mLongestRun,
+            (this.mBusyTime + this.mCores - 1L) / this.mCores);
+        ConsoleIO.stdout("Executed " + this.mExecuted + //$NON-NLS-1$
+            " runs with a makespan of " + makespan + //$NON-NLS-1$
+            "ms, the lower bound is " + bound + //$NON-NLS-1$
+            "ms (longest run: " + this.mLongestRun + //$NON-NLS-1$
+            "ms, total runtime: " + this.mBusyTime + //$NON-NLS-1$
+            "ms)."); //$NON-NLS-1$
+      }
+    }
+
+// Wait until all log files have been written. Log files which
+// could not be written have been deleted, so the corresponding
+// runs must be done again.
+    LogSink.await(path -> {
+      synchronized (this.mDone) {
+        this.mDone.remove(path);
+      }
+      this.mFailed = true;
+    });
+
+    if (this.mError != null) {
+      throw this.mError;
+    }
+    return !this.mFailed;
+  }
+
+  /**
+   * Enumerate all runs of a stage that still need to be done and
+   * sort them by decreasing expected cost.
+   *
+   * @param stage
+   *          the stage
+   * @param stageString
+   *          the string identifying the stage
+   * @return the list of runs
+   * @throws IOException
+   *           if the output directory cannot be scanned
+   */
+  @SuppressWarnings("rawtypes")
+  List<Run> plan(final IExperimentStage stage,
+      final String stageString) throws IOException {
+    final List<Run> runs = this.enumerateRuns(stage, stageString);
+    runs.sort(Run::compareByCost);
+    return runs;
+  }
+
+  /**
+   * Enumerate all runs of a stage which are neither in the
+   * index of completed runs nor have existing log files.
+   *
+   * @param stage
+   *          the stage
+   * @param stageString
+   *          the string identifying the stage
+   * @return the list of runs
+   * @throws IOException
+   *           if the output directory cannot be scanned
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private List<Run> enumerateRuns(final IExperimentStage stage,
+      final String stageString) throws IOException {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final RunIndex index = this.mIndex;
+    final HashSet<Path> existing;
+    if (index == null) {
+      existing = this.scanLogFiles();
+    } else {
+      index.refresh();
+      if (index.size() > 0) {
+        existing = new HashSet<>();
+      } else {
+// The index is new, so we create it from the existing log files.
+        existing = this.scanLogFiles();
+        final long[] hashes = new long[existing.size()];
+        int count = 0;
+        for (final Path path : existing) {
+          if (Files.size(path) > 0L) {
+            hashes[count++] = index.hash(path);
+          }
+        }
+        index.add(Arrays.copyOf(hashes, count));
+      }
+    }
+
+    final Supplier<IObjectiveFunction>[] problems =
+        ((Stream<Supplier>) (stage.getProblems()))
+            .toArray(i -> new Supplier[i]);
+    if ((problems == null) || (problems.length <= 0)) {
+      throw new IllegalStateException(
+          "Experiment stage " + stageString + //$NON-NLS-1$
+              " must provide at least one problem."); //$NON-NLS-1$
+    }
+
+// We shuffle problems, algorithms, and seeds as before. Since the
+// runs are sorted by their cost with a stable sort later, runs of
+// the same cost remain in random order. If multiple processes
+// run the same experiment in the same folder, they thus start at
+// different runs.
+    RandomUtils.shuffle(random, problems, 0, problems.length);
+
+    final ArrayList<Run> runs = new ArrayList<>();
+    for (final Supplier<
+        IObjectiveFunction> problemSupplier : problems) {
+      final IObjectiveFunction f =
+          Objects.requireNonNull(problemSupplier.get());
+
+      final int count = stage.getRuns(f);
+      if (count <= 0) {
+        continue;
+      }
+
+      final Supplier<IMetaheuristic>[] algorithms =
+          ((Stream<Supplier>) (stage.getAlgorithms(f)))
+              .toArray(i -> new Supplier[i]);
+      if ((algorithms == null) || (algorithms.length <= 0)) {
+        continue;
+      }
+      RandomUtils.shuffle(random, algorithms, 0,
+          algorithms.length);
+
+      final String instName = Experiment.nameFromObjectPrepare(f);
+      final long[] seeds =
+          RandomUtils.uniqueRandomSeeds(instName, count);
+      if (seeds.length != count) {
+        throw new IllegalStateException(
+            "Invalid number of seeds: should never happen."); //$NON-NLS-1$
+      }
+
+// The budget of the runs is needed to estimate their cost if
+// no runs of a setup have been completed yet.
+      final BlackBoxProcessBuilder builder =
+          new BlackBoxProcessBuilder<>();
+      stage.configureBuilder(builder);
+      stage.configureBuilderForProblem(builder, f);
+      final long maxTime = builder.getMaxTime();
+      final long maxFEs = builder.getMaxFEs();
+
+      final Problem problem =
+          new Problem(problemSupplier, instName);
+
+      for (final Supplier<
+          IMetaheuristic> algorithmSupplier : algorithms) {
+        final IMetaheuristic sample =
+            Objects.requireNonNull(algorithmSupplier.get());
+        final String algoName = sample.toString();
+        if (algoName.isEmpty()) {
+          throw new IllegalArgumentException(
+              "Name of algorithm cannot be null or empty, but is " //$NON-NLS-1$
+                  + algoName);
+        }
+        final Algorithm algorithm = new Algorithm(
+            algorithmSupplier, algoName, sample.getClass());
+
+        RandomUtils.shuffle(random, seeds, 0, seeds.length);
+        double cost = Double.NaN;
+        for (final long seed : seeds) {
+          final Path path = Experiment.logFile(this.mDir,
+              algoName, instName, seed, null, true);
+          if (existing.contains(path) || ((index != null)
+              && index.contains(index.hash(path)))) {
+            this.mCosts.sample(path);
+          } else {
+// All runs of a setup have the same expected cost.
+            if (Double.isNaN(cost)) {
+              cost = this.mCosts.estimate(path, maxTime, maxFEs);
+            }
+            runs.add(new Run(problem, algorithm, seed, cost));
+          }
+        }
+      }
+    }
+
+    return runs;
+  }
+
+  /**
+   * Scan the output directory for existing log files.
+   *
+   * @return the set of existing log files
+   * @throws IOException
+   *           if i/o fails
+   */
+  private HashSet<Path> scanLogFiles() throws IOException {
+    final HashSet<Path> existing = new HashSet<>();
+    if (Files.isDirectory(this.mDir)) {
+      Files.walkFileTree(this.mDir, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(final Path file,
+            final BasicFileAttributes attrs) {
+          if (attrs.isRegularFile() && file.getFileName()
+              .toString().endsWith(LogFormat.FILE_SUFFIX)) {
+            existing.add(file);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+    return existing;
+  }
+
+  /**
+   * Get the next run for a worker: either from its own deque or
+   * stolen from another worker.
+   *
+   * @param worker
+   *          the index of the worker
+   * @param random
+   *          the random number generator
+   * @return the next run, or {@code null} if no run is left
+   */
+  private Run next(final int worker,
+      final ThreadLocalRandom random) {
+    final ConcurrentLinkedDeque<Run>[] queues = this.mQueues;
+    Run run = queues[worker].pollFirst();
+    if (run != null) {
+      return run;
+    }
+
+    final int start = random.nextInt(queues.length);
+    for (int i = queues.length; (--i) >= 0;) {
+      run = queues[(start + i) % queues.length].pollLast();
+      if (run != null) {
+        return run;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The main loop of a worker thread.
+   *
+   * @param worker
+   *          the index of the worker
+   * @param stage
+   *          the stage
+   * @param stageString
+   *          the string identifying the stage
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void work(final int worker,
+      final IExperimentStage stage, final String stageString) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (this.mWriteLogInfos) {
+      ConsoleIO.setIDSuffix(
+          Long.toString(this.mTryIndex) + ':' + stageString);
+    }
+
+    try {
+      IMetaheuristic algoOld = null;
+// The builders of this worker, each with its own objective
+// function. Since the runs are ordered by their cost, consecutive
+// runs rarely belong to the same problem, so we keep the builders
+// of all problems instead of creating them anew whenever the
+// problem changes.
+      final HashMap<Problem, BlackBoxProcessBuilder> builders =
+          new HashMap<>();
+// The resettable algorithm instances of this worker, if the stage
+// allows for re-using them. Each algorithm setup belongs to one
+// problem.
+      final HashMap<Algorithm, IMetaheuristic> pool =
+          stage.isReusingAlgorithms() ? new HashMap<>() : null;
+
+      Run run;
+      while ((this.mError == null)
+          && ((run = this.next(worker, random)) != null)) {
+        try {
+          BlackBoxProcessBuilder builder =
+              builders.get(run.mProblem);
+          if (builder == null) {
+            builder = this.createBuilder(stage, run.mProblem, true);
+            builders.put(run.mProblem, builder);
+          }
+
+          algoOld =
+              this.doRun(run, builder, algoOld, pool, random);
+        } catch (final IOException | OutOfMemoryError error) {
+          builders.clear();
+          algoOld = null;
+          if (pool != null) {
+            pool.clear();
+          }
+          this.mFailed = true;
+          Experiment.doGc();
+          if (this.mWriteLogInfos) {
+            ConsoleIO.stderr(
+                "Got an error in an experimental run, it will be retried later.", //$NON-NLS-1$
+                error);
+          }
+        }
+      }
+    } catch (final Throwable error) {
+      synchronized (this) {
+        if (this.mError == null) {
+          this.mError = error;
+        }
+      }
+    } finally {
+      if (this.mWriteLogInfos) {
+        ConsoleIO.clearIDSuffix();
+      }
+    }
+  }
+
+  /**
+   * Create the builder for the runs of a problem. Each worker
+   * thread needs its own objective function instance and
+   * builder, as both may have internal state.
+   *
+   * @param stage
+   *          the stage
+   * @param problem
+   *          the problem
+   * @param writeLogAsync
+   *          should the log files be written asynchronously?
+   *          If {@code false}, each log file has been written
+   *          completely when its run ends. Logs of every single
+   *          FE are only written asynchronously if they are
+   *          spilled.
+   * @return the builder
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  BlackBoxProcessBuilder createBuilder(
+      final IExperimentStage stage, final Problem problem,
+      final boolean writeLogAsync) {
+    final IObjectiveFunction f =
+        Objects.requireNonNull(problem.mSupplier.get());
+    final BlackBoxProcessBuilder builder =
+        new BlackBoxProcessBuilder<>();
+    builder.setWriteLogAsync(writeLogAsync);
+    stage.configureBuilder(builder);
+    stage.configureBuilderForProblem(builder, f);
+    builder.setObjectiveFunction(f);
+// An asynchronously written log file is kept in memory until the
+// process is closed. If every single FE is logged and the log is
+// not spilled, this may need too much memory, so we write it
+// synchronously.
+    if (writeLogAsync && (!(builder.isLoggingAll()
+        && (!builder.isSpillingLog())))) {
+      builder.setLogWrittenListener(
+          (Consumer<Path>) this::completed);
+    } else {
+      builder.setWriteLogAsync(false);
+    }
+    return builder;
+  }
+
+  /**
+   * Perform a single run.
+   *
+   * @param run
+   *          the run
+   * @param builder
+   *          the builder, configured for the problem of the run
+   * @param algoOld
+   *          the algorithm instance used in the previous run
+   * @param pool
+   *          the resettable algorithm instances of the worker, or
+   *          {@code null} if algorithms are not re-used
+   * @param random
+   *          the random number generator
+   * @return the algorithm instance used in this run, or
+   *         {@code algoOld} if the run was skipped
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  IMetaheuristic doRun(final Run run,
+      final BlackBoxProcessBuilder builder,
+      final IMetaheuristic algoOld,
+      final HashMap<Algorithm, IMetaheuristic> pool,
+      final ThreadLocalRandom random) throws IOException {
+// We obtain a new instance of the algorithm for each run to make
+// sure that all runs are independent, unless the stage allows us
+// to reset and re-use the instance of this worker.
+    final IMetaheuristic pooled =
+        (pool != null) ? pool.get(run.mAlgorithm) : null;
+    final boolean reused = (pooled != null);
+    final IMetaheuristic algorithm;
+    if (reused) {
+      ((IResettable) pooled).reset();
+      algorithm = pooled;
+    } else {
+      algorithm = Objects
+          .requireNonNull(run.mAlgorithm.mSupplier.get());
+      if ((pool != null) && (algorithm instanceof IResettable)) {
+        pool.put(run.mAlgorithm, algorithm);
+      }
+    }
+    final String algoName = run.mAlgorithm.mName;
+    if (!Objects.equals(algorithm.toString(), algoName)) {
+      throw new IllegalArgumentException(
+          "Algorithm name has changed from '"//$NON-NLS-1$
+              + algoName + "' to '"//$NON-NLS-1$
+              + algorithm.toString() + "'.");//$NON-NLS-1$
+    }
+    if (algorithm.getClass() != run.mAlgorithm.mClass) {
+      throw new IllegalArgumentException(
+          "Algorithm class has changed from '"//$NON-NLS-1$
+              + run.mAlgorithm.mClass + "' to '"//$NON-NLS-1$
+              + algorithm.getClass() + "'.");//$NON-NLS-1$
+    }
+    if ((algorithm == algoOld) && (!reused)) {
+      throw new IllegalArgumentException(
+          "You are not allowed to re-use algorithm instances (we want to ensure that all runs are independent), but you tried to re-use an instance of '"//$NON-NLS-1$
+              + algoName + "'.");//$NON-NLS-1$
+    }
+
+// Atomically create the log file. If this fails, another
+// process has taken the run.
+    final Path logFile;
+    synchronized (this.mDone) {
+      logFile = Experiment.logFile(this.mDir, algoName,
+          run.mProblem.mName, run.mSeed, this.mDone, false);
+    }
+    if (logFile == null) {
+      if (this.mWaitAfterSkippedRuns) {
+        Experiment.sleep(this.mTryIndex - 1L, random);
+      }
+      return algoOld;
+    }
+
+    if (this.mWriteLogInfos) {
+      ConsoleIO.stdout("Now performing run '"//$NON-NLS-1$
+          + logFile + "'."); //$NON-NLS-1$
+    }
+
+    builder.setRandSeed(run.mSeed);
+    builder.setLogPath(logFile);
+
+    final long start = System.nanoTime();
+    final long fes;
+    try (final IBlackBoxProcess process = builder.get()) {
+      algorithm.solve(process);
+      process.printLogSection(
+          LogFormat.ALGORITHM_SETUP_LOG_SECTION,
+          bw -> algorithm.printSetup((Writer) bw));
+      fes = process.getConsumedFEs();
+    } catch (final IOException | OutOfMemoryError error) {
+      synchronized (this.mDone) {
+        if (error instanceof OutOfMemoryError) {
+// The reason for the out-of-memory situation might have been
+// that "done" grew too big.
+          this.mDone.clear();
+        } else {
+          this.mDone.remove(logFile);
+        }
+      }
+      Experiment.doGc();
+
+// The data of the run was lost, but the empty log file would
+// keep all processes from repeating the run. So we try to delete
+// it.
+      synchronized (this.mDone) {
+        try {
+          Files.delete(logFile);
+        } catch (final Throwable error2) {
+          if (this.mWriteLogInfos) {
+            ConsoleIO.stderr(
+                "We got an error when trying to delete file '" //$NON-NLS-1$
+                    + logFile + "'.", //$NON-NLS-1$
+                error2);
+          }
+        } finally {
+          this.mDone.remove(logFile);
+        }
+      }
+
+      throw error;
+    }
+
+    final long time = (System.nanoTime() - start) / 1_000_000L;
+    if (!builder.isWritingLogAsync()) {
+      this.completed(logFile);
+    }
+    this.mCosts.record(logFile, time, fes);
+    synchronized (this) {
+      this.mExecuted++;
+      this.mBusyTime += time;
+      this.mLongestRun = Math.max(this.mLongestRun, time);
+    }
+    final ExperimentMetrics metrics = this.mMetrics;
+    if (metrics != null) {
+      metrics.runDone();
+    }
+
+    if (this.mWaitAfterWorkWasDone) {
+      Experiment.sleep(this.mTryIndex - 1L, random);
+    }
+    return algorithm;
+  }
+
+  /** a problem of the stage */
+  @SuppressWarnings("rawtypes")
+  static final class Problem {
+    /** the supplier for the objective function */
+    final Supplier<IObjectiveFunction> mSupplier;
+    /** the instance name */
+    final String mName;
+
+    /**
+     * create
+     *
+     * @param pSupplier
+     *          the supplier for the objective function
+     * @param pName
+     *          the instance name
+     */
+    Problem(final Supplier<IObjectiveFunction> pSupplier,
+        final String pName) {
+      super();
+      this.mSupplier = pSupplier;
+      this.mName = pName;
+    }
+  }
+
+  /** an algorithm setup of the stage */
+  @SuppressWarnings("rawtypes")
+  static final class Algorithm {
+    /** the supplier for the algorithm */
+    final Supplier<IMetaheuristic> mSupplier;
+    /** the algorithm name */
+    final String mName;
+    /** the algorithm class */
+    final Class<?> mClass;
+
+    /**
+     * create
+     *
+     * @param pSupplier
+     *          the supplier for the algorithm
+     * @param pName
+     *          the algorithm name
+     * @param pClass
+     *          the algorithm class
+     */
+    Algorithm(final Supplier<IMetaheuristic> pSupplier,
+        final String pName, final Class<?> pClass) {
+      super();
+      this.mSupplier = pSupplier;
+      this.mName = pName;
+      this.mClass = pClass;
+    }
+  }
+
+  /** a run to be executed */
+  static final class Run {
+    /** the problem */
+    final Problem mProblem;
+    /** the algorithm */
+    final Algorithm mAlgorithm;
+    /** the random seed */
+    final long mSeed;
+    /** the expected cost */
+    final double mCost;
+
+    /**
+     * create
+     *
+     * @param pProblem
+     *          the problem
+     * @param pAlgorithm
+     *          the algorithm
+     * @param pSeed
+     *          the random seed
+     * @param pCost
+     *          the expected cost
+     */
+    Run(final Problem pProblem, final Algorithm pAlgorithm,
+        final long pSeed, final double pCost) {
+      super();
+      this.mProblem = pProblem;
+      this.mAlgorithm = pAlgorithm;
+      this.mSeed = pSeed;
+      this.mCost = pCost;
+    }
+
+    /**
+     * Compare two runs such that the run with the higher
+     * expected cost comes first.
+     *
+     * @param a
+     *          the first run
+     * @param b
+     *          the second run
+     * @return the comparison result
+     */
+    static int compareByCost(final Run a, final Run b) {
+      return Double.compare(b.mCost, a.mCost);
+    }
+  }
+}
@@ -0,0 +1,433 @@
+package aitoa.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import aitoa.structure.BlackBoxProcessBuilder;
+import aitoa.structure.IMetaheuristic;
+import aitoa.structure.IObjectiveFunction;
+import aitoa.utils.Experiment.IExperimentStage;
+import aitoa.utils.ExperimentScheduler.Algorithm;
+import aitoa.utils.ExperimentScheduler.Problem;
+import aitoa.utils.ExperimentScheduler.Run;
+
+/**
+ * A worker process which performs the runs handed out by an
+ * {@link ExperimentCoordinator}.
+ * <p>
+ * The worker must be started with the same stages as the
+ * coordinator. Each of its threads opens one connection to the
+ * coordinator and then repeatedly requests a run, looks up the
+ * problem instance and algorithm setup by their names, and
+ * performs the run via an {@link ExperimentScheduler} working in
+ * a local, temporary directory. The log file is written
+ * synchronously, sent to the coordinator, and then deleted. A
+ * separate thread sends a heartbeat over each connection every
+ * {@link ExperimentCoordinator#HEARTBEAT_INTERVAL}
+ * milliseconds, so that the coordinator can tell a long run from
+ * a dead worker. If a run fails due to an
+ * {@link java.io.IOException} or
+ * {@link java.lang.OutOfMemoryError}, the failure is reported
+ * and the coordinator hands out the run again. All other errors
+ * are reported as well and then abort the worker.
+ */
+final class ExperimentWorker {
+
+  /** the stages */
+  private final List<? extends Supplier<
+      ? extends IExperimentStage<?, ?, ?, ?>>> mStages;
+  /** the host of the coordinator */
+  private final String mHost;
+  /** the port of the coordinator */
+  private final int mPort;
+  /** the number of worker threads */
+  private final int mCores;
+  /** should we print log information? */
+  private final boolean mWriteLogInfos;
+  /** the output streams of the open connections */
+  private final ConcurrentLinkedQueue<DataOutputStream> mOutputs;
+
+  /** the scheduler performing the runs */
+  private ExperimentScheduler mScheduler;
+  /** the number of the stage whose setups are known */
+  private int mStageIndex;
+  /** the stage whose setups are known */
+  @SuppressWarnings("rawtypes")
+  private IExperimentStage mStage;
+  /** the setups of the stage, indexed by instance and algorithm */
+  private HashMap<String, Run> mSetups;
+  /** the unrecoverable error, if any */
+  private volatile Throwable mError;
+
+  /**
+   * create the worker
+   *
+   * @param pStages
+   *          the stages
+   * @param pHost
+   *          the host of the coordinator
+   * @param pPort
+   *          the port of the coordinator
+   * @param pCores
+   *          the number of worker threads
+   * @param pWriteLogInfos
+   *          should we print log information?
+   */
+  ExperimentWorker(final List<? extends Supplier<
+      ? extends IExperimentStage<?, ?, ?, ?>>> pStages,
+      final String pHost, final int pPort, final int pCores,
+      final boolean pWriteLogInfos) {
+    super();
+    this.mStages = Objects.requireNonNull(pStages);
+    this.mHost = Objects.requireNonNull(pHost);
+    this.mPort = pPort;
+    this.mCores = pCores;
+    this.mWriteLogInfos = pWriteLogInfos;
+    this.mOutputs = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * Perform runs until the coordinator has no more runs or the
+   * connections to it are lost.
+   *
+   * @throws IOException
+   *           if the temporary directory cannot be created
+   */
+  void execute() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      this.mScheduler = new ExperimentScheduler(dir.getPath(),
+          this.mCores, this.mWriteLogInfos, false, false, false);
+
+      final Thread heartbeat =
+          new Thread(this::heartbeat, "ExperimentHeartbeat"); //$NON-NLS-1$
+      heartbeat.setDaemon(true);
+      heartbeat.start();
+
+      final Thread[] threads = new Thread[this.mCores];
+      for (int i = threads.length; (--i) >= 0;) {
+        final Thread t = threads[i] = new Thread(this::work,
+            "ExperimentWorker_" + (i + 1)); //$NON-NLS-1$
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+      }
+
+      outer: for (;;) {
+        for (final Thread t : threads) {
+          try {
+            t.join();
+          } catch (final InterruptedException ie) {
+            if (this.mWriteLogInfos) {
+              ConsoleIO.stderr("Error while waiting for thread "//$NON-NLS-1$
+                  + t.getName(), ie);
+            }
+            continue outer;
+          }
+        }
+        break outer;
+      }
+      heartbeat.interrupt();
+    }
+
+    final Throwable error = this.mError;
+    if (error != null) {
+      if (error instanceof Error) {
+        throw ((Error) error);
+      }
+      if (error instanceof RuntimeException) {
+        throw ((RuntimeException) error);
+      }
+      throw new RuntimeException(
+          "An unrecoverable error has appeared in a run.", //$NON-NLS-1$
+          error);
+    }
+  }
+
+  /** send heartbeats over all open connections */
+  private void heartbeat() {
+    for (;;) {
+      try {
+        Thread.sleep(ExperimentCoordinator.HEARTBEAT_INTERVAL);
+      } catch (@SuppressWarnings("unused") final InterruptedException ie) {
+        return;
+      }
+      for (final DataOutputStream out : this.mOutputs) {
+        synchronized (out) {
+          try {
+            out.writeByte(ExperimentCoordinator.HEARTBEAT);
+            out.flush();
+          } catch (@SuppressWarnings("unused") final IOException ioe) {
+            // the worker thread will notice the broken connection
+          }
+        }
+      }
+    }
+  }
+
+  /** the main loop of a worker thread */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void work() {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final String name = ManagementFactory.getRuntimeMXBean()
+        .getName() + '/' + Thread.currentThread().getName();
+
+    try (final Socket socket = new Socket(this.mHost, this.mPort);
+        final DataInputStream in = new DataInputStream(
+            new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(
+                socket.getOutputStream()))) {
+      synchronized (out) {
+        out.writeByte(ExperimentCoordinator.HELLO);
+        out.writeUTF(name);
+        out.flush();
+      }
+      this.mOutputs.add(out);
+
+      try {
+        int stageIndex = 0;
+        IExperimentStage stage = null;
+// The builders of this worker, one per problem, since consecutive
+// runs rarely belong to the same problem.
+        final HashMap<Problem, BlackBoxProcessBuilder> builders =
+            new HashMap<>();
+        IMetaheuristic algoOld = null;
+        HashMap<Algorithm, IMetaheuristic> pool = null;
+        final byte[] buffer =
+            new byte[ExperimentCoordinator.CHUNK_SIZE];
+
+        for (;;) {
+          synchronized (out) {
+            out.writeByte(ExperimentCoordinator.REQUEST);
+            out.flush();
+          }
+
+          final byte reply = in.readByte();
+          if (reply == ExperimentCoordinator.DONE) {
+            break;
+          }
+          if (reply == ExperimentCoordinator.WAIT) {
+            Thread.sleep(in.readLong());
+            continue;
+          }
+          if (reply != ExperimentCoordinator.RUN) {
+            throw new IOException(
+                "Unknown message type " + reply); //$NON-NLS-1$
+          }
+
+          final int runStage = in.readInt();
+          final String algoName = in.readUTF();
+          final String instName = in.readUTF();
+          final long seed = in.readLong();
+
+          if (runStage != stageIndex) {
+            stage = this.stage(runStage);
+            stageIndex = runStage;
+            builders.clear();
+            algoOld = null;
+            pool = stage.isReusingAlgorithms() ? new HashMap<>()
+                : null;
+          }
+          final Run run = this.run(runStage, instName, algoName,
+              seed);
+
+          final Path logFile;
+          final long length;
+          try {
+            BlackBoxProcessBuilder builder =
+                builders.get(run.mProblem);
+            if (builder == null) {
+              builder = this.mScheduler.createBuilder(stage,
+                  run.mProblem, false);
+              builders.put(run.mProblem, builder);
+            }
+
+            algoOld = this.mScheduler.doRun(run, builder, algoOld,
+                pool, random);
+            logFile = this.mScheduler.logFile(run);
+            try {
+              length = Files.size(logFile);
+              if (length <= 0L) {
+                throw new IOException("Log file '" + logFile //$NON-NLS-1$
+                    + "' is empty."); //$NON-NLS-1$
+              }
+            } catch (final IOException ioe) {
+              this.mScheduler.release(logFile);
+              throw ioe;
+            }
+          } catch (final IOException | OutOfMemoryError error) {
+            builders.clear();
+            algoOld = null;
+            if (pool != null) {
+              pool.clear();
+            }
+            Experiment.doGc();
+            synchronized (out) {
+              out.writeByte(ExperimentCoordinator.FAILED);
+              out.writeUTF(String.valueOf(error));
+              out.flush();
+            }
+            continue;
+          }
+
+// Stream the log in chunks, releasing the output stream in between
+// so that the heartbeats of the other connections are not delayed.
+          try (final InputStream log = Files.newInputStream(logFile)) {
+            synchronized (out) {
+              out.writeByte(ExperimentCoordinator.RESULT);
+              out.writeLong(length);
+              out.flush();
+            }
+            for (long remaining = length; remaining > 0L;) {
+              final int size = log.read(buffer, 0,
+                  (int) (Math.min(buffer.length, remaining)));
+              if (size < 0) {
+                throw new EOFException("Log file '" + logFile //$NON-NLS-1$
+                    + "' is shorter than " + length //$NON-NLS-1$
+                    + " bytes."); //$NON-NLS-1$
+              }
+              if (size > 0) {
+                synchronized (out) {
+                  out.writeByte(ExperimentCoordinator.CHUNK);
+                  out.writeInt(size);
+                  out.write(buffer, 0, size);
+                  out.flush();
+                }
+                remaining -= size;
+              }
+            }
+          } finally {
+            this.mScheduler.release(logFile);
+          }
+          if (in.readByte() != ExperimentCoordinator.ACK) {
+            throw new IOException(
+                "Result was not acknowledged."); //$NON-NLS-1$
+          }
+        }
+      } catch (final IOException | InterruptedException error) {
+        if (this.mWriteLogInfos) {
+          ConsoleIO.stderr("Lost the connection to the coordinator.", //$NON-NLS-1$
+              error);
+        }
+      } catch (final Throwable error) {
+        try {
+          synchronized (out) {
+            out.writeByte(ExperimentCoordinator.FAILED);
+            out.writeUTF(String.valueOf(error));
+            out.flush();
+          }
+        } catch (@SuppressWarnings("unused") final IOException ioe) {
+          // the coordinator will notice the broken connection
+        }
+        throw error;
+      } finally {
+        this.mOutputs.remove(out);
+      }
+    } catch (final IOException ioe) {
+      if (this.mWriteLogInfos) {
+        ConsoleIO.stderr("Could not connect to the coordinator.", //$NON-NLS-1$
+            ioe);
+      }
+    } catch (final Throwable error) {
+      synchronized (this) {
+        if (this.mError == null) {
+          this.mError = error;
+        }
+      }
+    }
+  }
+
+  /**
+   * Get a stage.
+   *
+   * @param stageIndex
+   *          the number of the stage, starting at 1
+   * @return the stage
+   */
+  @SuppressWarnings("rawtypes")
+  private synchronized IExperimentStage stage(final int stageIndex) {
+    if (stageIndex != this.mStageIndex) {
+      if ((stageIndex <= 0) || (stageIndex > this.mStages.size())) {
+        throw new IllegalArgumentException(
+            "Invalid stage " + stageIndex + //$NON-NLS-1$
+                ", the worker must have the same stages as the coordinator."); //$NON-NLS-1$
+      }
+      this.mStage = Objects.requireNonNull(
+          this.mStages.get(stageIndex - 1).get());
+      this.mSetups = null;
+      this.mStageIndex = stageIndex;
+    }
+    return this.mStage;
+  }
+
+  /**
+   * Find a run of the current stage by the names of its problem
+   * instance and algorithm setup. When this method is first
+   * called for a stage, all problems and algorithms of the stage
+   * are instantiated once to obtain their names.
+   *
+   * @param stageIndex
+   *          the number of the stage
+   * @param instName
+   *          the instance name
+   * @param algoName
+   *          the algorithm name
+   * @param seed
+   *          the random seed
+   * @return the run
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private synchronized Run run(final int stageIndex,
+      final String instName, final String algoName,
+      final long seed) {
+    final IExperimentStage stage = this.stage(stageIndex);
+    if (this.mSetups == null) {
+      final HashMap<String, Run> setups = new HashMap<>();
+      ((Stream<Supplier>) (stage.getProblems()))
+          .forEach(problemSupplier -> {
+            final IObjectiveFunction f = Objects
+                .requireNonNull((IObjectiveFunction) problemSupplier
+                    .get());
+            final Problem problem = new Problem(problemSupplier,
+                Experiment.nameFromObjectPrepare(f));
+            ((Stream<Supplier>) (stage.getAlgorithms(f)))
+                .forEach(algorithmSupplier -> {
+                  final IMetaheuristic sample =
+                      Objects.requireNonNull(
+                          (IMetaheuristic) algorithmSupplier.get());
+                  final String name = sample.toString();
+                  setups.put(problem.mName + '/' + name,
+                      new Run(problem, new Algorithm(
+                          algorithmSupplier, name, sample.getClass()),
+                          0L, 0d));
+                });
+          });
+      this.mSetups = setups;
+    }
+
+    final Run setup = this.mSetups.get(instName + '/' + algoName);
+    if (setup == null) {
+      throw new IllegalArgumentException("Unknown run of algorithm '" //$NON-NLS-1$
+          + algoName + "' on instance '" + instName + //$NON-NLS-1$
+          "' in stage " + stageIndex + //$NON-NLS-1$
+          ", the worker must have the same stages as the coordinator."); //$NON-NLS-1$
+    }
+    return new Run(setup.mProblem, setup.mAlgorithm, seed, 0d);
+  }
+}
@@ -0,0 +1,185 @@
+package aitoa.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import aitoa.utils.logs.LogLine;
+import aitoa.utils.logs.LogParser;
+
+/**
+ * The expected costs of the runs of an experiment, used by the
+ * {@link ExperimentScheduler} to execute the longest runs first.
+ * <p>
+ * The cost of a run is its expected runtime in milliseconds. For
+ * an experimental setup, i.e., an algorithm applied to a problem
+ * instance, for which some runs have already been completed, it
+ * is the mean consumed time of these runs. The consumed time is
+ * taken either from the runs performed by this process or from
+ * the {@link aitoa.structure.LogFormat#CONSUMED_TIME} of up to
+ * {@link #MAX_SAMPLES} existing log files, which are parsed via
+ * the {@link LogParser}. For setups without finished runs, the
+ * cost is estimated from the budget: the time budget or the FE
+ * budget multiplied with the time per FE observed on the same
+ * problem instance, on any instance, or, if nothing is known,
+ * {@link #DEFAULT_TIME_PER_FE}, whichever is smaller.
+ * <p>
+ * The setups are identified by their log directory, i.e., the
+ * parent directory of their log files, and the instances by the
+ * name of that directory.
+ */
+final class RunCosts {
+
+  /** the maximum number of log files parsed per setup */
+  private static final int MAX_SAMPLES = 3;
+  /** the assumed time per FE if nothing is known, in ms */
+  private static final double DEFAULT_TIME_PER_FE = 1e-3d;
+
+  /** the observed costs per setup directory */
+  private final HashMap<Path, Observations> mSetups;
+  /** the observed costs per instance name */
+  private final HashMap<String, Observations> mInstances;
+  /** the observed costs over all setups */
+  private final Observations mAll;
+  /** the log files which have already been parsed */
+  private final HashSet<Path> mSampled;
+
+  /** create */
+  RunCosts() {
+    super();
+    this.mSetups = new HashMap<>();
+    this.mInstances = new HashMap<>();
+    this.mAll = new Observations();
+    this.mSampled = new HashSet<>();
+  }
+
+  /**
+   * Sample the consumed time and FEs from an existing log file
+   * if we do not yet know enough about its setup. Log files
+   * which cannot be parsed, e.g., because the corresponding run
+   * is still in progress, are ignored.
+   *
+   * @param logFile
+   *          the log file
+   */
+  synchronized void sample(final Path logFile) {
+    final Path setup = logFile.getParent();
+    final Observations known = this.mSetups.get(setup);
+    if (((known != null)
+        && (known.mCount >= RunCosts.MAX_SAMPLES))
+        || (!this.mSampled.add(logFile))) {
+      return;
+    }
+
+    final LogLine[] last = new LogLine[1];
+    try {
+      LogParser.parseLogFile(logFile, line -> last[0] = line,
+          null);
+    } catch (@SuppressWarnings("unused") final IOException
+        | RuntimeException error) {
+      return;
+    }
+    if (last[0] != null) {
+      this.add(setup, last[0].timeMax, last[0].feMax);
+    }
+  }
+
+  /**
+   * Record the cost of a run.
+   *
+   * @param logFile
+   *          the log file of the run
+   * @param time
+   *          the consumed time in milliseconds
+   * @param fes
+   *          the consumed FEs
+   */
+  synchronized void record(final Path logFile, final long time,
+      final long fes) {
+    this.add(logFile.getParent(), time, fes);
+  }
+
+  /**
+   * add an observation
+   *
+   * @param setup
+   *          the setup directory
+   * @param time
+   *          the consumed time in milliseconds
+   * @param fes
+   *          the consumed FEs
+   */
+  private void add(final Path setup, final long time,
+      final long fes) {
+    this.mSetups.computeIfAbsent(setup, s -> new Observations())
+        .add(time, fes);
+    this.mInstances.computeIfAbsent(//
+        setup.getFileName().toString(), s -> new Observations())
+        .add(time, fes);
+    this.mAll.add(time, fes);
+  }
+
+  /**
+   * Estimate the cost of a run.
+   *
+   * @param logFile
+   *          the log file of the run
+   * @param maxTime
+   *          the time budget
+   * @param maxFEs
+   *          the FE budget
+   * @return the expected runtime in milliseconds
+   */
+  synchronized double estimate(final Path logFile,
+      final long maxTime, final long maxFEs) {
+    final Path setup = logFile.getParent();
+    final Observations known = this.mSetups.get(setup);
+    if ((known != null) && (known.mCount > 0L)) {
+      return known.mTime / ((double) (known.mCount));
+    }
+
+    double timePerFE = RunCosts.DEFAULT_TIME_PER_FE;
+    final Observations instance = this.mInstances
+        .get(setup.getFileName().toString());
+    if ((instance != null) && (instance.mFEs > 0L)) {
+      timePerFE = instance.mTime / ((double) (instance.mFEs));
+    } else {
+      if (this.mAll.mFEs > 0L) {
+        timePerFE =
+            this.mAll.mTime / ((double) (this.mAll.mFEs));
+      }
+    }
+
+    return Math.min(maxTime, maxFEs * timePerFE);
+  }
+
+  /** the observed costs of a set of runs */
+  private static final class Observations {
+    /** the number of runs */
+    long mCount;
+    /** the total consumed time */
+    long mTime;
+    /** the total consumed FEs */
+    long mFEs;
+
+    /** create */
+    Observations() {
+      super();
+    }
+
+    /**
+     * add an observation
+     *
+     * @param time
+     *          the consumed time in milliseconds
+     * @param fes
+     *          the consumed FEs
+     */
+    void add(final long time, final long fes) {
+      this.mCount++;
+      this.mTime += Math.max(0L, time);
+      this.mFEs += Math.max(0L, fes);
+    }
+  }
+}
@@ -0,0 +1,271 @@
+package aitoa.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The persistent index of the completed runs of an experiment.
+ * <p>
+ * The index is an append-only file named {@value #FILE_NAME} in
+ * the root folder of the experiment. It contains one 64-bit hash
+ * for each run whose log file has been written completely. The
+ * hash is computed from the path of the log file relative to the
+ * root folder. When the index is opened, the file is
+ * memory-mapped and loaded into an in-memory hash set. Runs can
+ * then be checked without touching their log files, which may
+ * save many round trips if the output folder is on a shared
+ * network drive.
+ * <p>
+ * The index may be used by many threads and many processes at
+ * once. Appending a hash happens under an exclusive lock on the
+ * file. Hashes appended by other processes are loaded when
+ * {@link #refresh()} is called. If a process crashes while
+ * appending, the file may end in an incomplete entry, which is
+ * ignored. The index is only a shortcut: runs which are not in
+ * the index are still taken via the atomic creation of their log
+ * files.
+ */
+final class RunIndex implements Closeable {
+
+  /** the name of the index file */
+  static final String FILE_NAME = "runs.index"; //$NON-NLS-1$
+
+  /**
+   * the synchronizer for locking the file, since a file can only
+   * be locked once per JVM
+   */
+  private static final Object SYNC = new Object();
+
+  /** the root folder of the experiment */
+  private final Path mRoot;
+  /** the channel to the index file */
+  private final FileChannel mChannel;
+  /** the hash table, 0 marks empty slots */
+  private long[] mTable;
+  /** the number of hashes in the table */
+  private int mSize;
+  /** the number of bytes of the file that have been loaded */
+  private long mLoaded;
+
+  /**
+   * open the index of an experiment, creating it if necessary
+   *
+   * @param pRoot
+   *          the root folder of the experiment
+   * @throws IOException
+   *           if i/o fails
+   */
+  RunIndex(final Path pRoot) throws IOException {
+    super();
+    this.mRoot = IOUtils.canonicalizePath(pRoot);
+    this.mChannel = FileChannel.open(
+        this.mRoot.resolve(RunIndex.FILE_NAME),
+        StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.mTable = new long[1024];
+    this.refresh();
+  }
+
+  /**
+   * Compute the hash of a run.
+   *
+   * @param logFile
+   *          the canonical path to the log file of the run
+   * @return the hash
+   */
+  long hash(final Path logFile) {
+// We use FNV-1a over the name elements of the relative path,
+// followed by the MurmurHash3 finalizer, so that the hash does
+// not depend on the name separator of the file system.
+    long h = 0xcbf29ce484222325L;
+    for (final Path name : this.mRoot.relativize(logFile)) {
+      final String s = name.toString();
+      for (int i = 0; i < s.length(); i++) {
+        h = (h ^ s.charAt(i)) * 0x100000001b3L;
+      }
+      h = (h ^ '/') * 0x100000001b3L;
+    }
+    h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+    h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    h ^= (h >>> 33);
+    return (h != 0L) ? h : 1L;
+  }
+
+  /**
+   * Check whether a run is in the index.
+   *
+   * @param hash
+   *          the hash of the run
+   * @return {@code true} if the run has been completed,
+   *         {@code false} if it is not known
+   */
+  synchronized boolean contains(final long hash) {
+    final long[] table = this.mTable;
+    final int mask = table.length - 1;
+    for (int i = RunIndex.slot(hash, mask);;
+        i = (i + 1) & mask) {
+      final long v = table[i];
+      if (v == hash) {
+        return true;
+      }
+      if (v == 0L) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Get the number of runs in the index.
+   *
+   * @return the number of runs
+   */
+  synchronized int size() {
+    return this.mSize;
+  }
+
+  /**
+   * Add completed runs to the index.
+   *
+   * @param hashes
+   *          the hashes of the runs
+   * @throws IOException
+   *           if i/o fails
+   */
+  synchronized void add(final long... hashes)
+      throws IOException {
+    synchronized (RunIndex.SYNC) {
+      final FileLock lock = this.mChannel.lock();
+      try {
+        this.load();
+        final ByteBuffer buffer =
+            ByteBuffer.allocate(hashes.length << 3);
+        for (final long hash : hashes) {
+          if (this.put(hash)) {
+            buffer.putLong(hash);
+          }
+        }
+        buffer.flip();
+        long position = this.mLoaded;
+        while (buffer.hasRemaining()) {
+          position += this.mChannel.write(buffer, position);
+        }
+        this.mLoaded = position;
+      } finally {
+        lock.release();
+      }
+    }
+  }
+
+  /**
+   * Load the hashes appended by other processes.
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  synchronized void refresh() throws IOException {
+    synchronized (RunIndex.SYNC) {
+      final FileLock lock =
+          this.mChannel.lock(0L, Long.MAX_VALUE, true);
+      try {
+        this.load();
+      } finally {
+        lock.release();
+      }
+    }
+  }
+
+  /**
+   * Load the new hashes from the file, which must be locked.
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  private void load() throws IOException {
+    final long end = this.mChannel.size() & (~7L);
+    if (end <= this.mLoaded) {
+      if (end < this.mLoaded) {
+        throw new IOException("Index file '" + //$NON-NLS-1$
+            this.mRoot.resolve(RunIndex.FILE_NAME)
+            + "' has shrunk."); //$NON-NLS-1$
+      }
+      return;
+    }
+
+    final LongBuffer hashes =
+        this.mChannel.map(FileChannel.MapMode.READ_ONLY,
+            this.mLoaded, end - this.mLoaded).asLongBuffer();
+    while (hashes.hasRemaining()) {
+      final long hash = hashes.get();
+      if (hash != 0L) {
+        this.put(hash);
+      }
+    }
+    this.mLoaded = end;
+  }
+
+  /**
+   * Put a hash into the hash table.
+   *
+   * @param hash
+   *          the hash
+   * @return {@code true} if the hash was new, {@code false} if
+   *         it was already present
+   */
+  private boolean put(final long hash) {
+    if (((this.mSize + 1) << 1) > this.mTable.length) {
+      final long[] old = this.mTable;
+      final long[] table = new long[old.length << 1];
+      final int mask = table.length - 1;
+      for (final long v : old) {
+        if (v != 0L) {
+          int i = RunIndex.slot(v, mask);
+          while (table[i] != 0L) {
+            i = (i + 1) & mask;
+          }
+          table[i] = v;
+        }
+      }
+      this.mTable = table;
+    }
+
+    final long[] table = this.mTable;
+    final int mask = table.length - 1;
+    for (int i = RunIndex.slot(hash, mask);;
+        i = (i + 1) & mask) {
+      final long v = table[i];
+      if (v == hash) {
+        return false;
+      }
+      if (v == 0L) {
+        table[i] = hash;
+        this.mSize++;
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Get the first slot of a hash in the table.
+   *
+   * @param hash
+   *          the hash
+   * @param mask
+   *          the table mask
+   * @return the slot
+   */
+  private static int slot(final long hash, final int mask) {
+    return ((int) (hash ^ (hash >>> 32))) & mask;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    this.mChannel.close();
+  }
+}
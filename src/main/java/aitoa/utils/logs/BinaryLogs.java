@@ -0,0 +1,405 @@
+package aitoa.utils.logs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.zip.InflaterInputStream;
+
+import aitoa.structure.BinaryLogWriter;
+import aitoa.structure.LogFormat;
+import aitoa.utils.Configuration;
+import aitoa.utils.ConsoleIO;
+import aitoa.utils.IOUtils;
+
+/**
+ * The reader for the binary sidecars of log files written by the
+ * {@link BinaryLogWriter}, and a tool to create such sidecars for
+ * existing text log files.
+ * <p>
+ * The {@link LogParser} automatically loads the data of a log
+ * file from its sidecar if it is
+ * {@linkplain #isUpToDate(Path) up-to-date}, so that the
+ * {@link EndResults} and {@link IOHProfiler} tools (and with them
+ * all tools working on their outputs, such as the
+ * {@link EndResultStatistics} and {@link ErtEcdf}) do not need to
+ * parse the text log files anymore. The data from the sidecar is
+ * passed through the same sanity checks as the data parsed from
+ * the text log file.
+ */
+public final class BinaryLogs {
+
+  /** the compress parameter */
+  private static final String PARAM_COMPRESS = "compress"; //$NON-NLS-1$
+
+  /**
+   * This function loads the data of a log file from its binary
+   * sidecar, ensures that it meets the same criteria as checked
+   * by the {@link LogParser}, and passes all information to the
+   * provided consumers, exactly as if the text log file was
+   * parsed.
+   *
+   * @param file
+   *          the binary sidecar
+   * @param logConsumer
+   *          the log point consumer, can be {@code null}
+   * @param setupConsumer
+   *          the setup consumer, can be {@code null}
+   * @throws IOException
+   *           if i/o fails or if any data in the file violates
+   *           the sanity checks
+   */
+  public static void parseBinaryLogFile(final Path file,
+      final ILogLineConsumer logConsumer,
+      final Consumer<SetupData> setupConsumer)
+      throws IOException {
+    final Path pth = IOUtils.requireFile(file);
+
+    try (final InputStream is =
+        new BufferedInputStream(Files.newInputStream(pth))) {
+      final DataInputStream head = new DataInputStream(is);
+      if (head.readInt() != LogFormat.BINARY_MAGIC) {
+        throw new IllegalArgumentException(
+            "Not a binary log file."); //$NON-NLS-1$
+      }
+      final int version = head.readUnsignedByte();
+      if (version != LogFormat.BINARY_VERSION) {
+        throw new IllegalArgumentException(
+            "Unsupported binary log version " + version); //$NON-NLS-1$
+      }
+      final int flags = head.readUnsignedByte();
+      head.readLong(); // the size of the text log file
+
+      try (final DataInputStream data = new DataInputStream(
+          ((flags & LogFormat.BINARY_FLAG_COMPRESSED) != 0)
+              ? new InflaterInputStream(is) : is)) {
+        final String[] header = new String[data.readInt()];
+        for (int i = 0; i < header.length; i++) {
+          header[i] = data.readUTF();
+        }
+
+        final int points = data.readInt();
+        final byte[] bytes =
+            new byte[Math.multiplyExact(points, 8)];
+        final double[] f = new double[points];
+        data.readFully(bytes);
+        ByteBuffer.wrap(bytes).asDoubleBuffer().get(f);
+        final long[] fes = new long[points];
+        data.readFully(bytes);
+        ByteBuffer.wrap(bytes).asLongBuffer().get(fes);
+        final long[] time = new long[points];
+        data.readFully(bytes);
+        ByteBuffer.wrap(bytes).asLongBuffer().get(time);
+        if (data.read() >= 0) {
+          throw new IllegalArgumentException(
+              "Binary log file has trailing data."); //$NON-NLS-1$
+        }
+
+// Replay the data in the order of the text log file.
+        final LogChecker checker =
+            new LogChecker(logConsumer, setupConsumer);
+        checker.comment(LogFormat.BEGIN_LOG);
+        for (int i = 0; i < points; i++) {
+          checker.logPoint(f[i], fes[i], time[i]);
+        }
+        checker.comment(LogFormat.END_OF_LOG);
+        for (final String line : header) {
+          checker.comment(line);
+        }
+        checker.end();
+      }
+    } catch (final Throwable error) {
+      throw new IOException(//
+          "Error while parsing binary log file '" + pth //$NON-NLS-1$
+              + "'.", //$NON-NLS-1$
+          error);
+    }
+  }
+
+  /**
+   * Check whether a log file has an up-to-date binary sidecar.
+   * This is only the case if the sidecar has the current format
+   * version, records the current size of the text log file, and
+   * is not older than the text log file. Otherwise, the sidecar
+   * has been written before the text log file was completed or
+   * the text log file was changed afterwards, and the sidecar
+   * must not be used.
+   *
+   * @param logFile
+   *          the text log file
+   * @return {@code true} if the sidecar can be used instead of
+   *         the text log file, {@code false} otherwise
+   */
+  public static boolean isUpToDate(final Path logFile) {
+    final Path sidecar = BinaryLogWriter.sidecar(logFile);
+    try {
+      if ((!Files.isRegularFile(sidecar))
+          || (Files.getLastModifiedTime(sidecar).compareTo(
+              Files.getLastModifiedTime(logFile)) < 0)) {
+        return false;
+      }
+      try (final DataInputStream head = new DataInputStream(
+          new BufferedInputStream(Files.newInputStream(sidecar),
+              16))) {
+        if ((head.readInt() != LogFormat.BINARY_MAGIC)
+            || (head.readUnsignedByte() //
+                != LogFormat.BINARY_VERSION)) {
+          return false;
+        }
+        head.readUnsignedByte(); // the flags
+        return (head.readLong() == Files.size(logFile));
+      }
+    } catch (@SuppressWarnings("unused") final IOException ioe) {
+      return false;
+    }
+  }
+
+  /**
+   * Create the binary sidecar of a text log file. The text log
+   * file is checked by the {@link LogParser} first, so that only
+   * sidecars for valid log files are created.
+   *
+   * @param file
+   *          the text log file
+   * @param compress
+   *          should the sidecar be compressed?
+   * @return the path to the sidecar
+   * @throws IOException
+   *           if i/o fails or if the log file is invalid
+   */
+  public static Path convert(final Path file,
+      final boolean compress) throws IOException {
+    final Path pth = LogParser.requireLogFile(file);
+    LogParser.parseTextLogFile(pth, null, null);
+
+    final BinaryLogWriter binary =
+        new BinaryLogWriter(pth, compress);
+    long[] log = new long[3 * 1024];
+    int size = 0;
+
+    try (final BufferedReader in = Files.newBufferedReader(pth);
+        final Writer header = binary.capture(new NullWriter())) {
+      boolean inLog = false;
+      String line;
+      while ((line = in.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty()) {
+          continue;
+        }
+        if (line.charAt(0) == LogFormat.COMMENT_CHAR) {
+          final String comment = line.substring(1).trim();
+          if (LogFormat.BEGIN_LOG.equals(comment)) {
+            inLog = true;
+            continue;
+          }
+          if (LogFormat.END_OF_LOG.equals(comment)) {
+            inLog = false;
+            continue;
+          }
+          header.write(line);
+          header.write('\n');
+          continue;
+        }
+        if (!inLog) {
+          continue;
+        }
+
+        final int semi1 = line.indexOf(LogFormat.CSV_SEPARATOR_CHAR);
+        final int semi2 =
+            line.lastIndexOf(LogFormat.CSV_SEPARATOR_CHAR);
+        if ((size + 3) > log.length) {
+          log = Arrays.copyOf(log, Math.addExact(log.length,
+              log.length));
+        }
+        log[size++] = Double.doubleToLongBits(
+            Double.parseDouble(line.substring(0, semi1).trim()));
+        log[size++] = Long.parseLong(
+            line.substring(semi1 + 1, semi2).trim());
+        log[size++] =
+            Long.parseLong(line.substring(semi2 + 1).trim());
+      }
+    }
+
+    binary.prepare(log, size, 0L);
+    binary.publish();
+    return BinaryLogWriter.sidecar(pth);
+  }
+
+  /**
+   * Create the binary sidecars for all log files in a results
+   * directory, which has one sub-directory per algorithm with
+   * one sub-directory per instance. Log files whose sidecar is
+   * {@linkplain #isUpToDate(Path) up-to-date} are skipped, as
+   * are log files which cannot be parsed.
+   *
+   * @param inputFolder
+   *          the directory with the log files
+   * @param compress
+   *          should the sidecars be compressed?
+   * @param logProgressToConsole
+   *          should we log progress information to the console?
+   * @param threads
+   *          the number of threads to use
+   * @return the number of created sidecars
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static long convertAll(final Path inputFolder,
+      final boolean compress, final boolean logProgressToConsole,
+      final int threads) throws IOException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException(
+          "Number of threads must be >= 1, but is "//$NON-NLS-1$
+              + threads);
+    }
+    final Path in = IOUtils.requireDirectory(inputFolder);
+
+    final ArrayList<Path> files = new ArrayList<>();
+    for (final Path algorithm : IOUtils.subDirectories(in)) {
+      for (final Path instance : IOUtils
+          .subDirectories(algorithm)) {
+        for (final Path file : IOUtils.files(instance)) {
+          if (file.getFileName().toString()
+              .endsWith(LogFormat.FILE_SUFFIX)) {
+            if (!BinaryLogs.isUpToDate(file)) {
+              files.add(file);
+            }
+          }
+        }
+      }
+    }
+
+    if (logProgressToConsole) {
+      ConsoleIO.stdout("Found " + files.size() + //$NON-NLS-1$
+          " log files without up-to-date binary sidecar in '" //$NON-NLS-1$
+          + in + "', converting them with " + threads + //$NON-NLS-1$
+          " threads."); //$NON-NLS-1$
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(threads);
+    long converted = 0L;
+    try {
+      final ArrayList<ForkJoinTask<Boolean>> tasks =
+          new ArrayList<>(files.size());
+      for (final Path file : files) {
+        tasks.add(pool.submit(() -> {
+          try {
+            BinaryLogs.convert(file, compress);
+            return Boolean.TRUE;
+          } catch (final IOException | RuntimeException error) {
+            ConsoleIO.stderr("Skipping log file '" + file + //$NON-NLS-1$
+                "' which cannot be parsed.", //$NON-NLS-1$
+                error);
+            return Boolean.FALSE;
+          }
+        }));
+      }
+      for (final ForkJoinTask<Boolean> task : tasks) {
+        if (task.join().booleanValue()) {
+          ++converted;
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    if (logProgressToConsole) {
+      ConsoleIO.stdout("Finished creating " + converted + //$NON-NLS-1$
+          " binary sidecars in '" + in + "'.");//$NON-NLS-1$ //$NON-NLS-2$
+    }
+    return converted;
+  }
+
+  /**
+   * print the command line arguments
+   *
+   * @param s
+   *          the print stream
+   */
+  static void printArgs(final PrintStream s) {
+    CommandLineArgs.printSourceDir(s);
+    CommandLineArgs.printThreads(s);
+    s.print(' ');
+    s.print(BinaryLogs.PARAM_COMPRESS);
+    s.println(
+        "=true|false: should the binary log files be compressed?");//$NON-NLS-1$
+  }
+
+  /**
+   * The main routine
+   *
+   * @param args
+   *          the command line arguments
+   */
+  public static void main(final String[] args) {
+    ConsoleIO.stdout(s -> {
+      s.println("Welcome to the Binary Log File Converter"); //$NON-NLS-1$
+      s.println("The command line arguments are as follows: "); //$NON-NLS-1$
+      BinaryLogs.printArgs(s);
+      s.println(
+          "If you do not set the arguments, defaults will be used."); //$NON-NLS-1$
+    });
+
+    Configuration.putCommandLine(args);
+
+    final Path in = CommandLineArgs.getSourceDir();
+    final int threads = CommandLineArgs.getThreads();
+    final boolean compress =
+        Configuration.getBoolean(BinaryLogs.PARAM_COMPRESS);
+
+    Configuration.print();
+
+    try {
+      BinaryLogs.convertAll(in, compress, true, threads);
+    } catch (final Throwable error) {
+      ConsoleIO.stderr(
+          "An error occured while converting the log files.", //$NON-NLS-1$
+          error);
+      System.exit(1);
+    }
+  }
+
+  /** a writer which ignores all text */
+  private static final class NullWriter extends Writer {
+
+    /** create */
+    NullWriter() {
+      super();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(final char[] cbuf, final int off,
+        final int len) {
+      // ignore
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() {
+      // ignore
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+      // ignore
+    }
+  }
+
+  /** forbidden */
+  private BinaryLogs() {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -9,6 +9,7 @@ import java.util.function.ToDoubleFunction;
 import java.util.regex.Pattern;
 
 import aitoa.utils.Configuration;
+import aitoa.utils.Experiment;
 
 /**
  * A class just defining command line arguments to be used by
@@ -67,6 +68,69 @@ final class CommandLineArgs {
         () -> Paths.get("evaluation"));//$NON-NLS-1$ ;
   }
 
+  /** the number of threads parameter */
+  private static final String PARAM_THREADS = "threads"; //$NON-NLS-1$
+
+  /**
+   * print the number of threads argument
+   *
+   * @param s
+   *          the print stream
+   */
+  static void printThreads(final PrintStream s) {
+    s.print(' ');
+    s.print(CommandLineArgs.PARAM_THREADS);
+    s.println(
+        "=n: is the number of threads used to parse the log files; the default is the number of processors.");//$NON-NLS-1$
+  }
+
+  /**
+   * get the number of threads
+   *
+   * @return the number of threads
+   */
+  static int getThreads() {
+    final Integer threads =
+        Configuration.getInteger(CommandLineArgs.PARAM_THREADS);
+    if (threads == null) {
+      return Experiment.defaultThreadCount();
+    }
+    if (threads.intValue() <= 0) {
+      throw new IllegalArgumentException(
+          "Number of threads must be >= 1, but is "//$NON-NLS-1$
+              + threads);
+    }
+    return threads.intValue();
+  }
+
+  /** the incremental update parameter */
+  private static final String PARAM_INCREMENTAL = "incremental"; //$NON-NLS-1$
+
+  /**
+   * print the incremental update argument
+   *
+   * @param s
+   *          the print stream
+   */
+  static void printIncremental(final PrintStream s) {
+    s.print(' ');
+    s.print(CommandLineArgs.PARAM_INCREMENTAL);
+    s.println(
+        "=true|false: only parse the log files which are new or have changed since the last update of the end results table.");//$NON-NLS-1$
+  }
+
+  /**
+   * should the end results table be updated incrementally?
+   *
+   * @return {@code true} if the table should be updated
+   *         incrementally, {@code false} if it should be
+   *         re-created
+   */
+  static boolean getIncremental() {
+    return Configuration
+        .getBoolean(CommandLineArgs.PARAM_INCREMENTAL);
+  }
+
   /** the goal function value */
   private static final String PARAM_GOAL = "goal"; //$NON-NLS-1$
   /** the goal function class */
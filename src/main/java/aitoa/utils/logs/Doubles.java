@@ -13,6 +13,15 @@ final class Doubles extends Statistic {
   /** the size */
   private int mSize;
 
+  /** the scratch buffer for the exact summation */
+  private double[] mScratch;
+
+  /** the data converted to longs */
+  private Longs mLongs;
+
+  /** are the statistics computed on {@link #mLongs}? */
+  private boolean mUseLongs;
+
   /** create */
   Doubles() {
     this.mData = new double[10];
@@ -41,20 +50,39 @@ final class Doubles extends Statistic {
 
   /** {@inheritDoc} */
   @Override
-  Statistic doFinalize() {
+  void doFinalize() {
     if (this.mSize <= 0) {
       throw new IllegalStateException("empty data array?"); //$NON-NLS-1$
     }
-    this.mData = Arrays.copyOf(this.mData, this.mSize);
-    Arrays.sort(this.mData);
+    Arrays.sort(this.mData, 0, this.mSize);
 
     // try to convert the data to longs
-    final long[] alt =
-        Statistics.tryConvertDoublesToLongs(this.mData);
-    if (alt == null) {
-      return this;
+    if (this.mLongs == null) {
+      this.mLongs = new Longs();
     }
-    return new Longs(alt);
+    this.mUseLongs =
+        this.mLongs.tryConvert(this.mData, this.mSize);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  Doubles clear() {
+    this.mSize = 0;
+    this.mUseLongs = false;
+    return this;
+  }
+
+  /**
+   * get the scratch buffer for the exact summation
+   *
+   * @return the scratch buffer
+   */
+  private double[] scratch() {
+    double[] scratch = this.mScratch;
+    if ((scratch == null) || (scratch.length < this.mSize)) {
+      this.mScratch = scratch = new double[this.mData.length];
+    }
+    return scratch;
   }
 
   /** {@inheritDoc} */
@@ -66,19 +94,29 @@ final class Doubles extends Statistic {
   /** {@inheritDoc} */
   @Override
   Number quantile(final double p) {
-    return Statistics.quantile(p, this.mData);
+    if (this.mUseLongs) {
+      return this.mLongs.quantile(p);
+    }
+    return Statistics.quantile(p, this.mData, this.mSize);
   }
 
   /** {@inheritDoc} */
   @Override
   Number[] meanAndStdDev() {
-    return Statistics.sampleMeanAndStandardDeviation(this.mData);
+    if (this.mUseLongs) {
+      return this.mLongs.meanAndStdDev();
+    }
+    return Statistics.sampleMeanAndStandardDeviation(this.mData,
+        this.mSize, this.scratch());
   }
 
   /** {@inheritDoc} */
   @Override
   Number divideSumBy(final int by) {
-    return Statistics.divideExact(Statistics.sum(this.mData),
-        by);
+    if (this.mUseLongs) {
+      return this.mLongs.divideSumBy(by);
+    }
+    return Statistics.divideExact(Statistics.sum(this.mData,
+        this.mSize, this.scratch()), by);
   }
 }
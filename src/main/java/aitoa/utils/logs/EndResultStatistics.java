@@ -4,13 +4,14 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.ConcurrentModificationException;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -35,6 +36,13 @@ public final class EndResultStatistics {
 
   /** the file name used for end result statistics tables */
   public static final String FILE_NAME = "endResultStatistics"; //$NON-NLS-1$
+  /** the suffix of temporary files */
+  private static final String TEMP_SUFFIX = ".tmp"; //$NON-NLS-1$
+  /**
+   * the number of end results sorted in memory at once if the
+   * end results table is not sorted by algorithm and instance
+   */
+  private static final int SORT_CHUNK = 1 << 18;
 
   /** the setup of the run */
   private static final String COL_SETUP = ".setup";//$NON-NLS-1$
@@ -345,6 +353,15 @@ public final class EndResultStatistics {
 
   /**
    * Create the end result statistics table.
+   * <p>
+   * The end results table is read as a stream. If it is sorted by
+   * algorithm and instance (after mapping their names), as the
+   * tables created by {@link EndResults} usually are, the
+   * statistics of each setup are written as soon as all of its
+   * runs have been read, so only the runs of a single setup are
+   * kept in memory. Otherwise, the table is first sorted with an
+   * external merge sort using temporary files in the output
+   * folder.
    *
    * @param endResults
    *          the path to the end results file
@@ -420,240 +437,413 @@ public final class EndResultStatistics {
 
     if (logProgressToConsole) {
       ConsoleIO.stdout(
-          "Now beginning to load data from results table '" //$NON-NLS-1$
-              + in + "'.");//$NON-NLS-1$
+          "Now computing statistics from results table '" //$NON-NLS-1$
+              + in + "' and writing them to file '" //$NON-NLS-1$
+              + end + "'.");//$NON-NLS-1$
     }
 
-    // compute the data
-    Parser p = new Parser((success == null)
-        ? x -> Double.compare(x.bestF, x.goalF) <= 0 : success,
+    final Predicate<EndResult> useSuccess = (success == null)
+        ? x -> Double.compare(x.bestF, x.goalF) <= 0 : success;
+    final Function<String, String> useInstanceNameMapper =
         (instanceNameMapper != null) ? instanceNameMapper
-            : Function.identity(),
+            : Function.identity();
+    final Function<String, String> useAlgorithmNameMapper =
         (algorithmNameMapper != null) ? algorithmNameMapper
-            : Function.identity());
-    EndResults.parseEndResultsTable(in, p, logProgressToConsole);
-    final Holder[] results = p.doFinalize();
-    p = null;
+            : Function.identity();
+
+    if (!EndResultStatistics.aggregate(in, end, useSuccess,
+        useInstanceNameMapper, useAlgorithmNameMapper,
+        logProgressToConsole)) {
+      if (logProgressToConsole) {
+        ConsoleIO.stdout("Results table '" + in + //$NON-NLS-1$
+            "' is not sorted by algorithm and instance, now sorting it."); //$NON-NLS-1$
+      }
+      final Path sorted = EndResultStatistics.sort(in, out,
+          useInstanceNameMapper, useAlgorithmNameMapper,
+          EndResultStatistics.SORT_CHUNK);
+      try {
+        if (!EndResultStatistics.aggregate(sorted, end,
+            useSuccess, useInstanceNameMapper,
+            useAlgorithmNameMapper, logProgressToConsole)) {
+          throw new IllegalStateException(
+              "Sorted results table is not sorted?"); //$NON-NLS-1$
+        }
+      } finally {
+        Files.deleteIfExists(sorted);
+      }
+    }
 
     if (logProgressToConsole) {
-      ConsoleIO.stdout(//
-          "Finished loading data from results table '" //$NON-NLS-1$
-              + in
-              + "', now computing statistics and writing to file '"//$NON-NLS-1$
+      ConsoleIO.stdout(
+          "Finished computing statistics and writing results table '" //$NON-NLS-1$
               + end + "'.");//$NON-NLS-1$
     }
 
+    return IOUtils.requireFile(end);
+  }
+
+  /**
+   * Compute the end result statistics from an end results table
+   * which is sorted by algorithm and instance, i.e., where all
+   * end results of one setup follow each other and the setups
+   * appear in the same order as in the end result statistics
+   * table. The statistics of each setup are computed and written
+   * as soon as its last end result has been read, so only one
+   * setup is kept in memory at any time.
+   *
+   * @param in
+   *          the end results table
+   * @param end
+   *          the end result statistics table to write
+   * @param success
+   *          the success predicate
+   * @param instanceNameMapper
+   *          the instance name mapper
+   * @param algorithmNameMapper
+   *          the algorithm name mapper
+   * @param logProgressToConsole
+   *          should logging information be printed?
+   * @return {@code true} if the statistics table has been
+   *         written, {@code false} if the end results table is
+   *         not sorted and the statistics table is incomplete
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static boolean aggregate(final Path in, final Path end,
+      final Predicate<EndResult> success,
+      final Function<String, String> instanceNameMapper,
+      final Function<String, String> algorithmNameMapper,
+      final boolean logProgressToConsole) throws IOException {
     try (
         final BufferedWriter bw = Files.newBufferedWriter(end)) {
-
       bw.write(EndResultStatistics.HEADER);
       bw.newLine();
 
-      for (int i = 0; i < results.length; i++) {
-        Holder h = results[i];
-        results[i] = null;
+      final Parser p = new Parser(bw, success,
+          instanceNameMapper, algorithmNameMapper);
+      EndResults.parseEndResultsTable(in, p,
+          logProgressToConsole);
+      return p.finish();
+    }
+  }
 
-        if (!h.mFinalized) {
-          throw new IllegalStateException();
+  /**
+   * Sort an end results table by algorithm and instance with an
+   * external merge sort: Chunks of at most {@code chunkSize} end
+   * results are sorted in memory and written to temporary files,
+   * which are then merged. The sort is stable, so the end
+   * results of a setup remain in their original order. End
+   * results whose algorithm or instance is mapped to {@code null}
+   * are dropped.
+   *
+   * @param in
+   *          the end results table
+   * @param dir
+   *          the directory for the temporary files
+   * @param instanceNameMapper
+   *          the instance name mapper
+   * @param algorithmNameMapper
+   *          the algorithm name mapper
+   * @param chunkSize
+   *          the number of end results to sort in memory at once
+   * @return the sorted end results table, a temporary file which
+   *         must be deleted by the caller
+   * @throws IOException
+   *           if i/o fails
+   */
+  static Path sort(final Path in, final Path dir,
+      final Function<String, String> instanceNameMapper,
+      final Function<String, String> algorithmNameMapper,
+      final int chunkSize) throws IOException {
+    final ArrayList<Path> runs = new ArrayList<>();
+    final Path sorted = Files.createTempFile(dir,
+        EndResultStatistics.FILE_NAME,
+        EndResultStatistics.TEMP_SUFFIX);
+    boolean done = false;
+    try {
+      try (final BufferedReader br = Files.newBufferedReader(in)) {
+        final ArrayList<SortRecord> chunk = new ArrayList<>();
+        String line;
+        while ((line = br.readLine()) != null) {
+          final SortRecord record = SortRecord.create(line,
+              instanceNameMapper, algorithmNameMapper);
+          if (record == null) {
+            continue;
+          }
+          chunk.add(record);
+          if (chunk.size() >= chunkSize) {
+            runs.add(EndResultStatistics.writeRun(chunk, dir));
+          }
         }
+        if (!chunk.isEmpty()) {
+          runs.add(EndResultStatistics.writeRun(chunk, dir));
+        }
+      }
 
-        bw.write(h.mAlgorithm);
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-        bw.write(h.mInstance);
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-        final int runs = h.mBestF.size();
-        if (runs <= 0) {
-          throw new IllegalStateException(
-              "no runs for algorithm '" + //$NON-NLS-1$
-                  h.mAlgorithm + "' on instance '" + //$NON-NLS-1$
-                  h.mInstance + "'."); //$NON-NLS-1$
+      final PriorityQueue<SortRun> queue =
+          new PriorityQueue<>(Math.max(1, runs.size()));
+      try (final BufferedWriter bw =
+          Files.newBufferedWriter(sorted)) {
+        bw.write(EndResults.HEADER);
+        bw.newLine();
+        for (int i = 0; i < runs.size(); i++) {
+          final SortRun run =
+              new SortRun(Files.newBufferedReader(runs.get(i)), i);
+          if (run.next(instanceNameMapper, algorithmNameMapper)) {
+            queue.add(run);
+          } else {
+            run.mReader.close();
+          }
         }
-        if (runs < h.mSuccesses) {
-          throw new IllegalStateException(
-              "more successes(" + h.mSuccesses//$NON-NLS-1$
-                  + ") for algorithm '" + //$NON-NLS-1$
-                  h.mAlgorithm + "' on instance '" + //$NON-NLS-1$
-                  h.mInstance + "' than runs (" //$NON-NLS-1$
-                  + runs + ").");//$NON-NLS-1$
+        SortRun run;
+        while ((run = queue.poll()) != null) {
+          bw.write(run.mRecord.mLine);
+          bw.newLine();
+          if (run.next(instanceNameMapper, algorithmNameMapper)) {
+            queue.add(run);
+          } else {
+            run.mReader.close();
+          }
         }
-        final boolean allSuccess = (runs == h.mSuccesses);
-        bw.write(Integer.toString(runs));
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      } finally {
+        for (final SortRun run : queue) {
+          run.mReader.close();
+        }
+      }
+      done = true;
+      return sorted;
+    } finally {
+      for (final Path run : runs) {
+        Files.deleteIfExists(run);
+      }
+      if (!done) {
+        Files.deleteIfExists(sorted);
+      }
+    }
+  }
 
-        EndResultStatistics.printStat(//
-            h.mBestF, //
-            EndResultStatistics.QUANTILES_BIG, //
-            h.mUniqueBestF, null, null, //
-            bw);
-        h.mBestF = null;
-        h.mUniqueBestF = null;
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+  /**
+   * Sort a chunk of end results, write it to a temporary file,
+   * and clear it.
+   *
+   * @param chunk
+   *          the chunk
+   * @param dir
+   *          the directory for the temporary file
+   * @return the temporary file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static Path writeRun(final ArrayList<SortRecord> chunk,
+      final Path dir) throws IOException {
+    final Path run = Files.createTempFile(dir,
+        EndResultStatistics.FILE_NAME,
+        EndResultStatistics.TEMP_SUFFIX);
+    chunk.sort(null);
+    try (final BufferedWriter bw = Files.newBufferedWriter(run)) {
+      for (final SortRecord record : chunk) {
+        bw.write(record.mLine);
+        bw.newLine();
+      }
+    } catch (final IOException | RuntimeException error) {
+      Files.deleteIfExists(run);
+      throw error;
+    }
+    chunk.clear();
+    return run;
+  }
 
-        if (h.mTotalTime.size() != runs) {
-          throw new IllegalStateException(
-              "inconsistent number of runs."); //$NON-NLS-1$
-        }
-        EndResultStatistics.printStat(//
-            h.mTotalTime, //
-            EndResultStatistics.QUANTILES_BIG, //
-            null, null, null, //
-            bw);
-        h.mTotalTime = null;
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+  /**
+   * Write the statistics of one setup as a row of the end result
+   * statistics table.
+   *
+   * @param bw
+   *          the destination
+   * @param h
+   *          the finalized holder of the setup
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void writeHolder(final BufferedWriter bw,
+      final Holder h) throws IOException {
+    if (!h.mFinalized) {
+      throw new IllegalStateException();
+    }
 
-        if (h.mTotalFEs.size() != runs) {
-          throw new IllegalStateException(
-              "inconsistent number of runs."); //$NON-NLS-1$
-        }
-        EndResultStatistics.printStat(//
-            h.mTotalFEs, //
-            EndResultStatistics.QUANTILES_BIG, //
-            null, null, null, //
-            bw);
-        h.mTotalFEs = null;
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    bw.write(h.mAlgorithm);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    bw.write(h.mInstance);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    final int runs = h.mBestF.size();
+    if (runs <= 0) {
+      throw new IllegalStateException(
+          "no runs for algorithm '" + //$NON-NLS-1$
+              h.mAlgorithm + "' on instance '" + //$NON-NLS-1$
+              h.mInstance + "'."); //$NON-NLS-1$
+    }
+    if (runs < h.mSuccesses) {
+      throw new IllegalStateException(
+          "more successes(" + h.mSuccesses//$NON-NLS-1$
+              + ") for algorithm '" + //$NON-NLS-1$
+              h.mAlgorithm + "' on instance '" + //$NON-NLS-1$
+              h.mInstance + "' than runs (" //$NON-NLS-1$
+              + runs + ").");//$NON-NLS-1$
+    }
+    final boolean allSuccess = (runs == h.mSuccesses);
+    bw.write(Integer.toString(runs));
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-        if (h.mLastImprovementTime.size() != runs) {
-          throw new IllegalStateException(
-              "inconsistent number of runs."); //$NON-NLS-1$
-        }
-        final Number lastImprovementTimeMean = //
-            EndResultStatistics.printStat(//
-                h.mLastImprovementTime, //
-                EndResultStatistics.QUANTILES_BIG, //
-                null, null, null, //
-                bw);
-        h.mLastImprovementTime = null;
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    EndResultStatistics.printStat(//
+        h.mBestF, //
+        EndResultStatistics.QUANTILES_BIG, //
+        h.mUniqueBestF, null, null, //
+        bw);
+    h.mUniqueBestF = null;
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-        if (h.mLastImprovementFE.size() != runs) {
-          throw new IllegalStateException(
-              "inconsistent number of runs."); //$NON-NLS-1$
-        }
-        final Number lastImprovementFEMean =
-            EndResultStatistics.printStat(//
-                h.mLastImprovementFE, //
-                EndResultStatistics.QUANTILES_BIG, //
-                null, null, null, //
-                bw);
-        h.mLastImprovementFE = null;
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    if (h.mTotalTime.size() != runs) {
+      throw new IllegalStateException(
+          "inconsistent number of runs."); //$NON-NLS-1$
+    }
+    EndResultStatistics.printStat(//
+        h.mTotalTime, //
+        EndResultStatistics.QUANTILES_BIG, //
+        null, null, null, //
+        bw);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-        if (h.mNumberOfImprovements.size() != runs) {
-          throw new IllegalStateException(
-              "inconsistent number of runs."); //$NON-NLS-1$
-        }
+    if (h.mTotalFEs.size() != runs) {
+      throw new IllegalStateException(
+          "inconsistent number of runs."); //$NON-NLS-1$
+    }
+    EndResultStatistics.printStat(//
+        h.mTotalFEs, //
+        EndResultStatistics.QUANTILES_BIG, //
+        null, null, null, //
+        bw);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+
+    if (h.mLastImprovementTime.size() != runs) {
+      throw new IllegalStateException(
+          "inconsistent number of runs."); //$NON-NLS-1$
+    }
+    final Number lastImprovementTimeMean = //
         EndResultStatistics.printStat(//
-            h.mNumberOfImprovements, //
+            h.mLastImprovementTime, //
             EndResultStatistics.QUANTILES_BIG, //
             null, null, null, //
             bw);
-        h.mNumberOfImprovements = null;
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-        if (h.mBudgetTime.size() != runs) {
-          throw new IllegalStateException(
-              "inconsistent number of runs."); //$NON-NLS-1$
-        }
+    if (h.mLastImprovementFE.size() != runs) {
+      throw new IllegalStateException(
+          "inconsistent number of runs."); //$NON-NLS-1$
+    }
+    final Number lastImprovementFEMean =
         EndResultStatistics.printStat(//
-            h.mBudgetTime, //
-            EndResultStatistics.QUANTILES_SMALL, //
+            h.mLastImprovementFE, //
+            EndResultStatistics.QUANTILES_BIG, //
             null, null, null, //
             bw);
-        h.mBudgetTime = null;
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-        if (h.mBudgetFEs.size() != runs) {
-          throw new IllegalStateException(
-              "inconsistent number of runs."); //$NON-NLS-1$
-        }
-        EndResultStatistics.printStat(//
-            h.mBudgetFEs, //
-            EndResultStatistics.QUANTILES_SMALL, //
-            null, null, null, //
-            bw);
-        h.mBudgetFEs = null;
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    if (h.mNumberOfImprovements.size() != runs) {
+      throw new IllegalStateException(
+          "inconsistent number of runs."); //$NON-NLS-1$
+    }
+    EndResultStatistics.printStat(//
+        h.mNumberOfImprovements, //
+        EndResultStatistics.QUANTILES_BIG, //
+        null, null, null, //
+        bw);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-        bw.write(Integer.toString(h.mSuccesses));
-        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+    if (h.mBudgetTime.size() != runs) {
+      throw new IllegalStateException(
+          "inconsistent number of runs."); //$NON-NLS-1$
+    }
+    EndResultStatistics.printStat(//
+        h.mBudgetTime, //
+        EndResultStatistics.QUANTILES_SMALL, //
+        null, null, null, //
+        bw);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-        if (h.mSuccesses > 0) {
-          if (allSuccess) {
-            bw.write(LogFormat.numberToStringForLog(//
-                lastImprovementTimeMean));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(LogFormat.numberToStringForLog(//
-                lastImprovementFEMean));
-          } else {
-            bw.write(LogFormat.numberToStringForLog(
-                h.mErtTime.divideSumBy(h.mSuccesses)));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(LogFormat.numberToStringForLog(
-                h.mErtFEs.divideSumBy(h.mSuccesses)));
-          }
+    if (h.mBudgetFEs.size() != runs) {
+      throw new IllegalStateException(
+          "inconsistent number of runs."); //$NON-NLS-1$
+    }
+    EndResultStatistics.printStat(//
+        h.mBudgetFEs, //
+        EndResultStatistics.QUANTILES_SMALL, //
+        null, null, null, //
+        bw);
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          EndResultStatistics.printStat(//
-              h.mSuccessTime, //
-              EndResultStatistics.QUANTILES_SMALL, //
-              null, //
-              h.mFastestSuccessTimeSetup, //
-              h.mSlowestSuccessTimeSetup, //
-              bw);
-          h.mSuccessTime = null;
-          h.mFastestSuccessTimeSetup = null;
-          h.mSlowestSuccessTimeSetup = null;
+    bw.write(Integer.toString(h.mSuccesses));
+    bw.write(LogFormat.CSV_SEPARATOR_CHAR);
 
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          EndResultStatistics.printStat(//
-              h.mSuccessFEs, //
-              EndResultStatistics.QUANTILES_SMALL, //
-              null, //
-              h.mFastestSuccessFEsSetup, //
-              h.mSlowestSuccessFEsSetup, //
-              bw);
-          h.mSuccessFEs = null;
-          h.mFastestSuccessFEsSetup = null;
-          h.mSlowestSuccessFEsSetup = null;
+    if (h.mSuccesses > 0) {
+      if (allSuccess) {
+        bw.write(LogFormat.numberToStringForLog(//
+            lastImprovementTimeMean));
+        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+        bw.write(LogFormat.numberToStringForLog(//
+            lastImprovementFEMean));
+      } else {
+        bw.write(LogFormat.numberToStringForLog(
+            h.mErtTime.divideSumBy(h.mSuccesses)));
+        bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+        bw.write(LogFormat.numberToStringForLog(
+            h.mErtFEs.divideSumBy(h.mSuccesses)));
+      }
 
-        } else {
-          final String s =
-              Double.toString(Double.POSITIVE_INFINITY);
-          bw.write(s);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(s);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      EndResultStatistics.printStat(//
+          h.mSuccessTime, //
+          EndResultStatistics.QUANTILES_SMALL, //
+          null, //
+          h.mFastestSuccessTimeSetup, //
+          h.mSlowestSuccessTimeSetup, //
+          bw);
+      h.mFastestSuccessTimeSetup = null;
+      h.mSlowestSuccessTimeSetup = null;
 
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-          bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-        }
-        h.mErtFEs = null;
-        h.mErtTime = null;
-        h = null;
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      EndResultStatistics.printStat(//
+          h.mSuccessFEs, //
+          EndResultStatistics.QUANTILES_SMALL, //
+          null, //
+          h.mFastestSuccessFEsSetup, //
+          h.mSlowestSuccessFEsSetup, //
+          bw);
+      h.mFastestSuccessFEsSetup = null;
+      h.mSlowestSuccessFEsSetup = null;
 
-        bw.newLine();
-      }
-    }
+    } else {
+      final String s =
+          Double.toString(Double.POSITIVE_INFINITY);
+      bw.write(s);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(s);
 
-    if (logProgressToConsole) {
-      ConsoleIO.stdout(
-          "Finished computing statistics and writing results table '" //$NON-NLS-1$
-              + end + "'.");//$NON-NLS-1$
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
+      bw.write(LogFormat.CSV_SEPARATOR_CHAR);
     }
 
-    return IOUtils.requireFile(end);
+    bw.newLine();
   }
 
   /**
@@ -2590,21 +2780,33 @@ public final class EndResultStatistics {
     throw new UnsupportedOperationException();
   }
 
-  /** the internal parser class */
+  /**
+   * The internal parser class, which aggregates the end results
+   * of one setup at a time and writes its statistics when the
+   * next setup begins.
+   */
   private static final class Parser
       implements Consumer<EndResult> {
-    /** the holders */
-    private HashMap<String, HashMap<String, Holder>> mHolders;
+    /** the destination */
+    private final BufferedWriter mOut;
     /** the success predicate */
-    private Predicate<EndResult> mSuccess;
+    private final Predicate<EndResult> mSuccess;
     /** the instance name mapper */
     private final Function<String, String> mInstanceNameMapper;
     /** the algorithm name mapper */
     private final Function<String, String> mAlgorithmNameMapper;
+    /** the holder of the current setup */
+    private Holder mCurrent;
+    /** the last written holder, whose statistics are re-used */
+    private Holder mRecycle;
+    /** is the end results table not sorted? */
+    private boolean mUnsorted;
 
     /**
      * create
      *
+     * @param pOut
+     *          the destination
      * @param pSuccess
      *          the success predicate
      * @param pInstanceNameMapper
@@ -2612,11 +2814,12 @@ public final class EndResultStatistics {
      * @param pAlgorithmNameMapper
      *          he algorithm name mapper
      */
-    Parser(final Predicate<EndResult> pSuccess,
+    Parser(final BufferedWriter pOut,
+        final Predicate<EndResult> pSuccess,
         final Function<String, String> pInstanceNameMapper,
         final Function<String, String> pAlgorithmNameMapper) {
       super();
-      this.mHolders = new HashMap<>();
+      this.mOut = Objects.requireNonNull(pOut);
       this.mSuccess = Objects.requireNonNull(pSuccess);
       this.mInstanceNameMapper =
           Objects.requireNonNull(pInstanceNameMapper);
@@ -2627,6 +2830,9 @@ public final class EndResultStatistics {
     /** {@inheritDoc} */
     @Override
     public void accept(final EndResult t) {
+      if (this.mUnsorted) {
+        return;
+      }
       final String useAlgo =
           this.mAlgorithmNameMapper.apply(t.algorithm);
       if (useAlgo == null) {
@@ -2638,47 +2844,214 @@ public final class EndResultStatistics {
         return;
       }
 
-      HashMap<String, Holder> ifa = this.mHolders.get(useAlgo);
-      if (ifa == null) {
-        ifa = new HashMap<>();
-        if (this.mHolders.put(useAlgo, ifa) != null) {
-          throw new ConcurrentModificationException();
+      Holder h = this.mCurrent;
+      if (h != null) {
+        int r = h.mAlgorithm.compareTo(useAlgo);
+        if (r == 0) {
+          r = h.mInstance.compareTo(useInst);
+        }
+        if (r > 0) {
+// the setup comes before the current one, so the end results
+// table is not sorted
+          this.mUnsorted = true;
+          this.mCurrent = null;
+          return;
+        }
+        if (r < 0) {
+          this.write();
+          h = null;
         }
       }
 
-      Holder h = ifa.get(useInst);
       if (h == null) {
-        h = new Holder(useAlgo, useInst, this.mSuccess);
-        if (ifa.put(useInst, h) != null) {
-          throw new ConcurrentModificationException();
-        }
+        this.mCurrent = h = new Holder(useAlgo, useInst,
+            this.mSuccess, this.mRecycle);
+        this.mRecycle = null;
       }
-
       h.accept(t);
     }
 
+    /** finalize and write the current holder */
+    private void write() {
+      final Holder h = this.mCurrent;
+      this.mCurrent = null;
+      h.doFinalize();
+      try {
+        EndResultStatistics.writeHolder(this.mOut, h);
+      } catch (final IOException ioe) {
+        throw new UncheckedIOException(ioe);
+      }
+      this.mRecycle = h;
+    }
+
     /**
-     * finalize and get the result array
+     * finish the aggregation
      *
-     * @return the holder array
+     * @return {@code true} if all setups have been written,
+     *         {@code false} if the end results table is not
+     *         sorted
      */
-    Holder[] doFinalize() {
-      final Holder[] holders = this.mHolders.values().stream()
-          .flatMap(v -> v.values().stream()).sorted()
-          .toArray(i -> new Holder[i]);
-      this.mHolders.clear();
-      this.mHolders = null;
-      this.mSuccess = null;
-      for (final Holder h : holders) {
-        h.doFinalize();
+    boolean finish() {
+      if (this.mUnsorted) {
+        return false;
       }
-      return holders;
+      if (this.mCurrent != null) {
+        this.write();
+      }
+      return true;
+    }
+  }
+
+  /**
+   * An end result record to be sorted, keyed by its mapped
+   * algorithm and instance name.
+   */
+  private static final class SortRecord
+      implements Comparable<SortRecord> {
+    /** the mapped algorithm */
+    final String mAlgorithm;
+    /** the mapped instance */
+    final String mInstance;
+    /** the line of the end results table */
+    final String mLine;
+
+    /**
+     * create
+     *
+     * @param pAlgorithm
+     *          the mapped algorithm
+     * @param pInstance
+     *          the mapped instance
+     * @param pLine
+     *          the line of the end results table
+     */
+    private SortRecord(final String pAlgorithm,
+        final String pInstance, final String pLine) {
+      super();
+      this.mAlgorithm = pAlgorithm;
+      this.mInstance = pInstance;
+      this.mLine = pLine;
+    }
+
+    /**
+     * Create a sort record from a line of the end results table
+     *
+     * @param line
+     *          the line
+     * @param instanceNameMapper
+     *          the instance name mapper
+     * @param algorithmNameMapper
+     *          the algorithm name mapper
+     * @return the record, or {@code null} if the line does not
+     *         contain an end result or if its algorithm or
+     *         instance is mapped to {@code null}
+     */
+    static SortRecord create(final String line,
+        final Function<String, String> instanceNameMapper,
+        final Function<String, String> algorithmNameMapper) {
+      final String l = line.trim();
+      if (l.isEmpty() || (l.charAt(0) == LogFormat.COMMENT_CHAR)
+          || EndResults.HEADER.equals(l)) {
+        return null;
+      }
+      final int a = l.indexOf(LogFormat.CSV_SEPARATOR_CHAR);
+      final int b =
+          l.indexOf(LogFormat.CSV_SEPARATOR_CHAR, a + 1);
+      if ((a <= 0) || (b <= a)) {
+        throw new IllegalArgumentException(
+            "Invalid end result line: '" + line //$NON-NLS-1$
+                + "'."); //$NON-NLS-1$
+      }
+      final String algo =
+          algorithmNameMapper.apply(l.substring(0, a).trim());
+      if (algo == null) {
+        return null;
+      }
+      final String inst =
+          instanceNameMapper.apply(l.substring(a + 1, b).trim());
+      if (inst == null) {
+        return null;
+      }
+      return new SortRecord(algo, inst, l);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int compareTo(final SortRecord o) {
+      final int r = this.mAlgorithm.compareTo(o.mAlgorithm);
+      if (r != 0) {
+        return r;
+      }
+      return this.mInstance.compareTo(o.mInstance);
+    }
+  }
+
+  /** a sorted run of end results during the merge */
+  private static final class SortRun
+      implements Comparable<SortRun> {
+    /** the reader */
+    final BufferedReader mReader;
+    /** the index of the run */
+    final int mIndex;
+    /** the current record */
+    SortRecord mRecord;
+
+    /**
+     * create
+     *
+     * @param pReader
+     *          the reader
+     * @param pIndex
+     *          the index of the run
+     */
+    SortRun(final BufferedReader pReader, final int pIndex) {
+      super();
+      this.mReader = pReader;
+      this.mIndex = pIndex;
+    }
+
+    /**
+     * read the next record
+     *
+     * @param instanceNameMapper
+     *          the instance name mapper
+     * @param algorithmNameMapper
+     *          the algorithm name mapper
+     * @return {@code true} if there is a next record,
+     *         {@code false} if the run is exhausted
+     * @throws IOException
+     *           if i/o fails
+     */
+    boolean next(final Function<String, String> instanceNameMapper,
+        final Function<String, String> algorithmNameMapper)
+        throws IOException {
+      String line;
+      while ((line = this.mReader.readLine()) != null) {
+        this.mRecord = SortRecord.create(line,
+            instanceNameMapper, algorithmNameMapper);
+        if (this.mRecord != null) {
+          return true;
+        }
+      }
+      this.mRecord = null;
+      return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int compareTo(final SortRun o) {
+      final int r = this.mRecord.compareTo(o.mRecord);
+      if (r != 0) {
+        return r;
+      }
+// runs with lower index contain earlier end results
+      return Integer.compare(this.mIndex, o.mIndex);
     }
   }
 
   /** the data holder */
   private static final class Holder
-      implements Comparable<Holder>, Consumer<EndResult> {
+      implements Consumer<EndResult> {
     /** the algorithm */
     final String mAlgorithm;
 
@@ -2749,25 +3122,52 @@ public final class EndResultStatistics {
      *          the instance
      * @param pSuccess
      *          the success predicate
+     * @param pRecycle
+     *          a written holder whose statistics can be re-used,
+     *          or {@code null} to create new statistics
      */
     Holder(final String pAlgo, final String pInst,
-        final Predicate<EndResult> pSuccess) {
+        final Predicate<EndResult> pSuccess,
+        final Holder pRecycle) {
       this.mAlgorithm = Objects.requireNonNull(pAlgo);
       this.mInstance = Objects.requireNonNull(pInst);
       this.mSetups = new HashSet<>();
 
-      this.mBestF = new Doubles();
-      this.mTotalTime = new Longs();
-      this.mTotalFEs = new Longs();
-      this.mLastImprovementTime = new Longs();
-      this.mLastImprovementFE = new Longs();
-      this.mNumberOfImprovements = new Longs();
-      this.mBudgetTime = new Longs();
-      this.mBudgetFEs = new Longs();
-      this.mErtTime = new Longs();
-      this.mErtFEs = new Longs();
-      this.mSuccessFEs = new Longs();
-      this.mSuccessTime = new Longs();
+      if (pRecycle == null) {
+        this.mBestF = new Doubles();
+        this.mTotalTime = new Longs();
+        this.mTotalFEs = new Longs();
+        this.mLastImprovementTime = new Longs();
+        this.mLastImprovementFE = new Longs();
+        this.mNumberOfImprovements = new Longs();
+        this.mBudgetTime = new Longs();
+        this.mBudgetFEs = new Longs();
+        this.mErtTime = new Longs();
+        this.mErtFEs = new Longs();
+        this.mSuccessFEs = new Longs();
+        this.mSuccessTime = new Longs();
+      } else {
+        if (!pRecycle.mFinalized) {
+          throw new IllegalStateException();
+        }
+// the statistics of the written holder are no longer needed, so
+// we re-use their buffers
+        this.mBestF = pRecycle.mBestF.clear();
+        this.mTotalTime = pRecycle.mTotalTime.clear();
+        this.mTotalFEs = pRecycle.mTotalFEs.clear();
+        this.mLastImprovementTime =
+            pRecycle.mLastImprovementTime.clear();
+        this.mLastImprovementFE =
+            pRecycle.mLastImprovementFE.clear();
+        this.mNumberOfImprovements =
+            pRecycle.mNumberOfImprovements.clear();
+        this.mBudgetTime = pRecycle.mBudgetTime.clear();
+        this.mBudgetFEs = pRecycle.mBudgetFEs.clear();
+        this.mErtTime = pRecycle.mErtTime.clear();
+        this.mErtFEs = pRecycle.mErtFEs.clear();
+        this.mSuccessFEs = pRecycle.mSuccessFEs.clear();
+        this.mSuccessTime = pRecycle.mSuccessTime.clear();
+      }
       this.mSuccess = Objects.requireNonNull(pSuccess);
       this.mFastestSuccessFEs = Long.MAX_VALUE;
       this.mSlowestSuccessFEs = Long.MIN_VALUE;
@@ -2775,26 +3175,6 @@ public final class EndResultStatistics {
       this.mSlowestSuccessTime = Long.MIN_VALUE;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public int compareTo(final Holder o) {
-      if (o == this) {
-        return 0;
-      }
-      int r = this.mAlgorithm.compareTo(o.mAlgorithm);
-      if (r != 0) {
-        return r;
-      }
-      r = this.mInstance.compareTo(o.mInstance);
-      if (r != 0) {
-        return r;
-      }
-      throw new IllegalStateException(
-          "Identical setups discovered for algorithm '" //$NON-NLS-1$
-              + this.mAlgorithm + "' and instance '" //$NON-NLS-1$
-              + this.mInstance + "'."); //$NON-NLS-1$
-    }
-
     /** {@inheritDoc} */
     @Override
     public void accept(final EndResult t) {
@@ -2873,26 +3253,20 @@ public final class EndResultStatistics {
 
       this.mSuccess = null;
 
-      this.mBestF = this.mBestF.doFinalize();
-      this.mTotalTime = this.mTotalTime.doFinalize();
-      this.mTotalFEs = this.mTotalFEs.doFinalize();
-      this.mLastImprovementTime =
-          this.mLastImprovementTime.doFinalize();
-      this.mLastImprovementFE =
-          this.mLastImprovementFE.doFinalize();
-      this.mNumberOfImprovements =
-          this.mNumberOfImprovements.doFinalize();
-      this.mBudgetTime = this.mBudgetTime.doFinalize();
-      this.mBudgetFEs = this.mBudgetFEs.doFinalize();
-      this.mErtTime = this.mErtTime.doFinalize();
-      this.mErtFEs = this.mErtFEs.doFinalize();
+      this.mBestF.doFinalize();
+      this.mTotalTime.doFinalize();
+      this.mTotalFEs.doFinalize();
+      this.mLastImprovementTime.doFinalize();
+      this.mLastImprovementFE.doFinalize();
+      this.mNumberOfImprovements.doFinalize();
+      this.mBudgetTime.doFinalize();
+      this.mBudgetFEs.doFinalize();
+      this.mErtTime.doFinalize();
+      this.mErtFEs.doFinalize();
 
       if (this.mSuccesses > 0) {
-        this.mSuccessFEs = this.mSuccessFEs.doFinalize();
-        this.mSuccessTime = this.mSuccessTime.doFinalize();
-      } else {
-        this.mSuccessFEs = null;
-        this.mSuccessTime = null;
+        this.mSuccessFEs.doFinalize();
+        this.mSuccessTime.doFinalize();
       }
     }
 
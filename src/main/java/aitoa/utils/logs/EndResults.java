@@ -6,7 +6,15 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 import aitoa.structure.LogFormat;
@@ -52,8 +60,25 @@ public final class EndResults {
   /** the column with the goal f */
   public static final String COL_GOAL_F = "goal.f";//$NON-NLS-1$
 
+  /**
+   * the file name used for the index of the end results table,
+   * see {@link #updateEndResultsTable(Path, Path, boolean, int)}
+   */
+  public static final String INDEX_FILE_NAME =
+      "endResults.index"; //$NON-NLS-1$
+  /** the separator of the columns in the index */
+  private static final char INDEX_SEPARATOR = '\t';
+  /** the suffix of temporary files */
+  private static final String TEMP_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+  /**
+   * the number of log files per thread which may be parsed ahead
+   * of the row currently written
+   */
+  private static final int WINDOW_PER_THREAD = 64;
+
   /** the internal header */
-  private static final String HEADER = LogFormat.joinLogLine(//
+  static final String HEADER = LogFormat.joinLogLine(//
       EndResults.COL_ALGORITHM, EndResults.COL_INSTANCE,
       EndResults.COL_SEED, EndResults.COL_BEST_F,
       EndResults.COL_TOTAL_TIME, EndResults.COL_TOTAL_FES,
@@ -120,6 +145,47 @@ public final class EndResults {
   public static Path makeEndResultsTable(final Path inputFolder,
       final Path outputFolder, final boolean keepExisting,
       final boolean logProgressToConsole) throws IOException {
+    return EndResults.makeEndResultsTable(inputFolder,
+        outputFolder, keepExisting, logProgressToConsole, 1);
+  }
+
+  /**
+   * Create the end results table.
+   * <p>
+   * If more than one thread is used, the log files are parsed in
+   * parallel on a {@link ForkJoinPool}. The directories are
+   * still traversed in the same sorted order as in the
+   * single-threaded case and the rows are written in exactly
+   * this order, so the table is the same regardless of the
+   * number of threads. At most {@value #WINDOW_PER_THREAD} log
+   * files per thread are parsed ahead of the row currently
+   * written, which bounds the memory needed.
+   *
+   * @param inputFolder
+   *          the input folder
+   * @param outputFolder
+   *          the output folder
+   * @param keepExisting
+   *          if the end results table exists, should it be
+   *          preserved?
+   * @param logProgressToConsole
+   *          should logging information be printed?
+   * @param threads
+   *          the number of threads to use for parsing the log
+   *          files
+   * @return the path to the end results table
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static Path makeEndResultsTable(final Path inputFolder,
+      final Path outputFolder, final boolean keepExisting,
+      final boolean logProgressToConsole, final int threads)
+      throws IOException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException(
+          "Number of threads must be >= 1, but is "//$NON-NLS-1$
+              + threads);
+    }
 
     final Path in = IOUtils.requireDirectory(inputFolder);
 
@@ -152,10 +218,177 @@ public final class EndResults {
     if (logProgressToConsole) {
       ConsoleIO.stdout(//
           "Now beginning to create end result table '" + //$NON-NLS-1$
-              end + "'.");//$NON-NLS-1$
+              end + "' using " + threads + //$NON-NLS-1$
+              " threads.");//$NON-NLS-1$
+    }
+
+    EndResults.writeTable(in, end, null, null,
+        logProgressToConsole, threads);
+
+    if (logProgressToConsole) {
+      ConsoleIO.stdout("Finished creating end result table '" + //$NON-NLS-1$
+          end + "'.");//$NON-NLS-1$
+    }
+    return IOUtils.requireFile(end);
+  }
+
+  /**
+   * Create or update the end results table incrementally.
+   * <p>
+   * Next to the end results table, an index is kept which stores
+   * the relative path, size, and modification time of each log
+   * file together with its row in the table. When the table is
+   * updated, only the log files which are new or whose size or
+   * modification time has changed are parsed, the rows of all
+   * other log files are taken from the index. Rows of log files
+   * which no longer exist are dropped. The table and the index
+   * are written into temporary files first and then moved into
+   * place, so the table can be read at any time.
+   * <p>
+   * This allows for refreshing the table regularly while an
+   * experiment is still running. Log files which cannot be
+   * parsed, e.g., because they are still being written, are
+   * therefore left out of the table with a warning and will be
+   * tried again during the next update.
+   *
+   * @param inputFolder
+   *          the input folder
+   * @param outputFolder
+   *          the output folder
+   * @param logProgressToConsole
+   *          should logging information be printed?
+   * @param threads
+   *          the number of threads to use for parsing the log
+   *          files
+   * @return the path to the end results table
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static Path updateEndResultsTable(final Path inputFolder,
+      final Path outputFolder, final boolean logProgressToConsole,
+      final int threads) throws IOException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException(
+          "Number of threads must be >= 1, but is "//$NON-NLS-1$
+              + threads);
     }
-    try (
-        final BufferedWriter bw = Files.newBufferedWriter(end)) {
+
+    final Path in = IOUtils.requireDirectory(inputFolder);
+    final Path out =
+        IOUtils.requireDirectory(outputFolder, true);
+    final Path end = IOUtils.canonicalizePath(//
+        out.resolve(EndResults.FILE_NAME));
+    final Path index = IOUtils.canonicalizePath(//
+        out.resolve(EndResults.INDEX_FILE_NAME));
+
+    final HashMap<String, Row> known = new HashMap<>();
+    if (Files.exists(end) && Files.exists(index)) {
+      EndResults.loadIndex(index, known);
+    }
+    if (logProgressToConsole) {
+      ConsoleIO.stdout(//
+          "Now updating end result table '" + //$NON-NLS-1$
+              end + "' using " + threads + //$NON-NLS-1$
+              " threads, " + known.size() + //$NON-NLS-1$
+              " log files are already known.");//$NON-NLS-1$
+    }
+
+    final Path endTemp = end.resolveSibling(
+        end.getFileName() + EndResults.TEMP_SUFFIX);
+    final Path indexTemp = index.resolveSibling(
+        index.getFileName() + EndResults.TEMP_SUFFIX);
+    final long parsed;
+    try {
+      parsed = EndResults.writeTable(in, endTemp, indexTemp,
+          known, logProgressToConsole, threads);
+      Files.move(endTemp, end,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      Files.move(indexTemp, index,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(endTemp);
+      Files.deleteIfExists(indexTemp);
+    }
+
+    if (logProgressToConsole) {
+      ConsoleIO.stdout("Finished updating end result table '" + //$NON-NLS-1$
+          end + "', parsed " + parsed + //$NON-NLS-1$
+          " new or changed log files.");//$NON-NLS-1$
+    }
+    return IOUtils.requireFile(end);
+  }
+
+  /**
+   * Load the index of an end results table.
+   *
+   * @param index
+   *          the index file
+   * @param dest
+   *          the map receiving the rows, indexed by the relative
+   *          path of their log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void loadIndex(final Path index,
+      final HashMap<String, Row> dest) throws IOException {
+    try (final BufferedReader br = Files.newBufferedReader(index)) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        final int a = line.indexOf(EndResults.INDEX_SEPARATOR);
+        final int b =
+            line.indexOf(EndResults.INDEX_SEPARATOR, a + 1);
+        final int c =
+            line.indexOf(EndResults.INDEX_SEPARATOR, b + 1);
+        if ((a <= 0) || (b <= a) || (c <= b)) {
+          continue; // ignore damaged lines, the log is re-parsed
+        }
+        final Row row = new Row(line.substring(0, a),
+            Long.parseLong(line.substring(a + 1, b)),
+            Long.parseLong(line.substring(b + 1, c)));
+        row.mRow = line.substring(c + 1);
+        dest.put(row.mPath, row);
+      }
+    }
+  }
+
+  /**
+   * Write the end results table.
+   *
+   * @param in
+   *          the input folder
+   * @param end
+   *          the end results table to write
+   * @param index
+   *          the index file to write, or {@code null} if no index
+   *          should be kept
+   * @param known
+   *          the rows from the previous index, or {@code null}
+   *          if no index should be kept
+   * @param logProgressToConsole
+   *          should logging information be printed?
+   * @param threads
+   *          the number of threads to use for parsing the log
+   *          files
+   * @return the number of parsed log files
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static long writeTable(final Path in, final Path end,
+      final Path index, final HashMap<String, Row> known,
+      final boolean logProgressToConsole, final int threads)
+      throws IOException {
+    final ForkJoinPool pool =
+        (threads > 1) ? new ForkJoinPool(threads) : null;
+    final ArrayDeque<Row> pending = new ArrayDeque<>();
+    final int window = threads * EndResults.WINDOW_PER_THREAD;
+    final boolean skipInvalid = (index != null);
+    long parsed = 0L;
+
+    try (final BufferedWriter bw = Files.newBufferedWriter(end);
+        final BufferedWriter iw = (index != null)
+            ? Files.newBufferedWriter(index) : null) {
 
       bw.write(EndResults.HEADER);
       bw.newLine();
@@ -195,46 +428,220 @@ public final class EndResults {
                       .endsWith(".txt"))//$NON-NLS-1$
               )) {
 
-            final Line line = new Line();
-            LogParser.parseLogFile(file, line,
-                s -> line.acceptSetup(s));
-
-            bw.write(algoName);
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(instName);
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(line.mSeed);
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(EndResults.str(line.mLastLine.fMin));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(Long.toString(line.mLastLine.timeMax));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(Long.toString(line.mLastLine.feMax));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(Long
-                .toString(line.mLastLine.timeLastImprovement));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(Long.toString(//
-                line.mLastLine.feLastImprovement));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(Long.toString(line.mLastLine.improvements));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(Long.toString(line.mBudgetTime));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(Long.toString(line.mBudgetFEs));
-            bw.write(LogFormat.CSV_SEPARATOR_CHAR);
-            bw.write(EndResults.str(line.mGoalF));
-            bw.newLine();
+            final Row row;
+            if (index != null) {
+              final BasicFileAttributes attrs = Files
+                  .readAttributes(file, BasicFileAttributes.class);
+              row = new Row(in.relativize(file).toString(),
+                  attrs.size(),
+                  attrs.lastModifiedTime().toMillis());
+              final Row old = known.get(row.mPath);
+              if ((old != null) && (old.mSize == row.mSize)
+                  && (old.mTime == row.mTime)) {
+                row.mRow = old.mRow;
+              }
+            } else {
+              row = new Row(null, 0L, 0L);
+            }
+
+            if (row.mRow == null) {
+              ++parsed;
+              if (pool == null) {
+                row.mRow = EndResults.parse(algoName, instName,
+                    file, skipInvalid);
+              } else {
+                row.mTask = pool.submit(() -> EndResults
+                    .parse(algoName, instName, file, skipInvalid));
+              }
+            }
+
+            if ((pool == null) && pending.isEmpty()) {
+              EndResults.writeRow(bw, iw, row);
+              continue;
+            }
+            if (pending.size() >= window) {
+              EndResults.writeRow(bw, iw, pending.pollFirst());
+            }
+            pending.addLast(row);
           }
         }
       }
+
+      while (!pending.isEmpty()) {
+        EndResults.writeRow(bw, iw, pending.pollFirst());
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdownNow();
+      }
     }
+    return parsed;
+  }
 
-    if (logProgressToConsole) {
-      ConsoleIO.stdout("Finished creating end result table '" + //$NON-NLS-1$
-          end + "'.");//$NON-NLS-1$
+  /**
+   * Parse a log file and create the corresponding row of the end
+   * results table, or skip it if it is invalid and this is
+   * allowed.
+   *
+   * @param algoName
+   *          the algorithm name
+   * @param instName
+   *          the instance name
+   * @param file
+   *          the log file
+   * @param skipInvalid
+   *          should invalid log files be skipped?
+   * @return the row, without line separator, or {@code null} if
+   *         the log file is invalid and was skipped
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static String parse(final String algoName,
+      final String instName, final Path file,
+      final boolean skipInvalid) throws IOException {
+    if (!skipInvalid) {
+      return EndResults.row(algoName, instName, file);
+    }
+    try {
+      return EndResults.row(algoName, instName, file);
+    } catch (final IOException | RuntimeException error) {
+      ConsoleIO.stderr("Skipping log file '" + file + //$NON-NLS-1$
+          "' which cannot be parsed, maybe it is still being written.", //$NON-NLS-1$
+          error);
+      return null;
+    }
+  }
+
+  /**
+   * Parse a log file and create the corresponding row of the end
+   * results table.
+   *
+   * @param algoName
+   *          the algorithm name
+   * @param instName
+   *          the instance name
+   * @param file
+   *          the log file
+   * @return the row, without line separator
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static String row(final String algoName,
+      final String instName, final Path file) throws IOException {
+    final Line line = new Line();
+    LogParser.parseLogFile(file, line, s -> line.acceptSetup(s));
+    return EndResults.row(algoName, instName, line);
+  }
+
+  /**
+   * Create the row of the end results table from the data parsed
+   * from a log file.
+   *
+   * @param algoName
+   *          the algorithm name
+   * @param instName
+   *          the instance name
+   * @param line
+   *          the data parsed from the log file
+   * @return the row, without line separator
+   */
+  static String row(final String algoName, final String instName,
+      final Line line) {
+    final StringBuilder sb = new StringBuilder(128);
+    sb.append(algoName);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(instName);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(line.mSeed);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(EndResults.str(line.mLastLine.fMin));
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(line.mLastLine.timeMax);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(line.mLastLine.feMax);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(line.mLastLine.timeLastImprovement);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(line.mLastLine.feLastImprovement);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(line.mLastLine.improvements);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(line.mBudgetTime);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(line.mBudgetFEs);
+    sb.append(LogFormat.CSV_SEPARATOR_CHAR);
+    sb.append(EndResults.str(line.mGoalF));
+    return sb.toString();
+  }
+
+  /**
+   * Wait for a row, if it is parsed in parallel, and write it.
+   *
+   * @param bw
+   *          the destination
+   * @param iw
+   *          the destination for the index, or {@code null} if no
+   *          index is kept
+   * @param row
+   *          the row
+   * @throws IOException
+   *           if i/o fails or the log file could not be parsed
+   */
+  private static void writeRow(final BufferedWriter bw,
+      final BufferedWriter iw, final Row row) throws IOException {
+    if (row.mTask != null) {
+      row.mRow = EndResults.join(row.mTask);
+      row.mTask = null;
+    }
+    if (row.mRow == null) {
+      return; // skipped invalid log file
+    }
+
+    bw.write(row.mRow);
+    bw.newLine();
+    if (iw != null) {
+      iw.write(row.mPath);
+      iw.write(EndResults.INDEX_SEPARATOR);
+      iw.write(Long.toString(row.mSize));
+      iw.write(EndResults.INDEX_SEPARATOR);
+      iw.write(Long.toString(row.mTime));
+      iw.write(EndResults.INDEX_SEPARATOR);
+      iw.write(row.mRow);
+      iw.newLine();
+    }
+  }
+
+  /**
+   * Wait for a task parsing a log file and get its result.
+   *
+   * @param <T>
+   *          the result type
+   * @param task
+   *          the task
+   * @return the result
+   * @throws IOException
+   *           if i/o fails or the log file could not be parsed
+   */
+  static <T> T join(final Future<T> task) throws IOException {
+    try {
+      return task.get();
+    } catch (final ExecutionException error) {
+      final Throwable cause = error.getCause();
+      if (cause instanceof IOException) {
+        throw ((IOException) cause);
+      }
+      if (cause instanceof RuntimeException) {
+        throw ((RuntimeException) cause);
+      }
+      if (cause instanceof Error) {
+        throw ((Error) cause);
+      }
+      throw new IOException(cause);
+    } catch (final InterruptedException error) {
+      throw new IOException(
+          "Interrupted while parsing log files.", //$NON-NLS-1$
+          error);
     }
-    return IOUtils.requireFile(end);
   }
 
   /**
@@ -252,8 +659,11 @@ public final class EndResults {
     return LogFormat.doubleToStringForLog(d);
   }
 
-  /** the holder for a line */
-  private static final class Line implements Consumer<LogLine> {
+  /**
+   * the holder for the data of a log file needed for a row of the
+   * end results table
+   */
+  static final class Line implements Consumer<LogLine> {
 
     /** the random seed */
     String mSeed;
@@ -292,6 +702,38 @@ public final class EndResults {
     }
   }
 
+  /** a row of the end results table and its log file */
+  private static final class Row {
+    /** the path of the log file relative to the input folder */
+    final String mPath;
+    /** the size of the log file */
+    final long mSize;
+    /** the modification time of the log file */
+    final long mTime;
+    /** the row, or {@code null} if not yet known */
+    String mRow;
+    /** the task parsing the log file, or {@code null} if none */
+    ForkJoinTask<String> mTask;
+
+    /**
+     * create
+     *
+     * @param pPath
+     *          the path of the log file relative to the input
+     *          folder
+     * @param pSize
+     *          the size of the log file
+     * @param pTime
+     *          the modification time of the log file
+     */
+    Row(final String pPath, final long pSize, final long pTime) {
+      super();
+      this.mPath = pPath;
+      this.mSize = pSize;
+      this.mTime = pTime;
+    }
+  }
+
   /**
    * Read and verify the end results table.
    *
@@ -536,6 +978,8 @@ public final class EndResults {
   static void printArgs(final PrintStream s) {
     CommandLineArgs.printSourceDir(s);
     CommandLineArgs.printDestDir(s);
+    CommandLineArgs.printThreads(s);
+    CommandLineArgs.printIncremental(s);
   }
 
   /**
@@ -557,11 +1001,18 @@ public final class EndResults {
 
     final Path in = CommandLineArgs.getSourceDir();
     final Path out = CommandLineArgs.getDestDir();
+    final int threads = CommandLineArgs.getThreads();
+    final boolean incremental = CommandLineArgs.getIncremental();
 
     Configuration.print();
 
     try {
-      EndResults.makeEndResultsTable(in, out, false);
+      if (incremental) {
+        EndResults.updateEndResultsTable(in, out, true, threads);
+      } else {
+        EndResults.makeEndResultsTable(in, out, false, true,
+            threads);
+      }
     } catch (final Throwable error) {
       ConsoleIO.stderr(
           "An error occured while creating the end result tables.", //$NON-NLS-1$
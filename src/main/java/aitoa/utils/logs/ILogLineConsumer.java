@@ -0,0 +1,39 @@
+package aitoa.utils.logs;
+
+/**
+ * A consumer for the data of the lines of a log file, which
+ * receives the values directly instead of as {@link LogLine}
+ * objects. This allows for parsing a log file without creating
+ * any object per line.
+ *
+ * @see LogParser#parseLogFileRaw(java.nio.file.Path,
+ *      ILogLineConsumer, java.util.function.Consumer)
+ */
+@FunctionalInterface
+public interface ILogLineConsumer {
+
+  /**
+   * Accept the data of a log line. The meaning of the
+   * parameters is the same as of the fields of
+   * {@link LogLine}.
+   *
+   * @param feLastImprovement
+   *          the FE where the last improvement took place
+   * @param feMax
+   *          the total consumed function evaluations
+   * @param timeLastImprovement
+   *          the time where the last improvement took place
+   * @param timeMax
+   *          the total consumed runtime
+   * @param improvements
+   *          the total number of improvements
+   * @param fMin
+   *          the best objective value reached so far
+   * @param isImprovement
+   *          was this line an improvement?
+   */
+  void accept(final long feLastImprovement, final long feMax,
+      final long timeLastImprovement, final long timeMax,
+      final long improvements, final double fMin,
+      final boolean isImprovement);
+}
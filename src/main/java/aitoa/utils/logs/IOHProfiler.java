@@ -11,6 +11,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Objects;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import aitoa.examples.bitstrings.BitStringObjectiveFunction;
 import aitoa.examples.bitstrings.JumpObjectiveFunction;
@@ -348,21 +349,8 @@ public final class IOHProfiler {
           " potential algorithm directories.");//$NON-NLS-1$
     }
 
-    final ArrayList<Point> lines = new ArrayList<>();
-    final SetupData[] setup = new SetupData[1];
-    final long[] lastFE = { -1L };
-    final HashMap<String, FunctionMetaData> functionMetaDatas =
-        new HashMap<>();
-
-    final HashMap<String,
-        HashMap<Long,
-            HashMap<Long, ArrayList<Point[]>>>> traces =
-                new HashMap<>();
-
-    final BiFunction<String, SetupData,
-        FunctionMetaData> _getFunctionMetaData =
-            ((getFunctionMetaData != null) ? getFunctionMetaData
-                : IOHProfiler::defaultGetFunctionMetaData);
+    final Collector collector = new Collector(out,
+        getFunctionMetaData, logProgressToConsole);
 
     for (final Path algorithm : algorithms) {
       final String algoName =
@@ -389,75 +377,220 @@ public final class IOHProfiler {
                 .filter(ff -> ff.getFileName().toString()
                     .endsWith(".txt"))//$NON-NLS-1$
             )) {
+          final Trace trace = new Trace();
+          LogParser.parseLogFile(file, trace,
+              s -> trace.acceptSetup(s));
+          collector.add(instName, trace, file);
+        } // end log file
+      } // end instance
 
-          lastFE[0] = -1L;
-          LogParser.parseLogFile(file, l -> {
-            final long curFE = l.feMax;
-            if (curFE > lastFE[0]) {
-              lines.add(new Point(curFE, l.fMin));
-              lastFE[0] = curFE;
-            }
-          }, s -> setup[0] = Objects.requireNonNull(s));
+      collector.write(algoName);
+    } // end algorithm
 
-          if (setup[0] == null) {
-            throw new IllegalStateException(
-                "No setup for file '" + file + //$NON-NLS-1$
-                    "'.");//$NON-NLS-1$
-          }
-          if (lines.isEmpty()) {
-            throw new IllegalStateException(
-                "No log lines in file '" + file + //$NON-NLS-1$
-                    "'.");//$NON-NLS-1$
-          }
+    if (logProgressToConsole) {
+      ConsoleIO.stdout(//
+          "Finished creating IOHprofiler data in folder '" + //$NON-NLS-1$
+              out + "'.");//$NON-NLS-1$
+    }
 
-          final FunctionMetaData functionMetaData =
-              functionMetaDatas.computeIfAbsent(instName,
-                  n -> Objects.requireNonNull(
-                      _getFunctionMetaData.apply(n, setup[0])));
-          final String functionId =
-              Objects.requireNonNull(functionMetaData.id);
-          final Long instanceId =
-              Long.valueOf(functionMetaData.instance);
-          final Long functionDim =
-              Long.valueOf(functionMetaData.dimension);
-
-          // OK, we got valid function and instance IDs as well
-          // as valid dimensions
-
-          final HashMap<Long,
-              HashMap<Long, ArrayList<Point[]>>> insts =
-                  traces.computeIfAbsent(functionId,
-                      i -> new HashMap<>());
-
-          final HashMap<Long, ArrayList<Point[]>> dims = insts
-              .computeIfAbsent(instanceId, i -> new HashMap<>());
-
-          final ArrayList<Point[]> dim = dims.computeIfAbsent(
-              functionDim, i -> new ArrayList<>());
-          dim.add(lines.toArray(new Point[lines.size()]));
-
-          lines.clear();
-          setup[0] = null;
-        } // end log file
-      } // end instance
+    return out;
+  }
+
+  /** the log point */
+  private static final class Point {
+    /** the FEs */
+    final long mFes;
+    /** the objective value */
+    final double mF;
+
+    /**
+     * create the point
+     *
+     * @param pFes
+     *          the fes
+     * @param pF
+     *          the f
+     */
+    Point(final long pFes, final double pF) {
+      super();
+      this.mFes = pFes;
+      this.mF = pF;
+    }
+  }
+
+  /**
+   * The trace of a single run, i.e., the log points at which the
+   * consumed FEs increased, together with the setup of the run.
+   * It is filled by the {@link LogParser} and then handed to a
+   * {@link Collector}.
+   */
+  static final class Trace implements Consumer<LogLine> {
+    /** the points */
+    private final ArrayList<Point> mPoints;
+    /** the last FE */
+    private long mLastFE;
+    /** the setup */
+    private SetupData mSetup;
+
+    /** create */
+    Trace() {
+      super();
+      this.mPoints = new ArrayList<>();
+      this.mLastFE = -1L;
+    }
+
+    /**
+     * accept setup data
+     *
+     * @param setup
+     *          the setup
+     */
+    void acceptSetup(final SetupData setup) {
+      this.mSetup = Objects.requireNonNull(setup);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void accept(final LogLine l) {
+      final long curFE = l.feMax;
+      if (curFE > this.mLastFE) {
+        this.mPoints.add(new Point(curFE, l.fMin));
+        this.mLastFE = curFE;
+      }
+    }
+  }
+
+  /**
+   * The collector for the traces of all runs of one algorithm at
+   * a time. The traces of an algorithm are {@linkplain #add(String,
+   * Trace, Path) added} one by one and then
+   * {@linkplain #write(String) written} to the output folder,
+   * after which the next algorithm can be processed.
+   */
+  static final class Collector {
+    /** the output folder */
+    private final Path mOut;
+    /** the function meta data getter */
+    private final BiFunction<String, SetupData,
+        FunctionMetaData> mGetFunctionMetaData;
+    /** should logging information be printed? */
+    private final boolean mLogProgressToConsole;
+    /** the function meta data by instance name */
+    private final HashMap<String,
+        FunctionMetaData> mFunctionMetaDatas;
+    /** the traces of the current algorithm */
+    private final HashMap<String,
+        HashMap<Long,
+            HashMap<Long, ArrayList<Point[]>>>> mTraces;
+
+    /**
+     * create the collector
+     *
+     * @param pOut
+     *          the output folder
+     * @param pGetFunctionMetaData
+     *          the function transforming information to function
+     *          Ids, dimensions, and instance ids {@code null} for
+     *          default mapping
+     * @param pLogProgressToConsole
+     *          should logging information be printed?
+     */
+    Collector(final Path pOut,
+        final BiFunction<String, SetupData,
+            FunctionMetaData> pGetFunctionMetaData,
+        final boolean pLogProgressToConsole) {
+      super();
+      this.mOut = Objects.requireNonNull(pOut);
+      this.mGetFunctionMetaData = ((pGetFunctionMetaData != null)
+          ? pGetFunctionMetaData
+          : IOHProfiler::defaultGetFunctionMetaData);
+      this.mLogProgressToConsole = pLogProgressToConsole;
+      this.mFunctionMetaDatas = new HashMap<>();
+      this.mTraces = new HashMap<>();
+    }
+
+    /**
+     * Add the trace of a run of the current algorithm
+     *
+     * @param instName
+     *          the instance name
+     * @param trace
+     *          the trace
+     * @param file
+     *          the log file from which the trace was loaded
+     */
+    void add(final String instName, final Trace trace,
+        final Path file) {
+      if (trace.mSetup == null) {
+        throw new IllegalStateException(
+            "No setup for file '" + file + //$NON-NLS-1$
+                "'.");//$NON-NLS-1$
+      }
+      if (trace.mPoints.isEmpty()) {
+        throw new IllegalStateException(
+            "No log lines in file '" + file + //$NON-NLS-1$
+                "'.");//$NON-NLS-1$
+      }
+
+      final FunctionMetaData functionMetaData =
+          this.mFunctionMetaDatas.computeIfAbsent(instName,
+              n -> Objects.requireNonNull(this.mGetFunctionMetaData
+                  .apply(n, trace.mSetup)));
+      final String functionId =
+          Objects.requireNonNull(functionMetaData.id);
+      final Long instanceId =
+          Long.valueOf(functionMetaData.instance);
+      final Long functionDim =
+          Long.valueOf(functionMetaData.dimension);
+
+      // OK, we got valid function and instance IDs as well
+      // as valid dimensions
+
+      final HashMap<Long,
+          HashMap<Long, ArrayList<Point[]>>> insts =
+              this.mTraces.computeIfAbsent(functionId,
+                  i -> new HashMap<>());
+
+      final HashMap<Long, ArrayList<Point[]>> dims = insts
+          .computeIfAbsent(instanceId, i -> new HashMap<>());
+
+      final ArrayList<Point[]> dim = dims
+          .computeIfAbsent(functionDim, i -> new ArrayList<>());
+      dim.add(trace.mPoints
+          .toArray(new Point[trace.mPoints.size()]));
+    }
+
+    /**
+     * Write the data of the current algorithm and clear it.
+     *
+     * @param algoName
+     *          the algorithm name
+     * @throws IOException
+     *           if i/o fails
+     */
+    void write(final String algoName) throws IOException {
+      final HashMap<String,
+          HashMap<Long,
+              HashMap<Long, ArrayList<Point[]>>>> traces =
+                  this.mTraces;
 
       // all the data has been loaded, now we can write the
       // output
 
-      if (logProgressToConsole) {
+      if (this.mLogProgressToConsole) {
         ConsoleIO.stdout(//
             "Finished loading data for algorithm '" + //$NON-NLS-1$
                 algoName + "', found " + //$NON-NLS-1$
                 traces.size() + " functions.");//$NON-NLS-1$
         if (traces.isEmpty()) {
-          continue;
+          return;
         }
       }
 
-      final Path algoDir =
-          IOUtils.requireDirectory(out.resolve(algoName), true);
+      final Path algoDir = IOUtils
+          .requireDirectory(this.mOut.resolve(algoName), true);
 
-      if (logProgressToConsole) {
+      if (this.mLogProgressToConsole) {
         ConsoleIO.stdout(//
             "Now writing IOHprofiler data for algorithm '" + //$NON-NLS-1$
                 algoName + "', to folder '" + //$NON-NLS-1$
@@ -616,36 +749,6 @@ public final class IOHProfiler {
       } // end functions
 
       traces.clear();
-    } // end algorithm
-
-    if (logProgressToConsole) {
-      ConsoleIO.stdout(//
-          "Finished creating IOHprofiler data in folder '" + //$NON-NLS-1$
-              out + "'.");//$NON-NLS-1$
-    }
-
-    return out;
-  }
-
-  /** the log point */
-  private static final class Point {
-    /** the FEs */
-    final long mFes;
-    /** the objective value */
-    final double mF;
-
-    /**
-     * create the point
-     *
-     * @param pFes
-     *          the fes
-     * @param pF
-     *          the f
-     */
-    Point(final long pFes, final double pF) {
-      super();
-      this.mFes = pFes;
-      this.mF = pF;
     }
   }
 
@@ -0,0 +1,698 @@
+package aitoa.utils.logs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import aitoa.structure.LogFormat;
+import aitoa.utils.RandomUtils;
+
+/**
+ * The sanity checks of the {@link LogParser}, i.e., the state
+ * machine which tracks the sections of a log file and verifies
+ * the setup, log points, and state. It does not read the file
+ * itself: the parser splits the file into lines, passes the
+ * comment lines via {@link #comment(String)} and the already
+ * parsed numbers of the log points via
+ * {@link #logPoint(double, long, long)}, and finally calls
+ * {@link #end()}. This way, different ways of reading a log file
+ * are guaranteed to apply exactly the same checks.
+ */
+final class LogChecker {
+
+  /** the set of standard setup keys */
+  private static final List<String> STANDARD_SETUP_KEYS =
+      Arrays.asList(LogFormat.MAX_FES, LogFormat.MAX_TIME,
+          LogFormat.GOAL_F, LogFormat.RANDOM_SEED);
+
+  /** the state keys */
+  private static final List<String> STATE_KEYS =
+      Arrays.asList(LogFormat.CONSUMED_FES,
+          LogFormat.LAST_IMPROVEMENT_FE, LogFormat.CONSUMED_TIME,
+          LogFormat.LAST_IMPROVEMENT_TIME, LogFormat.BEST_F);
+
+  /** the log point consumer, can be {@code null} */
+  private final ILogLineConsumer mLogConsumer;
+  /** the setup consumer, can be {@code null} */
+  private final Consumer<SetupData> mSetupConsumer;
+
+  /** the total consumed FEs */
+  private long mFeMax = -1L;
+  /** the FE of the last improvement */
+  private long mFeLastImprovement = -1L;
+  /** the total consumed time */
+  private long mTimeMax = -1L;
+  /** the time of the last improvement */
+  private long mTimeLastImprovement = -1L;
+  /** the best objective value */
+  private double mFMin = Double.NaN;
+  /** the number of improvements */
+  private long mImprovements;
+
+  /** the FE budget */
+  private long mBudgetFEs = Long.MAX_VALUE;
+  /** the time budget */
+  private long mBudgetTime = Long.MAX_VALUE;
+  /** the random seed string */
+  private String mRandSeedString;
+  /** the random seed */
+  private long mRandSeedLong;
+  /** the goal objective value */
+  private double mGoalF = Double.NaN;
+
+  /** did we have a log line? */
+  private boolean mHasLogLine;
+
+  /** the log section state: 0=before, 1=in, 2=after */
+  private int mStateLog;
+  /** the setup section state: 0=before, 1=in, 2=after */
+  private int mStateSetup;
+  /** the state section state: 0=before, 1=in, 2=after */
+  private int mStateState;
+  /** the setup */
+  private HashMap<String, String> mSetup;
+  /** the state keys found */
+  private HashSet<String> mStateKeys;
+
+  /**
+   * should the log consumer be invoked after the state section,
+   * because the state contains more FEs or time than the log?
+   */
+  private boolean mInvokeLogAfterState;
+
+  /**
+   * create the checker
+   *
+   * @param pLogConsumer
+   *          the log point consumer, can be {@code null}
+   * @param pSetupConsumer
+   *          the setup consumer, can be {@code null}
+   */
+  LogChecker(final ILogLineConsumer pLogConsumer,
+      final Consumer<SetupData> pSetupConsumer) {
+    super();
+    this.mLogConsumer = pLogConsumer;
+    this.mSetupConsumer = pSetupConsumer;
+  }
+
+  /**
+   * Are we inside the log section, i.e., should non-comment
+   * lines be parsed as log points?
+   *
+   * @return {@code true} if we are inside the log section,
+   *         {@code false} otherwise
+   */
+  boolean isInLog() {
+    return (this.mStateLog == 1);
+  }
+
+  /**
+   * Process a comment line.
+   *
+   * @param line
+   *          the line without the leading comment character,
+   *          trimmed and not empty
+   */
+  void comment(final String line) {
+    if (LogFormat.BEGIN_LOG.equals(line)) {
+      switch (this.mStateLog) {
+        case 0: {
+          if (this.mStateSetup == 1) {
+            throw new IllegalStateException(
+                "Cannot begin log section inside setup section.");//$NON-NLS-1$
+          }
+          if (this.mStateState == 1) {
+            throw new IllegalStateException(
+                "Cannot begin log section inside state section??");//$NON-NLS-1$
+          }
+          if (this.mStateState != 0) {
+            throw new IllegalStateException(
+                "Log section must come before state section??");//$NON-NLS-1$
+          }
+          this.mStateLog = 1;
+          return;
+        }
+        case 1: {
+          throw new IllegalStateException(
+              "Log section cannot begin inside log section.");//$NON-NLS-1$
+        }
+        default: {
+          throw new IllegalStateException(
+              "Log section can only occur once.");//$NON-NLS-1$
+        }
+      }
+    }
+
+    if (LogFormat.END_OF_LOG.equals(line)) {
+      switch (this.mStateLog) {
+        case 0: {
+          throw new IllegalStateException(
+              "Log section can only end after log section begins.");//$NON-NLS-1$
+        }
+        case 1: {
+          if (this.mStateSetup == 1) {
+            throw new IllegalStateException(
+                "Log section cannot end inside setup section??");//$NON-NLS-1$
+          }
+          if (this.mStateState == 1) {
+            throw new IllegalStateException(
+                "Log section cannot end inside state section??");//$NON-NLS-1$
+          }
+          if (this.mStateSetup != 0) {
+            throw new IllegalStateException(
+                "Log section must end before state section??");//$NON-NLS-1$
+          }
+          this.mStateLog = 2;
+          if (!this.mHasLogLine) {
+            throw new IllegalStateException(
+                "Log does not contain any data?");//$NON-NLS-1$
+          }
+          return;
+        }
+        default: {
+          throw new IllegalStateException(
+              "Log section can only end once.");//$NON-NLS-1$
+        }
+      }
+    }
+
+    if (LogFormat.BEGIN_SETUP.equals(line)) {
+      switch (this.mStateSetup) {
+        case 0: {
+          if (this.mStateLog == 1) {
+            throw new IllegalStateException(
+                "Cannot begin setup section inside log section.");//$NON-NLS-1$
+          }
+          if (this.mStateState == 1) {
+            throw new IllegalStateException(
+                "Cannot begin setup section inside state section.");//$NON-NLS-1$
+          }
+          this.mStateSetup = 1;
+          this.mSetup = new HashMap<>();
+          return;
+        }
+        case 1: {
+          throw new IllegalStateException(
+              "Setup section cannot begin inside setup section.");//$NON-NLS-1$
+        }
+        default: {
+          throw new IllegalStateException(
+              "Setup section can only occur once.");//$NON-NLS-1$
+        }
+      }
+    }
+
+    if (LogFormat.END_SETUP.equals(line)) {
+      switch (this.mStateSetup) {
+        case 0: {
+          throw new IllegalStateException(
+              "Setup section can only end after setup section begins.");//$NON-NLS-1$
+        }
+        case 1: {
+          if (this.mStateLog == 1) {
+            throw new IllegalStateException(
+                "Setup section cannot end inside log section??");//$NON-NLS-1$
+          }
+          if (this.mStateState == 1) {
+            throw new IllegalStateException(
+                "Setup section cannot end inside state section??");//$NON-NLS-1$
+          }
+          this.mStateSetup = 2;
+          return;
+        }
+        default: {
+          throw new IllegalStateException(
+              "Setup section can only end once.");//$NON-NLS-1$
+        }
+      }
+    }
+
+    if (LogFormat.BEGIN_STATE.equals(line)) {
+      switch (this.mStateState) {
+        case 0: {
+          if (this.mStateLog == 1) {
+            throw new IllegalStateException(
+                "Cannot begin state section inside log section.");//$NON-NLS-1$
+          }
+          if (this.mStateLog != 2) {
+            throw new IllegalStateException(
+                "Can begin state section only after log section.");//$NON-NLS-1$
+          }
+          if (this.mStateSetup == 1) {
+            throw new IllegalStateException(
+                "Cannot begin state section inside setup section.");//$NON-NLS-1$
+          }
+          this.mStateState = 1;
+          this.mStateKeys = new HashSet<>();
+          return;
+        }
+        case 1: {
+          throw new IllegalStateException(
+              "State section cannot begin inside state section.");//$NON-NLS-1$
+        }
+        default: {
+          throw new IllegalStateException(
+              "State section can only occur once.");//$NON-NLS-1$
+        }
+      }
+    }
+
+    if (LogFormat.END_STATE.equals(line)) {
+      switch (this.mStateState) {
+        case 0: {
+          throw new IllegalStateException(
+              "State section can only end after state section begins.");//$NON-NLS-1$
+        }
+        case 1: {
+          if (this.mStateLog == 1) {
+            throw new IllegalStateException(
+                "State section cannot end inside log section??");//$NON-NLS-1$
+          }
+          if (this.mStateLog != 2) {
+            throw new IllegalStateException(
+                "State section can only end after log section??");//$NON-NLS-1$
+          }
+          if (this.mStateSetup == 1) {
+            throw new IllegalStateException(
+                "State section cannot end inside setup section??");//$NON-NLS-1$
+          }
+          this.mStateState = 2;
+
+          if (this.mInvokeLogAfterState && this.mHasLogLine
+              && (this.mLogConsumer != null)) {
+            this.mLogConsumer.accept(this.mFeLastImprovement,
+                this.mFeMax, this.mTimeLastImprovement,
+                this.mTimeMax, this.mImprovements, this.mFMin,
+                false);
+          }
+
+          return;
+        }
+        default: {
+          throw new IllegalStateException(
+              "State section can only end once.");//$NON-NLS-1$
+        }
+      }
+    }
+
+    if (this.mStateSetup == 1) {
+      // ok, we are in the setup section
+
+      final int colon =
+          line.indexOf(LogFormat.MAP_SEPARATOR_CHAR);
+      if ((colon <= 0)
+          || (colon >= (line.length() - 1))) {
+        throw new IllegalArgumentException(
+            "Invalid setup line '" //$NON-NLS-1$
+                + line + "'.");//$NON-NLS-1$
+      }
+
+      final String key = line.substring(0, colon).trim();
+      final String value =
+          line.substring(colon + 1).trim();
+
+      if (key.isEmpty() || value.isEmpty()) {
+        throw new IllegalArgumentException(
+            "Invalid setup line '" //$NON-NLS-1$
+                + line
+                + "': neither key nor value must be empty.");//$NON-NLS-1$
+      }
+
+      if (this.mSetup.put(key, value) != null) {
+        throw new IllegalArgumentException(
+            "Invalid setup line '" //$NON-NLS-1$
+                + line + "': key '" + //$NON-NLS-1$
+                key + "' already appeared.");//$NON-NLS-1$
+      }
+
+      final boolean isStandard =
+          LogChecker.STANDARD_SETUP_KEYS.contains(key);
+
+      if (isStandard) {
+        switch (key) {
+          case LogFormat.MAX_FES: {
+            final long fes = Long.parseLong(value);
+            if (fes <= 0L) {
+              throw new IllegalArgumentException(
+                  "FEs budget must be positive, but is " //$NON-NLS-1$
+                      + fes);
+            }
+            this.mBudgetFEs = fes;
+            break;
+          }
+          case LogFormat.MAX_TIME: {
+            final long time = Long.parseLong(value);
+            if (time <= 0L) {
+              throw new IllegalArgumentException(
+                  "Time budget must be positive, but is " //$NON-NLS-1$
+                      + time);
+            }
+            this.mBudgetTime = time;
+            break;
+          }
+          case LogFormat.GOAL_F: {
+            final double f = Double.parseDouble(value);
+            if (Double.isNaN(f)
+                || (f >= Double.POSITIVE_INFINITY)) {
+              throw new IllegalArgumentException(
+                  "Goal objective value must be finite or negative infinite, but is " //$NON-NLS-1$
+                      + f);
+            }
+            this.mGoalF = f;
+            break;
+          }
+          case LogFormat.RANDOM_SEED: {
+            this.mRandSeedString = value;
+            this.mRandSeedLong = RandomUtils
+                .stringToRandSeed(this.mRandSeedString);
+            break;
+          }
+          default: {
+            throw new IllegalStateException(
+                "Invalid standard setup key: "//$NON-NLS-1$
+                    + key);
+          }
+        }
+      }
+
+      // end setup section
+    }
+
+    if (this.mStateState == 1) {
+      // inside state section
+
+      final int colon =
+          line.indexOf(LogFormat.MAP_SEPARATOR_CHAR);
+      if ((colon <= 0)
+          || (colon >= (line.length() - 1))) {
+        throw new IllegalArgumentException(
+            "Invalid state line '" //$NON-NLS-1$
+                + line + "'.");//$NON-NLS-1$
+      }
+
+      final String key = line.substring(0, colon).trim();
+      final String value =
+          line.substring(colon + 1).trim();
+
+      if (key.isEmpty() || value.isEmpty()) {
+        throw new IllegalArgumentException(
+            "Invalid state line '" //$NON-NLS-1$
+                + line
+                + "': neither key nor value must be empty.");//$NON-NLS-1$
+      }
+
+      if (!this.mStateKeys.add(key)) {
+        throw new IllegalArgumentException(
+            "Invalid state line '" //$NON-NLS-1$
+                + line + "': key '" + //$NON-NLS-1$
+                key + "' already appeared.");//$NON-NLS-1$
+      }
+
+      switch (key) {
+
+        case LogFormat.CONSUMED_FES: {
+          final long t = Long.parseLong(value);
+          if (t <= 0L) {
+            throw new IllegalArgumentException(
+                "Consumed FEs in state must be positive, but are "//$NON-NLS-1$
+                    + t);
+          }
+          if (t < this.mFeMax) {
+            throw new IllegalArgumentException(
+                "Consumed FEs in state must be at least as much as in log, but are "//$NON-NLS-1$
+                    + t + " compared to the " + this.mFeMax + //$NON-NLS-1$
+                    " in the log.");//$NON-NLS-1$
+          }
+          if (t > this.mFeMax) {
+            this.mFeMax = t;
+            this.mInvokeLogAfterState = true;
+          }
+          break;
+        }
+
+        case LogFormat.LAST_IMPROVEMENT_FE: {
+          final long t = Long.parseLong(value);
+          if (t != this.mFeLastImprovement) {
+            throw new IllegalArgumentException(
+                "Last improvement FEs in state must be same as in log, but are "//$NON-NLS-1$
+                    + t + " compared to the " //$NON-NLS-1$
+                    + this.mFeLastImprovement
+                    + " in the log.");//$NON-NLS-1$
+          }
+          if (t > this.mFeMax) {
+            throw new IllegalArgumentException(
+                "Last improvement FEs in state must be less than max FEs, but are "//$NON-NLS-1$
+                    + t + " compared to the " + this.mFeMax + //$NON-NLS-1$
+                    " in the log.");//$NON-NLS-1$
+          }
+          break;
+        }
+
+        case LogFormat.CONSUMED_TIME: {
+          final long t = Long.parseLong(value);
+          if (t < 0L) {
+            throw new IllegalArgumentException(
+                "Consumed time in state must be 0 or positive, but is "//$NON-NLS-1$
+                    + t);
+          }
+          if (t < this.mTimeMax) {
+            throw new IllegalArgumentException(
+                "Consumed time in state must be at least as much as in log, but is "//$NON-NLS-1$
+                    + t + " compared to the " + this.mTimeMax //$NON-NLS-1$
+                    + " in the log.");//$NON-NLS-1$
+          }
+          if (t > this.mTimeMax) {
+            this.mTimeMax = t;
+            this.mInvokeLogAfterState = true;
+          }
+          break;
+        }
+
+        case LogFormat.LAST_IMPROVEMENT_TIME: {
+          final long t = Long.parseLong(value);
+          if (t != this.mTimeLastImprovement) {
+            throw new IllegalArgumentException(
+                "Last improvement time in state must be same as in log, but is "//$NON-NLS-1$
+                    + t + " compared to the " //$NON-NLS-1$
+                    + this.mTimeLastImprovement
+                    + " in the log.");//$NON-NLS-1$
+          }
+          if (t > this.mTimeMax) {
+            throw new IllegalArgumentException(
+                "Last improvement time in state must be less than max time, but is "//$NON-NLS-1$
+                    + t + " compared to the " + this.mTimeMax //$NON-NLS-1$
+                    + " in the log.");//$NON-NLS-1$
+          }
+          break;
+        }
+
+        case LogFormat.BEST_F: {
+          final double t = Double.parseDouble(value);
+          if (t != this.mFMin) {
+            throw new IllegalArgumentException(
+                "Best-f value in state must be same as in log, but is "//$NON-NLS-1$
+                    + t + " compared to the " + this.mFMin + //$NON-NLS-1$
+                    " in the log.");//$NON-NLS-1$
+          }
+          if (!Double.isFinite(this.mFMin)) {
+            throw new IllegalArgumentException(
+                ("Best-f value in state must be finite, but is "//$NON-NLS-1$
+                    + t) + '.');
+          }
+          break;
+        }
+
+        default: {
+          throw new IllegalArgumentException(
+              "Invalid state key: " + key);//$NON-NLS-1$
+        }
+      }
+
+      // end state section
+    }
+  }
+
+  /**
+   * Process a log point, i.e., a line in the log section.
+   *
+   * @param f
+   *          the objective value
+   * @param fes
+   *          the consumed FEs
+   * @param time
+   *          the consumed time
+   */
+  void logPoint(final double f, final long fes, final long time) {
+    if (!(Double.isFinite(f))) {
+      throw new IllegalArgumentException(
+          "Objective values must be finite, but encountered: " //$NON-NLS-1$
+              + f);
+    }
+    if (f > this.mFMin) {
+      throw new IllegalArgumentException(
+          "Objective values must be monotonously decreasing, but encountered: " //$NON-NLS-1$
+              + f + " after " + this.mFMin); //$NON-NLS-1$
+    }
+
+    if (fes < 1L) {
+      throw new IllegalArgumentException(
+          "FEs must be positive, but encountered: " //$NON-NLS-1$
+              + fes);
+    }
+    if (fes < this.mFeMax) {
+      throw new IllegalArgumentException(
+          "Function evaluations must be monotonously increasing, but encountered: " //$NON-NLS-1$
+              + fes + " after " + this.mFeMax); //$NON-NLS-1$
+    }
+    if ((fes == this.mFeMax) && (f != this.mFMin)) {
+      throw new IllegalArgumentException(
+          "If function evaluations don't increase, best.f cannot decrease, but found: " //$NON-NLS-1$
+              + fes + " after " + this.mFeMax + //$NON-NLS-1$
+              " and " + f + //$NON-NLS-1$
+              " after " + this.mFMin);//$NON-NLS-1$
+    }
+    if (fes > this.mBudgetFEs) {
+      throw new IllegalArgumentException(
+          "Function evaluations " + fes + //$NON-NLS-1$
+              " exceed budget of " + this.mBudgetFEs); //$NON-NLS-1$
+    }
+
+    if (time < 0L) {
+      throw new IllegalArgumentException(
+          "Times must be 0 or positive, but encountered: " //$NON-NLS-1$
+              + time);
+    }
+    if (time < this.mTimeMax) {
+      throw new IllegalArgumentException(
+          "Times must be monotonously increasing, but encountered: " //$NON-NLS-1$
+              + time + " after " //$NON-NLS-1$
+              + this.mTimeMax);
+    }
+    LogParser.checkTime(time, this.mBudgetTime);
+
+    boolean invokeLog = (this.mLogConsumer != null);
+    final boolean isImprovement = ((f < this.mFMin) || (fes <= 1L));
+    if (isImprovement || (!this.mHasLogLine)) {
+      this.mFMin = f;
+      ++this.mImprovements;
+      this.mTimeLastImprovement = time;
+      this.mFeLastImprovement = fes;
+      this.mHasLogLine = true;
+    } else {
+      invokeLog &= ((time > this.mTimeMax) || (fes > this.mFeMax));
+    }
+    this.mTimeMax = time;
+    this.mFeMax = fes;
+
+    if (invokeLog) {
+      this.mLogConsumer.accept(this.mFeLastImprovement,
+          this.mFeMax, this.mTimeLastImprovement, this.mTimeMax,
+          this.mImprovements, this.mFMin, isImprovement);
+    }
+  }
+
+  /** Perform the checks at the end of the log file. */
+  void end() {
+    // check states
+    switch (this.mStateLog) {
+      case 0: {
+        throw new IllegalStateException(
+            "No log section found.");//$NON-NLS-1$
+      }
+      case 1: {
+        throw new IllegalStateException(
+            "Log section has no end.");//$NON-NLS-1$
+      }
+      default: // nothing
+    }
+    switch (this.mStateSetup) {
+      case 0: {
+        throw new IllegalStateException(
+            "No setup section found.");//$NON-NLS-1$
+      }
+      case 1: {
+        throw new IllegalStateException(
+            "Setup section has no end.");//$NON-NLS-1$
+      }
+      default: // nothing
+    }
+    switch (this.mStateState) {
+      case 0: {
+        throw new IllegalStateException(
+            "No state section found.");//$NON-NLS-1$
+      }
+      case 1: {
+        throw new IllegalStateException(
+            "State section has no end.");//$NON-NLS-1$
+      }
+      default: // nothing
+    }
+
+    if (this.mImprovements <= 0L) {
+      throw new IllegalStateException(
+          "No improvement was made during the run, i.e., there was no log point.");//$NON-NLS-1$
+    }
+    if (this.mFeMax <= 0L) {
+      throw new IllegalStateException(
+          "Impossible: There were improvements, but 0 FEs??");//$NON-NLS-1$
+    }
+    if (this.mFeMax < this.mFeLastImprovement) {
+      throw new IllegalStateException(
+          "Impossible: last improvement FEs ("//$NON-NLS-1$
+              + this.mFeLastImprovement + ") after total FEs (" //$NON-NLS-1$
+              + this.mFeMax + ")??");//$NON-NLS-1$
+    }
+    if (this.mTimeMax < this.mTimeLastImprovement) {
+      throw new IllegalStateException(
+          "Impossible: last improvement time ("//$NON-NLS-1$
+              + this.mTimeMax + ") after total time (" //$NON-NLS-1$
+              + this.mTimeLastImprovement + ")??");//$NON-NLS-1$
+    }
+    if (!Double.isFinite(this.mFMin)) {
+      throw new IllegalStateException(
+          "Impossible: There were improvements, best.f is " //$NON-NLS-1$
+              + this.mFMin);
+    }
+    if (this.mSetup.isEmpty()) {
+      throw new IllegalStateException(
+          "Setup section is empty?"); //$NON-NLS-1$
+    }
+    if (!this.mSetup.keySet()
+        .containsAll(LogChecker.STANDARD_SETUP_KEYS)) {
+      throw new IllegalStateException(
+          "Setup section must have at least the keys " + //$NON-NLS-1$
+              LogChecker.STANDARD_SETUP_KEYS + " but has " + //$NON-NLS-1$
+              this.mSetup.keySet().toString() + ", i.e., lacks " + //$NON-NLS-1$
+              new HashSet<>(LogChecker.STANDARD_SETUP_KEYS)
+                  .removeAll(this.mSetup.keySet()));
+    }
+    if ((this.mStateKeys.size() != LogChecker.STATE_KEYS.size())
+        || (!this.mStateKeys.containsAll(LogChecker.STATE_KEYS))) {
+      throw new IllegalStateException(
+          "State section must have exactly the keys " + //$NON-NLS-1$
+              LogChecker.STATE_KEYS + " but has " + //$NON-NLS-1$
+              this.mStateKeys.toString());
+    }
+
+    if (this.mFeMax > this.mBudgetFEs) {
+      throw new IllegalStateException("Consumed FEs (" + this.mFeMax //$NON-NLS-1$
+          + ") exceed budget of " + this.mBudgetFEs + //$NON-NLS-1$
+          " FEs."); //$NON-NLS-1$
+    }
+    LogParser.checkTime(this.mTimeMax, this.mBudgetTime);
+
+    if (this.mRandSeedString == null) {
+      throw new IllegalStateException(
+          "Random seed not defined???");//$NON-NLS-1$
+    }
+
+    if (this.mSetupConsumer != null) {
+      this.mSetupConsumer.accept(new SetupData(
+          this.mRandSeedString, this.mRandSeedLong,
+          this.mBudgetFEs, this.mBudgetTime, this.mGoalF,
+          this.mSetup));
+    }
+  }
+}
@@ -2,17 +2,18 @@ package aitoa.utils.logs;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.function.Consumer;
 
+import aitoa.structure.BinaryLogWriter;
 import aitoa.structure.LogFormat;
 import aitoa.utils.IOUtils;
-import aitoa.utils.RandomUtils;
 
 /**
  * This class allows for efficient parsing of the log files
@@ -20,16 +21,17 @@ import aitoa.utils.RandomUtils;
  */
 public final class LogParser {
 
-  /** the set of standard setup keys */
-  private static final List<String> STANDARD_SETUP_KEYS =
-      Arrays.asList(LogFormat.MAX_FES, LogFormat.MAX_TIME,
-          LogFormat.GOAL_F, LogFormat.RANDOM_SEED);
-
-  /** the state keys */
-  private static final List<String> STATE_KEYS =
-      Arrays.asList(LogFormat.CONSUMED_FES,
-          LogFormat.LAST_IMPROVEMENT_FE, LogFormat.CONSUMED_TIME,
-          LogFormat.LAST_IMPROVEMENT_TIME, LogFormat.BEST_F);
+  /** the initial size of the read buffer */
+  private static final int BUFFER_SIZE = 1 << 16;
+  /**
+   * the bound for the digits of a number to be converted exactly
+   * to a {@code double}
+   */
+  private static final long MAX_MANTISSA = 1L << 53;
+  /** the exact powers of ten as doubles */
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2,
+      1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13,
+      1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
 
   /**
    * check if a given time value exceeds a budget limit
@@ -67,6 +69,50 @@ public final class LogParser {
             + "ms to cater for delays, scheduling, and graceful termination.");//$NON-NLS-1$
   }
 
+  /**
+   * Make sure that a path refers to a log file.
+   *
+   * @param file
+   *          the file
+   * @return the canonical path
+   * @throws IOException
+   *           if the file does not exist
+   */
+  static Path requireLogFile(final Path file)
+      throws IOException {
+    final Path pth = IOUtils.requireFile(file);
+
+    final String name = pth.getFileName().toString();
+    if (!name.endsWith(LogFormat.FILE_SUFFIX)) {
+      throw new IllegalArgumentException(//
+          "Invalid file name '" + file //$NON-NLS-1$
+              + "', must end with '" + //$NON-NLS-1$
+              LogFormat.FILE_SUFFIX + "'.");//$NON-NLS-1$
+    }
+    return pth;
+  }
+
+  /**
+   * Wrap a consumer for {@link LogLine} objects into a
+   * {@link ILogLineConsumer}.
+   *
+   * @param logConsumer
+   *          the log line consumer, can be {@code null}
+   * @return the wrapped consumer, or {@code null} if
+   *         {@code logConsumer} is {@code null}
+   */
+  private static ILogLineConsumer
+      wrap(final Consumer<LogLine> logConsumer) {
+    if (logConsumer == null) {
+      return null;
+    }
+    return (feLastImprovement, feMax, timeLastImprovement,
+        timeMax, improvements, fMin,
+        isImprovement) -> logConsumer.accept(new LogLine(
+            feLastImprovement, feMax, timeLastImprovement,
+            timeMax, improvements, fMin, isImprovement, false));
+  }
+
   /**
    * This function parses a given log file and ensures that the
    * data therein meets all reasonable criteria for monotonicity
@@ -82,50 +128,377 @@ public final class LogParser {
    * @throws IOException
    *           if i/o fails or if any data in the file violates
    *           the sanity checks
+   * @see #parseLogFileRaw(Path, ILogLineConsumer, Consumer)
    */
-  @SuppressWarnings("null")
   public static void parseLogFile(final Path file,
       final Consumer<LogLine> logConsumer,
       final Consumer<SetupData> setupConsumer)
       throws IOException {
+    LogParser.parseLogFileRaw(file,
+        LogParser.wrap(logConsumer), setupConsumer);
+  }
 
-    final Path pth = IOUtils.requireFile(file);
+  /**
+   * This function parses a given log file and ensures that the
+   * data therein meets all reasonable criteria for monotonicity
+   * and presence. It passes all information to the provided
+   * consumers.
+   * <p>
+   * The file is read in large chunks of bytes, which are split
+   * into lines directly. Only the comment lines, i.e., the
+   * section markers, setup, and state, are converted to
+   * {@link String}s. The numbers of the log points are parsed
+   * directly from the bytes and passed to the
+   * {@link ILogLineConsumer} without creating any object. Only
+   * objective values with an exponent or with more significant
+   * digits than can be represented exactly are parsed via
+   * {@link Double#parseDouble(String)}.
+   * <p>
+   * If the log file has an
+   * {@linkplain BinaryLogs#isUpToDate(Path) up-to-date}
+   * {@linkplain aitoa.structure.BinaryLogWriter binary sidecar},
+   * the data is loaded from the sidecar instead, which requires
+   * no parsing at all. A stale sidecar is ignored.
+   *
+   * @param file
+   *          the file
+   * @param logConsumer
+   *          the log point consumer, can be {@code null}
+   * @param setupConsumer
+   *          the setup consumer, can be {@code null}
+   * @throws IOException
+   *           if i/o fails or if any data in the file violates
+   *           the sanity checks
+   */
+  public static void parseLogFileRaw(final Path file,
+      final ILogLineConsumer logConsumer,
+      final Consumer<SetupData> setupConsumer)
+      throws IOException {
 
-    final String name = pth.getFileName().toString();
-    if (!name.endsWith(LogFormat.FILE_SUFFIX)) {
-      throw new IllegalArgumentException(//
-          "Invalid file name '" + file //$NON-NLS-1$
-              + "', must end with '" + //$NON-NLS-1$
-              LogFormat.FILE_SUFFIX + "'.");//$NON-NLS-1$
+    final Path pth = LogParser.requireLogFile(file);
+    if (BinaryLogs.isUpToDate(pth)) {
+      BinaryLogs.parseBinaryLogFile(BinaryLogWriter.sidecar(pth),
+          logConsumer, setupConsumer);
+      return;
     }
+    LogParser.parseTextLogFile(pth, logConsumer, setupConsumer);
+  }
 
-    try (
-        final BufferedReader in = Files.newBufferedReader(pth)) {
+  /**
+   * Parse a text log file on the byte level, ignoring a binary
+   * sidecar if it exists.
+   *
+   * @param pth
+   *          the canonical path to the log file
+   * @param logConsumer
+   *          the log point consumer, can be {@code null}
+   * @param setupConsumer
+   *          the setup consumer, can be {@code null}
+   * @throws IOException
+   *           if i/o fails or if any data in the file violates
+   *           the sanity checks
+   * @see #parseLogFileRaw(Path, ILogLineConsumer, Consumer)
+   */
+  static void parseTextLogFile(final Path pth,
+      final ILogLineConsumer logConsumer,
+      final Consumer<SetupData> setupConsumer)
+      throws IOException {
+    try (final FileChannel in =
+        FileChannel.open(pth, StandardOpenOption.READ)) {
+      final LogChecker checker =
+          new LogChecker(logConsumer, setupConsumer);
+
+      byte[] buffer = new byte[(int) Math.max(256L,
+          Math.min(LogParser.BUFFER_SIZE, in.size() + 1L))];
+      int start = 0; // the start of the current line
+      int scan = 0; // where to continue searching for the end
+      int end = 0; // the end of the data in the buffer
+      boolean eof = false;
+      int lineIndex = 0;
 
-      // statistics
-      long fe_max = -1L;
-      long fe_last_improvement = -1L;
-      long time_max = -1L;
-      long time_last_improvement = -1L;
-      double f_min = Double.NaN;
-      long improvements = 0L;
+      for (;;) {
+        while ((scan < end) && (buffer[scan] != '\n')) {
+          ++scan;
+        }
+        if (scan >= end) {
+          if (eof) {
+            if (start < end) { // last line without line break
+              LogParser.parseLine(checker, buffer, start, end,
+                  ++lineIndex);
+            }
+            break;
+          }
+// Move the incomplete line to the front of the buffer, grow the
+// buffer if the line does not fit, and read more data.
+          if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0,
+                end - start);
+            end -= start;
+            scan -= start;
+            start = 0;
+          }
+          if (end >= buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length << 1);
+          }
+          final int read = in.read(
+              ByteBuffer.wrap(buffer, end, buffer.length - end));
+          if (read < 0) {
+            eof = true;
+          } else {
+            end += read;
+          }
+          continue;
+        }
 
-      long budgetFEs = Long.MAX_VALUE;
-      long budgetTime = Long.MAX_VALUE;
-      String randSeedString = null;
-      long randSeedLong = 0L;
-      double goalF = Double.NaN;
+        LogParser.parseLine(checker, buffer, start, scan,
+            ++lineIndex);
+        start = ++scan;
+      }
 
-      boolean has_log_line = false;
+      checker.end();
+    } catch (final Throwable error) {
+      throw new IOException(//
+          "Error while parsing log file '" + pth //$NON-NLS-1$
+              + "'.", //$NON-NLS-1$
+          error);
+    }
+  }
 
-      // states: 0=before, 1=in, 2=after
-      int state_log = 0;
-      int state_setup = 0;
-      int state_state = 0;
-      HashMap<String, String> setup = null;
-      HashSet<String> stateKeys = null;
+  /**
+   * Parse a single line of a log file.
+   *
+   * @param checker
+   *          the checker
+   * @param data
+   *          the data
+   * @param lineStart
+   *          the start index of the line
+   * @param lineEnd
+   *          the exclusive end index of the line
+   * @param lineIndex
+   *          the line index
+   * @throws IOException
+   *           if the line is invalid
+   */
+  private static void parseLine(final LogChecker checker,
+      final byte[] data, final int lineStart, final int lineEnd,
+      final int lineIndex) throws IOException {
+    int start = lineStart;
+    int end = lineEnd;
+    while ((start < end) && ((data[start] & 0xff) <= ' ')) {
+      ++start;
+    }
+    while ((end > start) && ((data[end - 1] & 0xff) <= ' ')) {
+      --end;
+    }
+    if (start >= end) {
+      return;
+    }
+
+    try {
+      if (data[start] == LogFormat.COMMENT_CHAR) {
+        final String line = new String(data, start + 1,
+            end - start - 1, StandardCharsets.UTF_8).trim();
+        if (!line.isEmpty()) {
+          checker.comment(line);
+        }
+        return;
+      }
 
-      boolean invokeLogAfterState = false;
+      if (!checker.isInLog()) {
+        return;
+      }
+
+      int semi1 = start;
+      while ((semi1 < end)
+          && (data[semi1] != LogFormat.CSV_SEPARATOR_CHAR)) {
+        ++semi1;
+      }
+      int semi2 = end - 1;
+      while ((semi2 > semi1)
+          && (data[semi2] != LogFormat.CSV_SEPARATOR_CHAR)) {
+        --semi2;
+      }
+      if ((semi1 <= start) || (semi2 <= semi1)
+          || (semi2 >= (end - 1))) {
+        throw new IllegalArgumentException(//
+            "Invalid log point '" + //$NON-NLS-1$
+                new String(data, start, end - start,
+                    StandardCharsets.UTF_8)
+                + "', must contain '" + //$NON-NLS-1$
+                LogFormat.CSV_SEPARATOR_CHAR + "' twice."); //$NON-NLS-1$
+      }
+
+      try {
+        checker.logPoint(
+            LogParser.parseDouble(data, start, semi1),
+            LogParser.parseLong(data, semi1 + 1, semi2),
+            LogParser.parseLong(data, semi2 + 1, end));
+      } catch (final Throwable error2) {
+        throw new IllegalArgumentException(//
+            "Invalid log point '" + //$NON-NLS-1$
+                new String(data, start, end - start,
+                    StandardCharsets.UTF_8)
+                + "', parse- or validation error.", //$NON-NLS-1$
+            error2);
+      }
+    } catch (final Throwable error2) {
+      throw new IOException(//
+          "Line " + lineIndex //$NON-NLS-1$
+              + " is invalid: '" //$NON-NLS-1$
+              + new String(data, lineStart, lineEnd - lineStart,
+                  StandardCharsets.UTF_8)
+              + "'.", //$NON-NLS-1$
+          error2);
+    }
+  }
+
+  /**
+   * Parse a {@code long} value from a range of bytes, with the
+   * same result as {@link Long#parseLong(String)} applied to the
+   * trimmed text.
+   *
+   * @param data
+   *          the data
+   * @param from
+   *          the start index
+   * @param to
+   *          the exclusive end index
+   * @return the value
+   */
+  static long parseLong(final byte[] data, final int from,
+      final int to) {
+    int start = from;
+    int end = to;
+    while ((start < end) && ((data[start] & 0xff) <= ' ')) {
+      ++start;
+    }
+    while ((end > start) && ((data[end - 1] & 0xff) <= ' ')) {
+      --end;
+    }
+
+    int i = start;
+    final boolean negative = (i < end) && (data[i] == '-');
+    if (negative || ((i < end) && (data[i] == '+'))) {
+      ++i;
+    }
+// With at most 18 digits, no overflow can happen.
+    if ((i < end) && ((end - i) <= 18)) {
+      long result = 0L;
+      for (; i < end; i++) {
+        final int digit = data[i] - '0';
+        if ((digit < 0) || (digit > 9)) {
+          break;
+        }
+        result = (result * 10L) + digit;
+      }
+      if (i >= end) {
+        return negative ? (-result) : result;
+      }
+    }
+    return Long.parseLong(new String(data, start, end - start,
+        StandardCharsets.ISO_8859_1));
+  }
+
+  /**
+   * Parse a {@code double} value from a range of bytes, with the
+   * same result as {@link Double#parseDouble(String)} applied to
+   * the trimmed text. Numbers without exponent whose digits form
+   * an integer of at most 2<sup>53</sup> and which have at most
+   * 22 fractional digits are computed directly, as the integer
+   * and the power of ten are then represented exactly and the
+   * division is correctly rounded. All other numbers are parsed
+   * via {@link Double#parseDouble(String)}.
+   *
+   * @param data
+   *          the data
+   * @param from
+   *          the start index
+   * @param to
+   *          the exclusive end index
+   * @return the value
+   */
+  static double parseDouble(final byte[] data, final int from,
+      final int to) {
+    int start = from;
+    int end = to;
+    while ((start < end) && ((data[start] & 0xff) <= ' ')) {
+      ++start;
+    }
+    while ((end > start) && ((data[end - 1] & 0xff) <= ' ')) {
+      --end;
+    }
+
+    int i = start;
+    final boolean negative = (i < end) && (data[i] == '-');
+    if (negative || ((i < end) && (data[i] == '+'))) {
+      ++i;
+    }
+
+    long mantissa = 0L;
+    int digits = 0;
+    int fraction = -1;
+    for (; i < end; i++) {
+      final byte b = data[i];
+      if (b == '.') {
+        if (fraction >= 0) {
+          break;
+        }
+        fraction = 0;
+        continue;
+      }
+      final int digit = b - '0';
+      if ((digit < 0) || (digit > 9)
+          || (mantissa >= (LogParser.MAX_MANTISSA / 10L))) {
+        break;
+      }
+      mantissa = (mantissa * 10L) + digit;
+      ++digits;
+      if (fraction >= 0) {
+        ++fraction;
+      }
+    }
+
+    if ((i >= end) && (digits > 0) && (fraction
+        < LogParser.POWERS_OF_TEN.length)) {
+      final double value = (fraction > 0)
+          ? (mantissa / LogParser.POWERS_OF_TEN[fraction])
+          : mantissa;
+      return negative ? (-value) : value;
+    }
+    return Double.parseDouble(new String(data, start, end - start,
+        StandardCharsets.ISO_8859_1));
+  }
+
+  /**
+   * This function parses a given log file line by line with a
+   * {@link BufferedReader}, converting each line and number to a
+   * {@link String}, and applies exactly the same checks as
+   * {@link #parseLogFileRaw(Path, ILogLineConsumer, Consumer)}. It
+   * is much slower and only kept as reference implementation
+   * for tests and benchmarks, so it is not public.
+   *
+   * @param file
+   *          the file
+   * @param logConsumer
+   *          the log point consumer, can be {@code null}
+   * @param setupConsumer
+   *          the setup consumer, can be {@code null}
+   * @throws IOException
+   *           if i/o fails or if any data in the file violates
+   *           the sanity checks
+   */
+  static void parseLogFileByLines(final Path file,
+      final Consumer<LogLine> logConsumer,
+      final Consumer<SetupData> setupConsumer)
+      throws IOException {
+
+    final Path pth = LogParser.requireLogFile(file);
+
+    try (
+        final BufferedReader in = Files.newBufferedReader(pth)) {
+      final LogChecker checker = new LogChecker(
+          LogParser.wrap(logConsumer), setupConsumer);
 
       String line2 = null;
       int lineIndex = 0;
@@ -141,412 +514,14 @@ public final class LogParser {
           // we enter a comment?
           if (line.charAt(0) == LogFormat.COMMENT_CHAR) {
             line = line.substring(1).trim();
-            if (line.length() <= 0) {
-              continue;
+            if (line.length() > 0) {
+              checker.comment(line);
             }
-
-            if (LogFormat.BEGIN_LOG.equals(line)) {
-              switch (state_log) {
-                case 0: {
-                  if (state_setup == 1) {
-                    throw new IllegalStateException(
-                        "Cannot begin log section inside setup section.");//$NON-NLS-1$
-                  }
-                  if (state_state == 1) {
-                    throw new IllegalStateException(
-                        "Cannot begin log section inside state section??");//$NON-NLS-1$
-                  }
-                  if (state_state != 0) {
-                    throw new IllegalStateException(
-                        "Log section must come before state section??");//$NON-NLS-1$
-                  }
-                  state_log = 1;
-                  continue;
-                }
-                case 1: {
-                  throw new IllegalStateException(
-                      "Log section cannot begin inside log section.");//$NON-NLS-1$
-                }
-                default: {
-                  throw new IllegalStateException(
-                      "Log section can only occur once.");//$NON-NLS-1$
-                }
-              }
-            }
-
-            if (LogFormat.END_OF_LOG.equals(line)) {
-              switch (state_log) {
-                case 0: {
-                  throw new IllegalStateException(
-                      "Log section can only end after log section begins.");//$NON-NLS-1$
-                }
-                case 1: {
-                  if (state_setup == 1) {
-                    throw new IllegalStateException(
-                        "Log section cannot end inside setup section??");//$NON-NLS-1$
-                  }
-                  if (state_state == 1) {
-                    throw new IllegalStateException(
-                        "Log section cannot end inside state section??");//$NON-NLS-1$
-                  }
-                  if (state_setup != 0) {
-                    throw new IllegalStateException(
-                        "Log section must end before state section??");//$NON-NLS-1$
-                  }
-                  state_log = 2;
-                  if (!has_log_line) {
-                    throw new IllegalStateException(
-                        "Log does not contain any data?");//$NON-NLS-1$
-                  }
-                  continue;
-                }
-                default: {
-                  throw new IllegalStateException(
-                      "Log section can only end once.");//$NON-NLS-1$
-                }
-              }
-            }
-
-            if (LogFormat.BEGIN_SETUP.equals(line)) {
-              switch (state_setup) {
-                case 0: {
-                  if (state_log == 1) {
-                    throw new IllegalStateException(
-                        "Cannot begin setup section inside log section.");//$NON-NLS-1$
-                  }
-                  if (state_state == 1) {
-                    throw new IllegalStateException(
-                        "Cannot begin setup section inside state section.");//$NON-NLS-1$
-                  }
-                  state_setup = 1;
-                  setup = new HashMap<>();
-                  continue;
-                }
-                case 1: {
-                  throw new IllegalStateException(
-                      "Setup section cannot begin inside setup section.");//$NON-NLS-1$
-                }
-                default: {
-                  throw new IllegalStateException(
-                      "Setup section can only occur once.");//$NON-NLS-1$
-                }
-              }
-            }
-
-            if (LogFormat.END_SETUP.equals(line)) {
-              switch (state_setup) {
-                case 0: {
-                  throw new IllegalStateException(
-                      "Setup section can only end after setup section begins.");//$NON-NLS-1$
-                }
-                case 1: {
-                  if (state_log == 1) {
-                    throw new IllegalStateException(
-                        "Setup section cannot end inside log section??");//$NON-NLS-1$
-                  }
-                  if (state_state == 1) {
-                    throw new IllegalStateException(
-                        "Setup section cannot end inside state section??");//$NON-NLS-1$
-                  }
-                  state_setup = 2;
-                  continue;
-                }
-                default: {
-                  throw new IllegalStateException(
-                      "Setup section can only end once.");//$NON-NLS-1$
-                }
-              }
-            }
-
-            if (LogFormat.BEGIN_STATE.equals(line)) {
-              switch (state_state) {
-                case 0: {
-                  if (state_log == 1) {
-                    throw new IllegalStateException(
-                        "Cannot begin state section inside log section.");//$NON-NLS-1$
-                  }
-                  if (state_log != 2) {
-                    throw new IllegalStateException(
-                        "Can begin state section only after log section.");//$NON-NLS-1$
-                  }
-                  if (state_setup == 1) {
-                    throw new IllegalStateException(
-                        "Cannot begin state section inside setup section.");//$NON-NLS-1$
-                  }
-                  state_state = 1;
-                  stateKeys = new HashSet<>();
-                  continue;
-                }
-                case 1: {
-                  throw new IllegalStateException(
-                      "State section cannot begin inside state section.");//$NON-NLS-1$
-                }
-                default: {
-                  throw new IllegalStateException(
-                      "State section can only occur once.");//$NON-NLS-1$
-                }
-              }
-            }
-
-            if (LogFormat.END_STATE.equals(line)) {
-              switch (state_state) {
-                case 0: {
-                  throw new IllegalStateException(
-                      "State section can only end after state section begins.");//$NON-NLS-1$
-                }
-                case 1: {
-                  if (state_log == 1) {
-                    throw new IllegalStateException(
-                        "State section cannot end inside log section??");//$NON-NLS-1$
-                  }
-                  if (state_log != 2) {
-                    throw new IllegalStateException(
-                        "State section can only end after log section??");//$NON-NLS-1$
-                  }
-                  if (state_setup == 1) {
-                    throw new IllegalStateException(
-                        "State section cannot end inside setup section??");//$NON-NLS-1$
-                  }
-                  state_state = 2;
-
-                  if (invokeLogAfterState && has_log_line
-                      && (logConsumer != null)) {
-                    logConsumer.accept(new LogLine(//
-                        fe_last_improvement, fe_max,
-                        time_last_improvement, time_max,
-                        improvements, f_min, false, false));
-                  }
-
-                  continue;
-                }
-                default: {
-                  throw new IllegalStateException(
-                      "State section can only end once.");//$NON-NLS-1$
-                }
-              }
-            }
-
-            if (state_setup == 1) {
-              // ok, we are in the setup section
-
-              final int colon =
-                  line.indexOf(LogFormat.MAP_SEPARATOR_CHAR);
-              if ((colon <= 0)
-                  || (colon >= (line.length() - 1))) {
-                throw new IllegalArgumentException(
-                    "Invalid setup line '" //$NON-NLS-1$
-                        + line + "'.");//$NON-NLS-1$
-              }
-
-              final String key = line.substring(0, colon).trim();
-              final String value =
-                  line.substring(colon + 1).trim();
-
-              if (key.isEmpty() || value.isEmpty()) {
-                throw new IllegalArgumentException(
-                    "Invalid setup line '" //$NON-NLS-1$
-                        + line
-                        + "': neither key nor value must be empty.");//$NON-NLS-1$
-              }
-
-              if (setup.put(key, value) != null) {
-                throw new IllegalArgumentException(
-                    "Invalid setup line '" //$NON-NLS-1$
-                        + line + "': key '" + //$NON-NLS-1$
-                        key + "' already appeared.");//$NON-NLS-1$
-              }
-
-              final boolean isStandard =
-                  LogParser.STANDARD_SETUP_KEYS.contains(key);
-
-              if (isStandard) {
-                switch (key) {
-                  case LogFormat.MAX_FES: {
-                    final long fes = Long.parseLong(value);
-                    if (fes <= 0L) {
-                      throw new IllegalArgumentException(
-                          "FEs budget must be positive, but is " //$NON-NLS-1$
-                              + fes);
-                    }
-                    budgetFEs = fes;
-                    break;
-                  }
-                  case LogFormat.MAX_TIME: {
-                    final long time = Long.parseLong(value);
-                    if (time <= 0L) {
-                      throw new IllegalArgumentException(
-                          "Time budget must be positive, but is " //$NON-NLS-1$
-                              + time);
-                    }
-                    budgetTime = time;
-                    break;
-                  }
-                  case LogFormat.GOAL_F: {
-                    final double f = Double.parseDouble(value);
-                    if (Double.isNaN(f)
-                        || (f >= Double.POSITIVE_INFINITY)) {
-                      throw new IllegalArgumentException(
-                          "Goal objective value must be finite or negative infinite, but is " //$NON-NLS-1$
-                              + f);
-                    }
-                    goalF = f;
-                    break;
-                  }
-                  case LogFormat.RANDOM_SEED: {
-                    randSeedString = value;
-                    randSeedLong = RandomUtils
-                        .stringToRandSeed(randSeedString);
-                    break;
-                  }
-                  default: {
-                    throw new IllegalStateException(
-                        "Invalid standard setup key: "//$NON-NLS-1$
-                            + key);
-                  }
-                }
-              }
-
-              // end setup section
-            }
-
-            if (state_state == 1) {
-              // inside state section
-
-              final int colon =
-                  line.indexOf(LogFormat.MAP_SEPARATOR_CHAR);
-              if ((colon <= 0)
-                  || (colon >= (line.length() - 1))) {
-                throw new IllegalArgumentException(
-                    "Invalid state line '" //$NON-NLS-1$
-                        + line + "'.");//$NON-NLS-1$
-              }
-
-              final String key = line.substring(0, colon).trim();
-              final String value =
-                  line.substring(colon + 1).trim();
-
-              if (key.isEmpty() || value.isEmpty()) {
-                throw new IllegalArgumentException(
-                    "Invalid state line '" //$NON-NLS-1$
-                        + line
-                        + "': neither key nor value must be empty.");//$NON-NLS-1$
-              }
-
-              if (!stateKeys.add(key)) {
-                throw new IllegalArgumentException(
-                    "Invalid state line '" //$NON-NLS-1$
-                        + line + "': key '" + //$NON-NLS-1$
-                        key + "' already appeared.");//$NON-NLS-1$
-              }
-
-              switch (key) {
-
-                case LogFormat.CONSUMED_FES: {
-                  final long t = Long.parseLong(value);
-                  if (t <= 0L) {
-                    throw new IllegalArgumentException(
-                        "Consumed FEs in state must be positive, but are "//$NON-NLS-1$
-                            + t);
-                  }
-                  if (t < fe_max) {
-                    throw new IllegalArgumentException(
-                        "Consumed FEs in state must be at least as much as in log, but are "//$NON-NLS-1$
-                            + t + " compared to the " + fe_max + //$NON-NLS-1$
-                            " in the log.");//$NON-NLS-1$
-                  }
-                  if (t > fe_max) {
-                    fe_max = t;
-                    invokeLogAfterState = true;
-                  }
-                  break;
-                }
-
-                case LogFormat.LAST_IMPROVEMENT_FE: {
-                  final long t = Long.parseLong(value);
-                  if (t != fe_last_improvement) {
-                    throw new IllegalArgumentException(
-                        "Last improvement FEs in state must be same as in log, but are "//$NON-NLS-1$
-                            + t + " compared to the " //$NON-NLS-1$
-                            + fe_last_improvement
-                            + " in the log.");//$NON-NLS-1$
-                  }
-                  if (t > fe_max) {
-                    throw new IllegalArgumentException(
-                        "Last improvement FEs in state must be less than max FEs, but are "//$NON-NLS-1$
-                            + t + " compared to the " + fe_max + //$NON-NLS-1$
-                            " in the log.");//$NON-NLS-1$
-                  }
-                  break;
-                }
-
-                case LogFormat.CONSUMED_TIME: {
-                  final long t = Long.parseLong(value);
-                  if (t < 0L) {
-                    throw new IllegalArgumentException(
-                        "Consumed time in state must be 0 or positive, but is "//$NON-NLS-1$
-                            + t);
-                  }
-                  if (t < time_max) {
-                    throw new IllegalArgumentException(
-                        "Consumed time in state must be at least as much as in log, but is "//$NON-NLS-1$
-                            + t + " compared to the " + time_max //$NON-NLS-1$
-                            + " in the log.");//$NON-NLS-1$
-                  }
-                  if (t > time_max) {
-                    time_max = t;
-                    invokeLogAfterState = true;
-                  }
-                  break;
-                }
-
-                case LogFormat.LAST_IMPROVEMENT_TIME: {
-                  final long t = Long.parseLong(value);
-                  if (t != time_last_improvement) {
-                    throw new IllegalArgumentException(
-                        "Last improvement time in state must be same as in log, but is "//$NON-NLS-1$
-                            + t + " compared to the " //$NON-NLS-1$
-                            + time_last_improvement
-                            + " in the log.");//$NON-NLS-1$
-                  }
-                  if (t > time_max) {
-                    throw new IllegalArgumentException(
-                        "Last improvement time in state must be less than max time, but is "//$NON-NLS-1$
-                            + t + " compared to the " + time_max //$NON-NLS-1$
-                            + " in the log.");//$NON-NLS-1$
-                  }
-                  break;
-                }
-
-                case LogFormat.BEST_F: {
-                  final double t = Double.parseDouble(value);
-                  if (t != f_min) {
-                    throw new IllegalArgumentException(
-                        "Best-f value in state must be same as in log, but is "//$NON-NLS-1$
-                            + t + " compared to the " + f_min + //$NON-NLS-1$
-                            " in the log.");//$NON-NLS-1$
-                  }
-                  if (!Double.isFinite(f_min)) {
-                    throw new IllegalArgumentException(
-                        ("Best-f value in state must be finite, but is "//$NON-NLS-1$
-                            + t) + '.');
-                  }
-                  break;
-                }
-
-                default: {
-                  throw new IllegalArgumentException(
-                      "Invalid state key: " + key);//$NON-NLS-1$
-                }
-              }
-
-              // end state section
-            }
-
             continue;
           }
 
           // ok, no comment or tag
-          if (state_log == 1) {
+          if (checker.isInLog()) {
             final int semi_1 =
                 line.indexOf(LogFormat.CSV_SEPARATOR_CHAR);
             final int semi_2 =
@@ -560,90 +535,19 @@ public final class LogParser {
             }
 
             try {
-              final double f = Double.parseDouble(//
-                  line.substring(0, semi_1).trim());
-              if (!(Double.isFinite(f))) {
-                throw new IllegalArgumentException(
-                    "Objective values must be finite, but encountered: " //$NON-NLS-1$
-                        + f);
-              }
-              if (f > f_min) {
-                throw new IllegalArgumentException(
-                    "Obj        ective values must be monotonously decreasing, but encountered: " //$NON-NLS-1$
-                        + f + " after " + f_min); //$NON-NLS-1$
-              }
-
-              final long fes = Long.parseLong(
-                  line.substring(semi_1 + 1, semi_2).trim());
-              if (fes < 1L) {
-                throw new IllegalArgumentException(
-                    "FEs must be positive, but encountered: " //$NON-NLS-1$
-                        + fes);
-              }
-              if (fes < fe_max) {
-                throw new IllegalArgumentException(
-                    "Function evaluations must be monotonously increasing, but encountered: " //$NON-NLS-1$
-                        + fes + " after " + fe_max); //$NON-NLS-1$
-              }
-              if ((fes == fe_max) && (f != f_min)) {
-                throw new IllegalArgumentException(
-                    "If function evaluations don't increase, best.f cannot decrease, but found: " //$NON-NLS-1$
-                        + fes + " after " + fe_max + //$NON-NLS-1$
-                        " and " + f + //$NON-NLS-1$
-                        " after " + f_min);//$NON-NLS-1$
-              }
-              if (fes > budgetFEs) {
-                throw new IllegalArgumentException(
-                    "Function evaluations " + fes + //$NON-NLS-1$
-                        " exceed budget of " + budgetFEs); //$NON-NLS-1$
-              }
-
-              final long time = Long.parseLong(//
-                  line.substring(semi_2 + 1).trim());
-              if (time < 0L) {
-                throw new IllegalArgumentException(
-                    "Times must be 0 or positive, but encountered: " //$NON-NLS-1$
-                        + time);
-              }
-              if (time < time_max) {
-                throw new IllegalArgumentException(
-                    "Times must be monotonously increasing, but encountered: " //$NON-NLS-1$
-                        + time + " after " //$NON-NLS-1$
-                        + time_max);
-              }
-              LogParser.checkTime(time, budgetTime);
-
-              boolean invokeLog = (logConsumer != null);
-              final boolean is_improvement =
-                  ((f < f_min) || (fes <= 1L));
-              if (is_improvement || (!has_log_line)) {
-                f_min = f;
-                ++improvements;
-                time_last_improvement = time;
-                fe_last_improvement = fes;
-                has_log_line = true;
-              } else {
-                invokeLog &=
-                    ((time > time_max) || (fes > fe_max));
-              }
-              time_max = time;
-              fe_max = fes;
-
-              if (invokeLog) {
-                logConsumer.accept(new LogLine(//
-                    fe_last_improvement, fe_max,
-                    time_last_improvement, time_max,
-                    improvements, f_min, is_improvement));
-              }
+              checker.logPoint(
+                  Double.parseDouble(//
+                      line.substring(0, semi_1).trim()),
+                  Long.parseLong(
+                      line.substring(semi_1 + 1, semi_2).trim()),
+                  Long.parseLong(//
+                      line.substring(semi_2 + 1).trim()));
             } catch (final Throwable error2) {
               throw new IllegalArgumentException(//
                   "Invalid log point '" + line//$NON-NLS-1$
                       + "', parse- or validation error.", //$NON-NLS-1$
                   error2);
             }
-
-            // end log state
-            continue;
           }
 
         } catch (final Throwable error2) {
@@ -655,104 +559,7 @@ public final class LogParser {
         }
       }
 
-      // check states
-      switch (state_log) {
-        case 0: {
-          throw new IllegalStateException(
-              "No log section found.");//$NON-NLS-1$
-        }
-        case 1: {
-          throw new IllegalStateException(
-              "Log section has no end.");//$NON-NLS-1$
-        }
-        default: // nothing
-      }
-      switch (state_setup) {
-        case 0: {
-          throw new IllegalStateException(
-              "No setup section found.");//$NON-NLS-1$
-        }
-        case 1: {
-          throw new IllegalStateException(
-              "Setup section has no end.");//$NON-NLS-1$
-        }
-        default: // nothing
-      }
-      switch (state_state) {
-        case 0: {
-          throw new IllegalStateException(
-              "No state section found.");//$NON-NLS-1$
-        }
-        case 1: {
-          throw new IllegalStateException(
-              "State section has no end.");//$NON-NLS-1$
-        }
-        default: // nothing
-      }
-
-      if (improvements <= 0L) {
-        throw new IllegalStateException(
-            "No improvement was made during the run, i.e., there was no log point.");//$NON-NLS-1$
-      }
-      if (fe_max <= 0L) {
-        throw new IllegalStateException(
-            "Impossible: There were improvements, but 0 FEs??");//$NON-NLS-1$
-      }
-      if (fe_max < fe_last_improvement) {
-        throw new IllegalStateException(
-            "Impossible: last improvement FEs ("//$NON-NLS-1$
-                + fe_last_improvement + ") after total FEs (" //$NON-NLS-1$
-                + fe_max + ")??");//$NON-NLS-1$
-      }
-      if (time_max < time_last_improvement) {
-        throw new IllegalStateException(
-            "Impossible: last improvement time ("//$NON-NLS-1$
-                + time_max + ") after total time (" //$NON-NLS-1$
-                + time_last_improvement + ")??");//$NON-NLS-1$
-      }
-      if (!Double.isFinite(f_min)) {
-        throw new IllegalStateException(
-            "Impossible: There were improvements, best.f is " //$NON-NLS-1$
-                + f_min);
-      }
-      if (setup.isEmpty()) {
-        throw new IllegalStateException(
-            "Setup section is empty?"); //$NON-NLS-1$
-      }
-      if (!setup.keySet()
-          .containsAll(LogParser.STANDARD_SETUP_KEYS)) {
-        throw new IllegalStateException(
-            "Setup section must have at least the keys " + //$NON-NLS-1$
-                LogParser.STANDARD_SETUP_KEYS + " but has " + //$NON-NLS-1$
-                setup.keySet().toString() + ", i.e., lacks " + //$NON-NLS-1$
-                new HashSet<>(LogParser.STANDARD_SETUP_KEYS)
-                    .removeAll(setup.keySet()));
-      }
-      if ((stateKeys.size() != LogParser.STATE_KEYS.size())
-          || (!stateKeys.containsAll(LogParser.STATE_KEYS))) {
-        throw new IllegalStateException(
-            "State section must have exactly the keys " + //$NON-NLS-1$
-                LogParser.STATE_KEYS + " but has " + //$NON-NLS-1$
-                stateKeys.toString());
-      }
-
-      if (fe_max > budgetFEs) {
-        throw new IllegalStateException("Consumed FEs (" + fe_max //$NON-NLS-1$
-            + ") exceed budget of " + budgetFEs + //$NON-NLS-1$
-            " FEs."); //$NON-NLS-1$
-      }
-      LogParser.checkTime(time_max, budgetTime);
-
-      if (randSeedString == null) {
-        throw new IllegalStateException(
-            "Random seed not defined???");//$NON-NLS-1$
-      }
-
-      if (setupConsumer != null) {
-        setupConsumer.accept(new SetupData(randSeedString,
-            randSeedLong, budgetFEs, budgetTime, goalF, setup));
-      }
-
+      checker.end();
     } catch (final Throwable error) {
       throw new IOException(//
           "Error while parsing log file '" + pth //$NON-NLS-1$
@@ -18,17 +18,6 @@ final class Longs extends Statistic {
     this.mData = new long[10];
   }
 
-  /**
-   * create
-   *
-   * @param pData
-   *          the data
-   */
-  Longs(final long[] pData) {
-    this.mData = pData;
-    this.mSize = pData.length;
-  }
-
   /** {@inheritDoc} */
   @Override
   void add(final long value) {
@@ -50,14 +39,44 @@ final class Longs extends Statistic {
     this.mSize = (size + 1);
   }
 
+  /**
+   * Try to fill this store with the given SORTED double data,
+   * replacing its current contents.
+   *
+   * @param data
+   *          the data
+   * @param size
+   *          the number of values to use
+   * @return {@code true} if all values could be converted to
+   *         long without loss of information, {@code false}
+   *         otherwise
+   */
+  boolean tryConvert(final double[] data, final int size) {
+    if (this.mData.length < size) {
+      this.mData = new long[size];
+    }
+    if (Statistics.tryConvertDoublesToLongs(data, size,
+        this.mData)) {
+      this.mSize = size;
+      return true;
+    }
+    this.mSize = 0;
+    return false;
+  }
+
   /** {@inheritDoc} */
   @Override
-  Longs doFinalize() {
+  void doFinalize() {
     if (this.mSize <= 0) {
       throw new IllegalStateException("empty data array?"); //$NON-NLS-1$
     }
-    this.mData = Arrays.copyOf(this.mData, this.mSize);
-    Arrays.sort(this.mData);
+    Arrays.sort(this.mData, 0, this.mSize);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  Longs clear() {
+    this.mSize = 0;
     return this;
   }
 
@@ -70,19 +89,20 @@ final class Longs extends Statistic {
   /** {@inheritDoc} */
   @Override
   Number quantile(final double p) {
-    return Statistics.quantile(p, this.mData);
+    return Statistics.quantile(p, this.mData, this.mSize);
   }
 
   /** {@inheritDoc} */
   @Override
   Number[] meanAndStdDev() {
-    return Statistics.sampleMeanAndStandardDeviation(this.mData);
+    return Statistics.sampleMeanAndStandardDeviation(this.mData,
+        this.mSize);
   }
 
   /** {@inheritDoc} */
   @Override
   Number divideSumBy(final int by) {
-    return Statistics.divideExact(Statistics.sum(this.mData),
-        by);
+    return Statistics.divideExact(
+        Statistics.sum(this.mData, this.mSize), by);
   }
 }
@@ -0,0 +1,471 @@
+package aitoa.utils.logs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import aitoa.structure.LogFormat;
+import aitoa.utils.Configuration;
+import aitoa.utils.ConsoleIO;
+import aitoa.utils.IOUtils;
+
+/**
+ * A pipeline creating the outputs of all post-processing tools
+ * with a single pass over the results folder. Each log file is
+ * parsed exactly once and the parsed data is handed on to both
+ * the {@link EndResults end results table}, which is written
+ * row by row, and the {@link IOHProfiler} converter, which
+ * collects the traces of one algorithm at a time. The
+ * {@link EndResultStatistics} and the {@link ErtEcdf} only need
+ * the end results table and are computed from it afterwards, so
+ * no log file is read a second time.
+ * <p>
+ * The outputs are the same as those of the separate tools. The
+ * IOHprofiler data is written into the sub-folder
+ * {@value #IOH_PROFILER_FOLDER} of the output folder, so that it
+ * does not mix with the other files.
+ */
+public final class PostProcessingPipeline {
+
+  /**
+   * the name of the folder inside the output folder into which
+   * the IOHprofiler data is written
+   */
+  public static final String IOH_PROFILER_FOLDER =
+      "iohProfiler"; //$NON-NLS-1$
+
+  /** the tools parameter */
+  private static final String PARAM_TOOLS = "tools"; //$NON-NLS-1$
+
+  /**
+   * the number of log files per thread which may be parsed ahead
+   * of the log file currently processed
+   */
+  private static final int WINDOW_PER_THREAD = 64;
+
+  /**
+   * Create the outputs of the post-processing tools with a single
+   * pass over the log files. The end results table is always
+   * created and replaces any existing one.
+   *
+   * @param inputFolder
+   *          the input folder
+   * @param outputFolder
+   *          the output folder
+   * @param endResultStatistics
+   *          should the end result statistics table be created?
+   * @param ertEcdf
+   *          should the ERT-ECDF be created? This implies the
+   *          creation of the end result statistics table
+   * @param iohProfiler
+   *          should the IOHprofiler data be created?
+   * @param success
+   *          the success predicate, or {@code null} for the
+   *          default
+   * @param instanceNameMapper
+   *          the instance name mapper, or {@code null} for the
+   *          default
+   * @param algorithmNameMapper
+   *          the algorithm name mapper, or {@code null} for the
+   *          default
+   * @param statFileName
+   *          the name of the end result statistics file, or
+   *          {@code null} for the default
+   * @param useFEs
+   *          should the ERT-ECDF be based on FEs instead of time?
+   * @param ertEcdfName
+   *          the selection id of the ERT-ECDF, or {@code null}
+   *          for the default
+   * @param getFunctionMetaData
+   *          the function transforming information to function
+   *          Ids, dimensions, and instance ids for the
+   *          IOHprofiler data, {@code null} for default mapping
+   * @param threads
+   *          the number of threads to use for parsing the log
+   *          files
+   * @param logProgressToConsole
+   *          should logging information be printed?
+   * @return the path to the end results table
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static Path process(final Path inputFolder,
+      final Path outputFolder, final boolean endResultStatistics,
+      final boolean ertEcdf, final boolean iohProfiler,
+      final Predicate<EndResult> success,
+      final Function<String, String> instanceNameMapper,
+      final Function<String, String> algorithmNameMapper,
+      final String statFileName, final boolean useFEs,
+      final String ertEcdfName,
+      final BiFunction<String, SetupData,
+          IOHProfiler.FunctionMetaData> getFunctionMetaData,
+      final int threads, final boolean logProgressToConsole)
+      throws IOException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException(
+          "Number of threads must be >= 1, but is "//$NON-NLS-1$
+              + threads);
+    }
+
+    final Path in = IOUtils.requireDirectory(inputFolder);
+    final Path out =
+        IOUtils.requireDirectory(outputFolder, true);
+
+    final Path end = IOUtils.canonicalizePath(//
+        out.resolve(EndResults.FILE_NAME));
+    if (Files.exists(end)) {
+      if (!Files.isRegularFile(end)) {
+        throw new IOException(end + " is not a file."); //$NON-NLS-1$
+      }
+      Files.delete(end);
+    }
+
+    final IOHProfiler.Collector collector;
+    if (iohProfiler) {
+      collector = new IOHProfiler.Collector(//
+          IOUtils.requireDirectory(out.resolve(
+              PostProcessingPipeline.IOH_PROFILER_FOLDER), true),
+          getFunctionMetaData, logProgressToConsole);
+    } else {
+      collector = null;
+    }
+
+    if (logProgressToConsole) {
+      ConsoleIO.stdout(//
+          "Now parsing the log files in '" + in + //$NON-NLS-1$
+              "' using " + threads + //$NON-NLS-1$
+              " threads.");//$NON-NLS-1$
+    }
+
+    final long parsed = PostProcessingPipeline.parseAll(in, end,
+        collector, logProgressToConsole, threads);
+
+    if (logProgressToConsole) {
+      ConsoleIO.stdout("Finished parsing " + parsed + //$NON-NLS-1$
+          " log files, created end result table '" + //$NON-NLS-1$
+          end + "'.");//$NON-NLS-1$
+    }
+
+    if (endResultStatistics || ertEcdf) {
+      final Path stats =
+          EndResultStatistics.makeEndResultStatisticsTable(end,
+              out, success, instanceNameMapper,
+              algorithmNameMapper, statFileName, false,
+              logProgressToConsole);
+      if (ertEcdf) {
+        ErtEcdf.makeErtEcdf(stats, out, useFEs, //
+            (instanceNameMapper == null) ? null
+                : (s -> (instanceNameMapper.apply(s) != null)), //
+            (algorithmNameMapper == null) ? null
+                : (s -> (algorithmNameMapper.apply(s) != null)), //
+            ertEcdfName, logProgressToConsole);
+      }
+    }
+
+    return IOUtils.requireFile(end);
+  }
+
+  /**
+   * Parse all log files and hand their data to the end results
+   * table and the IOHprofiler collector. The log files are
+   * processed in the same sorted order as by the separate tools.
+   * If more than one thread is used, they are parsed in parallel
+   * on a {@link ForkJoinPool}, but at most
+   * {@value #WINDOW_PER_THREAD} log files per thread are parsed
+   * ahead of the one currently processed.
+   *
+   * @param in
+   *          the input folder
+   * @param end
+   *          the end results table to write
+   * @param collector
+   *          the IOHprofiler collector, or {@code null} if no
+   *          IOHprofiler data should be created
+   * @param logProgressToConsole
+   *          should logging information be printed?
+   * @param threads
+   *          the number of threads to use
+   * @return the number of parsed log files
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static long parseAll(final Path in, final Path end,
+      final IOHProfiler.Collector collector,
+      final boolean logProgressToConsole, final int threads)
+      throws IOException {
+    final ForkJoinPool pool =
+        (threads > 1) ? new ForkJoinPool(threads) : null;
+    final ArrayDeque<Run> pending = new ArrayDeque<>();
+    final int window =
+        threads * PostProcessingPipeline.WINDOW_PER_THREAD;
+    long parsed = 0L;
+
+    try (final BufferedWriter bw = Files.newBufferedWriter(end)) {
+      bw.write(EndResults.HEADER);
+      bw.newLine();
+
+      final Path[] algorithms = IOUtils.subDirectories(in);
+      if (logProgressToConsole) {
+        ConsoleIO.stdout("Found " //$NON-NLS-1$
+            + algorithms.length//
+            + " potential algorithm directories.");//$NON-NLS-1$
+      }
+
+      for (final Path algorithm : algorithms) {
+        final String algoName =
+            algorithm.getFileName().toString().trim();
+        if (logProgressToConsole) {
+          ConsoleIO.stdout("Now processing algorithm '" //$NON-NLS-1$
+              + algoName + //
+              "'.");//$NON-NLS-1$
+        }
+
+        for (final Path instance : IOUtils
+            .subDirectories(algorithm)) {
+          final String instName =
+              instance.getFileName().toString().trim();
+          if (logProgressToConsole) {
+            ConsoleIO.stdout(//
+                "Now processing instance '" //$NON-NLS-1$
+                    + instName + //
+                    "' for algorithm '" + algoName //$NON-NLS-1$
+                    + "'.");//$NON-NLS-1$
+          }
+
+          for (final Path file : IOUtils
+              .pathArray(IOUtils.filesStream(instance) //
+                  .filter(ff -> ff.getFileName().toString()
+                      .endsWith(LogFormat.FILE_SUFFIX)))) {
+            ++parsed;
+            final Run run = new Run(algoName, instName, file,
+                collector != null);
+            if (pool == null) {
+              run.parse();
+              run.consume(bw, collector);
+              continue;
+            }
+            run.mTask = pool.submit(run::parse);
+            if (pending.size() >= window) {
+              pending.pollFirst().consume(bw, collector);
+            }
+            pending.addLast(run);
+          }
+        }
+
+// the IOHprofiler data is written per algorithm, so all of its
+// runs must have been processed
+        while (!pending.isEmpty()) {
+          pending.pollFirst().consume(bw, collector);
+        }
+        if (collector != null) {
+          collector.write(algoName);
+        }
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdownNow();
+      }
+    }
+    return parsed;
+  }
+
+  /** the data parsed from a single log file */
+  private static final class Run {
+    /** the algorithm name */
+    final String mAlgoName;
+    /** the instance name */
+    final String mInstName;
+    /** the log file */
+    final Path mFile;
+    /** the data for the end results table */
+    final EndResults.Line mLine;
+    /** the trace for the IOHprofiler, or {@code null} */
+    final IOHProfiler.Trace mTrace;
+    /** the task parsing the log file, or {@code null} if none */
+    ForkJoinTask<Run> mTask;
+
+    /**
+     * create
+     *
+     * @param pAlgoName
+     *          the algorithm name
+     * @param pInstName
+     *          the instance name
+     * @param pFile
+     *          the log file
+     * @param pTrace
+     *          should the trace be collected?
+     */
+    Run(final String pAlgoName, final String pInstName,
+        final Path pFile, final boolean pTrace) {
+      super();
+      this.mAlgoName = pAlgoName;
+      this.mInstName = pInstName;
+      this.mFile = pFile;
+      this.mLine = new EndResults.Line();
+      this.mTrace = pTrace ? new IOHProfiler.Trace() : null;
+    }
+
+    /**
+     * parse the log file
+     *
+     * @return this object
+     * @throws IOException
+     *           if i/o fails
+     */
+    Run parse() throws IOException {
+      final EndResults.Line line = this.mLine;
+      final IOHProfiler.Trace trace = this.mTrace;
+      if (trace == null) {
+        LogParser.parseLogFile(this.mFile, line,
+            s -> line.acceptSetup(s));
+      } else {
+        LogParser.parseLogFile(this.mFile, line.andThen(trace),
+            s -> {
+              line.acceptSetup(s);
+              trace.acceptSetup(s);
+            });
+      }
+      return this;
+    }
+
+    /**
+     * Wait for the log file to be parsed, if this is done in
+     * parallel, and hand its data to the consumers.
+     *
+     * @param bw
+     *          the destination for the end results table
+     * @param collector
+     *          the IOHprofiler collector, or {@code null}
+     * @throws IOException
+     *           if i/o fails or the log file could not be parsed
+     */
+    void consume(final BufferedWriter bw,
+        final IOHProfiler.Collector collector)
+        throws IOException {
+      if (this.mTask != null) {
+        EndResults.join(this.mTask);
+        this.mTask = null;
+      }
+      bw.write(EndResults.row(this.mAlgoName, this.mInstName,
+          this.mLine));
+      bw.newLine();
+      if (collector != null) {
+        collector.add(this.mInstName, this.mTrace, this.mFile);
+      }
+    }
+  }
+
+  /**
+   * print the command line arguments
+   *
+   * @param s
+   *          the print stream
+   */
+  static void printArgs(final PrintStream s) {
+    CommandLineArgs.printSourceDir(s);
+    CommandLineArgs.printDestDir(s);
+    CommandLineArgs.printThreads(s);
+    s.print(' ');
+    s.print(PostProcessingPipeline.PARAM_TOOLS);
+    s.print('=');
+    s.print(EndResultStatistics.class.getSimpleName());
+    s.print(',');
+    s.print(ErtEcdf.class.getSimpleName());
+    s.print(',');
+    s.print(IOHProfiler.class.getSimpleName());
+    s.println(
+        ": the comma-separated tools whose outputs should be created next to the end results table, all by default.");//$NON-NLS-1$
+    CommandLineArgs.printEndResultsStatFile(s);
+    CommandLineArgs.printSuccess(s);
+    CommandLineArgs.printAlgorithmNameMapper(s);
+    CommandLineArgs.printInstanceNameMapper(s);
+    CommandLineArgs.printUseFEs(s);
+    CommandLineArgs.printErtEcdfFileName(s);
+  }
+
+  /**
+   * The main routine
+   *
+   * @param args
+   *          the command line arguments
+   */
+  public static void main(final String[] args) {
+    ConsoleIO.stdout(s -> {
+      s.println("Welcome to the Post-Processing Pipeline"); //$NON-NLS-1$
+      s.println("The command line arguments are as follows: "); //$NON-NLS-1$
+      PostProcessingPipeline.printArgs(s);
+      s.println(
+          "If you do not set the arguments, defaults will be used."); //$NON-NLS-1$
+    });
+
+    Configuration.putCommandLine(args);
+
+    final Path in = CommandLineArgs.getSourceDir();
+    final Path out = CommandLineArgs.getDestDir();
+    final int threads = CommandLineArgs.getThreads();
+    final String endname =
+        CommandLineArgs.getEndResultsStatFile();
+    final Function<String, String> algoNameMap =
+        CommandLineArgs.getAlgorithmNameMapper();
+    final Function<String, String> instNameMap =
+        CommandLineArgs.getInstanceNameMapper();
+    final Predicate<EndResult> success =
+        CommandLineArgs.getSuccess();
+    final boolean useFEs = CommandLineArgs.getUseFEs();
+    final String ertname = CommandLineArgs.getErtEcdfFileName();
+
+    boolean statistics = true;
+    boolean ertEcdf = true;
+    boolean iohProfiler = true;
+    final String tools =
+        Configuration.getString(PostProcessingPipeline.PARAM_TOOLS);
+    if (tools != null) {
+      statistics = ertEcdf = iohProfiler = false;
+      for (final String tool : tools.split(",")) { //$NON-NLS-1$
+        final String t = tool.trim();
+        if (t.equalsIgnoreCase(
+            EndResultStatistics.class.getSimpleName())) {
+          statistics = true;
+        } else if (t
+            .equalsIgnoreCase(ErtEcdf.class.getSimpleName())) {
+          ertEcdf = true;
+        } else if (t.equalsIgnoreCase(
+            IOHProfiler.class.getSimpleName())) {
+          iohProfiler = true;
+        } else if (!(t.isEmpty() || t.equalsIgnoreCase(
+            EndResults.class.getSimpleName()))) {
+          ConsoleIO.stdout(
+              '\'' + t + "' is not a valid tool.");//$NON-NLS-1$
+          System.exit(1);
+        }
+      }
+    }
+
+    Configuration.print();
+
+    try {
+      PostProcessingPipeline.process(in, out, statistics, ertEcdf,
+          iohProfiler, success, instNameMap, algoNameMap, endname,
+          useFEs, ertname, null, threads, true);
+    } catch (final Throwable error) {
+      ConsoleIO.stderr(
+          "An error occured while post-processing the results.", //$NON-NLS-1$
+          error);
+      System.exit(1);
+    }
+  }
+
+  /** forbidden */
+  private PostProcessingPipeline() {
+    throw new UnsupportedOperationException();
+  }
+}
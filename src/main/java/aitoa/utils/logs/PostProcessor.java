@@ -17,7 +17,9 @@ public final class PostProcessor {
         EndResults.class, //
         EndResultStatistics.class, //
         ErtEcdf.class, //
-        IOHProfiler.class,//
+        IOHProfiler.class, //
+        BinaryLogs.class, //
+        PostProcessingPipeline.class,//
     };
 
     final String[] choices = new String[classes.length];
@@ -15,13 +15,22 @@ abstract class Statistic {
   }
 
   /**
-   * Finalize the data collection. If the collection contains
-   * double data that can all be converted to long data without
-   * loss of information, this will be done.
+   * Finalize the data collection by sorting the data in place,
+   * after which the quantiles, mean, and standard deviation can
+   * be computed. If the collection contains double data that can
+   * all be converted to long data without loss of information,
+   * the statistics will be computed on the long data.
+   */
+  abstract void doFinalize();
+
+  /**
+   * Forget all stored values, but keep the internal buffers, so
+   * that the statistic can be re-used for the next setup without
+   * allocating new memory.
    *
-   * @return the statistic object to use
+   * @return this statistic
    */
-  abstract Statistic doFinalize();
+  abstract Statistic clear();
 
   /**
    * the number of stored elements
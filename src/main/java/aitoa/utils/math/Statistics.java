@@ -46,27 +46,47 @@ public final class Statistics {
    */
   public static long[]
       tryConvertDoublesToLongs(final double[] data) {
-    int i = data.length;
-    if (i <= 0) {
-      return new long[0];
-    }
-    final long[] res = new long[i];
-    for (; (--i) >= 0;) {
+    final long[] res = new long[data.length];
+    return Statistics.tryConvertDoublesToLongs(data, data.length,
+        res) ? res : null;
+  }
+
+  /**
+   * Tries to convert the first {@code length} elements of an
+   * array of double to long values, which are stored in the
+   * first {@code length} elements of {@code dest}. This will
+   * only succeed if all the doubles are integers in the valid
+   * range for long. This method throws an exception if an
+   * infinite value is encountered.
+   *
+   * @param data
+   *          the data array
+   * @param length
+   *          the number of elements to convert
+   * @param dest
+   *          the destination array
+   * @return {@code true} if the conversion succeeded,
+   *         {@code false} otherwise, in which case the contents
+   *         of {@code dest} are undefined
+   */
+  public static boolean tryConvertDoublesToLongs(
+      final double[] data, final int length, final long[] dest) {
+    for (int i = length; (--i) >= 0;) {
       final double d = data[i];
       if (Double.isFinite(d)) {
         if ((d < Long.MIN_VALUE) || (d > Long.MAX_VALUE)) {
-          return null;
+          return false;
         }
         final long l = ((long) d);
         if (d != l) {
-          return null;
+          return false;
         }
-        res[i] = l;
+        dest[i] = l;
       } else {
         throw new ArithmeticException(d + " at index " + i); //$NON-NLS-1$
       }
     }
-    return res;
+    return true;
   }
 
   /**
@@ -172,7 +192,28 @@ public final class Statistics {
    */
   public static Number quantile(final double p,
       final long[] data) {
-    final int length = data.length;
+    return Statistics.quantile(p, data, data.length);
+  }
+
+  /**
+   * Compute the {@code p} quantile (with {@code 0<=p<=1}) of the
+   * first {@code length} elements of the given data array,
+   * which must be SORTED. Since the data is sorted, its minimum
+   * and maximum are its first and last element, so each call
+   * only needs constant time and several quantiles can be
+   * obtained from one sorted array without copying it.
+   *
+   * @param p
+   *          the quantile value, must be in {@code [0,1]}
+   * @param data
+   *          the data array, whose first {@code length} elements
+   *          must be SORTED
+   * @param length
+   *          the number of elements to use
+   * @return a number trying to be precise about the quantile
+   */
+  public static Number quantile(final double p,
+      final long[] data, final int length) {
     Statistics.quantileCheck(p, length);
 
     if (length == 1) {
@@ -188,12 +229,8 @@ public final class Statistics {
       return Long.valueOf(data[length - 1]);
     }
 
-    long min = Long.MAX_VALUE;
-    long max = Long.MIN_VALUE;
-    for (final long d : data) {
-      min = Math.min(d, min);
-      max = Math.max(d, max);
-    }
+    final long min = data[0];
+    final long max = data[length - 1];
     if (min >= max) {
       return Long.valueOf(min);
     }
@@ -267,7 +304,26 @@ public final class Statistics {
    */
   public static Number quantile(final double p,
       final double[] data) {
-    final int length = data.length;
+    return Statistics.quantile(p, data, data.length);
+  }
+
+  /**
+   * Compute the {@code p} quantile (with {@code 0<=p<=1}) of the
+   * first {@code length} elements of the given data array,
+   * which must be SORTED.
+   *
+   * @param p
+   *          the quantile value, must be in {@code [0,1]}
+   * @param data
+   *          the data array, whose first {@code length} elements
+   *          must be SORTED and finite
+   * @param length
+   *          the number of elements to use
+   * @return a number trying to be precise about the quantile
+   * @see #quantile(double, long[], int)
+   */
+  public static Number quantile(final double p,
+      final double[] data, final int length) {
     Statistics.quantileCheck(p, length);
 
     if (length == 1) {
@@ -283,12 +339,8 @@ public final class Statistics {
       return Statistics.doubleToNumber(data[length - 1]);
     }
 
-    double min = Double.POSITIVE_INFINITY;
-    double max = Double.NEGATIVE_INFINITY;
-    for (final double d : data) {
-      min = Math.min(d, min);
-      max = Math.max(d, max);
-    }
+    final double min = data[0];
+    final double max = data[length - 1];
     if (Double.isFinite(min) && Double.isFinite(max)) {
       if (min >= max) {
         return Statistics.doubleToNumber(min);
@@ -435,12 +487,26 @@ public final class Statistics {
    * @return the sum
    */
   public static Number sum(final long[] data) {
+    return Statistics.sum(data, data.length);
+  }
+
+  /**
+   * Compute the sum of the first {@code length} elements of some
+   * data as exactly as possible.
+   *
+   * @param data
+   *          the data
+   * @param length
+   *          the number of elements to add up
+   * @return the sum
+   */
+  public static Number sum(final long[] data, final int length) {
     // compute exact sums
     asLong: {
       long lsum = 0L;
       try {
-        for (final long l : data) {
-          lsum = Math.addExact(lsum, l);
+        for (int i = 0; i < length; i++) {
+          lsum = Math.addExact(lsum, data[i]);
         }
       } catch (@SuppressWarnings("unused") //
       final ArithmeticException ignore) {
@@ -452,7 +518,8 @@ public final class Statistics {
     BigInteger last = BigInteger.valueOf(0L);
     BigInteger bsum = last;
     long lastL = 0L;
-    for (final long l : data) {
+    for (int i = 0; i < length; i++) {
+      final long l = data[i];
       if (l != lastL) {
         lastL = l;
         last = BigInteger.valueOf(l);
@@ -478,12 +545,36 @@ public final class Statistics {
   public static Number sum(final long[] data,
       final LongUnaryOperator transLong,
       final Function<BigInteger, BigInteger> transBigInt) {
+    return Statistics.sum(data, data.length, transLong,
+        transBigInt);
+  }
+
+  /**
+   * Compute the sum of the first {@code length} elements of some
+   * data as exactly as possible.
+   *
+   * @param data
+   *          the data
+   * @param length
+   *          the number of elements to add up
+   * @param transLong
+   *          a transformation to be applied to all {@code long}
+   *          values before adding them up
+   * @param transBigInt
+   *          a transformation to be applied to all big integer
+   *          values before adding them up
+   * @return the sum
+   */
+  public static Number sum(final long[] data, final int length,
+      final LongUnaryOperator transLong,
+      final Function<BigInteger, BigInteger> transBigInt) {
     // compute exact sums
     asLong: {
       long lsum = 0L;
       try {
-        for (final long l : data) {
-          lsum = Math.addExact(lsum, transLong.applyAsLong(l));
+        for (int i = 0; i < length; i++) {
+          lsum =
+              Math.addExact(lsum, transLong.applyAsLong(data[i]));
         }
       } catch (@SuppressWarnings("unused") //
       final ArithmeticException ignore) {
@@ -495,7 +586,8 @@ public final class Statistics {
     BigInteger last = BigInteger.valueOf(0L);
     BigInteger bsum = last;
     long lastL = 0L;
-    for (final long l : data) {
+    for (int i = 0; i < length; i++) {
+      final long l = data[i];
       if (l != lastL) {
         lastL = l;
         last = transBigInt.apply(BigInteger.valueOf(l));
@@ -517,17 +609,38 @@ public final class Statistics {
    */
   public static Number[]
       sampleMeanAndStandardDeviation(final long[] values) {
+    return Statistics.sampleMeanAndStandardDeviation(values,
+        values.length);
+  }
+
+  /**
+   * Compute the mean and the standard deviation of the first
+   * {@code length} elements of a data array in one go. As long
+   * as they fit into {@code long}, the sum and the sum of
+   * squares are computed exactly in a single pass over the data.
+   * Only if this overflows, we fall back to big integers.
+   *
+   * @param values
+   *          the values
+   * @param length
+   *          the number of values to use
+   * @return an array containing two number objects, first the
+   *         one with the mean, then the one with the standard
+   *         deviation
+   */
+  public static Number[] sampleMeanAndStandardDeviation(
+      final long[] values, final int length) {
 
     // handle simple cases
-    if (values.length <= 0) {
+    if (length <= 0) {
       throw new IllegalArgumentException(
           "need at least one value."); //$NON-NLS-1$
     }
 
     allSame: { // are all values the same?
       final long l1 = values[0];
-      for (final long v : values) {
-        if (v != l1) {
+      for (int i = length; (--i) > 0;) {
+        if (values[i] != l1) {
           break allSame;
         }
       }
@@ -536,11 +649,48 @@ public final class Statistics {
     }
 
     // no, they are not
-    final Number sum = Statistics.sum(values);
-    final Number mean =
-        Statistics.divideExact(sum, values.length);
-    final Number sumOfSquares = Statistics.sum(values,
-        l -> Math.multiplyExact(l, l), l -> l.multiply(l));
+    long lsum = 0L;
+    long lsumOfSquares = 0L;
+    try {
+      for (int i = 0; i < length; i++) {
+        final long l = values[i];
+        lsum = Math.addExact(lsum, l);
+        lsumOfSquares = Math.addExact(lsumOfSquares,
+            Math.multiplyExact(l, l));
+      }
+    } catch (@SuppressWarnings("unused") //
+    final ArithmeticException ignore) {
+// an overflow occurred, so we use big integers where necessary
+      return Statistics.sampleMeanAndStandardDeviation(
+          Statistics.sum(values, length),
+          Statistics.sum(values, length,
+              l -> Math.multiplyExact(l, l), l -> l.multiply(l)),
+          length);
+    }
+
+    return Statistics.sampleMeanAndStandardDeviation(
+        Long.valueOf(lsum), Long.valueOf(lsumOfSquares), length);
+  }
+
+  /**
+   * Compute the mean and the standard deviation from the exact
+   * sum and the exact sum of squares of integer data
+   *
+   * @param sum
+   *          the sum, either a {@link Long} or a
+   *          {@link BigInteger}
+   * @param sumOfSquares
+   *          the sum of squares
+   * @param length
+   *          the number of values
+   * @return an array containing two number objects, first the
+   *         one with the mean, then the one with the standard
+   *         deviation
+   */
+  private static Number[] sampleMeanAndStandardDeviation(
+      final Number sum, final Number sumOfSquares,
+      final int length) {
+    final Number mean = Statistics.divideExact(sum, length);
 
     // ok, we got some exact sums and exact sums of squares
     final BigInteger sumBI =
@@ -549,13 +699,13 @@ public final class Statistics {
     final Number sumSquared =
         Statistics.simplifyInteger(sumBI.multiply(sumBI));
     final Number sumSquaredOverN =
-        Statistics.divideExact(sumSquared, values.length);
+        Statistics.divideExact(sumSquared, length);
 
     final double sd =
         Math.sqrt(Statistics.divideExact(
             Statistics.doubleToNumber(sumOfSquares.doubleValue()
                 - sumSquaredOverN.doubleValue()),
-            values.length - 1).doubleValue());
+            length - 1).doubleValue());
 
     if ((!Double.isFinite(sd)) || (sd < 0d)) {
       throw new ArithmeticException(
@@ -578,6 +728,28 @@ public final class Statistics {
         .doubleToNumber(Statistics.destructiveSum(data.clone()));
   }
 
+  /**
+   * Compute the sum over the first {@code length} elements of a
+   * set of {@code double} values, using a scratch buffer instead
+   * of a copy of the data. This allows for reusing the same
+   * buffer when summing up many arrays.
+   *
+   * @param data
+   *          the data
+   * @param length
+   *          the number of values to add up
+   * @param scratch
+   *          the scratch buffer, with at least {@code length}
+   *          elements, whose contents will be destroyed
+   * @return the sum
+   */
+  public static Number sum(final double[] data, final int length,
+      final double[] scratch) {
+    System.arraycopy(data, 0, scratch, 0, length);
+    return Statistics.doubleToNumber(
+        Statistics.destructiveSum(scratch, length));
+  }
+
   /**
    * Compute the sum over a set of {@code double} values
    *
@@ -780,6 +952,25 @@ public final class Statistics {
    * @return the accurate sum of the elements of {@code summands}
    */
   static double destructiveSum(final double[] summands) {
+    return Statistics.destructiveSum(summands, summands.length);
+  }
+
+  /**
+   * Compute the exact sum of the first {@code length} values in
+   * the given array {@code summands} while destroying the
+   * contents of said array.
+   *
+   * @param summands
+   *          the summand array &ndash; will be summed up and
+   *          destroyed
+   * @param length
+   *          the number of summands
+   * @return the accurate sum of the first {@code length}
+   *         elements of {@code summands}
+   * @see #destructiveSum(double[])
+   */
+  static double destructiveSum(final double[] summands,
+      final int length) {
     int index = 0;
 
     int n = 0;
@@ -790,7 +981,7 @@ public final class Statistics {
     main: {
       allIsOK: {
 // the main summation routine
-        for (index = 0; index < summands.length; index++) {
+        for (index = 0; index < length; index++) {
           final double xsave = summands[index];
           double summand = xsave;
           int i = 0;
@@ -827,7 +1018,7 @@ public final class Statistics {
 
 // we have error'ed: either due to overflow or because there was
 // an infinity or NaN value in the data
-      for (; index < summands.length; index++) {
+      for (; index < length; index++) {
         final double summand = summands[index];
 
         if (summand <= Double.NEGATIVE_INFINITY) {
@@ -901,15 +1092,40 @@ public final class Statistics {
    */
   public static Number[]
       sampleMeanAndStandardDeviation(final double[] values) {
+    return Statistics.sampleMeanAndStandardDeviation(values,
+        values.length, new double[values.length]);
+  }
+
+  /**
+   * Compute the mean and the standard deviation of the first
+   * {@code length} elements of a data array in one go. The exact
+   * sums are computed in a scratch buffer, which can be reused
+   * for many arrays.
+   *
+   * @param values
+   *          the values
+   * @param length
+   *          the number of values to use
+   * @param scratch
+   *          the scratch buffer, with at least {@code length}
+   *          elements, whose contents will be destroyed
+   * @return an array containing two number objects, first the
+   *         one with the mean, then the one with the standard
+   *         deviation
+   */
+  public static Number[] sampleMeanAndStandardDeviation(
+      final double[] values, final int length,
+      final double[] scratch) {
     // handle simple cases
-    if (values.length <= 0) {
+    if (length <= 0) {
       throw new IllegalArgumentException(
           "need at least one value."); //$NON-NLS-1$
     }
 
     allSame: { // are all values the same?
       final double l1 = values[0];
-      for (final double v : values) {
+      for (int i = 0; i < length; i++) {
+        final double v = values[i];
         if (!Double.isFinite(v)) {
           throw new IllegalArgumentException(Double.toString(v));
         }
@@ -924,11 +1140,14 @@ public final class Statistics {
 
     // ok, no trivial case
     // no, they are not
-    final Number sum = Statistics.sum(values);
-    final Number mean =
-        Statistics.divideExact(sum, values.length);
-    final Number sumOfSquares =
-        Statistics.sum(values, l -> l * l);
+    final Number sum = Statistics.sum(values, length, scratch);
+    final Number mean = Statistics.divideExact(sum, length);
+    for (int i = length; (--i) >= 0;) {
+      final double v = values[i];
+      scratch[i] = v * v;
+    }
+    final Number sumOfSquares = Statistics.doubleToNumber(
+        Statistics.destructiveSum(scratch, length));
 
     // ok, we got some exact sums and exact sums of squares
     final Number sumSquared;
@@ -943,13 +1162,13 @@ public final class Statistics {
     }
 
     final Number sumSquaredOverN =
-        Statistics.divideExact(sumSquared, values.length);
+        Statistics.divideExact(sumSquared, length);
 
     final double sd =
         Math.sqrt(Statistics.divideExact(
             Statistics.doubleToNumber(sumOfSquares.doubleValue()
                 - sumSquaredOverN.doubleValue()),
-            values.length - 1).doubleValue());
+            length - 1).doubleValue());
 
     if ((!Double.isFinite(sd)) || (sd < 0d)) {
       throw new ArithmeticException(
@@ -0,0 +1,199 @@
+package aitoa.algorithms;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.examples.bitstrings.OneMaxObjectiveFunction;
+import aitoa.examples.jssp.JSSPCandidateSolution;
+import aitoa.examples.jssp.JSSPInstance;
+import aitoa.examples.jssp.JSSPMakespanObjectiveFunction;
+import aitoa.examples.jssp.JSSPSolutionSpace;
+import aitoa.examples.jssp.trees.JSSPTreeRepresentationMapping;
+import aitoa.examples.jssp.trees.JobStatistic;
+import aitoa.searchSpaces.bitstrings.BitStringBinaryOperatorUniform;
+import aitoa.searchSpaces.bitstrings.BitStringNullaryOperator;
+import aitoa.searchSpaces.bitstrings.BitStringUnaryOperatorMOverNFlipDist;
+import aitoa.searchSpaces.trees.Node;
+import aitoa.searchSpaces.trees.NodeTypeSetBuilder;
+import aitoa.searchSpaces.trees.TreeBinaryOperator;
+import aitoa.searchSpaces.trees.TreeNullaryOperator;
+import aitoa.searchSpaces.trees.TreeSpace;
+import aitoa.searchSpaces.trees.TreeUnaryOperatorMR;
+import aitoa.searchSpaces.trees.math.ATan2;
+import aitoa.searchSpaces.trees.math.Add;
+import aitoa.searchSpaces.trees.math.Divide;
+import aitoa.searchSpaces.trees.math.DoubleConstant;
+import aitoa.searchSpaces.trees.math.Max;
+import aitoa.searchSpaces.trees.math.Min;
+import aitoa.searchSpaces.trees.math.Multiply;
+import aitoa.searchSpaces.trees.math.Subtract;
+import aitoa.structure.BlackBoxProcessBuilder;
+import aitoa.structure.IBlackBoxProcess;
+import aitoa.structure.Record;
+
+/**
+ * Test that the parallel mode of the {@link EA} yields the same
+ * results regardless of the number of threads, also if the
+ * search operators have internal state.
+ */
+public class TestEAParallel {
+
+  /** the random seed */
+  private static final long SEED = 0x1234_5678_9abc_def0L;
+
+  /** the maximum depth of the trees */
+  private static final int MAX_DEPTH = 7;
+
+  /**
+   * allocate the population array for an EA
+   *
+   * @param ea
+   *          the EA
+   * @return the population array of length {@code mu+lambda}
+   * @param <X>
+   *          the search space
+   */
+  @SuppressWarnings("unchecked")
+  private static final <X> Record<X>[]
+      population(final EA<X, ?> ea) {
+    return (Record<X>[]) new Record<?>[ea.mu + ea.lambda];
+  }
+
+  /**
+   * run the EA with trees on the JSSP
+   *
+   * @param poolSize
+   *          the number of threads
+   * @param bestX
+   *          the destination for the best tree
+   * @return the process results: best f and consumed FEs
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final double[] runTrees(final int poolSize,
+      final Node[] bestX) throws IOException {
+    final JSSPInstance instance = new JSSPInstance("demo"); //$NON-NLS-1$
+    final NodeTypeSetBuilder ntsb = new NodeTypeSetBuilder();
+    final NodeTypeSetBuilder.Builder nodes =
+        ntsb.rootNodeTypeSet();
+    nodes.add(Add.class, nodes, nodes);
+    nodes.add(ATan2.class, nodes, nodes);
+    nodes.add(Divide.class, nodes, nodes);
+    nodes.add(DoubleConstant.type());
+    nodes.add(Max.class, nodes, nodes);
+    nodes.add(Min.class, nodes, nodes);
+    nodes.add(Multiply.class, nodes, nodes);
+    nodes.add(Subtract.class, nodes, nodes);
+    nodes.add(JobStatistic.type());
+
+    final EA<Node[], JSSPCandidateSolution> ea = new EA<>(
+        new TreeNullaryOperator(ntsb.build(),
+            TestEAParallel.MAX_DEPTH),
+        new TreeUnaryOperatorMR(TestEAParallel.MAX_DEPTH),
+        new TreeBinaryOperator(TestEAParallel.MAX_DEPTH), 0.3d,
+        16, 64, 4);
+
+    try (final IBlackBoxProcess<Node[],
+        JSSPCandidateSolution> process =
+            new BlackBoxProcessBuilder<Node[],
+                JSSPCandidateSolution>()//
+                    .setSearchSpace(
+                        new TreeSpace(TestEAParallel.MAX_DEPTH))//
+                    .setSolutionSpace(
+                        new JSSPSolutionSpace(instance))//
+                    .setRepresentationMapping(
+                        new JSSPTreeRepresentationMapping(
+                            instance))//
+                    .setObjectiveFunction(
+                        new JSSPMakespanObjectiveFunction(
+                            instance))//
+                    .setRandSeed(TestEAParallel.SEED)//
+                    .setMaxFEs(2000L)//
+                    .get()) {
+      ea.solveParallel(process, TestEAParallel.population(ea),
+          poolSize);
+      process.getBestX(bestX);
+      return new double[] { process.getBestF(),
+          process.getConsumedFEs() };
+    }
+  }
+
+  /**
+   * run the EA with bit strings on OneMax
+   *
+   * @param poolSize
+   *          the number of threads
+   * @param bestX
+   *          the destination for the best bit string
+   * @return the process results: best f and consumed FEs
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static final double[] runBitStrings(final int poolSize,
+      final boolean[] bestX) throws IOException {
+    final OneMaxObjectiveFunction f =
+        new OneMaxObjectiveFunction(bestX.length);
+
+    final EA<boolean[], boolean[]> ea = new EA<>(
+        new BitStringNullaryOperator(),
+        new BitStringUnaryOperatorMOverNFlipDist(bestX.length, 1),
+        new BitStringBinaryOperatorUniform(), 0.3d, 16, 64, 4);
+
+    try (final IBlackBoxProcess<boolean[], boolean[]> process =
+        new BlackBoxProcessBuilder<boolean[], boolean[]>()//
+            .setSearchSpace(f.createSpace())//
+            .setObjectiveFunction(f)//
+            .setRandSeed(TestEAParallel.SEED)//
+            .setMaxFEs(3000L)//
+            .get()) {
+      ea.solveParallel(process, TestEAParallel.population(ea),
+          poolSize);
+      process.getBestX(bestX);
+      return new double[] { process.getBestF(),
+          process.getConsumedFEs() };
+    }
+  }
+
+  /**
+   * test that the parallel EA with tree operators is not
+   * influenced by the number of threads
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 3600000)
+  public final void testTreesOnJSSP() throws IOException {
+    final Node[] x1 = new Node[1];
+    final double[] r1 = TestEAParallel.runTrees(1, x1);
+    for (int i = 3; (--i) >= 0;) {
+      final Node[] x4 = new Node[1];
+      Assert.assertArrayEquals(r1,
+          TestEAParallel.runTrees(4, x4), 0d);
+      Assert.assertArrayEquals(x1, x4);
+    }
+  }
+
+  /**
+   * test that the parallel EA with a flip-with-distribution
+   * operator is not influenced by the number of threads
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 3600000)
+  public final void testBitStringsOnOneMax() throws IOException {
+    final boolean[] x1 = new boolean[256];
+    final double[] r1 = TestEAParallel.runBitStrings(1, x1);
+    for (int i = 3; (--i) >= 0;) {
+      final boolean[] x4 = new boolean[x1.length];
+      Assert.assertArrayEquals(r1,
+          TestEAParallel.runBitStrings(4, x4), 0d);
+      Assert.assertTrue(Arrays.equals(x1, x4));
+    }
+  }
+}
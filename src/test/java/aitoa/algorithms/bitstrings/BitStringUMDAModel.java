@@ -0,0 +1,79 @@
+package aitoa.algorithms.bitstrings;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import aitoa.structure.IModel;
+import aitoa.structure.Record;
+
+/**
+ * A simple univariate model for bit strings, used to test the
+ * Estimation of Distribution Algorithms on bit strings. We
+ * remember how often each bit was {@code true} in the selected
+ * points and sample each bit with the corresponding probability,
+ * bounded away from {@code 0} and {@code 1}.
+ */
+public final class BitStringUMDAModel
+    implements IModel<boolean[]> {
+
+  /** the number of times each bit was true */
+  private final long[] mTrue;
+
+  /** the number of samples the model was built from */
+  private long mSamples;
+
+  /**
+   * create the model
+   *
+   * @param pN
+   *          the number of bits
+   */
+  public BitStringUMDAModel(final int pN) {
+    super();
+    this.mTrue = new long[pN];
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void initialize() {
+    // each bit is true with probability 0.5
+    Arrays.fill(this.mTrue, 1L);
+    this.mSamples = 2L;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void update(final Iterable<Record<boolean[]>> selected) {
+    Arrays.fill(this.mTrue, 0L);
+    long samples = 0L;
+    for (final Record<boolean[]> rec : selected) {
+      final boolean[] x = rec.x;
+      for (int i = x.length; (--i) >= 0;) {
+        if (x[i]) {
+          this.mTrue[i]++;
+        }
+      }
+      samples++;
+    }
+    this.mSamples = samples;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void apply(final boolean[] dest, final Random random) {
+    final long samples = this.mSamples;
+    final double min = 1d / dest.length;
+    final double max = 1d - min;
+    for (int i = dest.length; (--i) >= 0;) {
+      final double p = Math.min(max,
+          Math.max(min, this.mTrue[i] / ((double) samples)));
+      dest[i] = (random.nextDouble() < p);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    return "umda"; //$NON-NLS-1$
+  }
+}
@@ -1,6 +1,8 @@
 package aitoa.algorithms.bitstrings;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.Assert;
 import org.junit.Ignore;
@@ -16,6 +18,8 @@ import aitoa.examples.bitstrings.TwoMaxObjectiveFunction;
 import aitoa.structure.BlackBoxProcessBuilder;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IMetaheuristic;
+import aitoa.structure.IResettable;
+import aitoa.utils.TempDir;
 
 /** Test a bit-string based metaheuristic */
 @Ignore
@@ -76,6 +80,76 @@ public abstract class TestBitStringMetaheuristic
     }
   }
 
+  /**
+   * Perform a run whose log does not depend on the runtime,
+   * since the clock is constant and only the FEs are limited.
+   *
+   * @param f
+   *          the bit string objective function
+   * @param algorithm
+   *          the algorithm
+   * @param seed
+   *          the random seed
+   * @param logFile
+   *          the log file
+   * @return the contents of the log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static byte[] runLogged(
+      final BitStringObjectiveFunction f,
+      final IMetaheuristic<boolean[], boolean[]> algorithm,
+      final long seed, final Path logFile) throws IOException {
+    try (final IBlackBoxProcess<boolean[], boolean[]> process =
+        new BlackBoxProcessBuilder<boolean[], boolean[]>()//
+            .setSearchSpace(f.createSpace())//
+            .setObjectiveFunction(f)//
+            .setMaxFEs(4096L)//
+            .setClock(() -> 1L)//
+            .setRandSeed(seed)//
+            .setLogPath(logFile)//
+            .get()) {
+      algorithm.solve(process);
+    }
+    return Files.readAllBytes(logFile);
+  }
+
+  /**
+   * Test that an algorithm which is
+   * {@linkplain IResettable resettable} behaves exactly like a
+   * new instance after being reset, i.e., that a run with a
+   * reset instance produces the same log file as a run with the
+   * same seed performed by a new instance. Search operators which
+   * permute internal arrays must be reset as well for this to
+   * hold.
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testResetIsLikeNew() throws IOException {
+    final TrapObjectiveFunction f = new TrapObjectiveFunction(
+        TestBitStringMetaheuristic.INST_SIZE);
+    final IMetaheuristic<boolean[], boolean[]> algorithm =
+        this.createMetaheuristic(f.n, (int) (f.upperBound()));
+    if (!(algorithm instanceof IResettable)) {
+      return;
+    }
+
+    try (final TempDir dir = new TempDir()) {
+      final Path root = dir.getPath();
+      final byte[] fresh = TestBitStringMetaheuristic.runLogged(f,
+          algorithm, 1L, root.resolve("1.txt")); //$NON-NLS-1$
+      ((IResettable) algorithm).reset();
+      TestBitStringMetaheuristic.runLogged(f, algorithm, 2L,
+          root.resolve("2.txt")); //$NON-NLS-1$
+      ((IResettable) algorithm).reset();
+      final byte[] reset = TestBitStringMetaheuristic.runLogged(f,
+          algorithm, 1L, root.resolve("3.txt")); //$NON-NLS-1$
+      Assert.assertArrayEquals(fresh, reset);
+    }
+  }
+
   /**
    * test on the one max objective function
    *
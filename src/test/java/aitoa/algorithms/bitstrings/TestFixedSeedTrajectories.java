@@ -0,0 +1,235 @@
+package aitoa.algorithms.bitstrings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.algorithms.EA;
+import aitoa.algorithms.EDA;
+import aitoa.algorithms.HybridEDA;
+import aitoa.algorithms.MA;
+import aitoa.examples.bitstrings.TrapObjectiveFunction;
+import aitoa.searchSpaces.bitstrings.BitStringBinaryOperatorUniform;
+import aitoa.searchSpaces.bitstrings.BitStringNullaryOperator;
+import aitoa.searchSpaces.bitstrings.BitStringUnaryOperator1Flip;
+import aitoa.structure.BlackBoxProcessBuilder;
+import aitoa.structure.IBlackBoxProcess;
+import aitoa.structure.IMetaheuristic;
+import aitoa.structure.LogFormat;
+import aitoa.utils.TempDir;
+
+/**
+ * Test that the population-based algorithms, which evaluate
+ * their populations in batches, still produce exactly the same
+ * results as when they evaluated each new solution directly
+ * after its creation. The expected improvements were obtained
+ * from runs with fixed seeds on the trap function before the
+ * batched evaluation was introduced.
+ */
+public class TestFixedSeedTrajectories {
+
+  /** the problem size */
+  private static final int N = 64;
+
+  /**
+   * Perform a run and get the improvements from its log, each as
+   * objective value and FE separated by {@code /}
+   *
+   * @param algorithm
+   *          the algorithm
+   * @param seed
+   *          the random seed
+   * @return the improvements
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static String trajectory(
+      final IMetaheuristic<boolean[], boolean[]> algorithm,
+      final long seed) throws IOException {
+    final TrapObjectiveFunction f =
+        new TrapObjectiveFunction(TestFixedSeedTrajectories.N);
+    try (final TempDir dir = new TempDir()) {
+      final Path log = dir.getPath().resolve("log.txt"); //$NON-NLS-1$
+      try (final IBlackBoxProcess<boolean[], boolean[]> process =
+          new BlackBoxProcessBuilder<boolean[], boolean[]>()//
+              .setSearchSpace(f.createSpace())//
+              .setObjectiveFunction(f)//
+              .setMaxFEs(3000L)//
+              .setRandSeed(seed)//
+              .setLogPath(log)//
+              .get()) {
+        algorithm.solve(process);
+      }
+
+      final List<String> lines = Files.readAllLines(log);
+      final int start = lines.indexOf(
+          LogFormat.asComment(LogFormat.BEGIN_LOG)) + 2;
+      final int end = lines.indexOf(
+          LogFormat.asComment(LogFormat.END_OF_LOG));
+      final StringBuilder sb = new StringBuilder();
+      for (final String line : lines.subList(start, end)) {
+        final String[] point = line.split(
+            String.valueOf(LogFormat.CSV_SEPARATOR_CHAR));
+        if (sb.length() > 0) {
+          sb.append(' ');
+        }
+        sb.append(point[0]).append('/').append(point[1]);
+      }
+      return sb.toString();
+    }
+  }
+
+  /**
+   * Check the improvements of runs with the seeds {@code 1, 2,
+   * ...}
+   *
+   * @param algorithm
+   *          the algorithm factory
+   * @param expected
+   *          the expected improvements of each run
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void check(
+      final Supplier<IMetaheuristic<boolean[], boolean[]>> algorithm,
+      final String... expected) throws IOException {
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals(expected[i], TestFixedSeedTrajectories
+          .trajectory(algorithm.get(), i + 1));
+    }
+  }
+
+  /**
+   * test the EA
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 3600000)
+  public void testEA() throws IOException {
+    TestFixedSeedTrajectories.check(() -> new EA<>(
+        new BitStringNullaryOperator(),
+        new BitStringUnaryOperator1Flip(
+            TestFixedSeedTrajectories.N),
+        new BitStringBinaryOperatorUniform(), 0.3d, 8, 8),
+        "31/1 30/2 28/5 27/7 25/21 24/31 23/33 " //$NON-NLS-1$
+            + "21/59 20/71 17/89 16/104 15/131 14/152 " //$NON-NLS-1$
+            + "13/165 12/181 11/197 10/220 9/256 8/267 " //$NON-NLS-1$
+            + "7/333 6/360 5/380 4/400 3/425 2/508 1/585", //$NON-NLS-1$
+        "31/1 25/3 24/9 23/29 22/37 21/44 20/67 " //$NON-NLS-1$
+            + "18/95 17/101 16/124 15/145 13/157 12/165 " //$NON-NLS-1$
+            + "11/193 10/207 9/234 8/251 7/268 6/298 " //$NON-NLS-1$
+            + "5/321 4/341 3/355 2/452 1/480", //$NON-NLS-1$
+        "32/1 26/10 24/19 23/31 22/48 21/58 20/77 " //$NON-NLS-1$
+            + "19/97 18/109 17/128 16/129 15/153 14/180 " //$NON-NLS-1$
+            + "13/193 12/205 11/211 10/233 9/244 8/266 " //$NON-NLS-1$
+            + "7/278 6/294 5/323 4/347 3/395 2/413 1/471", //$NON-NLS-1$
+        "30/1 29/4 28/20 27/34 26/42 23/53 22/70 " //$NON-NLS-1$
+            + "21/79 20/81 19/92 18/101 17/129 16/145 " //$NON-NLS-1$
+            + "15/166 14/178 13/202 12/213 11/223 10/233 " //$NON-NLS-1$
+            + "9/260 8/265 7/328 6/362 5/395 4/427 3/476 " //$NON-NLS-1$
+            + "2/486 1/490"); //$NON-NLS-1$
+  }
+
+  /**
+   * test the MA
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 3600000)
+  public void testMA() throws IOException {
+    TestFixedSeedTrajectories.check(() -> new MA<>(
+        new BitStringNullaryOperator(),
+        new BitStringUnaryOperator1Flip(
+            TestFixedSeedTrajectories.N),
+        new BitStringBinaryOperatorUniform(), 8, 8, 16),
+        "31/1 30/2 28/5 27/7 26/25 25/30 24/35 " //$NON-NLS-1$
+            + "23/36 22/37 21/38 20/42 19/45 18/50 17/54 " //$NON-NLS-1$
+            + "16/56 15/168 14/170 13/300 12/304 11/464 " //$NON-NLS-1$
+            + "10/724 9/732 8/740 7/748 6/773 5/801 4/802 " //$NON-NLS-1$
+            + "3/830 2/859 1/908", //$NON-NLS-1$
+        "31/1 25/3 24/9 23/42 22/45 21/53 20/54 " //$NON-NLS-1$
+            + "19/55 18/63 17/94 16/98 15/104 14/156 " //$NON-NLS-1$
+            + "13/344 12/359 11/360 10/363 9/364 8/383 " //$NON-NLS-1$
+            + "7/717 6/760 5/767 4/769 3/773 2/830 1/894", //$NON-NLS-1$
+        "32/1 26/10 25/37 24/41 23/44 22/45 21/49 " //$NON-NLS-1$
+            + "20/50 19/87 18/90 17/91 16/92 15/209 " //$NON-NLS-1$
+            + "14/211 13/212 12/217 11/307 10/309 9/692 " //$NON-NLS-1$
+            + "8/693 7/696 6/707 5/730 4/756 3/775 2/795 " //$NON-NLS-1$
+            + "1/817", //$NON-NLS-1$
+        "30/1 29/4 28/40 27/43 26/45 25/46 24/49 " //$NON-NLS-1$
+            + "23/51 22/77 21/79 20/100 19/104 18/110 " //$NON-NLS-1$
+            + "17/111 16/113 15/114 14/116 13/119 12/704 " //$NON-NLS-1$
+            + "9/708 8/733 7/734 6/736 5/742 4/748 3/752 " //$NON-NLS-1$
+            + "2/753 1/810"); //$NON-NLS-1$
+  }
+
+  /**
+   * test the EDA
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 3600000)
+  public void testEDA() throws IOException {
+    TestFixedSeedTrajectories.check(() -> new EDA<>(
+        new BitStringNullaryOperator(), 8, 32,
+        new BitStringUMDAModel(TestFixedSeedTrajectories.N)),
+        "31/1 30/2 28/5 27/7 24/29 23/35 22/65 " //$NON-NLS-1$
+            + "17/72 15/125 13/144 12/148 10/176 9/204 " //$NON-NLS-1$
+            + "7/222 6/233 5/282 4/325 3/345 2/361 1/419", //$NON-NLS-1$
+        "31/1 25/3 24/9 23/33 22/34 21/39 19/42 " //$NON-NLS-1$
+            + "17/68 16/77 15/103 14/104 13/111 12/132 " //$NON-NLS-1$
+            + "10/138 7/152 5/208 4/246 3/276 2/285 1/302", //$NON-NLS-1$
+        "32/1 26/10 21/18 20/35 19/67 17/93 15/100 " //$NON-NLS-1$
+            + "13/120 12/135 11/150 10/171 8/194 7/225 " //$NON-NLS-1$
+            + "6/226 5/260 4/315 3/321 2/385 1/390", //$NON-NLS-1$
+        "30/1 29/4 28/19 27/32 24/38 20/47 17/71 " //$NON-NLS-1$
+            + "16/98 14/115 13/129 12/156 10/167 9/194 " //$NON-NLS-1$
+            + "7/217 6/238 5/289 4/344 3/347 2/418 1/446"); //$NON-NLS-1$
+  }
+
+  /**
+   * test the hybrid EDA
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 3600000)
+  public void testHybridEDA() throws IOException {
+    TestFixedSeedTrajectories.check(() -> new HybridEDA<>(
+        new BitStringNullaryOperator(),
+        new BitStringUnaryOperator1Flip(
+            TestFixedSeedTrajectories.N),
+        8, 32, 11,
+        new BitStringUMDAModel(TestFixedSeedTrajectories.N)),
+        "31/1 30/2 28/5 27/7 24/29 23/58 22/89 " //$NON-NLS-1$
+            + "21/120 20/125 19/129 18/135 17/140 16/143 " //$NON-NLS-1$
+            + "15/144 14/148 13/149 12/886 10/892 9/996 " //$NON-NLS-1$
+            + "8/1004 7/1080 6/1093 5/1102 4/1118 3/1125 " //$NON-NLS-1$
+            + "2/1395 1/1449", //$NON-NLS-1$
+        "31/1 25/3 24/9 23/117 22/119 21/124 20/144 " //$NON-NLS-1$
+            + "19/147 18/149 17/238 16/401 15/472 14/474 " //$NON-NLS-1$
+            + "13/700 9/908 8/973 7/983 6/985 5/992 " //$NON-NLS-1$
+            + "4/1002 3/1023 2/1040 1/1232", //$NON-NLS-1$
+        "32/1 26/10 21/18 20/82 19/85 18/86 17/256 " //$NON-NLS-1$
+            + "16/259 15/264 14/443 13/446 12/456 11/458 " //$NON-NLS-1$
+            + "10/471 8/906 7/962 6/976 5/982 4/990 " //$NON-NLS-1$
+            + "3/1125 2/1127 1/1139", //$NON-NLS-1$
+        "30/1 29/4 28/19 27/32 26/34 25/38 24/41 " //$NON-NLS-1$
+            + "23/44 22/45 21/47 20/48 19/49 18/51 17/52 " //$NON-NLS-1$
+            + "16/54 14/887 12/895 11/951 10/959 9/961 " //$NON-NLS-1$
+            + "8/1016 7/1028 6/1038 5/1041 4/1135 3/1140 " //$NON-NLS-1$
+            + "2/1758 1/1819"); //$NON-NLS-1$
+  }
+}
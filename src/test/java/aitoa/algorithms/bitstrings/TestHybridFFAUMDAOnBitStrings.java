@@ -0,0 +1,33 @@
+package aitoa.algorithms.bitstrings;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import aitoa.algorithms.HybridEDAWithFitness;
+import aitoa.algorithms.IntFFA;
+import aitoa.searchSpaces.bitstrings.BitStringNullaryOperator;
+import aitoa.searchSpaces.bitstrings.BitStringUnaryOperator3Flip;
+import aitoa.structure.IMetaheuristic;
+
+/**
+ * Test the {@linkplain aitoa.algorithms.HybridEDAWithFitness
+ * hybrid EDA with frequency fitness assignment} on bit strings
+ */
+public class TestHybridFFAUMDAOnBitStrings
+    extends TestBitStringMetaheuristic {
+
+  /** {@inheritDoc} */
+  @Override
+  protected IMetaheuristic<boolean[], boolean[]>
+      createMetaheuristic(final int pN, final int pUB) {
+    final Random rand = ThreadLocalRandom.current();
+    final int lambda = 1 + rand.nextInt(64);
+    final int mu = 1 + rand.nextInt(lambda);
+
+    return new HybridEDAWithFitness<>(
+        new BitStringNullaryOperator(), //
+        new BitStringUnaryOperator3Flip(pN), //
+        mu, lambda, 11, new BitStringUMDAModel(pN),
+        new IntFFA(pUB));
+  }
+}
@@ -0,0 +1,30 @@
+package aitoa.algorithms.bitstrings;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import aitoa.algorithms.HybridEDA;
+import aitoa.searchSpaces.bitstrings.BitStringNullaryOperator;
+import aitoa.searchSpaces.bitstrings.BitStringUnaryOperator1Flip;
+import aitoa.structure.IMetaheuristic;
+
+/**
+ * Test the {@linkplain aitoa.algorithms.HybridEDA hybrid EDA} on
+ * bit strings
+ */
+public class TestHybridUMDAOnBitStrings
+    extends TestBitStringMetaheuristic {
+
+  /** {@inheritDoc} */
+  @Override
+  protected IMetaheuristic<boolean[], boolean[]>
+      createMetaheuristic(final int pN, final int pUB) {
+    final Random rand = ThreadLocalRandom.current();
+    final int lambda = 1 + rand.nextInt(64);
+    final int mu = 1 + rand.nextInt(lambda);
+
+    return new HybridEDA<>(new BitStringNullaryOperator(), //
+        new BitStringUnaryOperator1Flip(pN), //
+        mu, lambda, Integer.MAX_VALUE, new BitStringUMDAModel(pN));
+  }
+}
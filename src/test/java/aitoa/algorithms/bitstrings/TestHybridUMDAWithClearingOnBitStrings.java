@@ -0,0 +1,31 @@
+package aitoa.algorithms.bitstrings;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import aitoa.algorithms.HybridEDAWithClearing;
+import aitoa.searchSpaces.bitstrings.BitStringNullaryOperator;
+import aitoa.searchSpaces.bitstrings.BitStringUnaryOperator2Flip;
+import aitoa.structure.IMetaheuristic;
+
+/**
+ * Test the {@linkplain aitoa.algorithms.HybridEDAWithClearing
+ * hybrid EDA with clearing} on bit strings
+ */
+public class TestHybridUMDAWithClearingOnBitStrings
+    extends TestBitStringMetaheuristic {
+
+  /** {@inheritDoc} */
+  @Override
+  protected IMetaheuristic<boolean[], boolean[]>
+      createMetaheuristic(final int pN, final int pUB) {
+    final Random rand = ThreadLocalRandom.current();
+    final int lambda = 1 + rand.nextInt(64);
+    final int mu = 1 + rand.nextInt(lambda);
+
+    return new HybridEDAWithClearing<>(
+        new BitStringNullaryOperator(), //
+        new BitStringUnaryOperator2Flip(pN), //
+        mu, lambda, Integer.MAX_VALUE, new BitStringUMDAModel(pN));
+  }
+}
@@ -1,7 +1,10 @@
 package aitoa.algorithms.jssp;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
+import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -12,10 +15,13 @@ import aitoa.examples.jssp.JSSPMakespanObjectiveFunction;
 import aitoa.examples.jssp.JSSPRepresentationMapping;
 import aitoa.examples.jssp.JSSPSearchSpace;
 import aitoa.examples.jssp.JSSPSolutionSpace;
+import aitoa.structure.BlackBoxProcessBuilder;
 import aitoa.structure.IBlackBoxProcess;
 import aitoa.structure.IMetaheuristic;
+import aitoa.structure.IResettable;
 import aitoa.structure.ISpace;
 import aitoa.structure.TestBlackBoxProcessBuilder;
+import aitoa.utils.TempDir;
 
 /** Test a metaheuristic on the JSSP */
 @Ignore
@@ -85,6 +91,79 @@ public abstract class TestMetaheuristicOnJSSP
     this.runTest(instance, 2048L, 2000L);
   }
 
+  /**
+   * Perform a run whose log does not depend on the runtime,
+   * since the clock is constant and only the FEs are limited.
+   *
+   * @param instance
+   *          the jssp instance
+   * @param algorithm
+   *          the algorithm
+   * @param seed
+   *          the random seed
+   * @param logFile
+   *          the log file
+   * @return the contents of the log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static byte[] runLogged(final JSSPInstance instance,
+      final IMetaheuristic<int[],
+          JSSPCandidateSolution> algorithm,
+      final long seed, final Path logFile) throws IOException {
+    try (final IBlackBoxProcess<int[], JSSPCandidateSolution> p =
+        new BlackBoxProcessBuilder<int[],
+            JSSPCandidateSolution>()//
+                .setSearchSpace(new JSSPSearchSpace(instance))//
+                .setSolutionSpace(
+                    new JSSPSolutionSpace(instance))//
+                .setObjectiveFunction(
+                    new JSSPMakespanObjectiveFunction(instance))//
+                .setRepresentationMapping(
+                    new JSSPRepresentationMapping(instance))
+                .setMaxFEs(2048L)//
+                .setClock(() -> 1L)//
+                .setRandSeed(seed)//
+                .setLogPath(logFile)//
+                .get()) {
+      algorithm.solve(p);
+    }
+    return Files.readAllBytes(logFile);
+  }
+
+  /**
+   * Test that an algorithm which is
+   * {@linkplain IResettable resettable} behaves exactly like a
+   * new instance after being reset, i.e., that a run with a
+   * reset instance produces the same log file as a run with the
+   * same seed performed by a new instance.
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @Test(timeout = 3600000)
+  public final void testResetIsLikeNew() throws IOException {
+    final JSSPInstance instance = new JSSPInstance("abz7"); //$NON-NLS-1$
+    final IMetaheuristic<int[], JSSPCandidateSolution> algorithm =
+        this.getAlgorithm(instance);
+    if (!(algorithm instanceof IResettable)) {
+      return;
+    }
+
+    try (final TempDir dir = new TempDir()) {
+      final Path root = dir.getPath();
+      final byte[] fresh = TestMetaheuristicOnJSSP.runLogged(
+          instance, algorithm, 1L, root.resolve("1.txt")); //$NON-NLS-1$
+      ((IResettable) algorithm).reset();
+      TestMetaheuristicOnJSSP.runLogged(instance, algorithm, 2L,
+          root.resolve("2.txt")); //$NON-NLS-1$
+      ((IResettable) algorithm).reset();
+      final byte[] reset = TestMetaheuristicOnJSSP.runLogged(
+          instance, algorithm, 1L, root.resolve("3.txt")); //$NON-NLS-1$
+      Assert.assertArrayEquals(fresh, reset);
+    }
+  }
+
   /**
    * test the application of the algorithm to the demo instance
    */
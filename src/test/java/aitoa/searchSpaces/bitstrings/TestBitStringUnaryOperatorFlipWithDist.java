@@ -65,6 +65,9 @@ public class TestBitStringUnaryOperatorFlipWithDist {
   private static final class TheTest
       extends BitStringUnaryOperatorFlipWithDist {
 
+    /** the number of bits to flip */
+    private final int mM;
+
     /**
      * create the unary operator
      *
@@ -75,6 +78,13 @@ public class TestBitStringUnaryOperatorFlipWithDist {
      */
     TheTest(final int pN, final int pM) {
       super(pN, new DiscreteConstant(pM));
+      this.mM = pM;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TheTest copyForThread() {
+      return new TheTest(this.mN, this.mM);
     }
 
     /** {@inheritDoc} */
@@ -112,4 +112,35 @@ public abstract class IBinarySearchOperatorTest<X>
     TestTools.assertGreater(count, 32);
     TestTools.assertGreaterOrEqual(different, 1 + (count >>> 5));
   }
+
+  /**
+   * test that the copy obtained via
+   * {@link IBinarySearchOperator#copyForThread()} behaves
+   * exactly like the original when using the same random seed
+   */
+  @Test(timeout = 3600000)
+  public void testCopyForThread() {
+    final ISpace<X> space = this.getSpace();
+    final IBinarySearchOperator<X> op1 = this.getOperator(space);
+    final IBinarySearchOperator<X> op2 = op1.copyForThread();
+    Assert.assertNotNull(op2);
+    final Random random1 = new Random();
+    final Random random2 = new Random();
+
+    final X dest1 = space.create();
+    final X dest2 = space.create();
+
+    for (int i = 0; (++i) <= 128;) {
+      final X src1 = this.createValid();
+      final X src2 = this.createValid();
+      final long seed = ThreadLocalRandom.current().nextLong();
+      random1.setSeed(seed);
+      random2.setSeed(seed);
+      op1.apply(src1, src2, dest1, random1);
+      op2.apply(src1, src2, dest2, random2);
+      space.check(dest1);
+      space.check(dest2);
+      Assert.assertTrue(this.equals(dest1, dest2));
+    }
+  }
 }
@@ -3,6 +3,7 @@ package aitoa.structure;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
+import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -135,4 +136,37 @@ public abstract class IModelTest<X>
 
     TestTools.assertGreaterOrEqual(diff, dest.length >>> 3);
   }
+
+  /**
+   * Test whether the copy obtained via
+   * {@link IModel#copyForThread()} samples valid points from the
+   * model updated via the original.
+   */
+  @Test(timeout = 3600000)
+  public final void testCopyForThread() {
+    final ISpace<X> space = this.getSpace();
+    final IModel<X> model = this.getModel(space);
+    model.initialize();
+    final IModel<X> copy = model.copyForThread();
+    Assert.assertNotNull(copy);
+
+    @SuppressWarnings("unchecked")
+    final Record<X>[] array = new Record[16];
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final X dest = space.create();
+
+    for (int j = 0; j < 50; j++) {
+      for (int i = array.length; (--i) >= 0;) {
+        array[i] = new Record<>(this.createValid(),
+            random.nextDouble(1d, 100d));
+      }
+      model.update(IModel.use(array, 0,
+          Math.max(model.minimumSamplesNeededForUpdate(),
+              1 + (j % array.length))));
+      copy.apply(dest, random);
+      space.check(dest);
+      model.apply(dest, random);
+      space.check(dest);
+    }
+  }
 }
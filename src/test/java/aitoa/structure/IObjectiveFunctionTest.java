@@ -41,4 +41,22 @@ public abstract class IObjectiveFunctionTest<Y>
       TestTools.assertLessOrEqual(d, ub);
     }
   }
+
+  /**
+   * test that the copy obtained via
+   * {@link IObjectiveFunction#copyForThread()} computes the same
+   * objective values as the original
+   */
+  @Test(timeout = 3600000)
+  public void testCopyForThread() {
+    final IObjectiveFunction<Y> f1 = this.getInstance();
+    final IObjectiveFunction<Y> f2 = f1.copyForThread();
+    Assert.assertNotNull(f2);
+    for (int i = 100; (--i) >= 0;) {
+      final Y y = this.createValid();
+      final double d1 = f1.evaluate(y);
+      Assert.assertEquals(d1, f2.evaluate(y), 0d);
+      Assert.assertEquals(d1, f1.evaluate(y), 0d);
+    }
+  }
 }
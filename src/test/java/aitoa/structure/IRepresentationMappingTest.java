@@ -3,6 +3,7 @@ package aitoa.structure;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
+import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -57,4 +58,26 @@ public abstract class IRepresentationMappingTest<X, Y>
       this.assertValid(dest);
     }
   }
+
+  /**
+   * test that the copy obtained via
+   * {@link IRepresentationMapping#copyForThread()} can be used
+   * interleaved with the original mapping
+   */
+  @Test(timeout = 3600000)
+  public final void testCopyForThread() {
+    final Y dest1 = this.createY();
+    final Y dest2 = this.createY();
+    final IRepresentationMapping<X, Y> map1 = this.getInstance();
+    final IRepresentationMapping<X, Y> map2 =
+        map1.copyForThread();
+    Assert.assertNotNull(map2);
+    final Random random = ThreadLocalRandom.current();
+    for (int i = 100; (--i) >= 0;) {
+      map1.map(random, this.createValidX(), dest1);
+      map2.map(random, this.createValidX(), dest2);
+      this.assertValid(dest1);
+      this.assertValid(dest2);
+    }
+  }
 }
@@ -0,0 +1,344 @@
+package aitoa.structure;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.examples.bitstrings.OneMaxObjectiveFunction;
+import aitoa.utils.TempDir;
+
+/**
+ * Test the sequential batch evaluation of the black-box processes,
+ * i.e., {@link IBlackBoxProcess#evaluateBatch(Record[], int, int)}
+ * and
+ * {@link IBlackBoxProcess#evaluateBatchDescending(Record[], int, int)},
+ * with and without logging.
+ */
+public class TestBlackBoxProcessBatch {
+
+  /** the length of the bit strings */
+  private static final int N = 16;
+  /** the number of records in a batch */
+  private static final int BATCH = 8;
+  /** the quality the records have before being evaluated */
+  private static final double UNEVALUATED = -1d;
+
+  /**
+   * Create a black-box process
+   *
+   * @param dir
+   *          the directory for the log file, or {@code null} if
+   *          no log should be written
+   * @param logAll
+   *          should all FEs be logged?
+   * @param maxFEs
+   *          the maximum FEs
+   * @return the process
+   */
+  private static IBlackBoxProcess<boolean[], boolean[]> process(
+      final Path dir, final boolean logAll, final long maxFEs) {
+    final OneMaxObjectiveFunction f =
+        new OneMaxObjectiveFunction(TestBlackBoxProcessBatch.N);
+    final BlackBoxProcessBuilder<boolean[], boolean[]> builder =
+        new BlackBoxProcessBuilder<boolean[], boolean[]>()//
+            .setSearchSpace(f.createSpace())//
+            .setObjectiveFunction(f)//
+            .setGoalF(0d)//
+            .setMaxFEs(maxFEs)//
+            .setLogAll(logAll);
+    if (dir != null) {
+      builder.setLogPath(dir.resolve("log.txt")); //$NON-NLS-1$
+    }
+    return builder.get();
+  }
+
+  /**
+   * Create a batch of records, all of which have objective value
+   * {@link #N}, except the one at index {@code optimum}, which is
+   * optimal
+   *
+   * @param optimum
+   *          the index of the optimal record, or {@code -1} if
+   *          there is none
+   * @return the records
+   */
+  @SuppressWarnings("unchecked")
+  private static Record<boolean[]>[] records(final int optimum) {
+    final Record<boolean[]>[] records =
+        new Record[TestBlackBoxProcessBatch.BATCH];
+    for (int i = records.length; (--i) >= 0;) {
+      final boolean[] x = new boolean[TestBlackBoxProcessBatch.N];
+      if (i == optimum) {
+        Arrays.fill(x, true);
+      }
+      records[i] = new Record<>(x,
+          TestBlackBoxProcessBatch.UNEVALUATED);
+    }
+    return records;
+  }
+
+  /**
+   * Evaluate a batch
+   *
+   * @param process
+   *          the process
+   * @param records
+   *          the records
+   * @param descending
+   *          should the batch be evaluated in descending order?
+   * @return the number of evaluated records
+   */
+  private static int evaluate(
+      final IBlackBoxProcess<boolean[], boolean[]> process,
+      final Record<boolean[]>[] records, final boolean descending) {
+    return descending
+        ? process.evaluateBatchDescending(records, 0, records.length)
+        : process.evaluateBatch(records, 0, records.length);
+  }
+
+  /**
+   * Check that the first {@code evaluated} records in evaluation
+   * order have been evaluated and all others have quality
+   * {@link Double#POSITIVE_INFINITY}
+   *
+   * @param records
+   *          the records
+   * @param descending
+   *          were the records evaluated in descending order?
+   * @param evaluated
+   *          the number of evaluated records
+   */
+  private static void checkQualities(
+      final Record<boolean[]>[] records, final boolean descending,
+      final int evaluated) {
+    for (int i = 0; i < records.length; i++) {
+      final int rank = descending ? (records.length - 1 - i) : i;
+      final Record<boolean[]> record = records[i];
+      if (rank < evaluated) {
+        Assert.assertEquals(
+            TestBlackBoxProcessBatch.N - TestBlackBoxProcessBatch
+                .count(record.x),
+            record.quality, 0d);
+      } else {
+        Assert.assertEquals(Double.POSITIVE_INFINITY,
+            record.quality, 0d);
+      }
+    }
+  }
+
+  /**
+   * Count the {@code true} bits
+   *
+   * @param x
+   *          the bit string
+   * @return the number of {@code true} bits
+   */
+  private static int count(final boolean[] x) {
+    int count = 0;
+    for (final boolean b : x) {
+      if (b) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Apply a check to all process variants and both evaluation
+   * orders
+   *
+   * @param check
+   *          the check
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void forAll(final Check check) throws IOException {
+    for (int log = 0; log < 3; log++) {
+      for (final boolean descending : new boolean[] { false,
+          true }) {
+        try (final TempDir dir = new TempDir()) {
+          check.check((log > 0) ? dir.getPath() : null, log > 1,
+              descending);
+        }
+      }
+    }
+  }
+
+  /** a check applied to a process variant */
+  private interface Check {
+    /**
+     * perform the check
+     *
+     * @param dir
+     *          the log directory, or {@code null}
+     * @param logAll
+     *          should all FEs be logged?
+     * @param descending
+     *          should the batches be evaluated in descending
+     *          order?
+     * @throws IOException
+     *           if i/o fails
+     */
+    void check(Path dir, boolean logAll, boolean descending)
+        throws IOException;
+  }
+
+  /**
+   * test that a batch larger than the remaining FEs is evaluated
+   * only up to the budget
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testBudgetExhaustedInBatch() throws IOException {
+    TestBlackBoxProcessBatch.forAll((dir, logAll, descending) -> {
+      try (final IBlackBoxProcess<boolean[], boolean[]> process =
+          TestBlackBoxProcessBatch.process(dir, logAll, 5L)) {
+        Record<boolean[]>[] records =
+            TestBlackBoxProcessBatch.records(-1);
+        Assert.assertEquals(5, TestBlackBoxProcessBatch
+            .evaluate(process, records, descending));
+        Assert.assertEquals(5L, process.getConsumedFEs());
+        Assert.assertTrue(process.shouldTerminate());
+        TestBlackBoxProcessBatch.checkQualities(records,
+            descending, 5);
+
+        records = TestBlackBoxProcessBatch.records(-1);
+        Assert.assertEquals(0, TestBlackBoxProcessBatch
+            .evaluate(process, records, descending));
+        Assert.assertEquals(5L, process.getConsumedFEs());
+        TestBlackBoxProcessBatch.checkQualities(records,
+            descending, 0);
+      }
+    });
+  }
+
+  /**
+   * test that a batch is evaluated completely if the budget
+   * suffices
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testBatchWithinBudget() throws IOException {
+    TestBlackBoxProcessBatch.forAll((dir, logAll, descending) -> {
+      try (final IBlackBoxProcess<boolean[], boolean[]> process =
+          TestBlackBoxProcessBatch.process(dir, logAll, 100L)) {
+        final Record<boolean[]>[] records =
+            TestBlackBoxProcessBatch.records(-1);
+        Assert.assertEquals(TestBlackBoxProcessBatch.BATCH,
+            TestBlackBoxProcessBatch.evaluate(process, records,
+                descending));
+        Assert.assertEquals(TestBlackBoxProcessBatch.BATCH,
+            process.getConsumedFEs());
+        Assert.assertFalse(process.shouldTerminate());
+        TestBlackBoxProcessBatch.checkQualities(records,
+            descending, TestBlackBoxProcessBatch.BATCH);
+      }
+    });
+  }
+
+  /**
+   * test that the evaluation stops if the process terminates
+   * during the batch because the goal was reached
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testTerminatedInBatch() throws IOException {
+    TestBlackBoxProcessBatch.forAll((dir, logAll, descending) -> {
+      try (final IBlackBoxProcess<boolean[], boolean[]> process =
+          TestBlackBoxProcessBatch.process(dir, logAll, 100L)) {
+// the optimum is the fourth record in evaluation order
+        final Record<boolean[]>[] records = TestBlackBoxProcessBatch
+            .records(descending ? (TestBlackBoxProcessBatch.BATCH
+                - 4) : 3);
+        Assert.assertEquals(4, TestBlackBoxProcessBatch
+            .evaluate(process, records, descending));
+        Assert.assertEquals(4L, process.getConsumedFEs());
+        Assert.assertEquals(4L, process.getLastImprovementFE());
+        Assert.assertEquals(0d, process.getBestF(), 0d);
+        Assert.assertTrue(process.shouldTerminate());
+        TestBlackBoxProcessBatch.checkQualities(records,
+            descending, 4);
+      }
+    });
+  }
+
+  /**
+   * test that nothing is evaluated if the process has already
+   * terminated
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testAlreadyTerminated() throws IOException {
+    TestBlackBoxProcessBatch.forAll((dir, logAll, descending) -> {
+      try (final IBlackBoxProcess<boolean[], boolean[]> process =
+          TestBlackBoxProcessBatch.process(dir, logAll, 100L)) {
+        final boolean[] x = new boolean[TestBlackBoxProcessBatch.N];
+        Assert.assertEquals(TestBlackBoxProcessBatch.N,
+            process.evaluate(x), 0d);
+// terminate, as the termination thread would do
+        ((BlackBoxProcessBase<?, ?>) process).terminate();
+        Assert.assertTrue(process.shouldTerminate());
+
+        final Record<boolean[]>[] records =
+            TestBlackBoxProcessBatch.records(0);
+        Assert.assertEquals(0, TestBlackBoxProcessBatch
+            .evaluate(process, records, descending));
+        Assert.assertEquals(1L, process.getConsumedFEs());
+        Assert.assertEquals(TestBlackBoxProcessBatch.N,
+            process.getBestF(), 0d);
+        TestBlackBoxProcessBatch.checkQualities(records,
+            descending, 0);
+      }
+    });
+  }
+
+  /**
+   * test that only the given range of a batch is touched
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testRange() throws IOException {
+    TestBlackBoxProcessBatch.forAll((dir, logAll, descending) -> {
+      try (final IBlackBoxProcess<boolean[], boolean[]> process =
+          TestBlackBoxProcessBatch.process(dir, logAll, 3L)) {
+        final Record<boolean[]>[] records =
+            TestBlackBoxProcessBatch.records(-1);
+        Assert.assertEquals(3, descending
+            ? process.evaluateBatchDescending(records, 2, 7)
+            : process.evaluateBatch(records, 2, 7));
+        Assert.assertEquals(3L, process.getConsumedFEs());
+        for (int i = 0; i < records.length; i++) {
+          final double quality = records[i].quality;
+          if ((i < 2) || (i >= 7)) {
+            Assert.assertEquals(TestBlackBoxProcessBatch.UNEVALUATED,
+                quality, 0d);
+          } else if (descending ? (i >= 4) : (i < 5)) {
+            Assert.assertEquals(TestBlackBoxProcessBatch.N, quality,
+                0d);
+          } else {
+            Assert.assertEquals(Double.POSITIVE_INFINITY, quality,
+                0d);
+          }
+        }
+      }
+    });
+  }
+}
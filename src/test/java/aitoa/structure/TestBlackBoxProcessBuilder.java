@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Assert;
 
@@ -150,6 +151,41 @@ public class TestBlackBoxProcessBuilder<X, Y>
       return this.mProcess.evaluate(y);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public final int evaluateBatch(final Record<X>[] records,
+        final int from, final int to, final ForkJoinPool pool) {
+      this.checkTerminated();
+      for (int i = from; i < to; i++) {
+        this.mProcess.mSearchSpace.check(records[i].x);
+      }
+
+      final long fes = this.mProcess.mConsumedFEs;
+      final int result =
+          this.mProcess.evaluateBatch(records, from, to, pool);
+      TestTools.assertGreaterOrEqual(result, 0);
+      TestTools.assertLessOrEqual(result, to - from);
+      Assert.assertEquals(fes + result,
+          this.mProcess.mConsumedFEs);
+
+      for (int i = from; i < to; i++) {
+        final double f = records[i].quality;
+        if (i < (from + result)) {
+          TestTools.assertFinite(f);
+          TestTools.assertGreaterOrEqual(f, this.mLb);
+          TestTools.assertLessOrEqual(f, this.mUb);
+          TestTools.assertGreaterOrEqual(f,
+              this.mProcess.mBestF);
+        } else {
+          Assert.assertTrue(f >= Double.POSITIVE_INFINITY);
+        }
+      }
+      if (result < (to - from)) {
+        Assert.assertTrue(this.mProcess.mTerminated);
+      }
+      return result;
+    }
+
     /** {@inheritDoc} */
     @Override
     public final boolean shouldTerminate() {
@@ -295,6 +331,11 @@ public class TestBlackBoxProcessBuilder<X, Y>
       TestTools.assertFinite(this.mProcess.mBestF);
       TestTools.assertGreaterOrEqual(this.mProcess.mBestF,
           this.mLb);
+
+      final Y y = this.mProcess.mSolutionSpace.create();
+      this.mProcess.getBestY(y);
+      Assert.assertEquals(this.mProcess.mBestF,
+          this.mProcess.mF.evaluate(y), 0d);
     }
   }
 
@@ -0,0 +1,124 @@
+package aitoa.structure;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.algorithms.RandomSampling;
+import aitoa.examples.jssp.JSSPCandidateSolution;
+import aitoa.examples.jssp.JSSPInstance;
+import aitoa.examples.jssp.JSSPMakespanObjectiveFunction;
+import aitoa.examples.jssp.JSSPNullaryOperator;
+import aitoa.examples.jssp.JSSPRepresentationMapping;
+import aitoa.examples.jssp.JSSPSearchSpace;
+import aitoa.examples.jssp.JSSPSolutionSpace;
+import aitoa.utils.TempDir;
+import aitoa.utils.logs.LogParser;
+
+/** Test the profiling black-box process */
+public class TestBlackBoxProcessProfile {
+
+  /**
+   * Create a builder for the JSSP
+   *
+   * @param inst
+   *          the instance
+   * @return the builder
+   */
+  private static BlackBoxProcessBuilder<int[],
+      JSSPCandidateSolution> builder(final JSSPInstance inst) {
+    return new BlackBoxProcessBuilder<int[],
+        JSSPCandidateSolution>()//
+            .setSearchSpace(new JSSPSearchSpace(inst))//
+            .setSolutionSpace(new JSSPSolutionSpace(inst))//
+            .setRepresentationMapping(
+                new JSSPRepresentationMapping(inst))//
+            .setObjectiveFunction(
+                new JSSPMakespanObjectiveFunction(inst))//
+            .setMaxFEs(5000L);
+  }
+
+  /**
+   * test that the profile section is written and that the log
+   * remains valid
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testProfile() throws IOException {
+    final JSSPInstance inst = new JSSPInstance("abz7"); //$NON-NLS-1$
+    try (final TempDir dir = new TempDir()) {
+      final Path log = dir.getPath().resolve("log.txt"); //$NON-NLS-1$
+      final BlackBoxProcessBuilder<int[],
+          JSSPCandidateSolution> builder =
+              TestBlackBoxProcessProfile.builder(inst)//
+                  .setLogPath(log).setProfiling(true);
+      Assert.assertTrue(builder.isProfiling());
+      try (final IBlackBoxProcess<int[],
+          JSSPCandidateSolution> process = builder.get()) {
+        new RandomSampling<int[], JSSPCandidateSolution>(
+            new JSSPNullaryOperator(inst)).solve(process);
+        Assert.assertEquals(5000L, process.getConsumedFEs());
+      }
+
+      final List<String> lines = Files.readAllLines(log);
+      final int start = lines.indexOf(
+          LogFormat.asComment(LogFormat.PROFILE_LOG_SECTION));
+      final int end = lines.indexOf(LogFormat
+          .asComment("END_" + LogFormat.PROFILE_LOG_SECTION)); //$NON-NLS-1$
+      Assert.assertTrue((start >= 0) && (end > start));
+      Assert.assertTrue(end < lines
+          .indexOf(LogFormat.asComment(LogFormat.BEGIN_LOG)));
+
+      final HashMap<String, String> profile = new HashMap<>();
+      for (final String line : lines.subList(start + 1, end)) {
+        final int colon = line.indexOf(LogFormat.MAP_SEPARATOR_CHAR);
+        profile.put(line.substring(1, colon).trim(),
+            line.substring(colon + 1).trim());
+      }
+      Assert.assertEquals("1024", //$NON-NLS-1$
+          profile.get(LogFormat.PROFILE_SAMPLE_INTERVAL));
+      Assert.assertEquals("5000", //$NON-NLS-1$
+          profile.get(LogFormat.PROFILE_EVALUATIONS));
+      Assert.assertEquals("4", //$NON-NLS-1$
+          profile.get(LogFormat.PROFILE_SAMPLES));
+      Assert.assertTrue(Long.parseLong(
+          profile.get(LogFormat.PROFILE_MAP_NANOS)) > 0L);
+      Assert.assertTrue(Long.parseLong(
+          profile.get(LogFormat.PROFILE_EVALUATE_NANOS)) > 0L);
+      if (profile.containsKey(LogFormat.PROFILE_MAP_SHARE)) {
+        double sum = 0d;
+        for (final String key : new String[] {
+            LogFormat.PROFILE_MAP_SHARE,
+            LogFormat.PROFILE_EVALUATE_SHARE,
+            LogFormat.PROFILE_ALGORITHM_SHARE }) {
+          final double share =
+              Double.parseDouble(profile.get(key));
+          Assert.assertTrue((share >= 0d) && (share <= 1d));
+          sum += share;
+        }
+        Assert.assertEquals(1d, sum, 1e-9d);
+      }
+
+      LogParser.parseLogFile(log, null, null);
+    }
+  }
+
+  /**
+   * test that profiling is rejected if it cannot work
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000, expected = IllegalArgumentException.class)
+  public void testProfileWithoutLog() {
+    TestBlackBoxProcessProfile
+        .builder(new JSSPInstance("abz7")) //$NON-NLS-1$
+        .setProfiling(true).get();
+  }
+}
@@ -0,0 +1,148 @@
+package aitoa.structure;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.algorithms.RandomSampling;
+import aitoa.examples.bitstrings.OneMaxObjectiveFunction;
+import aitoa.examples.jssp.JSSPCandidateSolution;
+import aitoa.examples.jssp.JSSPInstance;
+import aitoa.examples.jssp.JSSPMakespanObjectiveFunction;
+import aitoa.examples.jssp.JSSPNullaryOperator;
+import aitoa.examples.jssp.JSSPRepresentationMapping;
+import aitoa.examples.jssp.JSSPSearchSpace;
+import aitoa.examples.jssp.JSSPSolutionSpace;
+import aitoa.searchSpaces.bitstrings.BitStringNullaryOperator;
+import aitoa.utils.TempDir;
+
+/** Test that spilling the log does not change the log file */
+public class TestBlackBoxProcessSpill {
+
+  /**
+   * Perform a run which logs every FE and print the algorithm
+   * setup before closing the process, as the experiment execution
+   * does
+   *
+   * @param builder
+   *          the builder
+   * @param algorithm
+   *          the algorithm
+   * @param spill
+   *          should the log be spilled?
+   * @param logFile
+   *          the log file
+   * @return the contents of the log file
+   * @param <X>
+   *          the search space
+   * @param <Y>
+   *          the solution space
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static <X, Y> byte[] run(
+      final BlackBoxProcessBuilder<X, Y> builder,
+      final IMetaheuristic<X, Y> algorithm, final boolean spill,
+      final Path logFile) throws IOException {
+    builder.setMaxFEs(100000L)//
+        .setClock(() -> 1L)//
+        .setRandSeed(7L)//
+        .setLogAll(true)//
+        .setSpillLog(spill)//
+        .setLogPath(logFile);
+    try (final IBlackBoxProcess<X, Y> process = builder.get()) {
+      algorithm.solve(process);
+      process.printLogSection(
+          LogFormat.ALGORITHM_SETUP_LOG_SECTION,
+          bw -> algorithm.printSetup((Writer) bw));
+    }
+    return Files.readAllBytes(logFile);
+  }
+
+  /**
+   * Check that a run produces the same log file with and without
+   * spilling
+   *
+   * @param builder
+   *          the builder factory
+   * @param algorithm
+   *          the algorithm
+   * @param <X>
+   *          the search space
+   * @param <Y>
+   *          the solution space
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static <X, Y> void check(
+      final Supplier<BlackBoxProcessBuilder<X, Y>> builder,
+      final IMetaheuristic<X, Y> algorithm) throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path spilled = dir.getPath().resolve("spilled.txt"); //$NON-NLS-1$
+      final byte[] expected = TestBlackBoxProcessSpill.run(
+          builder.get(), algorithm, false,
+          dir.getPath().resolve("memory.txt")); //$NON-NLS-1$
+      final byte[] actual = TestBlackBoxProcessSpill
+          .run(builder.get(), algorithm, true, spilled);
+      Assert.assertArrayEquals(expected, actual);
+
+      final String text = new String(actual);
+      Assert.assertTrue(text.indexOf(LogFormat.asComment(
+          LogFormat.ALGORITHM_SETUP_LOG_SECTION)) < text
+              .indexOf(LogFormat.asComment(LogFormat.BEGIN_LOG)));
+
+// no temporary files are left over
+      try (final Stream<Path> files =
+          Files.list(dir.getPath())) {
+        Assert.assertEquals(2L, files.count());
+      }
+    }
+  }
+
+  /**
+   * test spilling the log of a process without representation
+   * mapping
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testSpillWithoutMapping() throws IOException {
+    final OneMaxObjectiveFunction f =
+        new OneMaxObjectiveFunction(64);
+    TestBlackBoxProcessSpill.check(
+        () -> new BlackBoxProcessBuilder<boolean[], boolean[]>()//
+            .setSearchSpace(f.createSpace())//
+            .setObjectiveFunction(f),
+        new RandomSampling<>(new BitStringNullaryOperator()));
+  }
+
+  /**
+   * test spilling the log of a process with representation
+   * mapping
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testSpillWithMapping() throws IOException {
+    final JSSPInstance inst = new JSSPInstance("abz7"); //$NON-NLS-1$
+    TestBlackBoxProcessSpill.check(() -> new BlackBoxProcessBuilder<
+        int[], JSSPCandidateSolution>()//
+            .setSearchSpace(new JSSPSearchSpace(inst))//
+            .setSolutionSpace(new JSSPSolutionSpace(inst))//
+            .setRepresentationMapping(
+                new JSSPRepresentationMapping(inst))//
+            .setObjectiveFunction(
+                new JSSPMakespanObjectiveFunction(inst)),
+        new RandomSampling<>(new JSSPNullaryOperator(inst)));
+  }
+}
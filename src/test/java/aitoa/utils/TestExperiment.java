@@ -5,24 +5,38 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import aitoa.algorithms.EA1p1;
+import aitoa.algorithms.EDA;
+import aitoa.algorithms.HybridEDA;
 import aitoa.algorithms.RandomSampling;
 import aitoa.algorithms.bitstrings.Greedy2p1GAmod;
 import aitoa.algorithms.bitstrings.Greedy2p1GAmodFFA;
 import aitoa.examples.bitstrings.BitStringObjectiveFunction;
 import aitoa.examples.bitstrings.LeadingOnesObjectiveFunction;
 import aitoa.examples.bitstrings.OneMaxObjectiveFunction;
+import aitoa.examples.jssp.JSSPCandidateSolution;
+import aitoa.examples.jssp.JSSPInstance;
+import aitoa.examples.jssp.JSSPMakespanObjectiveFunction;
+import aitoa.examples.jssp.JSSPNullaryOperator;
+import aitoa.examples.jssp.JSSPRepresentationMapping;
+import aitoa.examples.jssp.JSSPSearchSpace;
+import aitoa.examples.jssp.JSSPSolutionSpace;
+import aitoa.examples.jssp.JSSPUMDAModel;
+import aitoa.examples.jssp.JSSPUnaryOperator1SwapU;
 import aitoa.searchSpaces.bitstrings.BitStringNullaryOperator;
 import aitoa.searchSpaces.bitstrings.BitStringUnaryOperator1Flip;
 import aitoa.searchSpaces.bitstrings.BitStringUnaryOperatorMOverNFlip;
 import aitoa.structure.BlackBoxProcessBuilder;
 import aitoa.structure.IMetaheuristic;
+import aitoa.structure.LogFormat;
 import aitoa.utils.Experiment.IExperimentStage;
 import aitoa.utils.logs.EndResults;
 
@@ -453,4 +467,138 @@ public class TestExperiment {
       }
     }
   }
+
+  /**
+   * Create an experiment stage with resettable algorithms on the
+   * JSSP, whose log files do not depend on the runtime
+   *
+   * @param reuse
+   *          should the algorithm instances be re-used?
+   * @return the stage
+   */
+  static IExperimentStage<int[], JSSPCandidateSolution,
+      JSSPMakespanObjectiveFunction,
+      IMetaheuristic<int[], JSSPCandidateSolution>>
+      reusingStage(final boolean reuse) {
+    return new IExperimentStage<int[], JSSPCandidateSolution,
+        JSSPMakespanObjectiveFunction,
+        IMetaheuristic<int[], JSSPCandidateSolution>>() {
+      @Override
+      public Stream<Supplier<JSSPMakespanObjectiveFunction>>
+          getProblems() {
+        return Stream.of(() -> new JSSPMakespanObjectiveFunction(
+            new JSSPInstance("abz7"))); //$NON-NLS-1$
+      }
+
+      @Override
+      public int getRuns(
+          final JSSPMakespanObjectiveFunction problem) {
+        return 4;
+      }
+
+      @Override
+      public Stream<Supplier<
+          IMetaheuristic<int[], JSSPCandidateSolution>>>
+          getAlgorithms(
+              final JSSPMakespanObjectiveFunction problem) {
+        final JSSPInstance inst = problem.instance;
+        return Stream.of(
+            () -> new EDA<>(new JSSPNullaryOperator(inst), 4, 16,
+                new JSSPUMDAModel(inst, 2)),
+            () -> new HybridEDA<>(new JSSPNullaryOperator(inst),
+                new JSSPUnaryOperator1SwapU(inst), 4, 16, 8,
+                new JSSPUMDAModel(inst)),
+            () -> new RandomSampling<>(
+                new JSSPNullaryOperator(inst)));
+      }
+
+      @Override
+      public void configureBuilder(
+          final BlackBoxProcessBuilder<int[],
+              JSSPCandidateSolution> builder) {
+        builder.setMaxFEs(1000);
+        builder.setClock(() -> 1L);
+      }
+
+      @Override
+      public void configureBuilderForProblem(
+          final BlackBoxProcessBuilder<int[],
+              JSSPCandidateSolution> builder,
+          final JSSPMakespanObjectiveFunction problem) {
+        final JSSPInstance inst = problem.instance;
+        builder.setRepresentationMapping(
+            new JSSPRepresentationMapping(inst));
+        builder.setSearchSpace(new JSSPSearchSpace(inst));
+        builder.setSolutionSpace(new JSSPSolutionSpace(inst));
+      }
+
+      @Override
+      public boolean isReusingAlgorithms() {
+        return reuse;
+      }
+    };
+  }
+
+  /**
+   * Assert that two experiments produced the same log files
+   *
+   * @param expected
+   *          the root folder of the expected log files
+   * @param actual
+   *          the root folder of the actual log files
+   * @throws IOException
+   *           if i/o fails
+   */
+  static void assertSameLogs(final Path expected,
+      final Path actual) throws IOException {
+    final List<Path> logs;
+    try (final Stream<Path> files = Files.walk(expected)) {
+      logs = files.filter(path -> path.getFileName().toString()
+          .endsWith(LogFormat.FILE_SUFFIX))
+          .map(expected::relativize).sorted()
+          .collect(Collectors.toList());
+    }
+    try (final Stream<Path> files = Files.walk(actual)) {
+      Assert.assertEquals(logs.size(),
+          files.filter(path -> path.getFileName().toString()
+              .endsWith(LogFormat.FILE_SUFFIX)).count());
+    }
+    for (final Path log : logs) {
+      Assert.assertArrayEquals(log.toString(),
+          Files.readAllBytes(expected.resolve(log)),
+          Files.readAllBytes(actual.resolve(log.toString())));
+    }
+  }
+
+  /**
+   * test that re-using resettable algorithm instances leads to
+   * exactly the same log files as creating new instances, both
+   * in the serial and in the parallel experiment execution
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 1000000)
+  public void testReusingAlgorithms() throws IOException {
+    try (final TempDir fresh = new TempDir();
+        final TempDir reused = new TempDir();
+        final TempDir reusedInParallel = new TempDir()) {
+      Experiment.executeExperiment(
+          Stream.of(() -> TestExperiment.reusingStage(false)),
+          fresh.getPath(), false, false, false, false);
+      Experiment.executeExperiment(
+          Stream.of(() -> TestExperiment.reusingStage(true)),
+          reused.getPath(), false, false, false, false);
+      Experiment.executeExperimentInParallel(
+          Stream.of(() -> TestExperiment.reusingStage(true)),
+          reusedInParallel.getPath(), 2, false, false, false,
+          false);
+
+      TestExperiment.assertSameLogs(fresh.getPath(),
+          reused.getPath());
+      TestExperiment.assertSameLogs(fresh.getPath(),
+          reusedInParallel.getPath());
+    }
+  }
 }
@@ -0,0 +1,247 @@
+package aitoa.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.structure.LogFormat;
+import aitoa.utils.Experiment.IExperimentStage;
+
+/**
+ * Test the distributed execution of experiments via the
+ * {@link ExperimentCoordinator} and {@link ExperimentWorker}.
+ */
+public class TestExperimentCoordinator {
+
+  /**
+   * Create the stages of the test experiment
+   *
+   * @return the stages
+   */
+  static Stream<Supplier<IExperimentStage<?, ?, ?, ?>>>
+      stages() {
+    return Stream.of(() -> TestExperiment.reusingStage(false),
+        () -> TestExperiment.reusingStage(true));
+  }
+
+  /**
+   * The entry point of a worker process
+   *
+   * @param args
+   *          the command line arguments: the port of the
+   *          coordinator
+   * @throws IOException
+   *           if i/o fails
+   */
+  public static void main(final String[] args)
+      throws IOException {
+    Experiment.executeExperimentAsWorker(
+        TestExperimentCoordinator.stages(), "localhost", //$NON-NLS-1$
+        Integer.parseInt(args[0]), 2, false);
+  }
+
+  /**
+   * Start a worker process
+   *
+   * @param port
+   *          the port of the coordinator
+   * @return the process
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static Process startWorker(final int port)
+      throws IOException {
+    return new ProcessBuilder(//
+        Paths.get(System.getProperty("java.home"), //$NON-NLS-1$
+            "bin", "java").toString(), //$NON-NLS-1$//$NON-NLS-2$
+        "-cp", //$NON-NLS-1$
+        System.getProperty("java.class.path"), //$NON-NLS-1$
+        TestExperimentCoordinator.class.getName(),
+        Integer.toString(port)).inheritIO().start();
+  }
+
+  /**
+   * Load the lines of a log file, except for the system section,
+   * which contains the start time of the worker process
+   *
+   * @param log
+   *          the log file
+   * @return the lines
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static List<String> withoutSystem(final Path log)
+      throws IOException {
+    final List<String> lines = Files.readAllLines(log);
+    final int start = lines.indexOf(
+        LogFormat.asComment(LogFormat.BEGIN_SYSTEM));
+    final int end = lines.indexOf(
+        LogFormat.asComment(LogFormat.END_SYSTEM));
+    Assert.assertTrue(log.toString(), (start >= 0) && (end > start));
+    lines.subList(start, end + 1).clear();
+    return lines;
+  }
+
+  /**
+   * test that two worker processes, coordinated via TCP, produce
+   * exactly the same log files as a serial execution, even if
+   * another worker takes a run and then stops responding
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 1000000)
+  public void testDistributedExperiment() throws Exception {
+    try (final TempDir expected = new TempDir();
+        final TempDir actual = new TempDir()) {
+      Experiment.executeExperiment(
+          TestExperimentCoordinator.stages(), expected.getPath(),
+          false, false, false, false);
+
+      final List<Supplier<IExperimentStage<?, ?, ?, ?>>> stages =
+          TestExperimentCoordinator.stages()
+              .collect(Collectors.toList());
+      try (final ExperimentCoordinator coordinator =
+          new ExperimentCoordinator(actual.getPath(), null, 0,
+              4000L, false)) {
+        final Throwable[] error = new Throwable[1];
+        final Thread thread = new Thread(() -> {
+          try {
+            coordinator.execute(stages);
+          } catch (final Throwable t) {
+            error[0] = t;
+          }
+        });
+        thread.setDaemon(true);
+        thread.start();
+
+// a worker which takes a run and then falls silent: its run
+// must be re-assigned after the timeout
+        try (final Socket silent =
+            new Socket("localhost", coordinator.getPort())) { //$NON-NLS-1$
+          final DataOutputStream out =
+              new DataOutputStream(silent.getOutputStream());
+          final DataInputStream in =
+              new DataInputStream(silent.getInputStream());
+          out.writeByte(ExperimentCoordinator.HELLO);
+          out.writeUTF("silent"); //$NON-NLS-1$
+          for (;;) {
+            out.writeByte(ExperimentCoordinator.REQUEST);
+            out.flush();
+            final byte reply = in.readByte();
+            if (reply == ExperimentCoordinator.RUN) {
+              break;
+            }
+// the coordinator is still planning the stage
+            Assert.assertEquals(ExperimentCoordinator.WAIT, reply);
+            Thread.sleep(in.readLong());
+          }
+
+          final Process[] workers = new Process[2];
+          for (int i = workers.length; (--i) >= 0;) {
+            workers[i] = TestExperimentCoordinator
+                .startWorker(coordinator.getPort());
+          }
+          thread.join();
+          for (final Process worker : workers) {
+            Assert.assertEquals(0, worker.waitFor());
+          }
+        }
+        Assert.assertNull(error[0]);
+      }
+
+      final List<Path> logs;
+      try (final Stream<Path> files = Files.walk(expected.getPath())) {
+        logs = files.filter(path -> path.getFileName().toString()
+            .endsWith(LogFormat.FILE_SUFFIX))
+            .map(expected.getPath()::relativize).sorted()
+            .collect(Collectors.toList());
+      }
+      try (final Stream<Path> files = Files.walk(actual.getPath())) {
+        Assert.assertEquals(logs.size(),
+            files.filter(path -> path.getFileName().toString()
+                .endsWith(LogFormat.FILE_SUFFIX)).count());
+      }
+      for (final Path log : logs) {
+        Assert.assertEquals(log.toString(),
+            TestExperimentCoordinator.withoutSystem(
+                expected.getPath().resolve(log)),
+            TestExperimentCoordinator.withoutSystem(
+                actual.getPath().resolve(log.toString())));
+      }
+    }
+  }
+
+  /**
+   * test that a stage is aborted with an error if a run fails
+   * again and again, instead of handing it out forever
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 1000000)
+  public void testFailingRunAbortsStage() throws Exception {
+    try (final TempDir actual = new TempDir()) {
+      final List<Supplier<IExperimentStage<?, ?, ?, ?>>> stages =
+          TestExperimentCoordinator.stages()
+              .collect(Collectors.toList());
+      try (final ExperimentCoordinator coordinator =
+          new ExperimentCoordinator(actual.getPath(), null, 0,
+              4000L, false)) {
+        final Throwable[] error = new Throwable[1];
+        final Thread thread = new Thread(() -> {
+          try {
+            coordinator.execute(stages);
+          } catch (final Throwable t) {
+            error[0] = t;
+          }
+        });
+        thread.setDaemon(true);
+        thread.start();
+
+// a worker which reports every run it receives as failed
+        try (final Socket failing =
+            new Socket("localhost", coordinator.getPort())) { //$NON-NLS-1$
+          final DataOutputStream out =
+              new DataOutputStream(failing.getOutputStream());
+          final DataInputStream in =
+              new DataInputStream(failing.getInputStream());
+          out.writeByte(ExperimentCoordinator.HELLO);
+          out.writeUTF("failing"); //$NON-NLS-1$
+          while (thread.isAlive()) {
+            out.writeByte(ExperimentCoordinator.REQUEST);
+            out.flush();
+            final byte reply = in.readByte();
+            if (reply == ExperimentCoordinator.WAIT) {
+              Thread.sleep(in.readLong());
+              continue;
+            }
+            Assert.assertEquals(ExperimentCoordinator.RUN, reply);
+            in.readInt();
+            in.readUTF();
+            in.readUTF();
+            in.readLong();
+            out.writeByte(ExperimentCoordinator.FAILED);
+            out.writeUTF("always fails"); //$NON-NLS-1$
+          }
+        }
+        thread.join();
+        Assert.assertTrue(String.valueOf(error[0]),
+            error[0] instanceof IllegalStateException);
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package aitoa.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.structure.ProcessMetrics;
+
+/** Test the metrics of a running experiment */
+public class TestExperimentMetrics {
+
+  /**
+   * test that the statistics file is written and contains the
+   * runs of the experiment
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 1000000)
+  public void testStatisticsFile() throws Exception {
+    final ProcessMetrics.Counters before =
+        ProcessMetrics.getTotal();
+    try (final TempDir dir = new TempDir()) {
+      Experiment.executeExperimentInParallel(
+          Stream.of(() -> TestExperiment.reusingStage(false)),
+          dir.getPath(), 2, false, false, false, false);
+
+      final List<Path> files;
+      try (final Stream<Path> list = Files.list(dir.getPath())) {
+        files = list.filter(path -> {
+          final String name = path.getFileName().toString();
+          return name.startsWith(ExperimentMetrics.FILE_PREFIX)
+              && name.endsWith(ExperimentMetrics.FILE_SUFFIX);
+        }).collect(Collectors.toList());
+      }
+      Assert.assertEquals(1, files.size());
+
+      final Properties stats = new Properties();
+      try (final Reader reader =
+          Files.newBufferedReader(files.get(0))) {
+        stats.load(reader);
+      }
+      Assert.assertEquals("1", //$NON-NLS-1$
+          stats.getProperty("stage")); //$NON-NLS-1$
+      Assert.assertEquals("12", //$NON-NLS-1$
+          stats.getProperty("runsPlanned")); //$NON-NLS-1$
+      Assert.assertEquals("12", //$NON-NLS-1$
+          stats.getProperty("runsDone")); //$NON-NLS-1$
+      Assert.assertEquals("0", //$NON-NLS-1$
+          stats.getProperty("runsRemaining")); //$NON-NLS-1$
+      Assert.assertTrue(Long.parseLong(
+          stats.getProperty("totalRuns")) >= 12L); //$NON-NLS-1$
+      Assert.assertTrue(Long.parseLong(
+          stats.getProperty("consumedFEs")) > 0L); //$NON-NLS-1$
+      Assert.assertTrue(Long.parseLong(
+          stats.getProperty("logBytes")) > 0L); //$NON-NLS-1$
+
+// the MBean is only registered while the experiment is running
+      Assert.assertFalse(ManagementFactory.getPlatformMBeanServer()
+          .isRegistered(
+              new ObjectName("aitoa:type=Experiment"))); //$NON-NLS-1$
+    }
+
+    final ProcessMetrics.Counters after = ProcessMetrics.getTotal();
+    Assert.assertEquals(12L, after.runs - before.runs);
+    Assert.assertTrue(after.consumedFEs > before.consumedFEs);
+    Assert.assertTrue(after.logBytes > before.logBytes);
+    Assert.assertTrue(after.runTime > before.runTime);
+  }
+
+  /**
+   * test that the metrics are exposed via JMX while they are
+   * open and that the final values are written when closing
+   *
+   * @throws Exception
+   *           if something fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 1000000)
+  public void testMBean() throws Exception {
+    final MBeanServer server =
+        ManagementFactory.getPlatformMBeanServer();
+    final ObjectName name =
+        new ObjectName("aitoa:type=Experiment"); //$NON-NLS-1$
+    try (final TempDir dir = new TempDir()) {
+      final Path file;
+      try (final ExperimentMetrics metrics =
+          new ExperimentMetrics(dir.getPath(), false)) {
+        file = metrics.getFile();
+        metrics.beginStage(2, 5L);
+        metrics.runDone();
+        Assert.assertTrue(server.isRegistered(name));
+        Assert.assertEquals(Long.valueOf(0L),
+            server.getAttribute(name, "RunsDone")); //$NON-NLS-1$
+        Assert.assertNotNull(
+            server.getAttribute(name, "GcCount")); //$NON-NLS-1$
+      }
+      Assert.assertFalse(server.isRegistered(name));
+
+      final Properties stats = new Properties();
+      try (final Reader reader = Files.newBufferedReader(file)) {
+        stats.load(reader);
+      }
+      Assert.assertEquals("2", //$NON-NLS-1$
+          stats.getProperty("stage")); //$NON-NLS-1$
+      Assert.assertEquals("1", //$NON-NLS-1$
+          stats.getProperty("runsDone")); //$NON-NLS-1$
+      Assert.assertEquals("4", //$NON-NLS-1$
+          stats.getProperty("runsRemaining")); //$NON-NLS-1$
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package aitoa.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.structure.LogFormat;
+
+/** Test resuming an experiment after a crash */
+public class TestExperimentResume {
+
+  /**
+   * Execute the test experiment
+   *
+   * @param dir
+   *          the output directory
+   */
+  private static void execute(final Path dir) {
+    Experiment.executeExperimentInParallel(
+        Stream.of(() -> TestExperiment.reusingStage(false)), dir,
+        2, false, false, false, false);
+  }
+
+  /**
+   * test that empty and truncated log files are detected and
+   * their runs, and only those, are performed again
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 1000000)
+  public void testResume() throws IOException {
+    try (final TempDir expected = new TempDir();
+        final TempDir actual = new TempDir()) {
+      TestExperimentResume.execute(expected.getPath());
+      TestExperimentResume.execute(actual.getPath());
+      Assert.assertTrue(Files.exists(
+          actual.getPath().resolve(RunIndex.FILE_NAME)));
+      Assert.assertEquals(0L, Experiment
+          .resumeExperiment(actual.getPath(), 3, false));
+
+      final List<Path> logs;
+      try (final Stream<Path> files =
+          Files.walk(actual.getPath())) {
+        logs = files.filter(path -> path.getFileName().toString()
+            .endsWith(LogFormat.FILE_SUFFIX)).sorted()
+            .collect(Collectors.toList());
+      }
+      Assert.assertEquals(12, logs.size());
+
+// a run in progress during the crash
+      Files.write(logs.get(0), new byte[0]);
+// a run whose log was cut off in the middle
+      final byte[] log = Files.readAllBytes(logs.get(5));
+      Files.write(logs.get(5),
+          Arrays.copyOf(log, log.length >>> 1));
+// a run whose log was cut off just before its end
+      final String text =
+          new String(Files.readAllBytes(logs.get(9)));
+      Files.write(logs.get(9), text.substring(0,
+          text.lastIndexOf(LogFormat.END_BEST_Y)).getBytes());
+// a run whose log was cut off right after the best point in the
+// search space, although a representation mapping is used
+      final String text2 =
+          new String(Files.readAllBytes(logs.get(7)));
+      Files.write(logs.get(7), text2.substring(0,
+          text2.indexOf(System.lineSeparator(),
+              text2.lastIndexOf(LogFormat.END_BEST_X))
+              + System.lineSeparator().length()).getBytes());
+// a left-over spill file
+      final Path spill = logs.get(3).resolveSibling(
+          logs.get(3).getFileName() + LogFormat.SPILL_SUFFIX);
+      Files.write(spill, new byte[] { 1, 2, 3 });
+
+      Assert.assertEquals(4L, Experiment
+          .resumeExperiment(actual.getPath(), 3, false));
+      Assert.assertFalse(Files.exists(logs.get(0)));
+      Assert.assertFalse(Files.exists(logs.get(5)));
+      Assert.assertFalse(Files.exists(logs.get(7)));
+      Assert.assertFalse(Files.exists(logs.get(9)));
+      Assert.assertTrue(Files.exists(logs.get(3)));
+      Assert.assertFalse(Files.exists(spill));
+      Assert.assertFalse(Files.exists(
+          actual.getPath().resolve(RunIndex.FILE_NAME)));
+
+      TestExperimentResume.execute(actual.getPath());
+      TestExperiment.assertSameLogs(expected.getPath(),
+          actual.getPath());
+      Assert.assertEquals(0L, Experiment
+          .resumeExperiment(actual.getPath(), 1, false));
+    }
+  }
+}
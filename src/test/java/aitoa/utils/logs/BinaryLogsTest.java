@@ -0,0 +1,248 @@
+package aitoa.utils.logs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import aitoa.algorithms.RandomSampling;
+import aitoa.examples.jssp.JSSPCandidateSolution;
+import aitoa.examples.jssp.JSSPInstance;
+import aitoa.examples.jssp.JSSPMakespanObjectiveFunction;
+import aitoa.examples.jssp.JSSPNullaryOperator;
+import aitoa.examples.jssp.JSSPRepresentationMapping;
+import aitoa.examples.jssp.JSSPSearchSpace;
+import aitoa.examples.jssp.JSSPSolutionSpace;
+import aitoa.structure.BinaryLogWriter;
+import aitoa.structure.BlackBoxProcessBuilder;
+import aitoa.structure.IBlackBoxProcess;
+import aitoa.structure.LogSink;
+import aitoa.utils.TempDir;
+
+/** test the binary log files */
+public class BinaryLogsTest {
+
+  /**
+   * Check that the binary sidecar of a log file contains exactly
+   * the same data as the text log file
+   *
+   * @param logFile
+   *          the text log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void assertSame(final Path logFile)
+      throws IOException {
+    final Path sidecar = BinaryLogWriter.sidecar(logFile);
+    Assert.assertTrue(Files.isRegularFile(sidecar));
+
+    final List<LogLine> lines1 = new ArrayList<>();
+    final List<SetupData> setups1 = new ArrayList<>();
+    LogParser.parseLogFileByLines(logFile, lines1::add,
+        setups1::add);
+
+    final List<LogLine> lines2 = new ArrayList<>();
+    final List<SetupData> setups2 = new ArrayList<>();
+    BinaryLogs.parseBinaryLogFile(sidecar,
+        (feLastImprovement, feMax, timeLastImprovement, timeMax,
+            improvements, fMin, isImprovement) -> lines2
+                .add(new LogLine(feLastImprovement, feMax,
+                    timeLastImprovement, timeMax, improvements,
+                    fMin, isImprovement, false)),
+        setups2::add);
+
+    final List<LogLine> lines3 = new ArrayList<>();
+    final List<SetupData> setups3 = new ArrayList<>();
+    LogParser.parseLogFile(logFile, lines3::add, setups3::add);
+
+    Assert.assertFalse(lines1.isEmpty());
+    Assert.assertEquals(1, setups1.size());
+    Assert.assertEquals(lines1, lines2);
+    Assert.assertEquals(setups1, setups2);
+    Assert.assertEquals(lines1, lines3);
+    Assert.assertEquals(setups1, setups3);
+  }
+
+  /**
+   * test that processes write correct binary sidecars
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testProcessesWriteBinaryLogs() throws IOException {
+    final JSSPInstance inst = new JSSPInstance("abz7"); //$NON-NLS-1$
+    try (final TempDir dir = new TempDir()) {
+      for (final boolean compress : new boolean[] { false, true }) {
+        final Path log1 = dir.getPath()
+            .resolve("one_" + compress + ".txt"); //$NON-NLS-1$//$NON-NLS-2$
+        final BlackBoxProcessBuilder<boolean[],
+            boolean[]> builder1 = Example.problem();
+        builder1.setLogPath(log1).setBinaryLog(true)
+            .setCompressBinaryLog(compress);
+        try (final IBlackBoxProcess<boolean[], boolean[]> p =
+            builder1.get()) {
+          Example.algorithm().solve(p);
+        }
+        BinaryLogsTest.assertSame(log1);
+
+        final Path log2 = dir.getPath()
+            .resolve("two_" + compress + ".txt"); //$NON-NLS-1$//$NON-NLS-2$
+        try (final IBlackBoxProcess<int[],
+            JSSPCandidateSolution> p = new BlackBoxProcessBuilder<
+                int[], JSSPCandidateSolution>()//
+                    .setSearchSpace(new JSSPSearchSpace(inst))//
+                    .setSolutionSpace(new JSSPSolutionSpace(inst))//
+                    .setRepresentationMapping(
+                        new JSSPRepresentationMapping(inst))//
+                    .setObjectiveFunction(
+                        new JSSPMakespanObjectiveFunction(inst))//
+                    .setMaxFEs(5000L).setLogPath(log2)
+                    .setBinaryLog(true)
+                    .setCompressBinaryLog(compress).get()) {
+          new RandomSampling<int[], JSSPCandidateSolution>(
+              new JSSPNullaryOperator(inst)).solve(p);
+        }
+        BinaryLogsTest.assertSame(log2);
+      }
+    }
+  }
+
+  /**
+   * test the conversion of existing text log files
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testConvert() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path instance =
+          dir.getPath().resolve("algo").resolve("inst"); //$NON-NLS-1$//$NON-NLS-2$
+      Files.createDirectories(instance);
+      final Path[] logs = new Path[3];
+      for (int i = logs.length; (--i) >= 0;) {
+        logs[i] = instance.resolve("algo_inst_" + i + ".txt"); //$NON-NLS-1$//$NON-NLS-2$
+        final BlackBoxProcessBuilder<boolean[],
+            boolean[]> builder = Example.problem();
+        builder.setLogPath(logs[i]).setRandomRandSeed();
+        try (final IBlackBoxProcess<boolean[], boolean[]> p =
+            builder.get()) {
+          Example.algorithm().solve(p);
+        }
+        Assert.assertFalse(
+            Files.exists(BinaryLogWriter.sidecar(logs[i])));
+      }
+
+      Assert.assertEquals(3L,
+          BinaryLogs.convertAll(dir.getPath(), true, false, 2));
+      for (final Path log : logs) {
+        BinaryLogsTest.assertSame(log);
+      }
+// the sidecars are up-to-date now
+      Assert.assertEquals(0L,
+          BinaryLogs.convertAll(dir.getPath(), true, false, 2));
+    }
+  }
+
+  /**
+   * test that processes writing their logs asynchronously publish
+   * their binary sidecars only after the text log files
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testAsyncProcessesWriteBinaryLogs()
+      throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path[] logs = new Path[8];
+      for (int i = logs.length; (--i) >= 0;) {
+        logs[i] = dir.getPath().resolve("async_" + i + ".txt"); //$NON-NLS-1$//$NON-NLS-2$
+        final BlackBoxProcessBuilder<boolean[],
+            boolean[]> builder = Example.problem();
+        builder.setLogPath(logs[i]).setBinaryLog(true)
+            .setCompressBinaryLog((i & 1) == 0)
+            .setWriteLogAsync(true).setRandomRandSeed();
+        try (final IBlackBoxProcess<boolean[], boolean[]> p =
+            builder.get()) {
+          Example.algorithm().solve(p);
+        }
+      }
+      LogSink.await(null);
+      for (final Path log : logs) {
+        Assert.assertTrue(BinaryLogs.isUpToDate(log));
+        BinaryLogsTest.assertSame(log);
+      }
+    }
+  }
+
+  /**
+   * test that a stale sidecar is ignored by the parser and
+   * replaced by the conversion
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testStaleSidecar() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path instance =
+          dir.getPath().resolve("algo").resolve("inst"); //$NON-NLS-1$//$NON-NLS-2$
+      Files.createDirectories(instance);
+      final Path log = instance.resolve("algo_inst_0.txt"); //$NON-NLS-1$
+      final Path other = instance.resolve("other.tmp"); //$NON-NLS-1$
+      for (int i = 2; (--i) >= 0;) {
+        final BlackBoxProcessBuilder<boolean[],
+            boolean[]> builder = Example.problem();
+        builder.setLogPath((i == 0) ? log : other)
+            .setBinaryLog(i == 0).setRandSeed(i + 1L);
+        try (final IBlackBoxProcess<boolean[], boolean[]> p =
+            builder.get()) {
+          Example.algorithm().solve(p);
+        }
+      }
+      Assert.assertTrue(BinaryLogs.isUpToDate(log));
+
+// replace the text log by a different one: the sidecar is stale
+      Files.move(other, log, StandardCopyOption.REPLACE_EXISTING);
+      Files.setLastModifiedTime(BinaryLogWriter.sidecar(log),
+          Files.getLastModifiedTime(log));
+      Assert.assertFalse(BinaryLogs.isUpToDate(log));
+
+      final List<LogLine> lines1 = new ArrayList<>();
+      LogParser.parseLogFileByLines(log, lines1::add, null);
+      final List<LogLine> lines2 = new ArrayList<>();
+      LogParser.parseLogFile(log, lines2::add, null);
+      Assert.assertEquals(lines1, lines2);
+
+      Assert.assertEquals(1L,
+          BinaryLogs.convertAll(dir.getPath(), false, false, 1));
+      Assert.assertTrue(BinaryLogs.isUpToDate(log));
+      BinaryLogsTest.assertSame(log);
+    }
+  }
+
+  /** test that binary logs cannot be combined with logging all */
+  @SuppressWarnings({ "static-method", "resource" })
+  @Test(timeout = 100000, expected = IllegalArgumentException.class)
+  public void testNoBinaryLogAll() {
+    try (final TempDir dir = new TempDir()) {
+      final BlackBoxProcessBuilder<boolean[],
+          boolean[]> builder = Example.problem();
+      builder.setLogPath(dir.getPath().resolve("log.txt")) //$NON-NLS-1$
+          .setLogAll(true).setBinaryLog(true).get();
+    } catch (final IOException ioe) {
+      throw new AssertionError(ioe);
+    }
+  }
+}
@@ -3,7 +3,13 @@ package aitoa.utils.logs;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -92,4 +98,292 @@ public class EndResultsTest {
         /* */ }), false);
     }
   }
+
+  /**
+   * Perform a run and write its log file
+   *
+   * @param logFile
+   *          the log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void run(final Path logFile) throws IOException {
+    final BlackBoxProcessBuilder<boolean[], boolean[]> builder =
+        Example.problem();
+    builder.setLogPath(logFile);
+    builder.setRandomRandSeed();
+    try (final IBlackBoxProcess<boolean[], boolean[]> p =
+        builder.get()) {
+      Example.algorithm().solve(p);
+    }
+  }
+
+  /**
+   * test that parsing the log files in parallel produces the same
+   * end results table as parsing them sequentially, also if more
+   * logs than fit into the window of pending tasks are processed
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 500000)
+  public void testParallelEndResultsTable() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path resultsDir = dir.getPath().resolve("results");//$NON-NLS-1$
+
+// 160 logs, while two threads may have at most 128 pending tasks
+      for (char algo = 'a'; algo <= 'd'; algo++) {
+        for (char inst = 'W'; inst <= 'Z'; inst++) {
+          final Path instDir =
+              resultsDir.resolve(Character.toString(algo))
+                  .resolve(Character.toString(inst));
+          Files.createDirectories(instDir);
+          for (int r = 1; r <= 10; r++) {
+            EndResultsTest.run(instDir.resolve(
+                ((((Character.toString(algo) + '_') + inst)
+                    + '_') + r) + LogFormat.FILE_SUFFIX));
+          }
+        }
+      }
+
+      final Path serialDir = dir.getPath().resolve("serial");//$NON-NLS-1$
+      Files.createDirectories(serialDir);
+      final Path parallelDir = dir.getPath().resolve("parallel");//$NON-NLS-1$
+      Files.createDirectories(parallelDir);
+      Assert.assertArrayEquals(
+          Files.readAllBytes(EndResults.makeEndResultsTable(
+              resultsDir, serialDir, false, false)),
+          Files.readAllBytes(EndResults.makeEndResultsTable(
+              resultsDir, parallelDir, false, false, 2)));
+    }
+  }
+
+  /**
+   * test that the incremental update of the end results table
+   * produces the same table as re-creating it, after logs were
+   * added, changed, and deleted
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 500000)
+  public void testIncrementalUpdate() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path resultsDir = dir.getPath().resolve("results");//$NON-NLS-1$
+      final Path incDir = dir.getPath().resolve("incremental");//$NON-NLS-1$
+      final Path fullDir = dir.getPath().resolve("full");//$NON-NLS-1$
+      Files.createDirectories(incDir);
+      Files.createDirectories(fullDir);
+
+      final Path[] logs = new Path[12];
+      int i = 0;
+      for (char algo = 'a'; algo <= 'b'; algo++) {
+        for (char inst = 'Y'; inst <= 'Z'; inst++) {
+          final Path instDir =
+              resultsDir.resolve(Character.toString(algo))
+                  .resolve(Character.toString(inst));
+          Files.createDirectories(instDir);
+          for (int r = 1; r <= 3; r++) {
+            logs[i] = instDir.resolve(
+                ((((Character.toString(algo) + '_') + inst)
+                    + '_') + r) + LogFormat.FILE_SUFFIX);
+            EndResultsTest.run(logs[i++]);
+          }
+        }
+      }
+
+      for (int round = 0; round < 2; round++) {
+        for (final int threads : new int[] { 1, 3 }) {
+          Assert.assertArrayEquals(Files.readAllBytes(
+              EndResults.makeEndResultsTable(resultsDir, fullDir,
+                  false, false)),
+              Files.readAllBytes(EndResults.updateEndResultsTable(
+                  resultsDir, incDir, false, threads)));
+          Assert.assertTrue(Files.exists(
+              incDir.resolve(EndResults.INDEX_FILE_NAME)));
+        }
+
+// change the experiment: repeat one run with a different seed,
+// delete one run, and add one run
+        EndResultsTest.run(logs[4 + round]);
+        Files.delete(logs[7 + round]);
+        EndResultsTest.run(logs[7].resolveSibling(
+            "b_Y_" + (4 + round) + LogFormat.FILE_SUFFIX)); //$NON-NLS-1$
+      }
+
+// a log file which is still being written is skipped
+      final byte[] expected =
+          Files.readAllBytes(EndResults.makeEndResultsTable(
+              resultsDir, fullDir, false, false));
+      final Path partial = logs[0]
+          .resolveSibling("a_Y_9" + LogFormat.FILE_SUFFIX); //$NON-NLS-1$
+      final byte[] data = Files.readAllBytes(logs[0]);
+      Files.write(partial, Arrays.copyOf(data,
+          data.length >>> 1));
+      Assert.assertArrayEquals(expected,
+          Files.readAllBytes(EndResults.updateEndResultsTable(
+              resultsDir, incDir, false, 2)));
+    }
+  }
+
+  /**
+   * Assert that two directories contain the same files with the
+   * same contents
+   *
+   * @param expected
+   *          the expected directory
+   * @param actual
+   *          the actual directory
+   * @param ignore
+   *          the name of a sub-directory of {@code actual} to
+   *          ignore, or {@code null}
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void assertSameFiles(final Path expected,
+      final Path actual, final String ignore) throws IOException {
+    final ArrayList<Path> files = new ArrayList<>();
+    try (Stream<Path> s = Files.walk(expected)) {
+      s.filter(Files::isRegularFile).forEach(files::add);
+    }
+    Assert.assertFalse(files.isEmpty());
+    for (final Path file : files) {
+      Assert.assertArrayEquals(file.toString(),
+          Files.readAllBytes(file),
+          Files.readAllBytes(actual.resolve(//
+              expected.relativize(file).toString())));
+    }
+    try (Stream<Path> s = Files.walk(actual)) {
+      Assert.assertEquals(files.size(),
+          s.filter(Files::isRegularFile)
+              .filter(f -> (ignore == null) || !actual
+                  .relativize(f).startsWith(ignore))
+              .count());
+    }
+  }
+
+  /**
+   * test that the post-processing pipeline produces the same
+   * outputs as the separate tools
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 500000)
+  public void testPipeline() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path resultsDir = dir.getPath().resolve("results");//$NON-NLS-1$
+      for (char algo = 'a'; algo <= 'c'; algo++) {
+        for (char inst = 'X'; inst <= 'Z'; inst++) {
+          final Path instDir =
+              resultsDir.resolve(Character.toString(algo))
+                  .resolve(Character.toString(inst));
+          Files.createDirectories(instDir);
+          for (int r = 1; r <= 4; r++) {
+            EndResultsTest.run(instDir.resolve(
+                ((((Character.toString(algo) + '_') + inst)
+                    + '_') + r) + LogFormat.FILE_SUFFIX));
+          }
+        }
+      }
+
+      final Path evalDir = dir.getPath().resolve("evaluation");//$NON-NLS-1$
+      final Path iohDir = dir.getPath().resolve("ioh");//$NON-NLS-1$
+      Files.createDirectories(evalDir);
+      Files.createDirectories(iohDir);
+      final Path endResults = EndResults.makeEndResultsTable(
+          resultsDir, evalDir, false, false);
+      final Path endResultStatistics = EndResultStatistics
+          .makeEndResultStatisticsTable(endResults, evalDir,
+              null, null, null, null, false, false);
+      ErtEcdf.makeErtEcdf(endResultStatistics, evalDir, true,
+          null, null, null, false);
+      IOHProfiler.convertToIOHprofilerData(resultsDir, iohDir,
+          null, false);
+
+      for (final int threads : new int[] { 1, 3 }) {
+        final Path pipeDir =
+            dir.getPath().resolve("pipeline" + threads);//$NON-NLS-1$
+        Files.createDirectories(pipeDir);
+        PostProcessingPipeline.process(resultsDir, pipeDir, true,
+            true, true, null, null, null, null, true, null, null,
+            threads, false);
+        EndResultsTest.assertSameFiles(evalDir, pipeDir,
+            PostProcessingPipeline.IOH_PROFILER_FOLDER);
+        EndResultsTest.assertSameFiles(iohDir, pipeDir.resolve(
+            PostProcessingPipeline.IOH_PROFILER_FOLDER), null);
+      }
+    }
+  }
+
+  /**
+   * test that the end result statistics do not depend on whether
+   * the end results table is sorted
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 500000)
+  public void testUnsortedEndResultStatistics() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path resultsDir = dir.getPath().resolve("results");//$NON-NLS-1$
+      for (char algo = 'a'; algo <= 'c'; algo++) {
+        for (char inst = 'Y'; inst <= 'Z'; inst++) {
+          final Path instDir =
+              resultsDir.resolve(Character.toString(algo))
+                  .resolve(Character.toString(inst));
+          Files.createDirectories(instDir);
+          for (int r = 1; r <= 5; r++) {
+            EndResultsTest.run(instDir.resolve(
+                ((((Character.toString(algo) + '_') + inst)
+                    + '_') + r) + LogFormat.FILE_SUFFIX));
+          }
+        }
+      }
+
+      final Path sortedDir = dir.getPath().resolve("sorted");//$NON-NLS-1$
+      final Path unsortedDir = dir.getPath().resolve("unsorted");//$NON-NLS-1$
+      Files.createDirectories(sortedDir);
+      Files.createDirectories(unsortedDir);
+      final Path endResults = EndResults.makeEndResultsTable(
+          resultsDir, sortedDir, false, false);
+      final byte[] expected = Files.readAllBytes(
+          EndResultStatistics.makeEndResultStatisticsTable(
+              endResults, sortedDir, null, null, null, null, false,
+              false));
+
+      final List<String> lines = Files.readAllLines(endResults);
+// reverse the order of the setups, but keep the order of the runs
+// of each setup, on which the choice of the .setup columns
+// depends in case of ties
+      lines.subList(1, lines.size())
+          .sort(Comparator.comparing((final String l) -> l
+              .substring(0, l.indexOf(LogFormat.CSV_SEPARATOR_CHAR,
+                  l.indexOf(LogFormat.CSV_SEPARATOR_CHAR) + 1)))
+              .reversed());
+      final Path unsorted = unsortedDir.resolve("unsorted.txt");//$NON-NLS-1$
+      Files.write(unsorted, lines);
+
+      Assert.assertArrayEquals(expected, Files.readAllBytes(
+          EndResultStatistics.makeEndResultStatisticsTable(unsorted,
+              unsortedDir, null, null, null, null, false, false)));
+
+// merge many small sorted runs
+      final Path sorted = EndResultStatistics.sort(unsorted,
+          unsortedDir, Function.identity(), Function.identity(), 4);
+      Assert.assertArrayEquals(expected, Files.readAllBytes(
+          EndResultStatistics.makeEndResultStatisticsTable(sorted,
+              unsortedDir, null, null, null, null, false, false)));
+      Files.delete(sorted);
+
+// no temporary files are left behind
+      try (Stream<Path> s = Files.list(unsortedDir)) {
+        Assert.assertEquals(2L, s.count());
+      }
+    }
+  }
 }
@@ -1,8 +1,15 @@
 package aitoa.utils.logs;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import aitoa.structure.BlackBoxProcessBuilder;
@@ -41,4 +48,153 @@ public class LogParserTest {
       LogParser.parseLogFile(logFile, null, null);
     }
   }
+
+  /**
+   * Create a log file by running the example algorithm
+   *
+   * @param logFile
+   *          the log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void createLog(final Path logFile)
+      throws IOException {
+    final BlackBoxProcessBuilder<boolean[],
+        boolean[]> builder = Example.problem();
+    builder.setLogPath(logFile);
+    builder.setRandomRandSeed();
+    try (final IBlackBoxProcess<boolean[], boolean[]> p =
+        builder.get()) {
+      Example.algorithm().solve(p);
+    }
+  }
+
+  /**
+   * Check that the byte-level parser and the line-based parser
+   * produce exactly the same data for a log file
+   *
+   * @param logFile
+   *          the log file
+   * @throws IOException
+   *           if i/o fails
+   */
+  private static void assertParsersAgree(final Path logFile)
+      throws IOException {
+    final List<LogLine> lines1 = new ArrayList<>();
+    final List<SetupData> setups1 = new ArrayList<>();
+    LogParser.parseLogFile(logFile, lines1::add, setups1::add);
+
+    final List<LogLine> lines2 = new ArrayList<>();
+    final List<SetupData> setups2 = new ArrayList<>();
+    LogParser.parseLogFileByLines(logFile, lines2::add,
+        setups2::add);
+
+    Assert.assertFalse(lines1.isEmpty());
+    Assert.assertEquals(1, setups1.size());
+    Assert.assertEquals(lines2, lines1);
+    Assert.assertEquals(setups2, setups1);
+  }
+
+  /**
+   * test that both log parsers produce the same results
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testParsersAgree() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path logFile = dir.getPath().resolve("log.txt"); //$NON-NLS-1$
+      LogParserTest.createLog(logFile);
+      LogParserTest.assertParsersAgree(logFile);
+
+// the last line needs no line break
+      final Path noBreak = dir.getPath().resolve("nb.txt"); //$NON-NLS-1$
+      final String text = new String(Files.readAllBytes(logFile),
+          StandardCharsets.UTF_8).trim();
+      Files.write(noBreak, text.getBytes(StandardCharsets.UTF_8));
+      LogParserTest.assertParsersAgree(noBreak);
+    }
+  }
+
+  /**
+   * test that a truncated log file is rejected by both parsers
+   *
+   * @throws IOException
+   *           if i/o fails
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testTruncatedLog() throws IOException {
+    try (final TempDir dir = new TempDir()) {
+      final Path logFile = dir.getPath().resolve("log.txt"); //$NON-NLS-1$
+      LogParserTest.createLog(logFile);
+      final byte[] data = Files.readAllBytes(logFile);
+      Files.write(logFile,
+          Arrays.copyOf(data, data.length / 2));
+
+      try {
+        LogParser.parseLogFile(logFile, null, null);
+        Assert.fail("truncated log accepted"); //$NON-NLS-1$
+      } catch (@SuppressWarnings("unused") final IOException ioe) {
+        // expected
+      }
+      try {
+        LogParser.parseLogFileByLines(logFile, null, null);
+        Assert.fail("truncated log accepted"); //$NON-NLS-1$
+      } catch (@SuppressWarnings("unused") final IOException ioe) {
+        // expected
+      }
+    }
+  }
+
+  /**
+   * Check that a number is parsed exactly like by
+   * {@link Double#parseDouble(String)} and, if possible,
+   * {@link Long#parseLong(String)}
+   *
+   * @param text
+   *          the text
+   */
+  private static void assertNumber(final String text) {
+    final byte[] data = (" " + text + " ") //$NON-NLS-1$//$NON-NLS-2$
+        .getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(text,
+        Double.doubleToLongBits(Double.parseDouble(text)),
+        Double.doubleToLongBits(
+            LogParser.parseDouble(data, 0, data.length)));
+    long expected;
+    try {
+      expected = Long.parseLong(text);
+    } catch (@SuppressWarnings("unused") final NumberFormatException nfe) {
+      return;
+    }
+    Assert.assertEquals(text, expected,
+        LogParser.parseLong(data, 0, data.length));
+  }
+
+  /** test the parsing of numbers from bytes */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testParseNumbers() {
+    for (final String text : new String[] { "0", "-0", "1", //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
+        "+7", "1.5", "-0.25", "0.1", "0.3", "1.", ".5", //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$//$NON-NLS-4$//$NON-NLS-5$//$NON-NLS-6$
+        "1.0E-5", "-3.5e12", "123456789012345678", //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$
+        "9223372036854775807", "-9223372036854775808", //$NON-NLS-1$//$NON-NLS-2$
+        "9007199254740993", "0.1234567890123456789", //$NON-NLS-1$//$NON-NLS-2$
+        "3.141592653589793", "1.7976931348623157E308", //$NON-NLS-1$//$NON-NLS-2$
+        "4.9E-324", "Infinity", "-Infinity", "NaN" }) { //$NON-NLS-1$//$NON-NLS-2$//$NON-NLS-3$//$NON-NLS-4$
+      LogParserTest.assertNumber(text);
+    }
+
+    final Random random = new Random(4711L);
+    for (int i = 10000; (--i) >= 0;) {
+      LogParserTest.assertNumber(
+          Double.toString(random.nextDouble() * //
+              Math.pow(10d, random.nextInt(20) - 10)));
+      LogParserTest.assertNumber(
+          Long.toString(random.nextLong() >> random.nextInt(64)));
+    }
+  }
 }
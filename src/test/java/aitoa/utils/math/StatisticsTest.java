@@ -1,6 +1,7 @@
 package aitoa.utils.math;
 
 import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -291,4 +292,54 @@ public class StatisticsTest {
                 -0.5e200d, -0.5e100d, -0.5e200d }),
         0d);
   }
+
+  /**
+   * test that the statistics of the first elements of a larger
+   * buffer are the same as those of an array holding only these
+   * elements
+   */
+  @SuppressWarnings("static-method")
+  @Test(timeout = 100000)
+  public void testPrefixStatistics() {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final double[] quantiles = { 0d, 0.05d, 0.159d, 0.25d, 0.5d,
+        0.75d, 0.841d, 0.95d, 1d };
+    final double[] scratch = new double[64];
+
+    for (int i = 1000; (--i) >= 0;) {
+      final int length = random.nextInt(1, 50);
+      final long bound = random.nextBoolean() ? 10L
+          : (Long.MAX_VALUE >>> random.nextInt(1, 40));
+
+      final long[] longBuffer = new long[length + 10];
+      final double[] doubleBuffer = new double[length + 10];
+      for (int j = longBuffer.length; (--j) >= 0;) {
+        longBuffer[j] = random.nextLong(bound);
+        doubleBuffer[j] = random.nextDouble(-1e6d, 1e6d);
+      }
+      Arrays.sort(longBuffer, 0, length);
+      Arrays.sort(doubleBuffer, 0, length);
+      final long[] longs = Arrays.copyOf(longBuffer, length);
+      final double[] doubles = Arrays.copyOf(doubleBuffer, length);
+
+      for (final double p : quantiles) {
+        Assert.assertEquals(Statistics.quantile(p, longs),
+            Statistics.quantile(p, longBuffer, length));
+        Assert.assertEquals(Statistics.quantile(p, doubles),
+            Statistics.quantile(p, doubleBuffer, length));
+      }
+      Assert.assertEquals(Statistics.sum(longs),
+          Statistics.sum(longBuffer, length));
+      Assert.assertEquals(Statistics.sum(doubles),
+          Statistics.sum(doubleBuffer, length, scratch));
+      Assert.assertArrayEquals(
+          Statistics.sampleMeanAndStandardDeviation(longs),
+          Statistics.sampleMeanAndStandardDeviation(longBuffer,
+              length));
+      Assert.assertArrayEquals(
+          Statistics.sampleMeanAndStandardDeviation(doubles),
+          Statistics.sampleMeanAndStandardDeviation(doubleBuffer,
+              length, scratch));
+    }
+  }
 }